@@ -140,6 +140,26 @@ public final class ChecksimsCommandLine {
                 .desc("match pattern to determine files included in submissions")
                 .build();
 
+        Option prune = Option.builder("prune")
+                .hasArg()
+                .argName("fraction")
+                .desc("skip comparing pairs which cannot be more similar than the given fraction (0 to 1)")
+                .build();
+
+        Option lsh = Option.builder("lsh")
+                .hasArg()
+                .argName("fraction")
+                .desc("only compare pairs MinHash finds likely similar, plus the given fraction (0 to 1) of the "
+                        + "rest for audit. Not for algorithms comparing the whole corpus at once")
+                .build();
+
+        Option escalate = Option.builder("escalate")
+                .hasArg()
+                .argName("fraction")
+                .desc("with the cascade algorithm, compare in full pairs the screen finds at least the given fraction "
+                        + "(0 to 1) similar")
+                .build();
+
         OptionGroup verbosity = new OptionGroup();
         Option verbose = new Option("v", "verbose", false, "specify verbose output. conflicts with -vv");
         Option doubleVerbose = new Option("vv", "veryverbose", false,
@@ -190,6 +210,9 @@ public final class ChecksimsCommandLine {
         opts.addOption(preprocess);
         opts.addOption(jobs);
         opts.addOption(glob);
+        opts.addOption(prune);
+        opts.addOption(lsh);
+        opts.addOption(escalate);
         opts.addOptionGroup(verbosity);
         opts.addOption(help);
         opts.addOption(empty);
@@ -295,6 +318,63 @@ public final class ChecksimsCommandLine {
             config = config.setNumThreads(numThreads);
         }
 
+        // Parse similarity below which pairs are not compared
+        if(cli.hasOption("prune")) {
+            double pruneThreshold;
+
+            try {
+                pruneThreshold = Double.parseDouble(cli.getOptionValue("prune"));
+            } catch(NumberFormatException e) {
+                throw new ChecksimsException("Prune threshold must be a number!", e);
+            }
+
+            if(pruneThreshold < 0.0 || pruneThreshold > 1.0) {
+                throw new ChecksimsException("Prune threshold must be between 0 and 1!");
+            }
+
+            config = config.setPruneThreshold(pruneThreshold);
+        }
+
+        // Parse fraction of pairs LSH does not select to compare anyways
+        if(cli.hasOption("lsh")) {
+            double auditRate;
+
+            try {
+                auditRate = Double.parseDouble(cli.getOptionValue("lsh"));
+            } catch(NumberFormatException e) {
+                throw new ChecksimsException("LSH audit rate must be a number!", e);
+            }
+
+            if(auditRate < 0.0 || auditRate > 1.0) {
+                throw new ChecksimsException("LSH audit rate must be between 0 and 1!");
+            }
+
+            // Pairs can only be selected for detectors which compare each on its own
+            if(!config.getAlgorithm().comparesPairsIndependently()) {
+                throw new ChecksimsException("Cannot select pairs with LSH for algorithm "
+                        + config.getAlgorithm().getName() + ", which compares the whole corpus at once!");
+            }
+
+            config = config.setLshAuditRate(auditRate);
+        }
+
+        // Parse similarity under the cascade's screen at which pairs are compared in full
+        if(cli.hasOption("escalate")) {
+            double escalationThreshold;
+
+            try {
+                escalationThreshold = Double.parseDouble(cli.getOptionValue("escalate"));
+            } catch(NumberFormatException e) {
+                throw new ChecksimsException("Escalation threshold must be a number!", e);
+            }
+
+            if(escalationThreshold < 0.0 || escalationThreshold > 1.0) {
+                throw new ChecksimsException("Escalation threshold must be between 0 and 1!");
+            }
+
+            config = config.setEscalationThreshold(escalationThreshold);
+        }
+
         // Parse preprocessors
         // Ensure no duplicates
         if(cli.hasOption("p")) {
@@ -24,7 +24,7 @@ package net.lldp.checksims;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableSet;
 import net.lldp.checksims.algorithm.AlgorithmRegistry;
-import net.lldp.checksims.algorithm.SimilarityDetector;
+import net.lldp.checksims.algorithm.CorpusSimilarityDetector;
 import net.lldp.checksims.algorithm.preprocessor.SubmissionPreprocessor;
 import net.lldp.checksims.algorithm.similaritymatrix.output.MatrixPrinter;
 import net.lldp.checksims.algorithm.similaritymatrix.output.MatrixPrinterRegistry;
@@ -48,13 +48,16 @@ import static com.google.common.base.Preconditions.checkNotNull;
  * TODO: add a setImmutable method (or an immutable wrapper?) so ChecksimsRunner cannot alter a running config
  */
 public final class ChecksimsConfig {
-    private SimilarityDetector algorithm;
+    private CorpusSimilarityDetector algorithm;
     private TokenType tokenization;
     private ImmutableList<SubmissionPreprocessor> preprocessors;
     private ImmutableSet<Submission> submissions;
     private ImmutableSet<Submission> archiveSubmissions;
     private ImmutableSet<MatrixPrinter> outputPrinters;
     private int numThreads;
+    private double pruneThreshold;
+    private OptionalDouble lshAuditRate;
+    private OptionalDouble escalationThreshold;
 
     /**
      * Base constructor, returns default config.
@@ -72,6 +75,9 @@ public final class ChecksimsConfig {
         this.outputPrinters = ImmutableSet.copyOf(
                 Collections.singleton(MatrixPrinterRegistry.getInstance().getDefaultImplementation()));
         this.numThreads = Runtime.getRuntime().availableProcessors();
+        this.pruneThreshold = 0.0;
+        this.lshAuditRate = OptionalDouble.empty();
+        this.escalationThreshold = OptionalDouble.empty();
     }
 
     /**
@@ -87,13 +93,16 @@ public final class ChecksimsConfig {
         this.preprocessors = old.getPreprocessors();
         this.outputPrinters = old.getOutputPrinters();
         this.numThreads = old.getNumThreads();
+        this.pruneThreshold = old.getPruneThreshold();
+        this.lshAuditRate = old.getLshAuditRate();
+        this.escalationThreshold = old.getEscalationThreshold();
     }
 
     /**
      * @param newAlgorithm New similarity detection algorithm to use
      * @return This configuration
      */
-    public ChecksimsConfig setAlgorithm(SimilarityDetector newAlgorithm) {
+    public ChecksimsConfig setAlgorithm(CorpusSimilarityDetector newAlgorithm) {
         checkNotNull(newAlgorithm);
 
         algorithm = newAlgorithm;
@@ -183,10 +192,54 @@ public final class ChecksimsConfig {
         return this;
     }
 
+    /**
+     * @param newPruneThreshold Similarity, from 0.0 to 1.0, below which pairs need not be compared. 0.0 compares every
+     *                          pair.
+     * @return This configuration
+     */
+    public ChecksimsConfig setPruneThreshold(double newPruneThreshold) {
+        checkArgument(newPruneThreshold >= 0.0 && newPruneThreshold <= 1.0, "Attempted to set prune threshold to "
+                + newPruneThreshold + " - must be between 0 and 1!");
+
+        pruneThreshold = newPruneThreshold;
+
+        return this;
+    }
+
+    /**
+     * @param newLshAuditRate Fraction, from 0.0 to 1.0, of the pairs LSH does not select which are compared anyways.
+     *                        Setting it selects pairs to compare with LSH; pairs not selected are reported as not
+     *                        compared.
+     * @return This configuration
+     */
+    public ChecksimsConfig setLshAuditRate(double newLshAuditRate) {
+        checkArgument(newLshAuditRate >= 0.0 && newLshAuditRate <= 1.0,
+                "Attempted to set LSH audit rate to " + newLshAuditRate + " - must be between 0 and 1!");
+
+        lshAuditRate = OptionalDouble.of(newLshAuditRate);
+
+        return this;
+    }
+
+    /**
+     * @param newEscalationThreshold Similarity, from 0.0 to 1.0, under a screening detector at which pairs are compared
+     *                               again in full. Only used by the cascade detector; if unset, the detector's own
+     *                               threshold is used.
+     * @return This configuration
+     */
+    public ChecksimsConfig setEscalationThreshold(double newEscalationThreshold) {
+        checkArgument(newEscalationThreshold >= 0.0 && newEscalationThreshold <= 1.0,
+                "Attempted to set escalation threshold to " + newEscalationThreshold + " - must be between 0 and 1!");
+
+        escalationThreshold = OptionalDouble.of(newEscalationThreshold);
+
+        return this;
+    }
+
     /**
      * @return Similarity detection algorithm to use
      */
-    public SimilarityDetector getAlgorithm() {
+    public CorpusSimilarityDetector getAlgorithm() {
         return algorithm;
     }
 
@@ -233,6 +286,28 @@ public final class ChecksimsConfig {
         return numThreads;
     }
 
+    /**
+     * @return Similarity below which pairs need not be compared, or 0.0 if every pair is compared
+     */
+    public double getPruneThreshold() {
+        return pruneThreshold;
+    }
+
+    /**
+     * @return Fraction of the pairs LSH does not select which are compared anyways, or empty if every pair is compared
+     */
+    public OptionalDouble getLshAuditRate() {
+        return lshAuditRate;
+    }
+
+    /**
+     * @return Similarity under a screening detector at which pairs are compared again in full, or empty if the
+     *         detector's own threshold is used
+     */
+    public OptionalDouble getEscalationThreshold() {
+        return escalationThreshold;
+    }
+
     @Override
     public String toString() {
         return "ChecksimConfig with algorithm " + algorithm.getName();
@@ -254,6 +329,9 @@ public final class ChecksimsConfig {
         return this.algorithm.equals(otherConfig.getAlgorithm())
                 && this.archiveSubmissions.equals(otherConfig.getArchiveSubmissions())
                 && this.numThreads == otherConfig.getNumThreads()
+                && this.pruneThreshold == otherConfig.getPruneThreshold()
+                && this.lshAuditRate.equals(otherConfig.getLshAuditRate())
+                && this.escalationThreshold.equals(otherConfig.getEscalationThreshold())
                 && this.outputPrinters.equals(otherConfig.getOutputPrinters())
                 && this.preprocessors.equals(otherConfig.getPreprocessors())
                 && this.submissions.equals(otherConfig.getSubmissions())
@@ -25,6 +25,10 @@ import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
 import net.lldp.checksims.algorithm.AlgorithmResults;
 import net.lldp.checksims.algorithm.AlgorithmRunner;
+import net.lldp.checksims.algorithm.CorpusSimilarityDetector;
+import net.lldp.checksims.algorithm.DetectionParameters;
+import net.lldp.checksims.algorithm.SimilarityDetector;
+import net.lldp.checksims.algorithm.lsh.LshCandidateGenerator;
 import net.lldp.checksims.algorithm.preprocessor.PreprocessSubmissions;
 import net.lldp.checksims.algorithm.preprocessor.SubmissionPreprocessor;
 import net.lldp.checksims.algorithm.similaritymatrix.SimilarityMatrix;
@@ -34,7 +38,6 @@ import net.lldp.checksims.util.PairGenerator;
 import net.lldp.checksims.util.threading.ParallelAlgorithm;
 import org.apache.commons.cli.ParseException;
 import org.apache.commons.io.IOUtils;
-import org.apache.commons.lang3.tuple.Pair;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -42,6 +45,7 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.OptionalDouble;
 import java.util.Set;
 
 import static com.google.common.base.Preconditions.checkNotNull;
@@ -147,9 +151,26 @@ public final class ChecksimsRunner {
         }
 
         // Apply algorithm to submissions
-        Set<Pair<Submission, Submission>> allPairs = PairGenerator.generatePairsWithArchive(submissions,
-                archiveSubmissions);
-        Set<AlgorithmResults> results = AlgorithmRunner.runAlgorithm(allPairs, config.getAlgorithm());
+        CorpusSimilarityDetector algorithm = config.getAlgorithm();
+        OptionalDouble lshAuditRate = config.getLshAuditRate();
+        Set<AlgorithmResults> results;
+
+        if(lshAuditRate.isPresent()) {
+            if(!(algorithm instanceof SimilarityDetector) || !algorithm.comparesPairsIndependently()) {
+                throw new ChecksimsException("Cannot select pairs with LSH for algorithm " + algorithm.getName()
+                        + ", which compares the whole corpus at once!");
+            }
+
+            results = AlgorithmRunner.runAlgorithm(PairGenerator.generatePairsWithArchive(submissions,
+                    archiveSubmissions), (SimilarityDetector)algorithm, config.getPruneThreshold(),
+                    new LshCandidateGenerator(lshAuditRate.getAsDouble()));
+        } else {
+            DetectionParameters parameters = new DetectionParameters(config.getPruneThreshold(),
+                    config.getEscalationThreshold());
+
+            results = algorithm.detectSimilarity(submissions, archiveSubmissions, parameters);
+        }
+
         SimilarityMatrix resultsMatrix = SimilarityMatrix.generateMatrix(submissions, archiveSubmissions, results);
 
         // All parallel jobs are done, shut down the parallel executor
@@ -27,12 +27,15 @@ import net.lldp.checksims.util.reflection.RegistryWithDefault;
 
 /**
  * Registry for all supported similarity detection algorithms.
+ *
+ * Holds every corpus similarity detector, which includes every pairwise similarity detector.
  */
-public final class AlgorithmRegistry extends RegistryWithDefault<SimilarityDetector> {
+public final class AlgorithmRegistry extends RegistryWithDefault<CorpusSimilarityDetector> {
     private static AlgorithmRegistry instance;
 
     private AlgorithmRegistry() throws NoSuchImplementationException {
-        super("net.lldp.checksims.algorithm", SimilarityDetector.class, LineSimilarityChecker.getInstance().getName());
+        super("net.lldp.checksims.algorithm", CorpusSimilarityDetector.class,
+                LineSimilarityChecker.getInstance().getName());
     }
 
     /**
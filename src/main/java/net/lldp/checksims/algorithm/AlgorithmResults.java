@@ -24,6 +24,10 @@ package net.lldp.checksims.algorithm;
 import net.lldp.checksims.submission.Submission;
 import net.lldp.checksims.token.TokenList;
 
+import java.util.Objects;
+import java.util.Optional;
+import java.util.OptionalDouble;
+
 import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Preconditions.checkNotNull;
 
@@ -40,6 +44,13 @@ public final class AlgorithmResults {
     public final TokenList finalListB;
     private final double percentMatchedA;
     private final double percentMatchedB;
+    private final boolean compared;
+    private final String engine;
+
+    // Set similarity of the pair, NaN unless given by the detector
+    private final double jaccard;
+    private final double containmentA;
+    private final double containmentB;
 
     /**
      * Construct results for a pairwise similarity detection algorithm.
@@ -50,6 +61,28 @@ public final class AlgorithmResults {
      * @param finalListB Token list from submission B, with matched tokens set invalid
      */
     public AlgorithmResults(Submission a, Submission b, TokenList finalListA, TokenList finalListB) {
+        this(a, b, finalListA, finalListB, true);
+    }
+
+    /**
+     * Construct results for a pair which was never compared.
+     *
+     * No tokens are matched, but unlike results with no tokens matched after comparison, the pair is not known to be
+     * dissimilar.
+     *
+     * @param a First submission of the pair
+     * @param b Second submission of the pair
+     * @return Results for a pair which was not compared
+     */
+    public static AlgorithmResults notCompared(Submission a, Submission b) {
+        checkNotNull(a);
+        checkNotNull(b);
+
+        return new AlgorithmResults(a, b, a.getContentAsTokens(), b.getContentAsTokens(), false);
+    }
+
+    private AlgorithmResults(Submission a, Submission b, TokenList finalListA, TokenList finalListB,
+                             boolean compared) {
         checkNotNull(a);
         checkNotNull(b);
         checkNotNull(finalListA);
@@ -68,6 +101,11 @@ public final class AlgorithmResults {
 
         this.identicalTokensA = (int)finalListA.stream().filter((token) -> !token.isValid()).count();
         this.identicalTokensB = (int)finalListB.stream().filter((token) -> !token.isValid()).count();
+        this.compared = compared;
+        this.engine = null;
+        this.jaccard = Double.NaN;
+        this.containmentA = Double.NaN;
+        this.containmentB = Double.NaN;
 
         if(a.getNumTokens() == 0) {
             percentMatchedA = 0.0;
@@ -82,6 +120,54 @@ public final class AlgorithmResults {
         }
     }
 
+    private AlgorithmResults(AlgorithmResults base, String engine, double jaccard, double containmentA,
+                             double containmentB) {
+        this.a = base.a;
+        this.b = base.b;
+        this.finalListA = base.finalListA;
+        this.finalListB = base.finalListB;
+        this.identicalTokensA = base.identicalTokensA;
+        this.identicalTokensB = base.identicalTokensB;
+        this.percentMatchedA = base.percentMatchedA;
+        this.percentMatchedB = base.percentMatchedB;
+        this.compared = base.compared;
+        this.engine = engine;
+        this.jaccard = jaccard;
+        this.containmentA = containmentA;
+        this.containmentB = containmentB;
+    }
+
+    /**
+     * Mark which algorithm produced these results, for detectors which use several.
+     *
+     * @param engineName Name of the algorithm which produced these results
+     * @return Copy of these results, marked as produced by the given algorithm
+     */
+    public AlgorithmResults withEngine(String engineName) {
+        checkNotNull(engineName);
+
+        return new AlgorithmResults(this, engineName, jaccard, containmentA, containmentB);
+    }
+
+    /**
+     * Attach set similarity scores, for detectors which compare submissions as sets rather than aligning them.
+     *
+     * @param jaccardSimilarity Jaccard similarity of the pair, from 0.0 to 1.0
+     * @param containmentOfA Fraction of submission A's set found in submission B's, from 0.0 to 1.0
+     * @param containmentOfB Fraction of submission B's set found in submission A's, from 0.0 to 1.0
+     * @return Copy of these results, carrying the given scores
+     */
+    public AlgorithmResults withSetSimilarity(double jaccardSimilarity, double containmentOfA, double containmentOfB) {
+        checkArgument(jaccardSimilarity >= 0.0 && jaccardSimilarity <= 1.0,
+                "Jaccard similarity must be from 0.0 to 1.0, got " + jaccardSimilarity);
+        checkArgument(containmentOfA >= 0.0 && containmentOfA <= 1.0,
+                "Containment must be from 0.0 to 1.0, got " + containmentOfA);
+        checkArgument(containmentOfB >= 0.0 && containmentOfB <= 1.0,
+                "Containment must be from 0.0 to 1.0, got " + containmentOfB);
+
+        return new AlgorithmResults(this, engine, jaccardSimilarity, containmentOfA, containmentOfB);
+    }
+
     /**
      * @return Percentage similarity of submission A to submission B. Represented as a double from 0.0 to 1.0 inclusive
      */
@@ -96,6 +182,41 @@ public final class AlgorithmResults {
         return percentMatchedB;
     }
 
+    /**
+     * @return False if the pair was skipped without being compared, true otherwise
+     */
+    public boolean isCompared() {
+        return compared;
+    }
+
+    /**
+     * @return Name of the algorithm which produced these results, or empty if they were not marked with one
+     */
+    public Optional<String> getEngine() {
+        return Optional.ofNullable(engine);
+    }
+
+    /**
+     * @return Jaccard similarity of the pair, or empty if the detector did not give one
+     */
+    public OptionalDouble getJaccard() {
+        return Double.isNaN(jaccard) ? OptionalDouble.empty() : OptionalDouble.of(jaccard);
+    }
+
+    /**
+     * @return Fraction of submission A found in submission B, or empty if the detector did not give one
+     */
+    public OptionalDouble getContainmentA() {
+        return Double.isNaN(containmentA) ? OptionalDouble.empty() : OptionalDouble.of(containmentA);
+    }
+
+    /**
+     * @return Fraction of submission B found in submission A, or empty if the detector did not give one
+     */
+    public OptionalDouble getContainmentB() {
+        return Double.isNaN(containmentB) ? OptionalDouble.empty() : OptionalDouble.of(containmentB);
+    }
+
     @Override
     public String toString() {
         return "Similarity results for submissions named " + a.getName() + " and " + b.getName();
@@ -111,6 +232,11 @@ public final class AlgorithmResults {
 
         return this.a.equals(otherResults.a)
                 && this.b.equals(otherResults.b)
+                && this.compared == otherResults.compared
+                && Objects.equals(this.engine, otherResults.engine)
+                && Double.compare(this.jaccard, otherResults.jaccard) == 0
+                && Double.compare(this.containmentA, otherResults.containmentA) == 0
+                && Double.compare(this.containmentB, otherResults.containmentB) == 0
                 && this.finalListA.equals(otherResults.finalListA)
                 && this.finalListB.equals(otherResults.finalListB);
     }
@@ -22,12 +22,16 @@
 package net.lldp.checksims.algorithm;
 
 import net.lldp.checksims.ChecksimsException;
+import net.lldp.checksims.algorithm.lsh.LshCandidateGenerator;
 import net.lldp.checksims.submission.Submission;
 import net.lldp.checksims.util.threading.ParallelAlgorithm;
 import org.apache.commons.lang3.tuple.Pair;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
 import java.util.Set;
 
 import static com.google.common.base.Preconditions.checkArgument;
@@ -48,18 +52,64 @@ public final class AlgorithmRunner {
      */
     public static Set<AlgorithmResults> runAlgorithm(Set<Pair<Submission, Submission>> submissions,
                                                      SimilarityDetector algorithm) throws ChecksimsException {
+        return runAlgorithm(submissions, algorithm, 0.0);
+    }
+
+    /**
+     * Run a pairwise similarity detection algorithm, skipping pairs which cannot reach a given similarity.
+     *
+     * If the algorithm matches tokens one to one, each submission's lexemes are counted once, and any pair which could
+     * not have either submission reach the prune threshold even if every token the two have in common were matched is
+     * not run. Pruned pairs are given results with no tokens matched. The number of pairs pruned is logged.
+     *
+     * @param submissions Pairs to run on
+     * @param algorithm Algorithm to use
+     * @param pruneThreshold Similarity, from 0.0 to 1.0, below which pairs need not be run. 0.0 runs every pair.
+     * @return Collection of AlgorithmResults, one for each input pair
+     */
+    public static Set<AlgorithmResults> runAlgorithm(Set<Pair<Submission, Submission>> submissions,
+                                                     SimilarityDetector algorithm, double pruneThreshold)
+            throws ChecksimsException {
         checkNotNull(submissions);
         checkArgument(submissions.size() > 0, "Must provide at least one pair of submissions to run on!");
         checkNotNull(algorithm);
+        checkArgument(pruneThreshold >= 0.0 && pruneThreshold <= 1.0,
+                "Prune threshold must be between 0 and 1, got " + pruneThreshold);
 
         Logger logs = LoggerFactory.getLogger(AlgorithmRunner.class);
         long startTime = System.currentTimeMillis();
 
-        logs.info("Performing similarity detection on " + submissions.size() + " pairs using algorithm "
+        Set<Pair<Submission, Submission>> toRun = submissions;
+        Set<AlgorithmResults> pruned = new HashSet<>();
+
+        if(pruneThreshold > 0.0 && algorithm.matchesTokensOneToOne()) {
+            toRun = new HashSet<>();
+
+            Map<Submission, LexemeHistogram> histograms = new HashMap<>();
+            for(Pair<Submission, Submission> pair : submissions) {
+                Submission a = pair.getLeft();
+                Submission b = pair.getRight();
+
+                if(canPrune(a, b, histograms, pruneThreshold)) {
+                    pruned.add(new AlgorithmResults(a, b, a.getContentAsTokens(), b.getContentAsTokens()));
+                } else {
+                    toRun.add(pair);
+                }
+            }
+
+            logs.info("Pruned " + pruned.size() + " of " + submissions.size() + " pairs ("
+                    + String.format("%.1f", 100.0 * pruned.size() / submissions.size())
+                    + "%) which cannot reach " + pruneThreshold + " similarity");
+        }
+
+        logs.info("Performing similarity detection on " + toRun.size() + " pairs using algorithm "
                 + algorithm.getName());
 
         // Perform parallel analysis of all submission pairs to generate a results list
-        Set<AlgorithmResults> results = ParallelAlgorithm.parallelSimilarityDetection(algorithm, submissions);
+        Set<AlgorithmResults> results = new HashSet<>(pruned);
+        if(!toRun.isEmpty()) {
+            results.addAll(ParallelAlgorithm.parallelSimilarityDetection(algorithm, toRun));
+        }
 
         long endTime = System.currentTimeMillis();
         long timeElapsed = endTime - startTime;
@@ -68,4 +118,62 @@ public final class AlgorithmRunner {
 
         return results;
     }
+
+    /**
+     * Run a pairwise similarity detection algorithm on only those pairs a candidate generator selects.
+     *
+     * Pairs which are not selected are not run, and are given results marked as not compared, so they can be told
+     * apart from pairs which were compared and found to have nothing in common.
+     *
+     * @param submissions Pairs to select from
+     * @param algorithm Algorithm to use
+     * @param pruneThreshold Similarity, from 0.0 to 1.0, below which selected pairs need not be run
+     * @param candidates Generator selecting the pairs to run
+     * @return Collection of AlgorithmResults, one for each input pair
+     */
+    public static Set<AlgorithmResults> runAlgorithm(Set<Pair<Submission, Submission>> submissions,
+                                                     SimilarityDetector algorithm, double pruneThreshold,
+                                                     LshCandidateGenerator candidates)
+            throws ChecksimsException {
+        checkNotNull(submissions);
+        checkArgument(submissions.size() > 0, "Must provide at least one pair of submissions to run on!");
+        checkNotNull(algorithm);
+        checkNotNull(candidates);
+
+        Set<Pair<Submission, Submission>> toRun = candidates.selectCandidates(submissions);
+
+        Set<AlgorithmResults> results = new HashSet<>();
+        for(Pair<Submission, Submission> pair : submissions) {
+            if(!toRun.contains(pair)) {
+                results.add(AlgorithmResults.notCompared(pair.getLeft(), pair.getRight()));
+            }
+        }
+
+        if(!toRun.isEmpty()) {
+            results.addAll(runAlgorithm(toRun, algorithm, pruneThreshold));
+        }
+
+        return results;
+    }
+
+    /**
+     * @param a First submission of pair
+     * @param b Second submission of pair
+     * @param histograms Histograms of submissions seen so far, added to as needed
+     * @param pruneThreshold Similarity below which pairs need not be run
+     * @return True if neither submission can reach the prune threshold against the other
+     */
+    private static boolean canPrune(Submission a, Submission b, Map<Submission, LexemeHistogram> histograms,
+                                    double pruneThreshold) {
+        // Leave pairs the algorithm treats specially to the algorithm, including mismatched types it must reject
+        if(a.equals(b) || !a.getTokenType().equals(b.getTokenType())) {
+            return false;
+        }
+
+        LexemeHistogram histogramA = histograms.computeIfAbsent(a, (s) -> LexemeHistogram.of(s.getContentAsTokens()));
+        LexemeHistogram histogramB = histograms.computeIfAbsent(b, (s) -> LexemeHistogram.of(s.getContentAsTokens()));
+
+        return histogramA.maxPercentMatched(histogramB) < pruneThreshold
+                && histogramB.maxPercentMatched(histogramA) < pruneThreshold;
+    }
 }
@@ -0,0 +1,99 @@
+/*
+ * CDDL HEADER START
+ *
+ * The contents of this file are subject to the terms of the
+ * Common Development and Distribution License (the "License").
+ * You may not use this file except in compliance with the License.
+ *
+ * See LICENSE.txt included in this distribution for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing Covered Code, include this CDDL HEADER in each
+ * file and include the License file at LICENSE.txt.
+ * If applicable, add the following below this CDDL HEADER, with the
+ * fields enclosed by brackets "[]" replaced with your own identifying
+ * information: Portions Copyright [yyyy] [name of copyright owner]
+ *
+ * CDDL HEADER END
+ *
+ * Copyright (c) 2014-2015 Nicholas DeMarinis, Matthew Heon, and Dolan Murvihill
+ */
+
+package net.lldp.checksims.algorithm;
+
+import net.lldp.checksims.ChecksimsException;
+import net.lldp.checksims.submission.Submission;
+import net.lldp.checksims.token.TokenType;
+import net.lldp.checksims.util.reflection.NamedInstantiable;
+
+import java.util.Set;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * Detect similarities across a whole corpus of submissions at once.
+ *
+ * Unlike a {@link SimilarityDetector}, which sees one pair at a time, a corpus detector is given every submission
+ * together, so can build state shared between pairs - indexes, fingerprints, hashes - once for the whole run.
+ *
+ * NOTE that, in addition to the methods listed here, all corpus detectors MUST support a no-arguments getInstance()
+ * method, and be contained in net.lldp.checksims.algorithm or a subpackage thereof, so they can be found by the
+ * {@link AlgorithmRegistry}. Every pairwise {@link SimilarityDetector} is also a corpus detector.
+ */
+public interface CorpusSimilarityDetector extends NamedInstantiable {
+    /**
+     * @return Default token type to be used for this similarity detector
+     */
+    TokenType getDefaultTokenType();
+
+    /**
+     * Whether this detector compares each pair on its own, so that any subset of pairs can be compared through the
+     * {@link AlgorithmRunner} with the same results as comparing the whole corpus.
+     *
+     * Detectors building state across the whole corpus must return false. Pairs cannot be selected for them to
+     * compare, so they cannot be run with candidate selection such as LSH.
+     *
+     * @return True if pairs can be compared independently of the rest of the corpus
+     */
+    default boolean comparesPairsIndependently() {
+        return false;
+    }
+
+    /**
+     * Detect similarities between every pair of submissions, and between every submission and every archive
+     * submission.
+     *
+     * Archive submissions are not compared to each other. Results must be given for every pair compared, so a
+     * {@link net.lldp.checksims.algorithm.similaritymatrix.SimilarityMatrix} can be built from them.
+     *
+     * @param submissions Submissions to compare. There must be at least two, all with the same token type.
+     * @param archiveSubmissions Archive submissions to compare against, which may be empty
+     * @param pruneThreshold Similarity, from 0.0 to 1.0, below which a pair may be given results with no tokens
+     *                       matched rather than being compared in full. 0.0 compares every pair.
+     * @return Similarity results for each pair compared
+     * @throws ChecksimsException Thrown on error detecting similarities, including comparing submissions with
+     *                            different token types
+     */
+    Set<AlgorithmResults> detectSimilarity(Set<Submission> submissions, Set<Submission> archiveSubmissions,
+                                           double pruneThreshold) throws ChecksimsException;
+
+    /**
+     * Detect similarities across a corpus, as {@link #detectSimilarity(Set, Set, double)}, with settings for the run.
+     *
+     * Detectors with settings beyond the prune threshold override this, using each setting given and falling back
+     * to their own for those left empty. Others need not, and are run with the prune threshold alone.
+     *
+     * @param submissions Submissions to compare. There must be at least two, all with the same token type.
+     * @param archiveSubmissions Archive submissions to compare against, which may be empty
+     * @param parameters Settings for this run
+     * @return Similarity results for each pair compared
+     * @throws ChecksimsException Thrown on error detecting similarities, including comparing submissions with
+     *                            different token types
+     */
+    default Set<AlgorithmResults> detectSimilarity(Set<Submission> submissions, Set<Submission> archiveSubmissions,
+                                                   DetectionParameters parameters) throws ChecksimsException {
+        checkNotNull(parameters);
+
+        return detectSimilarity(submissions, archiveSubmissions, parameters.getPruneThreshold());
+    }
+}
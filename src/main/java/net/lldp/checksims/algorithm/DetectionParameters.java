@@ -0,0 +1,102 @@
+/*
+ * CDDL HEADER START
+ *
+ * The contents of this file are subject to the terms of the
+ * Common Development and Distribution License (the "License").
+ * You may not use this file except in compliance with the License.
+ *
+ * See LICENSE.txt included in this distribution for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing Covered Code, include this CDDL HEADER in each
+ * file and include the License file at LICENSE.txt.
+ * If applicable, add the following below this CDDL HEADER, with the
+ * fields enclosed by brackets "[]" replaced with your own identifying
+ * information: Portions Copyright [yyyy] [name of copyright owner]
+ *
+ * CDDL HEADER END
+ *
+ * Copyright (c) 2014-2015 Nicholas DeMarinis, Matthew Heon, and Dolan Murvihill
+ */
+
+package net.lldp.checksims.algorithm;
+
+import java.util.OptionalDouble;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * Settings for a single similarity detection run over a corpus.
+ *
+ * Settings only some detectors use are optional. Detectors fall back to their own settings for any left empty, so a
+ * run which does not set them leaves those detectors configured as they are.
+ */
+public final class DetectionParameters {
+    private final double pruneThreshold;
+    private final OptionalDouble escalationThreshold;
+
+    /**
+     * Create parameters with only a prune threshold.
+     *
+     * @param pruneThreshold Similarity, from 0.0 to 1.0, below which pairs need not be compared
+     */
+    public DetectionParameters(double pruneThreshold) {
+        this(pruneThreshold, OptionalDouble.empty());
+    }
+
+    /**
+     * @param pruneThreshold Similarity, from 0.0 to 1.0, below which pairs need not be compared
+     * @param escalationThreshold Similarity, from 0.0 to 1.0, under a screening detector at which pairs are compared
+     *                            again in full, or empty to use the detector's own setting
+     */
+    public DetectionParameters(double pruneThreshold, OptionalDouble escalationThreshold) {
+        checkNotNull(escalationThreshold);
+        checkArgument(pruneThreshold >= 0.0 && pruneThreshold <= 1.0, "Prune threshold must be between 0 and 1, got "
+                + pruneThreshold);
+        checkArgument(!escalationThreshold.isPresent()
+                        || (escalationThreshold.getAsDouble() >= 0.0 && escalationThreshold.getAsDouble() <= 1.0),
+                "Escalation threshold must be between 0 and 1, got " + escalationThreshold);
+
+        this.pruneThreshold = pruneThreshold;
+        this.escalationThreshold = escalationThreshold;
+    }
+
+    /**
+     * @return Similarity below which pairs need not be compared, or 0.0 if every pair is compared
+     */
+    public double getPruneThreshold() {
+        return pruneThreshold;
+    }
+
+    /**
+     * @return Similarity under a screening detector at which pairs are compared again in full, or empty if the
+     *         detector's own setting is used
+     */
+    public OptionalDouble getEscalationThreshold() {
+        return escalationThreshold;
+    }
+
+    @Override
+    public String toString() {
+        return "Detection parameters with prune threshold " + pruneThreshold + " and escalation threshold "
+                + escalationThreshold;
+    }
+
+    @Override
+    public int hashCode() {
+        return Double.hashCode(pruneThreshold) ^ escalationThreshold.hashCode();
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        if(!(other instanceof DetectionParameters)) {
+            return false;
+        }
+
+        DetectionParameters otherParameters = (DetectionParameters)other;
+
+        return this.pruneThreshold == otherParameters.getPruneThreshold()
+                && this.escalationThreshold.equals(otherParameters.getEscalationThreshold());
+    }
+}
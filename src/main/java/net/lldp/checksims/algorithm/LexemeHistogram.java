@@ -0,0 +1,154 @@
+/*
+ * CDDL HEADER START
+ *
+ * The contents of this file are subject to the terms of the
+ * Common Development and Distribution License (the "License").
+ * You may not use this file except in compliance with the License.
+ *
+ * See LICENSE.txt included in this distribution for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing Covered Code, include this CDDL HEADER in each
+ * file and include the License file at LICENSE.txt.
+ * If applicable, add the following below this CDDL HEADER, with the
+ * fields enclosed by brackets "[]" replaced with your own identifying
+ * information: Portions Copyright [yyyy] [name of copyright owner]
+ *
+ * CDDL HEADER END
+ *
+ * Copyright (c) 2014-2015 Nicholas DeMarinis, Matthew Heon, and Dolan Murvihill
+ */
+
+package net.lldp.checksims.algorithm;
+
+import net.lldp.checksims.token.Token;
+import net.lldp.checksims.token.TokenList;
+
+import java.util.Arrays;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * Counts of each lexeme among the valid tokens of a token list.
+ *
+ * Held as sorted parallel arrays of lexemes and counts, so two histograms can be intersected in a single merge.
+ */
+final class LexemeHistogram {
+    private final int[] lexemes;
+    private final int[] counts;
+    private final int numTokens;
+    private final int numInvalid;
+
+    private LexemeHistogram(int[] lexemes, int[] counts, int numTokens, int numInvalid) {
+        this.lexemes = lexemes;
+        this.counts = counts;
+        this.numTokens = numTokens;
+        this.numInvalid = numInvalid;
+    }
+
+    /**
+     * Build a histogram of the valid tokens in a token list.
+     *
+     * @param tokens Token list to count
+     * @return Histogram of the list
+     */
+    static LexemeHistogram of(TokenList tokens) {
+        checkNotNull(tokens);
+
+        int[] sorted = new int[tokens.size()];
+        int numValid = 0;
+
+        for(Token token : tokens) {
+            if(token.isValid()) {
+                sorted[numValid++] = token.getLexeme();
+            }
+        }
+
+        Arrays.sort(sorted, 0, numValid);
+
+        int[] lexemes = new int[numValid];
+        int[] counts = new int[numValid];
+        int numDistinct = 0;
+
+        for(int i = 0; i < numValid; i++) {
+            if(numDistinct > 0 && lexemes[numDistinct - 1] == sorted[i]) {
+                counts[numDistinct - 1]++;
+            } else {
+                lexemes[numDistinct] = sorted[i];
+                counts[numDistinct] = 1;
+                numDistinct++;
+            }
+        }
+
+        return new LexemeHistogram(Arrays.copyOf(lexemes, numDistinct), Arrays.copyOf(counts, numDistinct),
+                tokens.size(), tokens.size() - numValid);
+    }
+
+    /**
+     * @return Number of tokens in the list, valid or not
+     */
+    int getNumTokens() {
+        return numTokens;
+    }
+
+    /**
+     * @return Number of tokens in the list which were already invalid
+     */
+    int getNumInvalid() {
+        return numInvalid;
+    }
+
+    /**
+     * Size of the multiset intersection of two histograms.
+     *
+     * An algorithm which pairs each matched token with a distinct matched token of the same lexeme in the other list
+     * can match at most this many valid tokens in either list.
+     *
+     * @param other Histogram to intersect with
+     * @return Number of valid tokens the two lists have in common, counting each lexeme as often as both have it
+     */
+    int intersectionSize(LexemeHistogram other) {
+        checkNotNull(other);
+
+        int size = 0;
+        int i = 0;
+        int j = 0;
+
+        while(i < lexemes.length && j < other.lexemes.length) {
+            if(lexemes[i] < other.lexemes[j]) {
+                i++;
+            } else if(lexemes[i] > other.lexemes[j]) {
+                j++;
+            } else {
+                size += Math.min(counts[i], other.counts[j]);
+                i++;
+                j++;
+            }
+        }
+
+        return size;
+    }
+
+    /**
+     * Upper bound on the fraction of this list which can be found matched against another.
+     *
+     * Tokens which were already invalid count as matched, as they do in {@link AlgorithmResults}.
+     *
+     * @param other Histogram of the list compared against
+     * @return Largest possible fraction of this list's tokens invalid after comparison, from 0.0 to 1.0
+     */
+    double maxPercentMatched(LexemeHistogram other) {
+        checkNotNull(other);
+
+        if(numTokens == 0) {
+            return 0.0;
+        }
+
+        return (double)(numInvalid + intersectionSize(other)) / (double)numTokens;
+    }
+
+    @Override
+    public String toString() {
+        return "Lexeme histogram of " + lexemes.length + " distinct lexemes over " + numTokens + " tokens";
+    }
+}
@@ -21,26 +21,25 @@
 
 package net.lldp.checksims.algorithm;
 
+import net.lldp.checksims.ChecksimsException;
 import net.lldp.checksims.submission.Submission;
-import net.lldp.checksims.token.TokenType;
 import net.lldp.checksims.token.TokenTypeMismatchException;
-import net.lldp.checksims.util.reflection.NamedInstantiable;
+import net.lldp.checksims.util.PairGenerator;
+
+import java.util.Set;
 
 /**
  * Detect similarities between two submissions.
  *
+ * Pairwise detectors run on a whole corpus by being applied to every pair in turn, through the {@link AlgorithmRunner}.
+ *
  * NOTE that, in addition to the methods listed here, all plagiarism detectors MUST support a no-arguments getInstance()
- * method, and be contained in edu.wpi.checksims.algorithm or a subpackage thereof.
+ * method, and be contained in net.lldp.checksims.algorithm or a subpackage thereof.
  *
  * This is required as reflection is used to automatically detect and instantiate all similarity detection algorithms
  * present at runtime.
  */
-public interface SimilarityDetector extends NamedInstantiable {
-    /**
-     * @return Default token type to be used for this similarity detector
-     */
-    TokenType getDefaultTokenType();
-
+public interface SimilarityDetector extends CorpusSimilarityDetector {
     /**
      * Apply a pairwise similarity detection algorithm.
      *
@@ -54,4 +53,44 @@ public interface SimilarityDetector extends NamedInstantiable {
      */
     AlgorithmResults detectSimilarity(Submission a, Submission b)
             throws TokenTypeMismatchException, InternalAlgorithmError;
+
+    /**
+     * Whether every token this detector marks matched is paired with a distinct matched token of the same lexeme in
+     * the other submission.
+     *
+     * If so, the number of tokens two submissions have in common bounds their similarity, and pairs whose bound is too
+     * low to matter can be skipped without running the detector. Detectors which may match several tokens against one
+     * must return false.
+     *
+     * @return True if this detector only ever matches tokens one to one
+     */
+    default boolean matchesTokensOneToOne() {
+        return false;
+    }
+
+    /**
+     * @return True, unless this detector also overrides corpus detection to build state across the whole corpus
+     */
+    @Override
+    default boolean comparesPairsIndependently() {
+        return true;
+    }
+
+    /**
+     * Apply this pairwise detector to every pair in a corpus, skipping pairs which cannot reach the prune threshold if
+     * this detector matches tokens one to one.
+     *
+     * @param submissions Submissions to compare. There must be at least two, all with the same token type.
+     * @param archiveSubmissions Archive submissions to compare against, which may be empty
+     * @param pruneThreshold Similarity, from 0.0 to 1.0, below which pairs need not be compared. 0.0 compares every
+     *                       pair.
+     * @return Similarity results for each pair compared
+     * @throws ChecksimsException Thrown on error detecting similarities
+     */
+    @Override
+    default Set<AlgorithmResults> detectSimilarity(Set<Submission> submissions, Set<Submission> archiveSubmissions,
+                                                   double pruneThreshold) throws ChecksimsException {
+        return AlgorithmRunner.runAlgorithm(PairGenerator.generatePairsWithArchive(submissions, archiveSubmissions),
+                this, pruneThreshold);
+    }
 }
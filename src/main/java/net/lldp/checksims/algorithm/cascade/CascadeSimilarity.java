@@ -0,0 +1,259 @@
+/*
+ * CDDL HEADER START
+ *
+ * The contents of this file are subject to the terms of the
+ * Common Development and Distribution License (the "License").
+ * You may not use this file except in compliance with the License.
+ *
+ * See LICENSE.txt included in this distribution for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing Covered Code, include this CDDL HEADER in each
+ * file and include the License file at LICENSE.txt.
+ * If applicable, add the following below this CDDL HEADER, with the
+ * fields enclosed by brackets "[]" replaced with your own identifying
+ * information: Portions Copyright [yyyy] [name of copyright owner]
+ *
+ * CDDL HEADER END
+ *
+ * Copyright (c) 2014-2015 Nicholas DeMarinis, Matthew Heon, and Dolan Murvihill
+ */
+
+package net.lldp.checksims.algorithm.cascade;
+
+import net.lldp.checksims.ChecksimsException;
+import net.lldp.checksims.algorithm.AlgorithmResults;
+import net.lldp.checksims.algorithm.AlgorithmRunner;
+import net.lldp.checksims.algorithm.DetectionParameters;
+import net.lldp.checksims.algorithm.InternalAlgorithmError;
+import net.lldp.checksims.algorithm.SimilarityDetector;
+import net.lldp.checksims.algorithm.ngram.NGramSimilarity;
+import net.lldp.checksims.algorithm.smithwaterman.SmithWaterman;
+import net.lldp.checksims.submission.Submission;
+import net.lldp.checksims.token.TokenType;
+import net.lldp.checksims.token.TokenTypeMismatchException;
+import org.apache.commons.lang3.tuple.Pair;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * Two-stage cascade similarity detector.
+ *
+ * Every pair is first compared with a cheap screening detector - n-gram similarity by default. Pairs where either
+ * submission reaches the escalation threshold (set with -escalate) under the screen are compared again with
+ * Smith-Waterman, and its results replace the screen's. All other pairs keep the screen's results. Every result is
+ * marked with the name of the detector which produced it, so output can tell the two apart.
+ *
+ * The screen sees the same tokens as Smith-Waterman. Line comparison is only a useful screen with line tokenization,
+ * as with finer tokens nearly every token of one submission is found somewhere in the other.
+ */
+public final class CascadeSimilarity implements SimilarityDetector {
+    private static CascadeSimilarity instance;
+
+    private static Logger logs = LoggerFactory.getLogger(CascadeSimilarity.class);
+
+    /**
+     * Default similarity, under the screen, at which pairs are compared with Smith-Waterman.
+     */
+    public static final double DEFAULT_ESCALATION_THRESHOLD = 0.3;
+
+    private volatile SimilarityDetector screen = NGramSimilarity.getInstance();
+    private volatile double escalationThreshold = DEFAULT_ESCALATION_THRESHOLD;
+
+    private CascadeSimilarity() {}
+
+    /**
+     * @return Singleton instance of the cascade similarity algorithm
+     */
+    public static CascadeSimilarity getInstance() {
+        if(instance == null) {
+            instance = new CascadeSimilarity();
+        }
+
+        return instance;
+    }
+
+    /**
+     * @return Name of this implementation
+     */
+    @Override
+    public String getName() {
+        return "cascade";
+    }
+
+    /**
+     * @return Default token type to be used for this similarity detector
+     */
+    @Override
+    public TokenType getDefaultTokenType() {
+        return SmithWaterman.getInstance().getDefaultTokenType();
+    }
+
+    /**
+     * @return Detector every pair is screened with
+     */
+    public SimilarityDetector getScreen() {
+        return screen;
+    }
+
+    /**
+     * @param screen Detector to screen every pair with. Cannot be a cascade.
+     */
+    public void setScreen(SimilarityDetector screen) {
+        checkNotNull(screen);
+        checkArgument(!(screen instanceof CascadeSimilarity), "Cascade cannot screen with itself");
+
+        this.screen = screen;
+    }
+
+    /**
+     * @return Similarity, under the screen, at which pairs are compared with Smith-Waterman
+     */
+    public double getEscalationThreshold() {
+        return escalationThreshold;
+    }
+
+    /**
+     * @param escalationThreshold Similarity, from 0.0 to 1.0, under the screen at which pairs are compared with
+     *                            Smith-Waterman. 0.0 compares every pair with Smith-Waterman.
+     */
+    public void setEscalationThreshold(double escalationThreshold) {
+        checkArgument(escalationThreshold >= 0.0 && escalationThreshold <= 1.0,
+                "Escalation threshold must be between 0 and 1, got " + escalationThreshold);
+
+        this.escalationThreshold = escalationThreshold;
+    }
+
+    /**
+     * Screen two submissions, and compare them with Smith-Waterman if the screen finds them similar enough.
+     *
+     * Token list types of A and B must match
+     *
+     * @param a First submission to apply to
+     * @param b Second submission to apply to
+     * @return Similarity results of comparing submissions A and B, marked with the detector which produced them
+     * @throws TokenTypeMismatchException Thrown on comparing submissions with mismatched token types
+     * @throws InternalAlgorithmError Thrown on internal error
+     */
+    @Override
+    public AlgorithmResults detectSimilarity(Submission a, Submission b)
+            throws TokenTypeMismatchException, InternalAlgorithmError {
+        checkNotNull(a);
+        checkNotNull(b);
+
+        SimilarityDetector screenWith = screen;
+        AlgorithmResults screened = screenWith.detectSimilarity(a, b);
+
+        if(!shouldEscalate(screened, escalationThreshold)) {
+            return screened.withEngine(screenWith.getName());
+        }
+
+        SmithWaterman precise = SmithWaterman.getInstance();
+
+        return precise.detectSimilarity(a, b).withEngine(precise.getName());
+    }
+
+    /**
+     * Screen every pair of a corpus with this detector's own escalation threshold.
+     *
+     * @param submissions Submissions to compare. There must be at least two, all with the same token type.
+     * @param archiveSubmissions Archive submissions to compare against, which may be empty
+     * @param pruneThreshold Similarity, from 0.0 to 1.0, below which escalated pairs need not be run
+     * @return Similarity results for each pair, marked with the detector which produced them
+     * @throws ChecksimsException Thrown on error detecting similarities
+     */
+    @Override
+    public Set<AlgorithmResults> detectSimilarity(Set<Submission> submissions, Set<Submission> archiveSubmissions,
+                                                  double pruneThreshold) throws ChecksimsException {
+        return detectSimilarity(submissions, archiveSubmissions, new DetectionParameters(pruneThreshold));
+    }
+
+    /**
+     * Screen every pair of a corpus, and compare those the screen finds similar enough with Smith-Waterman.
+     *
+     * The whole corpus is screened at once, so screens which build shared state build it only once. Pairs escalated
+     * to Smith-Waterman are run as usual, pruned at the given threshold. The escalation threshold given for the run
+     * is used if present, and this detector's own otherwise; it is never stored.
+     *
+     * @param submissions Submissions to compare. There must be at least two, all with the same token type.
+     * @param archiveSubmissions Archive submissions to compare against, which may be empty
+     * @param parameters Settings for this run
+     * @return Similarity results for each pair, marked with the detector which produced them
+     * @throws ChecksimsException Thrown on error detecting similarities
+     */
+    @Override
+    public Set<AlgorithmResults> detectSimilarity(Set<Submission> submissions, Set<Submission> archiveSubmissions,
+                                                  DetectionParameters parameters) throws ChecksimsException {
+        checkNotNull(submissions);
+        checkNotNull(archiveSubmissions);
+        checkNotNull(parameters);
+
+        SimilarityDetector screenWith = screen;
+        double threshold = parameters.getEscalationThreshold().orElse(escalationThreshold);
+        SmithWaterman precise = SmithWaterman.getInstance();
+
+        Set<AlgorithmResults> screened = screenWith.detectSimilarity(submissions, archiveSubmissions, 0.0);
+
+        Set<AlgorithmResults> results = new HashSet<>();
+        Set<Pair<Submission, Submission>> toEscalate = new HashSet<>();
+        for(AlgorithmResults result : screened) {
+            if(shouldEscalate(result, threshold)) {
+                toEscalate.add(Pair.of(result.a, result.b));
+            } else {
+                results.add(result.withEngine(screenWith.getName()));
+            }
+        }
+
+        logs.info("Escalating " + toEscalate.size() + " of " + screened.size() + " pairs ("
+                + String.format("%.1f", 100.0 * toEscalate.size() / Math.max(1, screened.size()))
+                + "%) reaching " + threshold + " similarity under " + screenWith.getName() + " to "
+                + precise.getName());
+
+        if(!toEscalate.isEmpty()) {
+            for(AlgorithmResults result : AlgorithmRunner.runAlgorithm(toEscalate, precise,
+                    parameters.getPruneThreshold())) {
+                results.add(result.withEngine(precise.getName()));
+            }
+        }
+
+        return results;
+    }
+
+    /**
+     * @param screened Results of screening a pair
+     * @param threshold Similarity at which pairs are escalated
+     * @return True if either submission reached the threshold under the screen
+     */
+    private static boolean shouldEscalate(AlgorithmResults screened, double threshold) {
+        return screened.percentMatchedA() >= threshold || screened.percentMatchedB() >= threshold;
+    }
+
+    /**
+     * @return False - corpus detection screens the whole corpus before escalating pairs
+     */
+    @Override
+    public boolean comparesPairsIndependently() {
+        return false;
+    }
+
+    @Override
+    public String toString() {
+        return "Singleton instance of Cascade Similarity Algorithm";
+    }
+
+    @Override
+    public int hashCode() {
+        return this.getName().hashCode();
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        return other instanceof CascadeSimilarity;
+    }
+}
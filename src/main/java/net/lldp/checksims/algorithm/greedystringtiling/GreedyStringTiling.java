@@ -0,0 +1,169 @@
+/*
+ * CDDL HEADER START
+ *
+ * The contents of this file are subject to the terms of the
+ * Common Development and Distribution License (the "License").
+ * You may not use this file except in compliance with the License.
+ *
+ * See LICENSE.txt included in this distribution for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing Covered Code, include this CDDL HEADER in each
+ * file and include the License file at LICENSE.txt.
+ * If applicable, add the following below this CDDL HEADER, with the
+ * fields enclosed by brackets "[]" replaced with your own identifying
+ * information: Portions Copyright [yyyy] [name of copyright owner]
+ *
+ * CDDL HEADER END
+ *
+ * Copyright (c) 2014-2015 Nicholas DeMarinis, Matthew Heon, and Dolan Murvihill
+ */
+
+package net.lldp.checksims.algorithm.greedystringtiling;
+
+import net.lldp.checksims.algorithm.AlgorithmResults;
+import net.lldp.checksims.algorithm.InternalAlgorithmError;
+import net.lldp.checksims.algorithm.SimilarityDetector;
+import net.lldp.checksims.submission.Submission;
+import net.lldp.checksims.token.TokenList;
+import net.lldp.checksims.token.TokenType;
+import net.lldp.checksims.token.TokenTypeMismatchException;
+import org.apache.commons.lang3.tuple.Pair;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * Greedy String Tiling similarity detector, as used by JPlag and YAP3.
+ *
+ * Covers every run of identical tokens at least the minimum match length long with a tile, longest first, so copied
+ * sections are found however they have been reordered. Edits within a copied section split it into separate tiles, and
+ * pieces between edits shorter than the minimum match length are not matched.
+ */
+public final class GreedyStringTiling implements SimilarityDetector {
+    private static GreedyStringTiling instance;
+
+    private static Logger logs = LoggerFactory.getLogger(GreedyStringTiling.class);
+
+    /**
+     * Default number of identical tokens needed to make a tile.
+     */
+    public static final int DEFAULT_MINIMUM_MATCH_LENGTH = 8;
+
+    private volatile int minimumMatchLength = DEFAULT_MINIMUM_MATCH_LENGTH;
+
+    private GreedyStringTiling() {}
+
+    /**
+     * @return Singleton instance of the Greedy String Tiling algorithm
+     */
+    public static GreedyStringTiling getInstance() {
+        if(instance == null) {
+            instance = new GreedyStringTiling();
+        }
+
+        return instance;
+    }
+
+    /**
+     * @return Name of this implementation
+     */
+    @Override
+    public String getName() {
+        return "greedystringtiling";
+    }
+
+    /**
+     * @return Default token type to be used for this similarity detector
+     */
+    @Override
+    public TokenType getDefaultTokenType() {
+        return TokenType.WHITESPACE;
+    }
+
+    /**
+     * @return Number of identical tokens needed to make a tile
+     */
+    public int getMinimumMatchLength() {
+        return minimumMatchLength;
+    }
+
+    /**
+     * @param minimumMatchLength Number of identical tokens needed to make a tile
+     */
+    public void setMinimumMatchLength(int minimumMatchLength) {
+        checkArgument(minimumMatchLength >= 1, "Minimum match length must be at least 1, got " + minimumMatchLength);
+
+        this.minimumMatchLength = minimumMatchLength;
+    }
+
+    /**
+     * Apply the Greedy String Tiling algorithm to determine the similarity between two submissions.
+     *
+     * Token list types of A and B must match
+     *
+     * @param a First submission to apply to
+     * @param b Second submission to apply to
+     * @return Similarity results of comparing submissions A and B
+     * @throws TokenTypeMismatchException Thrown on comparing submissions with mismatched token types
+     * @throws InternalAlgorithmError Thrown on internal error
+     */
+    @Override
+    public AlgorithmResults detectSimilarity(Submission a, Submission b)
+            throws TokenTypeMismatchException, InternalAlgorithmError {
+        checkNotNull(a);
+        checkNotNull(b);
+
+        // Test for token type mismatch
+        if(!a.getTokenType().equals(b.getTokenType())) {
+            throw new TokenTypeMismatchException("Token list type mismatch: submission " + a.getName() + " has type " +
+                    a.getTokenType().toString() + ", while submission " + b.getName() + " has type "
+                    + b.getTokenType().toString());
+        }
+
+        // Handle a 0-token submission (no similarity)
+        if(a.getNumTokens() == 0 || b.getNumTokens() == 0) {
+            return new AlgorithmResults(a, b, a.getContentAsTokens(), b.getContentAsTokens());
+        } else if(a.equals(b)) {
+            // Handle identical submissions
+            TokenList aInval = TokenList.cloneTokenList(a.getContentAsTokens());
+            aInval.stream().forEach((token) -> token.setValid(false));
+            return new AlgorithmResults(a, b, aInval, aInval);
+        }
+
+        GreedyStringTilingAlgorithm algorithm = new GreedyStringTilingAlgorithm(a.getContentAsTokens(),
+                b.getContentAsTokens(), minimumMatchLength);
+
+        Pair<TokenList, TokenList> endLists = algorithm.computeTiling();
+
+        logs.trace("Made " + algorithm.getNumTiles() + " tiles between submissions " + a.getName() + " and "
+                + b.getName());
+
+        return new AlgorithmResults(a, b, endLists.getLeft(), endLists.getRight());
+    }
+
+    /**
+     * @return True - every tiled token is matched against exactly one tiled token in the other submission
+     */
+    @Override
+    public boolean matchesTokensOneToOne() {
+        return true;
+    }
+
+    @Override
+    public String toString() {
+        return "Singleton instance of Greedy String Tiling Algorithm";
+    }
+
+    @Override
+    public int hashCode() {
+        return this.getName().hashCode();
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        return other instanceof GreedyStringTiling;
+    }
+}
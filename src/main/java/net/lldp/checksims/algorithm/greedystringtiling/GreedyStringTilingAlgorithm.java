@@ -0,0 +1,300 @@
+/*
+ * CDDL HEADER START
+ *
+ * The contents of this file are subject to the terms of the
+ * Common Development and Distribution License (the "License").
+ * You may not use this file except in compliance with the License.
+ *
+ * See LICENSE.txt included in this distribution for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing Covered Code, include this CDDL HEADER in each
+ * file and include the License file at LICENSE.txt.
+ * If applicable, add the following below this CDDL HEADER, with the
+ * fields enclosed by brackets "[]" replaced with your own identifying
+ * information: Portions Copyright [yyyy] [name of copyright owner]
+ *
+ * CDDL HEADER END
+ *
+ * Copyright (c) 2014-2015 Nicholas DeMarinis, Matthew Heon, and Dolan Murvihill
+ */
+
+package net.lldp.checksims.algorithm.greedystringtiling;
+
+import net.lldp.checksims.token.TokenList;
+import net.lldp.checksims.util.primitive.KGramIndex;
+import net.lldp.checksims.util.primitive.LongList;
+import org.apache.commons.lang3.tuple.Pair;
+
+import java.util.Arrays;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * Greedy String Tiling with Running-Karp-Rabin matching, after Wise's RKR-GST.
+ *
+ * Works down through decreasing search lengths. At each, every run of that many unmarked tokens in the first list is
+ * indexed by rolling hash, and every such run in the second list is looked up and extended as far as the tokens keep
+ * matching. Matches are then made into tiles longest first, skipping any which overlap a tile already made, and their
+ * tokens marked. A match more than twice the search length restarts the scan at that length, so the longest matches
+ * are always tiled first. Search lengths halve from there down to the minimum match length, where scanning repeats
+ * until no more tiles are made.
+ *
+ * Marked tokens are set invalid in the returned lists. Tokens which were invalid to start with are treated as already
+ * marked, and are never part of a tile.
+ */
+public class GreedyStringTilingAlgorithm {
+    private final TokenList xList;
+    private final TokenList yList;
+    private final int[] xLexemes;
+    private final int[] yLexemes;
+    private final boolean[] xUnmarked;
+    private final boolean[] yUnmarked;
+    private final int xSize;
+    private final int ySize;
+    private final int minimumMatchLength;
+
+    // Matches found by the last scan - X and Y packed in the high and low 32 bits, and their lengths
+    private final LongList matchStarts;
+    private final LongList matchLengths;
+
+    private int numTiles;
+
+    /**
+     * Search length the first scan starts from, unless the minimum match length is longer.
+     */
+    public static final int INITIAL_SEARCH_LENGTH = 20;
+
+    /**
+     * Prepare for a Greedy String Tiling comparison.
+     *
+     * @param a First token list to tile
+     * @param b Second token list to tile
+     * @param minimumMatchLength Shortest run of tokens which can form a tile. Must be at least 1.
+     */
+    public GreedyStringTilingAlgorithm(TokenList a, TokenList b, int minimumMatchLength) {
+        checkNotNull(a);
+        checkNotNull(b);
+        checkArgument(!a.isEmpty(), "Cowardly refusing to perform tiling with empty token list A");
+        checkArgument(!b.isEmpty(), "Cowardly refusing to perform tiling with empty token list B");
+        checkArgument(a.type.equals(b.type), "Cannot tile token lists of differing types " + a.type + " and "
+                + b.type);
+        checkArgument(minimumMatchLength >= 1, "Minimum match length must be at least 1, got " + minimumMatchLength);
+
+        xList = TokenList.cloneTokenList(a);
+        yList = TokenList.cloneTokenList(b);
+
+        xSize = xList.size();
+        ySize = yList.size();
+
+        xLexemes = new int[xSize];
+        xUnmarked = new boolean[xSize];
+        for(int i = 0; i < xSize; i++) {
+            xLexemes[i] = xList.get(i).getLexeme();
+            xUnmarked[i] = xList.get(i).isValid();
+        }
+
+        yLexemes = new int[ySize];
+        yUnmarked = new boolean[ySize];
+        for(int i = 0; i < ySize; i++) {
+            yLexemes[i] = yList.get(i).getLexeme();
+            yUnmarked[i] = yList.get(i).isValid();
+        }
+
+        this.minimumMatchLength = minimumMatchLength;
+
+        matchStarts = new LongList();
+        matchLengths = new LongList();
+    }
+
+    /**
+     * INTERNAL ONLY - for use in unit tests.
+     *
+     * @return Token list along X axis
+     */
+    TokenList getXList() {
+        return xList;
+    }
+
+    /**
+     * INTERNAL ONLY - for use in unit tests.
+     *
+     * @return Token list along Y axis
+     */
+    TokenList getYList() {
+        return yList;
+    }
+
+    /**
+     * @return Number of tiles made by the last tiling
+     */
+    public int getNumTiles() {
+        return numTiles;
+    }
+
+    /**
+     * Tile the two token lists.
+     *
+     * @return Pair of TokenList with every tiled token invalid
+     */
+    public Pair<TokenList, TokenList> computeTiling() {
+        numTiles = 0;
+
+        int searchLength = Math.max(minimumMatchLength, INITIAL_SEARCH_LENGTH);
+
+        while(true) {
+            int longest = scanPattern(searchLength);
+
+            if(longest > 2 * searchLength) {
+                // Much longer matches exist than this scan looked for - start again looking only for those
+                searchLength = longest;
+                continue;
+            }
+
+            int tiled = markTiles();
+
+            if(searchLength > 2 * minimumMatchLength) {
+                searchLength /= 2;
+            } else if(searchLength > minimumMatchLength) {
+                searchLength = minimumMatchLength;
+            } else if(tiled == 0) {
+                // Parts of matches skipped for overlapping a tile may still be long enough to tile - only stop once a
+                // scan at the minimum length tiles nothing
+                break;
+            }
+        }
+
+        //noinspection SuspiciousNameCombination
+        return Pair.of(xList, yList);
+    }
+
+    /**
+     * Find every maximal match of at least the search length between unmarked tokens.
+     *
+     * Only matches which cannot be extended backwards are recorded, so each maximal match is found once rather than
+     * once for every position along it. Stops early on finding a match more than twice the search length.
+     *
+     * @param searchLength Shortest match to find. Must be at least 1.
+     * @return Length of the longest match found, or 0 if there were none
+     */
+    int scanPattern(int searchLength) {
+        checkArgument(searchLength >= 1, "Search length must be at least 1, got " + searchLength);
+
+        matchStarts.clear();
+        matchLengths.clear();
+
+        if(searchLength > xSize || searchLength > ySize) {
+            return 0;
+        }
+
+        KGramIndex index = new KGramIndex(xLexemes, xUnmarked, searchLength);
+
+        // Longest match so far - once past twice the search length, the scan is restarted, so skip remaining runs
+        int[] longest = {0};
+        KGramIndex.forEachKGram(yLexemes, yUnmarked, searchLength, (y, hash) -> {
+            if(longest[0] > 2 * searchLength) {
+                return;
+            }
+
+            for(int x = index.getFirst(hash); x != -1; x = index.getNext(x)) {
+                if(!index.matches(x, yLexemes, y) || extendsBackwards(x, y)) {
+                    continue;
+                }
+
+                int length = searchLength;
+                while(x + length < xSize && y + length < ySize && isMatch(x + length, y + length)) {
+                    length++;
+                }
+
+                matchStarts.add(((long)x << 32) | y);
+                matchLengths.add(length);
+
+                longest[0] = Math.max(longest[0], length);
+
+                if(longest[0] > 2 * searchLength) {
+                    return;
+                }
+            }
+        });
+
+        return longest[0];
+    }
+
+    /**
+     * Make tiles of the matches found by the last scan, longest first, and mark their tokens.
+     *
+     * Matches which overlap a tile already made are skipped - any part of them not covered is found again by a later
+     * scan.
+     *
+     * @return Number of tiles made
+     */
+    int markTiles() {
+        int numMatches = matchStarts.size();
+        int tiled = 0;
+
+        // Length in the high bits and index in the low, so sorting puts the longest last, and earlier matches first
+        // among those of equal length
+        long[] order = new long[numMatches];
+        for(int i = 0; i < numMatches; i++) {
+            order[i] = (matchLengths.get(i) << 32) | (Integer.MAX_VALUE - i);
+        }
+        Arrays.sort(order);
+
+        for(int i = numMatches - 1; i >= 0; i--) {
+            int match = Integer.MAX_VALUE - (int)order[i];
+            int x = (int)(matchStarts.get(match) >>> 32);
+            int y = (int)matchStarts.get(match);
+            int length = (int)matchLengths.get(match);
+
+            if(isUnmarked(xUnmarked, x, length) && isUnmarked(yUnmarked, y, length)) {
+                for(int j = 0; j < length; j++) {
+                    xUnmarked[x + j] = false;
+                    yUnmarked[y + j] = false;
+                    xList.get(x + j).setValid(false);
+                    yList.get(y + j).setValid(false);
+                }
+
+                tiled++;
+            }
+        }
+
+        numTiles += tiled;
+
+        return tiled;
+    }
+
+    /**
+     * @param x Position in the first list
+     * @param y Position in the second list
+     * @return True if both tokens are unmarked and share a lexeme
+     */
+    private boolean isMatch(int x, int y) {
+        return xUnmarked[x] && yUnmarked[y] && xLexemes[x] == yLexemes[y];
+    }
+
+    /**
+     * @param x Start of a match in the first list
+     * @param y Start of a match in the second list
+     * @return True if the match could start one token earlier
+     */
+    private boolean extendsBackwards(int x, int y) {
+        return x > 0 && y > 0 && isMatch(x - 1, y - 1);
+    }
+
+    /**
+     * @param unmarked Whether each token is unmarked
+     * @param start First token to check
+     * @param length Number of tokens to check
+     * @return True if none of the tokens are marked
+     */
+    private static boolean isUnmarked(boolean[] unmarked, int start, int length) {
+        for(int i = start; i < start + length; i++) {
+            if(!unmarked[i]) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+}
@@ -0,0 +1,174 @@
+/*
+ * CDDL HEADER START
+ *
+ * The contents of this file are subject to the terms of the
+ * Common Development and Distribution License (the "License").
+ * You may not use this file except in compliance with the License.
+ *
+ * See LICENSE.txt included in this distribution for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing Covered Code, include this CDDL HEADER in each
+ * file and include the License file at LICENSE.txt.
+ * If applicable, add the following below this CDDL HEADER, with the
+ * fields enclosed by brackets "[]" replaced with your own identifying
+ * information: Portions Copyright [yyyy] [name of copyright owner]
+ *
+ * CDDL HEADER END
+ *
+ * Copyright (c) 2014-2015 Nicholas DeMarinis, Matthew Heon, and Dolan Murvihill
+ */
+
+package net.lldp.checksims.algorithm.lcs;
+
+import net.lldp.checksims.algorithm.AlgorithmResults;
+import net.lldp.checksims.algorithm.InternalAlgorithmError;
+import net.lldp.checksims.algorithm.SimilarityDetector;
+import net.lldp.checksims.submission.Submission;
+import net.lldp.checksims.token.TokenList;
+import net.lldp.checksims.token.TokenType;
+import net.lldp.checksims.token.TokenTypeMismatchException;
+import org.apache.commons.lang3.tuple.Pair;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * Longest Common Subsequence similarity detector, computed bit-parallel.
+ *
+ * Matches the longest sequence of tokens which appears in the same order in both submissions, allowing any gaps. With
+ * character tokenization each word operation computes 64 cells of the LCS table, so large submissions can be compared
+ * character by character where Smith-Waterman's tables would not fit in memory.
+ *
+ * Left alone, LCS inflates the similarity of unrelated submissions, as any two texts in the same language share a long
+ * subsequence of scattered characters. Runs of fewer than {@link #DEFAULT_MIN_RUN_LENGTH} consecutive matched tokens
+ * are therefore dropped by default, much as Smith-Waterman ignores alignments scoring below its threshold.
+ */
+public final class BitParallelLcs implements SimilarityDetector {
+    private static BitParallelLcs instance;
+
+    private static Logger logs = LoggerFactory.getLogger(BitParallelLcs.class);
+
+    /**
+     * Default fewest consecutive matched tokens kept as a run.
+     */
+    public static final int DEFAULT_MIN_RUN_LENGTH = 5;
+
+    private volatile int minRunLength = DEFAULT_MIN_RUN_LENGTH;
+
+    private BitParallelLcs() {}
+
+    /**
+     * @return Singleton instance of the bit-parallel LCS algorithm
+     */
+    public static BitParallelLcs getInstance() {
+        if(instance == null) {
+            instance = new BitParallelLcs();
+        }
+
+        return instance;
+    }
+
+    /**
+     * @return Name of this implementation
+     */
+    @Override
+    public String getName() {
+        return "lcs";
+    }
+
+    /**
+     * @return Default token type to be used for this similarity detector
+     */
+    @Override
+    public TokenType getDefaultTokenType() {
+        return TokenType.CHARACTER;
+    }
+
+    /**
+     * @return Fewest consecutive matched tokens kept as a run
+     */
+    public int getMinRunLength() {
+        return minRunLength;
+    }
+
+    /**
+     * @param minRunLength Fewest consecutive matched tokens kept as a run. 1 keeps the whole common subsequence.
+     */
+    public void setMinRunLength(int minRunLength) {
+        checkArgument(minRunLength >= 1, "Minimum run length must be at least 1, got " + minRunLength);
+
+        this.minRunLength = minRunLength;
+    }
+
+    /**
+     * Find the longest common subsequence of two submissions, less any runs shorter than the minimum run length.
+     *
+     * Token list types of A and B must match
+     *
+     * @param a First submission to apply to
+     * @param b Second submission to apply to
+     * @return Similarity results of comparing submissions A and B
+     * @throws TokenTypeMismatchException Thrown on comparing submissions with mismatched token types
+     * @throws InternalAlgorithmError Thrown on internal error
+     */
+    @Override
+    public AlgorithmResults detectSimilarity(Submission a, Submission b)
+            throws TokenTypeMismatchException, InternalAlgorithmError {
+        checkNotNull(a);
+        checkNotNull(b);
+
+        // Test for token type mismatch
+        if(!a.getTokenType().equals(b.getTokenType())) {
+            throw new TokenTypeMismatchException("Token list type mismatch: submission " + a.getName() + " has type " +
+                    a.getTokenType().toString() + ", while submission " + b.getName() + " has type "
+                    + b.getTokenType().toString());
+        }
+
+        // Handle a 0-token submission (no similarity)
+        if(a.getNumTokens() == 0 || b.getNumTokens() == 0) {
+            return new AlgorithmResults(a, b, a.getContentAsTokens(), b.getContentAsTokens());
+        } else if(a.equals(b)) {
+            // Handle identical submissions
+            TokenList aInval = TokenList.cloneTokenList(a.getContentAsTokens());
+            aInval.stream().forEach((token) -> token.setValid(false));
+            return new AlgorithmResults(a, b, aInval, aInval);
+        }
+
+        BitParallelLcsAlgorithm algorithm = new BitParallelLcsAlgorithm(a.getContentAsTokens(),
+                b.getContentAsTokens());
+        algorithm.setMinRunLength(minRunLength);
+
+        Pair<TokenList, TokenList> endLists = algorithm.computeLcs();
+
+        logs.trace("Found common subsequence of " + algorithm.getLcsLength() + " tokens between submissions "
+                + a.getName() + " and " + b.getName());
+
+        return new AlgorithmResults(a, b, endLists.getLeft(), endLists.getRight());
+    }
+
+    /**
+     * @return True - every token of the subsequence is matched against exactly one in the other submission
+     */
+    @Override
+    public boolean matchesTokensOneToOne() {
+        return true;
+    }
+
+    @Override
+    public String toString() {
+        return "Singleton instance of Bit-Parallel LCS Algorithm";
+    }
+
+    @Override
+    public int hashCode() {
+        return this.getName().hashCode();
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        return other instanceof BitParallelLcs;
+    }
+}
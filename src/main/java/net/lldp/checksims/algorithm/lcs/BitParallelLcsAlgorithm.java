@@ -0,0 +1,480 @@
+/*
+ * CDDL HEADER START
+ *
+ * The contents of this file are subject to the terms of the
+ * Common Development and Distribution License (the "License").
+ * You may not use this file except in compliance with the License.
+ *
+ * See LICENSE.txt included in this distribution for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing Covered Code, include this CDDL HEADER in each
+ * file and include the License file at LICENSE.txt.
+ * If applicable, add the following below this CDDL HEADER, with the
+ * fields enclosed by brackets "[]" replaced with your own identifying
+ * information: Portions Copyright [yyyy] [name of copyright owner]
+ *
+ * CDDL HEADER END
+ *
+ * Copyright (c) 2014-2015 Nicholas DeMarinis, Matthew Heon, and Dolan Murvihill
+ */
+
+package net.lldp.checksims.algorithm.lcs;
+
+import net.lldp.checksims.token.Token;
+import net.lldp.checksims.token.TokenList;
+import org.apache.commons.lang3.tuple.Pair;
+
+import java.util.Arrays;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * Bit-parallel Longest Common Subsequence, after Hyyro's bit-vector algorithm.
+ *
+ * Each column of the LCS table, along the first list, is held as a bitvector V in which a zero bit marks a row where
+ * the LCS length increases. Moving to the next column is a handful of word operations - with M the positions of the
+ * next token of the second list, V becomes (V + (V and M)) or (V and not M) - so 64 cells are computed for each word.
+ *
+ * Matched tokens are recovered by tracing back through the stored columns. Where storing every column would take too
+ * much memory, the problem is split in half along the second list as in Hirschberg's algorithm, using one forward and
+ * one reverse pass to find where the LCS crosses the split, until each piece is small enough to trace back directly.
+ *
+ * Unrelated inputs share long scattered subsequences, particularly of characters, so runs of consecutive matches
+ * shorter than a minimum length can be dropped once the subsequence is found. The subsequence pairs its tokens in
+ * order, so a run is a stretch where both lists advance together. By default nothing is dropped.
+ *
+ * Matched tokens are set invalid in the returned lists. Tokens which were invalid to start with never match.
+ */
+public class BitParallelLcsAlgorithm {
+    private final TokenList xList;
+    private final TokenList yList;
+    private final int[] xSymbols;
+    private final int[] ySymbols;
+    private final int numSymbols;
+    private final boolean[] xMatched;
+    private final boolean[] yMatched;
+    private final int maxTracebackWords;
+    private int minRunLength = 1;
+
+    private int lcsLength;
+
+    /**
+     * Most words of stored columns to trace back through directly, rather than splitting the problem.
+     */
+    public static final int DEFAULT_MAX_TRACEBACK_WORDS = 1 << 18;
+
+    /**
+     * Prepare for a bit-parallel LCS comparison.
+     *
+     * @param a First token list to compare
+     * @param b Second token list to compare
+     */
+    public BitParallelLcsAlgorithm(TokenList a, TokenList b) {
+        this(a, b, DEFAULT_MAX_TRACEBACK_WORDS);
+    }
+
+    /**
+     * Prepare for a bit-parallel LCS comparison, with a limit on the columns stored for traceback.
+     *
+     * @param a First token list to compare
+     * @param b Second token list to compare
+     * @param maxTracebackWords Most words of stored columns to trace back through directly. Must be at least 1.
+     */
+    BitParallelLcsAlgorithm(TokenList a, TokenList b, int maxTracebackWords) {
+        checkNotNull(a);
+        checkNotNull(b);
+        checkArgument(!a.isEmpty(), "Cowardly refusing to perform LCS with empty token list A");
+        checkArgument(!b.isEmpty(), "Cowardly refusing to perform LCS with empty token list B");
+        checkArgument(a.type.equals(b.type), "Cannot compare token lists of differing types " + a.type + " and "
+                + b.type);
+        checkArgument(maxTracebackWords >= 1, "Traceback limit must be at least 1 word, got " + maxTracebackWords);
+
+        xList = TokenList.cloneTokenList(a);
+        yList = TokenList.cloneTokenList(b);
+
+        // Number the distinct lexemes of valid tokens in the first list - tokens of the second list with any other
+        // lexeme can never match
+        int[] lexemes = xList.stream().filter(Token::isValid).mapToInt(Token::getLexeme).sorted().distinct()
+                .toArray();
+        numSymbols = lexemes.length;
+
+        xSymbols = symbolsOf(xList, lexemes);
+        ySymbols = symbolsOf(yList, lexemes);
+
+        xMatched = new boolean[xSymbols.length];
+        yMatched = new boolean[ySymbols.length];
+
+        this.maxTracebackWords = maxTracebackWords;
+    }
+
+    /**
+     * @param minRunLength Fewest consecutive matches kept as a run. Must be at least 1; 1 keeps every match.
+     */
+    public void setMinRunLength(int minRunLength) {
+        checkArgument(minRunLength >= 1, "Minimum run length must be at least 1, got " + minRunLength);
+
+        this.minRunLength = minRunLength;
+    }
+
+    /**
+     * @return Number of tokens of the longest common subsequence matched by the last comparison, after short runs are
+     *         dropped
+     */
+    public int getLcsLength() {
+        return lcsLength;
+    }
+
+    /**
+     * Find a longest common subsequence of the two token lists.
+     *
+     * @return Pair of TokenList with every token of the subsequence invalid
+     */
+    public Pair<TokenList, TokenList> computeLcs() {
+        Arrays.fill(xMatched, false);
+        Arrays.fill(yMatched, false);
+        lcsLength = 0;
+
+        align(0, xSymbols.length, 0, ySymbols.length);
+
+        if(minRunLength > 1) {
+            dropShortRuns();
+        }
+
+        for(int i = 0; i < xMatched.length; i++) {
+            if(xMatched[i]) {
+                xList.get(i).setValid(false);
+            }
+        }
+
+        for(int j = 0; j < yMatched.length; j++) {
+            if(yMatched[j]) {
+                yList.get(j).setValid(false);
+            }
+        }
+
+        //noinspection SuspiciousNameCombination
+        return Pair.of(xList, yList);
+    }
+
+    /**
+     * Find and mark a longest common subsequence of part of each list.
+     *
+     * @param xFrom First position of the first list
+     * @param xTo Position after the last of the first list
+     * @param yFrom First position of the second list
+     * @param yTo Position after the last of the second list
+     */
+    private void align(int xFrom, int xTo, int yFrom, int yTo) {
+        if(xFrom == xTo || yFrom == yTo) {
+            return;
+        }
+
+        int words = numWords(xTo - xFrom);
+        if((long)(yTo - yFrom + 1) * words <= maxTracebackWords || yTo - yFrom == 1) {
+            traceback(xFrom, xTo, yFrom, yTo);
+            return;
+        }
+
+        // LCS lengths of every prefix of the first list with the first half of the second, and of every suffix with
+        // the second half - the LCS crosses the split where their sum is greatest
+        int yMid = (yFrom + yTo) >>> 1;
+        int[] forward = prefixLengths(Arrays.copyOfRange(xSymbols, xFrom, xTo),
+                Arrays.copyOfRange(ySymbols, yFrom, yMid));
+        int[] reverse = prefixLengths(reversed(xSymbols, xFrom, xTo), reversed(ySymbols, yMid, yTo));
+
+        int length = xTo - xFrom;
+        int xMid = 0;
+        for(int i = 1; i <= length; i++) {
+            if(forward[i] + reverse[length - i] > forward[xMid] + reverse[length - xMid]) {
+                xMid = i;
+            }
+        }
+
+        align(xFrom, xFrom + xMid, yFrom, yMid);
+        align(xFrom + xMid, xTo, yMid, yTo);
+    }
+
+    /**
+     * Find and mark a longest common subsequence of part of each list, storing every column to trace back through.
+     *
+     * @param xFrom First position of the first list
+     * @param xTo Position after the last of the first list
+     * @param yFrom First position of the second list
+     * @param yTo Position after the last of the second list
+     */
+    private void traceback(int xFrom, int xTo, int yFrom, int yTo) {
+        int[] x = Arrays.copyOfRange(xSymbols, xFrom, xTo);
+        int words = numWords(x.length);
+        int columns = yTo - yFrom;
+
+        // Column j holds V after the first j tokens of the second list
+        long[] stored = new long[(columns + 1) * words];
+        Arrays.fill(stored, 0, words, -1L);
+
+        MatchMasks masks = new MatchMasks(x, numSymbols);
+        long[] vector = new long[words];
+        long[] mask = new long[words];
+        Arrays.fill(vector, -1L);
+
+        for(int j = 0; j < columns; j++) {
+            masks.advance(vector, mask, ySymbols[yFrom + j]);
+            System.arraycopy(vector, 0, stored, (j + 1) * words, words);
+        }
+
+        // A match on the diagonal is always part of some LCS. Otherwise, move up if the row above has the same
+        // length, as shown by a set bit, and left if not.
+        int i = x.length;
+        int j = columns;
+        while(i > 0 && j > 0) {
+            int symbol = x[i - 1];
+
+            if(symbol != -1 && symbol == ySymbols[yFrom + j - 1]) {
+                xMatched[xFrom + i - 1] = true;
+                yMatched[yFrom + j - 1] = true;
+                lcsLength++;
+                i--;
+                j--;
+            } else if((stored[j * words + ((i - 1) >>> 6)] & (1L << (i - 1))) != 0) {
+                i--;
+            } else {
+                j--;
+            }
+        }
+    }
+
+    /**
+     * Unmark every run of consecutive matches shorter than the minimum run length.
+     *
+     * The k-th matched token of the first list is paired with the k-th of the second, so runs can be found from the
+     * matched positions alone, wherever the problem was split to find them.
+     */
+    private void dropShortRuns() {
+        int[] xs = matchedPositions(xMatched, lcsLength);
+        int[] ys = matchedPositions(yMatched, lcsLength);
+
+        int runStart = 0;
+        for(int k = 1; k <= lcsLength; k++) {
+            if(k < lcsLength && xs[k] == xs[k - 1] + 1 && ys[k] == ys[k - 1] + 1) {
+                continue;
+            }
+
+            if(k - runStart < minRunLength) {
+                for(int r = runStart; r < k; r++) {
+                    xMatched[xs[r]] = false;
+                    yMatched[ys[r]] = false;
+                }
+            }
+
+            runStart = k;
+        }
+
+        int kept = 0;
+        for(boolean matched : xMatched) {
+            if(matched) {
+                kept++;
+            }
+        }
+        lcsLength = kept;
+    }
+
+    /**
+     * @param matched Whether each position is matched
+     * @param numMatched Number of positions matched
+     * @return Every matched position, ascending
+     */
+    private static int[] matchedPositions(boolean[] matched, int numMatched) {
+        int[] positions = new int[numMatched];
+
+        int k = 0;
+        for(int i = 0; i < matched.length; i++) {
+            if(matched[i]) {
+                positions[k++] = i;
+            }
+        }
+
+        return positions;
+    }
+
+    /**
+     * Compute the LCS length of every prefix of one symbol sequence with the whole of another.
+     *
+     * @param x Symbols along the bitvector, -1 for a token which never matches
+     * @param y Symbols to advance the bitvector over, -1 for a token which never matches
+     * @return LCS lengths, where element i is the length for the first i symbols of x
+     */
+    int[] prefixLengths(int[] x, int[] y) {
+        checkNotNull(x);
+        checkNotNull(y);
+
+        MatchMasks masks = new MatchMasks(x, numSymbols);
+        long[] vector = new long[numWords(x.length)];
+        long[] mask = new long[vector.length];
+        Arrays.fill(vector, -1L);
+
+        for(int symbol : y) {
+            masks.advance(vector, mask, symbol);
+        }
+
+        // Each zero bit is a row where the LCS length increases
+        int[] lengths = new int[x.length + 1];
+        for(int i = 0; i < x.length; i++) {
+            lengths[i + 1] = lengths[i] + (int)(~vector[i >>> 6] >>> i & 1);
+        }
+
+        return lengths;
+    }
+
+    /**
+     * INTERNAL ONLY - for use in unit tests.
+     *
+     * @return Symbols of the first list
+     */
+    int[] getXSymbols() {
+        return xSymbols;
+    }
+
+    /**
+     * INTERNAL ONLY - for use in unit tests.
+     *
+     * @return Symbols of the second list
+     */
+    int[] getYSymbols() {
+        return ySymbols;
+    }
+
+    /**
+     * @param tokens Tokens to number
+     * @param lexemes Sorted distinct lexemes which can match
+     * @return Index of each token's lexeme in the given lexemes, or -1 for invalid tokens and those not present
+     */
+    private static int[] symbolsOf(TokenList tokens, int[] lexemes) {
+        int[] symbols = new int[tokens.size()];
+
+        int i = 0;
+        for(Token token : tokens) {
+            int index = Arrays.binarySearch(lexemes, token.getLexeme());
+            symbols[i++] = token.isValid() && index >= 0 ? index : -1;
+        }
+
+        return symbols;
+    }
+
+    /**
+     * @param symbols Symbols to copy
+     * @param from First position to copy
+     * @param to Position after the last to copy
+     * @return The given range of symbols, in reverse order
+     */
+    private static int[] reversed(int[] symbols, int from, int to) {
+        int[] reversed = new int[to - from];
+
+        for(int i = 0; i < reversed.length; i++) {
+            reversed[i] = symbols[to - 1 - i];
+        }
+
+        return reversed;
+    }
+
+    /**
+     * @param bits Number of bits
+     * @return Number of words needed to hold them
+     */
+    private static int numWords(int bits) {
+        return (bits + 63) >>> 6;
+    }
+
+    /**
+     * Positions of each symbol along a bitvector, held sparsely so that memory grows with the number of positions
+     * rather than the number of symbols times the number of words.
+     */
+    private static final class MatchMasks {
+        // Entries of symbol s are start[s] to start[s + 1] - 1, each a word and the bits set within it
+        private final int[] start;
+        private final int[] words;
+        private final long[] bits;
+
+        /**
+         * @param symbols Symbol at each position, -1 for none
+         * @param numSymbols Number of distinct symbols
+         */
+        MatchMasks(int[] symbols, int numSymbols) {
+            // Counting sort of positions by symbol - positions of each symbol come out ascending
+            int[] counts = new int[numSymbols + 1];
+            for(int symbol : symbols) {
+                if(symbol != -1) {
+                    counts[symbol + 1]++;
+                }
+            }
+
+            for(int s = 0; s < numSymbols; s++) {
+                counts[s + 1] += counts[s];
+            }
+
+            int[] positions = new int[counts[numSymbols]];
+            int[] filled = Arrays.copyOf(counts, numSymbols);
+            for(int i = 0; i < symbols.length; i++) {
+                if(symbols[i] != -1) {
+                    positions[filled[symbols[i]]++] = i;
+                }
+            }
+
+            // Merge positions of a symbol in the same word into one entry
+            start = new int[numSymbols + 1];
+            int[] entryWords = new int[positions.length];
+            long[] entryBits = new long[positions.length];
+            int numEntries = 0;
+            for(int s = 0; s < numSymbols; s++) {
+                start[s] = numEntries;
+
+                for(int p = counts[s]; p < counts[s + 1]; p++) {
+                    int word = positions[p] >>> 6;
+
+                    if(numEntries == start[s] || entryWords[numEntries - 1] != word) {
+                        entryWords[numEntries++] = word;
+                    }
+
+                    entryBits[numEntries - 1] |= 1L << positions[p];
+                }
+            }
+            start[numSymbols] = numEntries;
+
+            words = entryWords;
+            bits = entryBits;
+        }
+
+        /**
+         * Advance a bitvector by one column.
+         *
+         * @param vector Bitvector to advance
+         * @param mask Scratch space the size of the bitvector, all zero, and left all zero
+         * @param symbol Symbol of the column, -1 for none
+         */
+        void advance(long[] vector, long[] mask, int symbol) {
+            // A symbol with no positions leaves the bitvector as it is
+            if(symbol == -1 || start[symbol] == start[symbol + 1]) {
+                return;
+            }
+
+            for(int e = start[symbol]; e < start[symbol + 1]; e++) {
+                mask[words[e]] = bits[e];
+            }
+
+            // Words below the first position are unchanged, with no carry into the first
+            long carry = 0;
+            for(int w = words[start[symbol]]; w < vector.length; w++) {
+                long v = vector[w];
+                long u = v & mask[w];
+                long sum = v + u + carry;
+
+                carry = ((v & u) | ((v | u) & ~sum)) >>> 63;
+                vector[w] = sum | (v & ~u);
+            }
+
+            for(int e = start[symbol]; e < start[symbol + 1]; e++) {
+                mask[words[e]] = 0;
+            }
+        }
+    }
+}
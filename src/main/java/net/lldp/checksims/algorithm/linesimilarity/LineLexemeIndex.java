@@ -0,0 +1,235 @@
+/*
+ * CDDL HEADER START
+ *
+ * The contents of this file are subject to the terms of the
+ * Common Development and Distribution License (the "License").
+ * You may not use this file except in compliance with the License.
+ *
+ * See LICENSE.txt included in this distribution for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing Covered Code, include this CDDL HEADER in each
+ * file and include the License file at LICENSE.txt.
+ * If applicable, add the following below this CDDL HEADER, with the
+ * fields enclosed by brackets "[]" replaced with your own identifying
+ * information: Portions Copyright [yyyy] [name of copyright owner]
+ *
+ * CDDL HEADER END
+ *
+ * Copyright (c) 2014-2015 Nicholas DeMarinis, Matthew Heon, and Dolan Murvihill
+ */
+
+package net.lldp.checksims.algorithm.linesimilarity;
+
+import net.lldp.checksims.token.TokenList;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * Index of every line in a corpus, from line lexeme to the submissions and lines holding it.
+ *
+ * No line is hashed. Line tokenization gives identical lines the same lexeme, so a line's lexeme alone stands for its
+ * content. Each distinct lexeme is numbered as a group through an open-addressed table keyed on the lexeme, and the
+ * postings of each group - submission index in the high 32 bits and line number in the low - are held in one
+ * primitive array, grouped by lexeme and in ascending order within each group.
+ */
+final class LineLexemeIndex {
+    // Group of the lexeme of each line of each submission
+    private final int[][] lineGroups;
+
+    // Postings of group g are postings[groupStart[g]] to postings[groupStart[g + 1] - 1]
+    private final int[] groupStart;
+    private final long[] postings;
+
+    /**
+     * Receives each pair of submissions with a line in common.
+     */
+    interface SharedPairConsumer {
+        /**
+         * @param first Index of the first submission of the pair
+         * @param second Index of the second submission of the pair, always greater than first
+         */
+        void accept(int first, int second);
+    }
+
+    /**
+     * Index every line of a corpus.
+     *
+     * @param submissions Line tokens of each submission. Submissions are referred to by their index in this list.
+     */
+    LineLexemeIndex(List<TokenList> submissions) {
+        checkNotNull(submissions);
+
+        int numLines = 0;
+        for(TokenList lines : submissions) {
+            numLines += lines.size();
+        }
+
+        // Open-addressed table from lexeme to group, at most half full
+        int capacity = Integer.highestOneBit(Math.max(1, numLines) * 2 - 1) << 1;
+        int[] slotLexemes = new int[capacity];
+        int[] slotGroups = new int[capacity];
+        Arrays.fill(slotGroups, -1);
+        int mask = capacity - 1;
+
+        int numGroups = 0;
+        lineGroups = new int[submissions.size()][];
+        int[] groupSizes = new int[numLines];
+        for(int s = 0; s < submissions.size(); s++) {
+            TokenList lines = submissions.get(s);
+            lineGroups[s] = new int[lines.size()];
+
+            for(int l = 0; l < lines.size(); l++) {
+                int lexeme = lines.get(l).getLexeme();
+
+                int slot = slotFor(lexeme, mask);
+                while(slotGroups[slot] != -1 && slotLexemes[slot] != lexeme) {
+                    slot = (slot + 1) & mask;
+                }
+
+                if(slotGroups[slot] == -1) {
+                    slotLexemes[slot] = lexeme;
+                    slotGroups[slot] = numGroups++;
+                }
+
+                lineGroups[s][l] = slotGroups[slot];
+                groupSizes[slotGroups[slot]]++;
+            }
+        }
+
+        // Counting sort of every line into its group - lines are visited in order, so postings come out ascending
+        groupStart = new int[numGroups + 1];
+        for(int g = 0; g < numGroups; g++) {
+            groupStart[g + 1] = groupStart[g] + groupSizes[g];
+        }
+
+        postings = new long[numLines];
+        int[] filled = Arrays.copyOf(groupStart, numGroups);
+        for(int s = 0; s < lineGroups.length; s++) {
+            for(int l = 0; l < lineGroups[s].length; l++) {
+                postings[filled[lineGroups[s][l]]++] = ((long)s << 32) | l;
+            }
+        }
+    }
+
+    /**
+     * @return Number of distinct line lexemes in the corpus
+     */
+    int getNumGroups() {
+        return groupStart.length - 1;
+    }
+
+    /**
+     * Call the consumer once for each pair of submissions holding at least one line in common.
+     *
+     * Pairs with no line in common never appear in any group together, so are never visited. Pairs are found for one
+     * submission at a time, against every later one, so only a mark per submission and per group is ever held, however
+     * many submissions share a line.
+     *
+     * @param consumer Called for each pair with a line in common, in ascending order of pair
+     */
+    void forEachSharedPair(SharedPairConsumer consumer) {
+        checkNotNull(consumer);
+
+        // Marks are the first submission of the pair plus one, so need no clearing between submissions
+        int[] groupMarks = new int[getNumGroups()];
+        int[] submissionMarks = new int[lineGroups.length];
+        int[] touched = new int[lineGroups.length];
+
+        for(int first = 0; first < lineGroups.length; first++) {
+            int mark = first + 1;
+            int numTouched = 0;
+
+            for(int group : lineGroups[first]) {
+                if(groupMarks[group] == mark) {
+                    continue;
+                }
+                groupMarks[group] = mark;
+
+                // Postings are sorted, so every holder after this submission follows its last line
+                for(int p = lowerBound(group, (long)mark << 32); p < groupStart[group + 1]; p++) {
+                    int second = (int)(postings[p] >>> 32);
+                    if(submissionMarks[second] != mark) {
+                        submissionMarks[second] = mark;
+                        touched[numTouched++] = second;
+                    }
+                }
+            }
+
+            Arrays.sort(touched, 0, numTouched);
+            for(int t = 0; t < numTouched; t++) {
+                consumer.accept(first, touched[t]);
+            }
+        }
+    }
+
+    /**
+     * Set invalid every line of one submission which also appears in another.
+     *
+     * @param submission Index of the submission to mark
+     * @param other Index of the submission to look for its lines in
+     * @param lines Token list to mark, with one token for each line of the submission
+     * @return Number of lines marked
+     */
+    int markSharedLines(int submission, int other, TokenList lines) {
+        checkNotNull(lines);
+        checkArgument(lines.size() == lineGroups[submission].length, "Expected " + lineGroups[submission].length
+                + " lines to mark, got " + lines.size());
+
+        int marked = 0;
+        for(int l = 0; l < lines.size(); l++) {
+            if(groupContains(lineGroups[submission][l], other)) {
+                lines.get(l).setValid(false);
+                marked++;
+            }
+        }
+
+        return marked;
+    }
+
+    /**
+     * @param group Group to search
+     * @param submission Submission to search for
+     * @return True if any line of the submission is in the group
+     */
+    private boolean groupContains(int group, int submission) {
+        // Find the first posting at or after the submission's first possible line
+        int first = lowerBound(group, (long)submission << 32);
+
+        return first < groupStart[group + 1] && (postings[first] >>> 32) == submission;
+    }
+
+    /**
+     * @param group Group to search
+     * @param posting Posting to search for
+     * @return Index of the first posting of the group not less than the one given
+     */
+    private int lowerBound(int group, long posting) {
+        int low = groupStart[group];
+        int high = groupStart[group + 1];
+        while(low < high) {
+            int mid = (low + high) >>> 1;
+            if(postings[mid] < posting) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+
+        return low;
+    }
+
+    /**
+     * @param lexeme Line lexeme
+     * @param mask Table size less one
+     * @return Slot to start probing from
+     */
+    private static int slotFor(int lexeme, int mask) {
+        // Lexemes are handed out in sequence, so spread them before masking
+        return (lexeme * 0x9E3779B9) & mask;
+    }
+}
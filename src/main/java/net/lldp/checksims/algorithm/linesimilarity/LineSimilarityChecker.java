@@ -21,18 +21,21 @@
 
 package net.lldp.checksims.algorithm.linesimilarity;
 
+import net.lldp.checksims.ChecksimsException;
 import net.lldp.checksims.algorithm.AlgorithmResults;
-import net.lldp.checksims.algorithm.InternalAlgorithmError;
 import net.lldp.checksims.algorithm.SimilarityDetector;
 import net.lldp.checksims.submission.Submission;
 import net.lldp.checksims.token.Token;
 import net.lldp.checksims.token.TokenList;
 import net.lldp.checksims.token.TokenType;
 import net.lldp.checksims.token.TokenTypeMismatchException;
-import org.apache.commons.codec.binary.Hex;
+import net.lldp.checksims.util.PairGenerator;
+import net.lldp.checksims.util.primitive.LongList;
+import net.lldp.checksims.util.threading.ParallelAlgorithm;
+import org.apache.commons.lang3.tuple.Pair;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
-import java.security.MessageDigest;
-import java.security.NoSuchAlgorithmException;
 import java.util.*;
 
 import static com.google.common.base.Preconditions.checkNotNull;
@@ -43,23 +46,7 @@ import static com.google.common.base.Preconditions.checkNotNull;
 public final class LineSimilarityChecker implements SimilarityDetector {
     private static LineSimilarityChecker instance;
 
-    /**
-     * Internal class for record-keeping - used to record a line at a specific location in a submission.
-     */
-    class SubmissionLine {
-        public final int lineNum;
-        public final Submission submission;
-
-        SubmissionLine(int lineNum, Submission submission) {
-            this.lineNum = lineNum;
-            this.submission = submission;
-        }
-
-        @Override
-        public String toString() {
-            return "Line " + lineNum + " from submission with name " + submission.getName();
-        }
-    }
+    private static Logger logs = LoggerFactory.getLogger(LineSimilarityChecker.class);
 
     private LineSimilarityChecker() {}
 
@@ -89,11 +76,9 @@ public final class LineSimilarityChecker implements SimilarityDetector {
      * @param b Second submission to check
      * @return Results of the similarity detection
      * @throws TokenTypeMismatchException Thrown comparing two submissions with different token types
-     * @throws InternalAlgorithmError Thrown on error obtaining a hash algorithm instance
      */
     @Override
-    public AlgorithmResults detectSimilarity(Submission a, Submission b)
-            throws TokenTypeMismatchException, InternalAlgorithmError {
+    public AlgorithmResults detectSimilarity(Submission a, Submission b) throws TokenTypeMismatchException {
         checkNotNull(a);
         checkNotNull(b);
 
@@ -112,97 +97,135 @@ public final class LineSimilarityChecker implements SimilarityDetector {
             return new AlgorithmResults(a, b, finalA, finalB);
         }
 
-        MessageDigest hasher;
+        // Lines are identical exactly when their lexemes are, so each line is matched if its lexeme is anywhere in the
+        // other submission
+        markLinesIn(finalA, sortedLexemes(linesB));
+        markLinesIn(finalB, sortedLexemes(linesA));
 
-        // Get a hashing instance
-        try {
-            hasher = MessageDigest.getInstance("SHA-512");
-        } catch (NoSuchAlgorithmException e) {
-            throw new InternalAlgorithmError("Error instantiating SHA-512 hash algorithm: " + e.getMessage());
-        }
+        return new AlgorithmResults(a, b, finalA, finalB);
+    }
 
-        // Create a line database map
-        // Per-method basis to ensure we have no mutable state in the class
-        Map<String, List<SubmissionLine>> lineDatabase = new HashMap<>();
-
-        // Hash all lines in A, and put them in the lines database
-        addLinesToMap(linesA, lineDatabase, a, hasher);
-
-        // Hash all lines in B, and put them in the lines database
-        addLinesToMap(linesB, lineDatabase, b, hasher);
-
-        // Number of matched lines contained in both
-        int identicalLinesA = 0;
-        int identicalLinesB = 0;
-
-        // Check all the keys
-        for(String key : lineDatabase.keySet()) {
-
-            // If more than 1 line has the hash...
-            if(lineDatabase.get(key).size() != 1) {
-                int numLinesA = 0;
-                int numLinesB = 0;
-
-                // Count the number of that line in each submission
-                for(SubmissionLine s : lineDatabase.get(key)) {
-                    if(s.submission.equals(a)) {
-                        numLinesA++;
-                    } else if(s.submission.equals(b)) {
-                        numLinesB++;
-                    } else {
-                        throw new RuntimeException("Unreachable code!");
-                    }
-                }
-
-                if(numLinesA == 0 || numLinesB == 0) {
-                    // Only one of the submissions includes the line - no plagiarism here
-                    continue;
-                }
-
-                // Set matches invalid
-                for(SubmissionLine s : lineDatabase.get(key)) {
-                    if(s.submission.equals(a)) {
-                        finalA.get(s.lineNum).setValid(false);
-                    } else if(s.submission.equals(b)) {
-                        finalB.get(s.lineNum).setValid(false);
-                    } else {
-                        throw new RuntimeException("Unreachable code!");
-                    }
-                }
-
-                identicalLinesA += numLinesA;
-                identicalLinesB += numLinesB;
+    /**
+     * Detect similarities between every pair of a corpus using the line similarity comparator.
+     *
+     * Every line of every submission is indexed once, in a single index shared by all pairs. Pairs with no line in
+     * common are given results with no lines matched without being compared, and the rest are marked in parallel,
+     * through {@link ParallelAlgorithm}. Results are identical to comparing each pair in turn.
+     *
+     * @param submissions Submissions to compare. There must be at least two, all with the same token type.
+     * @param archiveSubmissions Archive submissions to compare against, which may be empty
+     * @param pruneThreshold Ignored - every pair sharing a line is compared
+     * @return Results of the similarity detection, one for each pair
+     * @throws ChecksimsException Thrown comparing submissions with different token types
+     */
+    @Override
+    public Set<AlgorithmResults> detectSimilarity(Set<Submission> submissions, Set<Submission> archiveSubmissions,
+                                                  double pruneThreshold) throws ChecksimsException {
+        checkNotNull(submissions);
+        checkNotNull(archiveSubmissions);
+
+        Set<Pair<Submission, Submission>> pairs = PairGenerator.generatePairsWithArchive(submissions,
+                archiveSubmissions);
+
+        logs.info("Performing similarity detection on " + pairs.size() + " pairs using algorithm " + getName());
+        long startTime = System.currentTimeMillis();
+
+        // Number every submission
+        List<Submission> corpus = new ArrayList<>(submissions);
+        corpus.addAll(archiveSubmissions);
+
+        Map<Submission, Integer> indices = new HashMap<>();
+        List<TokenList> corpusLines = new ArrayList<>();
+        for(Submission s : corpus) {
+            if(!s.getTokenType().equals(corpus.get(0).getTokenType())) {
+                throw new TokenTypeMismatchException("Token list type mismatch: submission " + corpus.get(0).getName()
+                        + " has type " + corpus.get(0).getTokenType().toString() + ", while submission "
+                        + s.getName() + " has type " + s.getTokenType().toString());
             }
+
+            indices.put(s, corpusLines.size());
+            corpusLines.add(s.getContentAsTokens());
         }
 
-        int invalTokensA = (int)finalA.stream().filter((token) -> !token.isValid()).count();
-        int invalTokensB = (int)finalB.stream().filter((token) -> !token.isValid()).count();
+        LineLexemeIndex index = new LineLexemeIndex(corpusLines);
 
-        if(invalTokensA != identicalLinesA) {
-            throw new InternalAlgorithmError("Internal error: number of identical tokens (" + identicalLinesA
-                    + ") does not match number of invalid tokens (" + invalTokensA + ")");
-        } else if(invalTokensB != identicalLinesB) {
-            throw new InternalAlgorithmError("Internal error: number of identical tokens (" + identicalLinesB
-                    + ") does not match number of invalid tokens (" + invalTokensB + ")");
-        }
+        // Pairs with a line in common, the first of the pair in the high bits - these come in ascending order, so can
+        // be binary searched
+        LongList sharingPairs = new LongList();
+        index.forEachSharedPair((first, second) -> sharingPairs.add(((long)first << 32) | second));
+        long[] sharing = sharingPairs.toArray();
 
-        return new AlgorithmResults(a, b, finalA, finalB);
+        logs.debug("Indexed " + index.getNumGroups() + " distinct lines, shared between " + sharing.length
+                + " pairs of " + corpus.size() + " submissions");
+
+        // The index is only read from here on, so pairs can be marked on every thread at once
+        Set<AlgorithmResults> results = ParallelAlgorithm.parallelPairComparison((a, b) -> {
+            int indexA = indices.get(a);
+            int indexB = indices.get(b);
+            long key = ((long)Math.min(indexA, indexB) << 32) | Math.max(indexA, indexB);
+
+            if(Arrays.binarySearch(sharing, key) < 0) {
+                return new AlgorithmResults(a, b, a.getContentAsTokens(), b.getContentAsTokens());
+            }
+
+            TokenList finalA = TokenList.cloneTokenList(a.getContentAsTokens());
+            TokenList finalB = TokenList.cloneTokenList(b.getContentAsTokens());
+            index.markSharedLines(indexA, indexB, finalA);
+            index.markSharedLines(indexB, indexA, finalB);
+
+            return new AlgorithmResults(a, b, finalA, finalB);
+        }, pairs);
+
+        logs.info("Finished similarity detection in " + (System.currentTimeMillis() - startTime) + " ms");
+
+        return results;
     }
 
-    void addLinesToMap(TokenList lines, Map<String, List<SubmissionLine>> lineDatabase, Submission submitter,
-                       MessageDigest hasher) {
-        for(int i = 0; i < lines.size(); i++) {
-            Token token = lines.get(i);
+    /**
+     * @param lines Lines to get lexemes of
+     * @return Lexeme of every line, sorted ascending
+     */
+    static int[] sortedLexemes(TokenList lines) {
+        checkNotNull(lines);
 
-            String hash = Hex.encodeHexString(hasher.digest(token.getTokenAsString().getBytes()));
+        int[] lexemes = new int[lines.size()];
+        for(int i = 0; i < lexemes.length; i++) {
+            lexemes[i] = lines.get(i).getLexeme();
+        }
 
-            if(lineDatabase.get(hash) == null) {
-                lineDatabase.put(hash, new ArrayList<>());
-            }
+        Arrays.sort(lexemes);
+
+        return lexemes;
+    }
 
-            SubmissionLine line = new SubmissionLine(i, submitter);
-            lineDatabase.get(hash).add(line);
+    /**
+     * Set invalid every line whose lexeme is among the given lexemes.
+     *
+     * @param lines Lines to mark
+     * @param lexemes Lexemes to mark lines with, sorted ascending
+     * @return Number of lines marked
+     */
+    static int markLinesIn(TokenList lines, int[] lexemes) {
+        checkNotNull(lines);
+        checkNotNull(lexemes);
+
+        int marked = 0;
+        for(Token line : lines) {
+            if(Arrays.binarySearch(lexemes, line.getLexeme()) >= 0) {
+                line.setValid(false);
+                marked++;
+            }
         }
+
+        return marked;
+    }
+
+    /**
+     * @return False - corpus detection indexes the lines of the whole corpus together
+     */
+    @Override
+    public boolean comparesPairsIndependently() {
+        return false;
     }
 
     @Override
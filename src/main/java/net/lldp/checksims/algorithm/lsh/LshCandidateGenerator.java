@@ -0,0 +1,343 @@
+/*
+ * CDDL HEADER START
+ *
+ * The contents of this file are subject to the terms of the
+ * Common Development and Distribution License (the "License").
+ * You may not use this file except in compliance with the License.
+ *
+ * See LICENSE.txt included in this distribution for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing Covered Code, include this CDDL HEADER in each
+ * file and include the License file at LICENSE.txt.
+ * If applicable, add the following below this CDDL HEADER, with the
+ * fields enclosed by brackets "[]" replaced with your own identifying
+ * information: Portions Copyright [yyyy] [name of copyright owner]
+ *
+ * CDDL HEADER END
+ *
+ * Copyright (c) 2014-2015 Nicholas DeMarinis, Matthew Heon, and Dolan Murvihill
+ */
+
+package net.lldp.checksims.algorithm.lsh;
+
+import net.lldp.checksims.submission.Submission;
+import net.lldp.checksims.util.primitive.LongList;
+import org.apache.commons.lang3.tuple.Pair;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * Selects the pairs of a corpus worth running a similarity detector on, using MinHash and Locality-Sensitive Hashing.
+ *
+ * Each submission's lexeme shingles are MinHashed once, and the signature cut into bands of several rows. Submissions
+ * whose signatures agree in every row of any band land in the same bucket for that band, and only pairs sharing a
+ * bucket are selected. A pair with shingle Jaccard similarity s is selected with probability 1 - (1 - s^r)^b for b
+ * bands of r rows, so similar pairs are almost always selected and dissimilar ones almost never.
+ *
+ * As a check on what is missed, a random sample of the remaining pairs is selected for audit. Whether a pair is audited
+ * depends only on the seed and the names of its submissions, so repeated runs audit the same pairs.
+ */
+public final class LshCandidateGenerator {
+    private static Logger logs = LoggerFactory.getLogger(LshCandidateGenerator.class);
+
+    /**
+     * Default number of tokens in each shingle.
+     */
+    public static final int DEFAULT_SHINGLE_LENGTH = 3;
+
+    /**
+     * Default number of bands - with the default rows per band, pairs are likely selected above about 0.15 Jaccard
+     * similarity. Copied code with scattered edits keeps few of its shingles intact, so the threshold is kept low.
+     */
+    public static final int DEFAULT_NUM_BANDS = 50;
+
+    /**
+     * Default number of signature elements in each band.
+     */
+    public static final int DEFAULT_ROWS_PER_BAND = 2;
+
+    /**
+     * Default fraction of pairs which are not candidates to select anyways, for audit.
+     */
+    public static final double DEFAULT_AUDIT_RATE = 0.01;
+
+    /**
+     * Default seed for hash functions and audit sampling.
+     */
+    public static final long DEFAULT_SEED = 0x5EED5EED5EEDL;
+
+    // Bits of each bucket entry below the band key, holding the submission's index
+    private static final int INDEX_BITS = 24;
+
+    private final int shingleLength;
+    private final int numBands;
+    private final int rowsPerBand;
+    private final double auditRate;
+    private final long seed;
+    private final long[] hashSeeds;
+
+    /**
+     * Create a candidate generator with default settings and a given audit rate.
+     *
+     * @param auditRate Fraction, from 0.0 to 1.0, of pairs which are not candidates to select anyways
+     */
+    public LshCandidateGenerator(double auditRate) {
+        this(DEFAULT_SHINGLE_LENGTH, DEFAULT_NUM_BANDS, DEFAULT_ROWS_PER_BAND, auditRate, DEFAULT_SEED);
+    }
+
+    /**
+     * Create a candidate generator.
+     *
+     * @param shingleLength Number of tokens in each shingle. Must be at least 1.
+     * @param numBands Number of bands to cut signatures into. Must be at least 1.
+     * @param rowsPerBand Number of signature elements in each band. Must be at least 1.
+     * @param auditRate Fraction, from 0.0 to 1.0, of pairs which are not candidates to select anyways
+     * @param seed Seed for hash functions and audit sampling
+     */
+    public LshCandidateGenerator(int shingleLength, int numBands, int rowsPerBand, double auditRate, long seed) {
+        checkArgument(shingleLength >= 1, "Shingle length must be at least 1, got " + shingleLength);
+        checkArgument(numBands >= 1, "Number of bands must be at least 1, got " + numBands);
+        checkArgument(rowsPerBand >= 1, "Rows per band must be at least 1, got " + rowsPerBand);
+        checkArgument(auditRate >= 0.0 && auditRate <= 1.0, "Audit rate must be between 0 and 1, got " + auditRate);
+
+        this.shingleLength = shingleLength;
+        this.numBands = numBands;
+        this.rowsPerBand = rowsPerBand;
+        this.auditRate = auditRate;
+        this.seed = seed;
+
+        Random random = new Random(seed);
+        hashSeeds = new long[numBands * rowsPerBand];
+        for(int i = 0; i < hashSeeds.length; i++) {
+            hashSeeds[i] = random.nextLong();
+        }
+    }
+
+    /**
+     * @return Number of tokens in each shingle
+     */
+    public int getShingleLength() {
+        return shingleLength;
+    }
+
+    /**
+     * @return Number of bands signatures are cut into
+     */
+    public int getNumBands() {
+        return numBands;
+    }
+
+    /**
+     * @return Number of signature elements in each band
+     */
+    public int getRowsPerBand() {
+        return rowsPerBand;
+    }
+
+    /**
+     * @return Fraction of pairs which are not candidates selected anyways, for audit
+     */
+    public double getAuditRate() {
+        return auditRate;
+    }
+
+    /**
+     * @return Seed for hash functions and audit sampling
+     */
+    public long getSeed() {
+        return seed;
+    }
+
+    /**
+     * Select the pairs worth comparing.
+     *
+     * @param pairs Pairs to select from
+     * @return Every given pair whose submissions share an LSH bucket, plus a random sample of the rest
+     */
+    public Set<Pair<Submission, Submission>> selectCandidates(Set<Pair<Submission, Submission>> pairs) {
+        checkNotNull(pairs);
+
+        // Number every submission, and sign each once
+        Map<Submission, Integer> indices = new HashMap<>();
+        List<MinHashSignature> signatures = new ArrayList<>();
+        for(Pair<Submission, Submission> pair : pairs) {
+            for(Submission s : new Submission[] {pair.getLeft(), pair.getRight()}) {
+                if(!indices.containsKey(s)) {
+                    indices.put(s, signatures.size());
+                    signatures.add(MinHashSignature.of(s.getContentAsTokens(), shingleLength, hashSeeds));
+                }
+            }
+        }
+
+        checkArgument(signatures.size() < (1 << INDEX_BITS), "Cannot select candidates among more than "
+                + ((1 << INDEX_BITS) - 1) + " submissions");
+
+        long[] colliding = collidingPairs(signatures);
+
+        Set<Pair<Submission, Submission>> candidates = new HashSet<>();
+        int audited = 0;
+        for(Pair<Submission, Submission> pair : pairs) {
+            int indexA = indices.get(pair.getLeft());
+            int indexB = indices.get(pair.getRight());
+            long key = ((long)Math.min(indexA, indexB) << 32) | Math.max(indexA, indexB);
+
+            if(Arrays.binarySearch(colliding, key) >= 0) {
+                candidates.add(pair);
+            } else if(isAudited(pair.getLeft(), pair.getRight())) {
+                candidates.add(pair);
+                audited++;
+            }
+        }
+
+        logs.info("Selected " + candidates.size() + " of " + pairs.size() + " pairs to compare ("
+                + String.format("%.1f", 100.0 * candidates.size() / Math.max(1, pairs.size())) + "%), of which "
+                + audited + " were sampled for audit");
+
+        return candidates;
+    }
+
+    /**
+     * Find the pairs colliding in any band.
+     *
+     * Each band's pairs are merged into those already found, so memory is bounded by the number of distinct pairs,
+     * however many bands a pair collides in.
+     *
+     * @param signatures Signature of each submission
+     * @return Every pair of submissions sharing a bucket in any band, the lower index in the high 32 bits, sorted
+     *         ascending with no duplicates
+     */
+    private long[] collidingPairs(List<MinHashSignature> signatures) {
+        long[] colliding = new long[0];
+        LongList bandPairs = new LongList();
+        long[] bucket = new long[signatures.size()];
+        long indexMask = (1L << INDEX_BITS) - 1;
+
+        for(int band = 0; band < numBands; band++) {
+            // Band key in the high bits and submission index in the low, so sorting groups each bucket together
+            int size = 0;
+            for(int s = 0; s < signatures.size(); s++) {
+                MinHashSignature signature = signatures.get(s);
+
+                // A list with no shingles would collide with every other such list, while saying nothing about them
+                if(!signature.isEmpty()) {
+                    bucket[size++] = (signature.bandKey(band * rowsPerBand, rowsPerBand) & ~indexMask) | s;
+                }
+            }
+
+            Arrays.sort(bucket, 0, size);
+
+            // Each submission is in one bucket per band, so no pair is found twice within a band
+            bandPairs.clear();
+            int start = 0;
+            while(start < size) {
+                int end = start + 1;
+                while(end < size && (bucket[end] & ~indexMask) == (bucket[start] & ~indexMask)) {
+                    end++;
+                }
+
+                // Indices are in the low bits, so come out ascending within each bucket
+                for(int i = start; i < end; i++) {
+                    for(int j = i + 1; j < end; j++) {
+                        bandPairs.add(((bucket[i] & indexMask) << 32) | (bucket[j] & indexMask));
+                    }
+                }
+
+                start = end;
+            }
+
+            if(!bandPairs.isEmpty()) {
+                bandPairs.sort();
+                colliding = mergeDistinct(colliding, bandPairs.toArray());
+            }
+        }
+
+        return colliding;
+    }
+
+    /**
+     * @param first Sorted array with no duplicates
+     * @param second Sorted array with no duplicates
+     * @return Every value in either array, sorted ascending with no duplicates
+     */
+    private static long[] mergeDistinct(long[] first, long[] second) {
+        long[] merged = new long[first.length + second.length];
+        int i = 0;
+        int j = 0;
+        int size = 0;
+
+        while(i < first.length && j < second.length) {
+            if(first[i] < second[j]) {
+                merged[size++] = first[i++];
+            } else if(first[i] > second[j]) {
+                merged[size++] = second[j++];
+            } else {
+                merged[size++] = first[i++];
+                j++;
+            }
+        }
+        while(i < first.length) {
+            merged[size++] = first[i++];
+        }
+        while(j < second.length) {
+            merged[size++] = second[j++];
+        }
+
+        return size == merged.length ? merged : Arrays.copyOf(merged, size);
+    }
+
+    /**
+     * @param a First submission of a pair
+     * @param b Second submission of a pair
+     * @return True if the pair is in the audit sample
+     */
+    private boolean isAudited(Submission a, Submission b) {
+        if(auditRate == 0.0) {
+            return false;
+        }
+
+        // Order the names, so the pair is audited whichever way round it is given
+        int first = Math.min(a.getName().hashCode(), b.getName().hashCode());
+        int second = Math.max(a.getName().hashCode(), b.getName().hashCode());
+        long hash = MinHashSignature.mix(MinHashSignature.mix(seed ^ first) ^ second);
+
+        // Top 53 bits as a fraction from 0 to 1
+        return (hash >>> 11) * 0x1.0p-53 < auditRate;
+    }
+
+    @Override
+    public String toString() {
+        return "LSH candidate generator with " + numBands + " bands of " + rowsPerBand + " rows over "
+                + shingleLength + "-token shingles, auditing " + auditRate + " of other pairs";
+    }
+
+    @Override
+    public int hashCode() {
+        return Long.hashCode(seed) ^ (numBands * 31 + rowsPerBand) ^ shingleLength;
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        if(!(other instanceof LshCandidateGenerator)) {
+            return false;
+        }
+
+        LshCandidateGenerator otherGenerator = (LshCandidateGenerator)other;
+
+        return otherGenerator.shingleLength == shingleLength && otherGenerator.numBands == numBands
+                && otherGenerator.rowsPerBand == rowsPerBand && otherGenerator.auditRate == auditRate
+                && otherGenerator.seed == seed;
+    }
+}
@@ -0,0 +1,137 @@
+/*
+ * CDDL HEADER START
+ *
+ * The contents of this file are subject to the terms of the
+ * Common Development and Distribution License (the "License").
+ * You may not use this file except in compliance with the License.
+ *
+ * See LICENSE.txt included in this distribution for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing Covered Code, include this CDDL HEADER in each
+ * file and include the License file at LICENSE.txt.
+ * If applicable, add the following below this CDDL HEADER, with the
+ * fields enclosed by brackets "[]" replaced with your own identifying
+ * information: Portions Copyright [yyyy] [name of copyright owner]
+ *
+ * CDDL HEADER END
+ *
+ * Copyright (c) 2014-2015 Nicholas DeMarinis, Matthew Heon, and Dolan Murvihill
+ */
+
+package net.lldp.checksims.algorithm.lsh;
+
+import net.lldp.checksims.token.TokenList;
+import net.lldp.checksims.util.primitive.KGramIndex;
+
+import java.util.Arrays;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * MinHash signature of the lexeme shingles of one token list.
+ *
+ * Each element of the signature is the smallest value any shingle takes under one of a family of hash functions. The
+ * probability two signatures agree in any one element is the Jaccard similarity of their shingle sets.
+ */
+final class MinHashSignature {
+    private final long[] minima;
+    private final boolean empty;
+
+    private MinHashSignature(long[] minima, boolean empty) {
+        this.minima = minima;
+        this.empty = empty;
+    }
+
+    /**
+     * Compute the MinHash signature of a token list.
+     *
+     * @param tokens Tokens to sign
+     * @param shingleLength Number of tokens in each shingle. Must be at least 1.
+     * @param seeds Seed of each hash function - one signature element is computed for each
+     * @return Signature of the given tokens
+     */
+    static MinHashSignature of(TokenList tokens, int shingleLength, long[] seeds) {
+        checkNotNull(tokens);
+        checkArgument(shingleLength >= 1, "Shingle length must be at least 1, got " + shingleLength);
+        checkNotNull(seeds);
+
+        int[] lexemes = new int[tokens.size()];
+        boolean[] valid = new boolean[tokens.size()];
+        for(int i = 0; i < tokens.size(); i++) {
+            lexemes[i] = tokens.get(i).getLexeme();
+            valid[i] = tokens.get(i).isValid();
+        }
+
+        long[] minima = new long[seeds.length];
+        Arrays.fill(minima, Long.MAX_VALUE);
+        boolean[] empty = {true};
+
+        KGramIndex.forEachKGram(lexemes, valid, shingleLength, (position, hash) -> {
+            empty[0] = false;
+
+            for(int i = 0; i < seeds.length; i++) {
+                minima[i] = Math.min(minima[i], mix(hash ^ seeds[i]));
+            }
+        });
+
+        return new MinHashSignature(minima, empty[0]);
+    }
+
+    /**
+     * @return True if the token list had no shingles, so the signature says nothing about it
+     */
+    boolean isEmpty() {
+        return empty;
+    }
+
+    /**
+     * @return Number of elements in the signature
+     */
+    int size() {
+        return minima.length;
+    }
+
+    /**
+     * @param index Index of an element
+     * @return Value of the element
+     */
+    long get(int index) {
+        return minima[index];
+    }
+
+    /**
+     * Hash one band of the signature. Signatures agreeing in every element of a band give it the same key.
+     *
+     * @param first Index of the first element of the band
+     * @param length Number of elements in the band
+     * @return Key of the band
+     */
+    long bandKey(int first, int length) {
+        checkArgument(first >= 0 && first + length <= minima.length, "Band of " + length + " elements from "
+                + first + " does not fit signature of " + minima.length);
+
+        long key = first;
+        for(int i = first; i < first + length; i++) {
+            key = mix(key ^ minima[i]);
+        }
+
+        return key;
+    }
+
+    /**
+     * Scramble the bits of a value, as the finalizer of SplitMix64.
+     *
+     * @param value Value to scramble
+     * @return Scrambled value - distinct values always scramble to distinct results
+     */
+    static long mix(long value) {
+        long z = value;
+
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+
+        return z ^ (z >>> 31);
+    }
+}
@@ -0,0 +1,234 @@
+/*
+ * CDDL HEADER START
+ *
+ * The contents of this file are subject to the terms of the
+ * Common Development and Distribution License (the "License").
+ * You may not use this file except in compliance with the License.
+ *
+ * See LICENSE.txt included in this distribution for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing Covered Code, include this CDDL HEADER in each
+ * file and include the License file at LICENSE.txt.
+ * If applicable, add the following below this CDDL HEADER, with the
+ * fields enclosed by brackets "[]" replaced with your own identifying
+ * information: Portions Copyright [yyyy] [name of copyright owner]
+ *
+ * CDDL HEADER END
+ *
+ * Copyright (c) 2014-2015 Nicholas DeMarinis, Matthew Heon, and Dolan Murvihill
+ */
+
+package net.lldp.checksims.algorithm.ngram;
+
+import net.lldp.checksims.token.TokenList;
+import net.lldp.checksims.util.primitive.KGramIndex;
+import net.lldp.checksims.util.primitive.LongList;
+
+import java.util.Arrays;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * Set of the lexeme n-grams of one token list.
+ *
+ * Every n-gram of valid tokens is hashed, and the distinct hashes kept sorted in a primitive array, so two profiles
+ * are compared by a single merge. Similarity scores treat each profile as a set - an n-gram repeated within a list
+ * counts once.
+ */
+public final class NGramProfile {
+    private final long[] hashes;
+    private final int[] positions;
+    private final long[] distinctHashes;
+
+    private NGramProfile(long[] hashes, int[] positions) {
+        this.hashes = hashes;
+        this.positions = positions;
+
+        long[] sorted = hashes.clone();
+        Arrays.sort(sorted);
+
+        int numDistinct = 0;
+        for(int i = 0; i < sorted.length; i++) {
+            if(i == 0 || sorted[i] != sorted[i - 1]) {
+                sorted[numDistinct++] = sorted[i];
+            }
+        }
+
+        distinctHashes = Arrays.copyOf(sorted, numDistinct);
+    }
+
+    /**
+     * Profile a token list.
+     *
+     * @param tokens Tokens to profile
+     * @param n Number of tokens in each n-gram. Must be at least 1.
+     * @return Profile of the given tokens
+     */
+    public static NGramProfile of(TokenList tokens, int n) {
+        checkNotNull(tokens);
+        checkArgument(n >= 1, "N-gram length must be at least 1, got " + n);
+
+        int[] lexemes = new int[tokens.size()];
+        boolean[] valid = new boolean[tokens.size()];
+        for(int i = 0; i < tokens.size(); i++) {
+            lexemes[i] = tokens.get(i).getLexeme();
+            valid[i] = tokens.get(i).isValid();
+        }
+
+        LongList nGramHashes = new LongList();
+        LongList nGramPositions = new LongList();
+        KGramIndex.forEachKGram(lexemes, valid, n, (position, hash) -> {
+            nGramHashes.add(hash);
+            nGramPositions.add(position);
+        });
+
+        int[] positions = new int[nGramPositions.size()];
+        for(int i = 0; i < positions.length; i++) {
+            positions[i] = (int)nGramPositions.get(i);
+        }
+
+        return new NGramProfile(nGramHashes.toArray(), positions);
+    }
+
+    /**
+     * @return Number of distinct n-grams
+     */
+    public int getNumDistinct() {
+        return distinctHashes.length;
+    }
+
+    /**
+     * @param other Profile to compare against
+     * @return Number of distinct n-grams found in both
+     */
+    public int intersectionSize(NGramProfile other) {
+        checkNotNull(other);
+
+        long[] ours = distinctHashes;
+        long[] theirs = other.distinctHashes;
+        int numShared = 0;
+
+        int i = 0;
+        int j = 0;
+        while(i < ours.length && j < theirs.length) {
+            if(ours[i] < theirs[j]) {
+                i++;
+            } else if(ours[i] > theirs[j]) {
+                j++;
+            } else {
+                numShared++;
+                i++;
+                j++;
+            }
+        }
+
+        return numShared;
+    }
+
+    /**
+     * @param other Profile to compare against
+     * @return Every distinct n-gram hash found in both, sorted ascending
+     */
+    public long[] sharedHashes(NGramProfile other) {
+        checkNotNull(other);
+
+        long[] ours = distinctHashes;
+        long[] theirs = other.distinctHashes;
+        long[] shared = new long[Math.min(ours.length, theirs.length)];
+        int numShared = 0;
+
+        int i = 0;
+        int j = 0;
+        while(i < ours.length && j < theirs.length) {
+            if(ours[i] < theirs[j]) {
+                i++;
+            } else if(ours[i] > theirs[j]) {
+                j++;
+            } else {
+                shared[numShared++] = ours[i];
+                i++;
+                j++;
+            }
+        }
+
+        return Arrays.copyOf(shared, numShared);
+    }
+
+    /**
+     * Jaccard similarity - n-grams in both, over n-grams in either.
+     *
+     * @param other Profile to compare against
+     * @return Jaccard similarity of the two profiles, 0 if both are empty
+     */
+    public double jaccard(NGramProfile other) {
+        checkNotNull(other);
+
+        return jaccard(intersectionSize(other), distinctHashes.length, other.distinctHashes.length);
+    }
+
+    /**
+     * Jaccard similarity from the size of two profiles and of their intersection.
+     *
+     * @param numShared Number of distinct n-grams in both profiles
+     * @param numDistinctA Number of distinct n-grams in the first profile
+     * @param numDistinctB Number of distinct n-grams in the second profile
+     * @return Jaccard similarity of the two profiles, 0 if both are empty
+     */
+    public static double jaccard(int numShared, int numDistinctA, int numDistinctB) {
+        int union = numDistinctA + numDistinctB - numShared;
+
+        return union == 0 ? 0.0 : (double)numShared / union;
+    }
+
+    /**
+     * Containment of this profile in another - the fraction of this profile's n-grams also found in the other.
+     *
+     * Unlike Jaccard similarity, a small submission copied wholesale into a large one is fully contained in it.
+     *
+     * @param other Profile to compare against
+     * @return Containment of this profile in the other, 0 if this profile is empty
+     */
+    public double containment(NGramProfile other) {
+        checkNotNull(other);
+
+        return containment(intersectionSize(other), distinctHashes.length);
+    }
+
+    /**
+     * Containment from the size of a profile and of its intersection with another.
+     *
+     * @param numShared Number of distinct n-grams in both profiles
+     * @param numDistinct Number of distinct n-grams in the contained profile
+     * @return Containment of the profile in the other, 0 if it is empty
+     */
+    public static double containment(int numShared, int numDistinct) {
+        return numDistinct == 0 ? 0.0 : (double)numShared / numDistinct;
+    }
+
+    /**
+     * Set invalid every token of each n-gram whose hash is among the given hashes.
+     *
+     * @param toMark Hashes to mark, sorted ascending
+     * @param n Number of tokens in each n-gram, as profiled
+     * @param tokens Token list this profile was taken from
+     */
+    public void markCovered(long[] toMark, int n, TokenList tokens) {
+        checkNotNull(toMark);
+        checkNotNull(tokens);
+        checkArgument(n >= 1, "N-gram length must be at least 1, got " + n);
+
+        // Mark each token once, however many covered n-grams it is in
+        int markedTo = 0;
+        for(int i = 0; i < hashes.length; i++) {
+            if(Arrays.binarySearch(toMark, hashes[i]) >= 0) {
+                for(int j = Math.max(positions[i], markedTo); j < positions[i] + n; j++) {
+                    tokens.get(j).setValid(false);
+                }
+
+                markedTo = Math.max(markedTo, positions[i] + n);
+            }
+        }
+    }
+}
@@ -0,0 +1,280 @@
+/*
+ * CDDL HEADER START
+ *
+ * The contents of this file are subject to the terms of the
+ * Common Development and Distribution License (the "License").
+ * You may not use this file except in compliance with the License.
+ *
+ * See LICENSE.txt included in this distribution for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing Covered Code, include this CDDL HEADER in each
+ * file and include the License file at LICENSE.txt.
+ * If applicable, add the following below this CDDL HEADER, with the
+ * fields enclosed by brackets "[]" replaced with your own identifying
+ * information: Portions Copyright [yyyy] [name of copyright owner]
+ *
+ * CDDL HEADER END
+ *
+ * Copyright (c) 2014-2015 Nicholas DeMarinis, Matthew Heon, and Dolan Murvihill
+ */
+
+package net.lldp.checksims.algorithm.ngram;
+
+import net.lldp.checksims.ChecksimsException;
+import net.lldp.checksims.algorithm.AlgorithmResults;
+import net.lldp.checksims.algorithm.InternalAlgorithmError;
+import net.lldp.checksims.algorithm.SimilarityDetector;
+import net.lldp.checksims.submission.Submission;
+import net.lldp.checksims.token.TokenList;
+import net.lldp.checksims.token.TokenType;
+import net.lldp.checksims.token.TokenTypeMismatchException;
+import net.lldp.checksims.util.PairGenerator;
+import net.lldp.checksims.util.threading.ParallelAlgorithm;
+import org.apache.commons.lang3.tuple.Pair;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * N-gram similarity detector, for cheap first-pass triage.
+ *
+ * Each submission is reduced to the set of its lexeme n-grams, and two submissions are compared by intersecting their
+ * sets, with no alignment. Tokens of every n-gram found in both submissions are marked matched, so a token may be
+ * matched against several in the other submission, and reordered copies are matched as readily as verbatim ones.
+ * Jaccard similarity and containment of each pair are given with its results, through
+ * {@link AlgorithmResults#getJaccard()} and the containment getters.
+ */
+public final class NGramSimilarity implements SimilarityDetector {
+    private static NGramSimilarity instance;
+
+    private static Logger logs = LoggerFactory.getLogger(NGramSimilarity.class);
+
+    /**
+     * Default number of tokens in each n-gram.
+     */
+    public static final int DEFAULT_NGRAM_LENGTH = 4;
+
+    private volatile int ngramLength = DEFAULT_NGRAM_LENGTH;
+
+    private NGramSimilarity() {}
+
+    /**
+     * @return Singleton instance of the n-gram similarity algorithm
+     */
+    public static NGramSimilarity getInstance() {
+        if(instance == null) {
+            instance = new NGramSimilarity();
+        }
+
+        return instance;
+    }
+
+    /**
+     * @return Name of this implementation
+     */
+    @Override
+    public String getName() {
+        return "ngram";
+    }
+
+    /**
+     * @return Default token type to be used for this similarity detector
+     */
+    @Override
+    public TokenType getDefaultTokenType() {
+        return TokenType.WHITESPACE;
+    }
+
+    /**
+     * @return Number of tokens in each n-gram
+     */
+    public int getNgramLength() {
+        return ngramLength;
+    }
+
+    /**
+     * @param ngramLength Number of tokens in each n-gram
+     */
+    public void setNgramLength(int ngramLength) {
+        checkArgument(ngramLength >= 1, "N-gram length must be at least 1, got " + ngramLength);
+
+        this.ngramLength = ngramLength;
+    }
+
+    /**
+     * Compare the n-grams of two submissions.
+     *
+     * Token list types of A and B must match
+     *
+     * @param a First submission to apply to
+     * @param b Second submission to apply to
+     * @return Similarity results of comparing submissions A and B
+     * @throws TokenTypeMismatchException Thrown on comparing submissions with mismatched token types
+     * @throws InternalAlgorithmError Thrown on internal error
+     */
+    @Override
+    public AlgorithmResults detectSimilarity(Submission a, Submission b)
+            throws TokenTypeMismatchException, InternalAlgorithmError {
+        checkNotNull(a);
+        checkNotNull(b);
+
+        int n = ngramLength;
+
+        // Test for token type mismatch
+        if(!a.getTokenType().equals(b.getTokenType())) {
+            throw new TokenTypeMismatchException("Token list type mismatch: submission " + a.getName() + " has type " +
+                    a.getTokenType().toString() + ", while submission " + b.getName() + " has type "
+                    + b.getTokenType().toString());
+        }
+
+        // Handle a 0-token submission (no similarity)
+        if(a.getNumTokens() == 0 || b.getNumTokens() == 0) {
+            return new AlgorithmResults(a, b, a.getContentAsTokens(), b.getContentAsTokens())
+                    .withSetSimilarity(0.0, 0.0, 0.0);
+        } else if(a.equals(b)) {
+            return identicalResults(a, b, n);
+        }
+
+        return compare(a, b, NGramProfile.of(a.getContentAsTokens(), n), NGramProfile.of(b.getContentAsTokens(), n),
+                n);
+    }
+
+    /**
+     * Compare the n-grams of every pair of a corpus, profiling each submission only once.
+     *
+     * Pairs are compared in parallel, through {@link ParallelAlgorithm}, once every submission has been profiled.
+     *
+     * Every pair is given results, so nothing is gained by pruning, and the prune threshold is ignored.
+     *
+     * @param submissions Submissions to compare. There must be at least two, all with the same token type.
+     * @param archiveSubmissions Archive submissions to compare against, which may be empty
+     * @param pruneThreshold Ignored
+     * @return Similarity results for each pair compared
+     * @throws ChecksimsException Thrown on error detecting similarities
+     */
+    @Override
+    public Set<AlgorithmResults> detectSimilarity(Set<Submission> submissions, Set<Submission> archiveSubmissions,
+                                                  double pruneThreshold) throws ChecksimsException {
+        checkNotNull(submissions);
+        checkNotNull(archiveSubmissions);
+
+        int n = ngramLength;
+
+        Set<Pair<Submission, Submission>> pairs = PairGenerator.generatePairsWithArchive(submissions,
+                archiveSubmissions);
+
+        logs.info("Performing similarity detection on " + pairs.size() + " pairs using algorithm " + getName());
+        long startTime = System.currentTimeMillis();
+
+        // Profile every submission once, up front, so the profiles are only read while pairs are compared
+        Map<Submission, NGramProfile> profiles = new HashMap<>();
+        for(Pair<Submission, Submission> pair : pairs) {
+            Submission a = pair.getLeft();
+            Submission b = pair.getRight();
+
+            // Test for token type mismatch
+            if(!a.getTokenType().equals(b.getTokenType())) {
+                throw new TokenTypeMismatchException("Token list type mismatch: submission " + a.getName()
+                        + " has type " + a.getTokenType().toString() + ", while submission " + b.getName()
+                        + " has type " + b.getTokenType().toString());
+            }
+
+            if(!a.equals(b)) {
+                profiles.computeIfAbsent(a, (submission) -> NGramProfile.of(submission.getContentAsTokens(), n));
+                profiles.computeIfAbsent(b, (submission) -> NGramProfile.of(submission.getContentAsTokens(), n));
+            }
+        }
+
+        Set<AlgorithmResults> results = ParallelAlgorithm.parallelPairComparison((a, b) -> {
+            if(a.equals(b)) {
+                return identicalResults(a, b, n);
+            }
+
+            return compare(a, b, profiles.get(a), profiles.get(b), n);
+        }, pairs);
+
+        logs.info("Finished similarity detection in " + (System.currentTimeMillis() - startTime) + " ms");
+
+        return results;
+    }
+
+    /**
+     * @param a First submission
+     * @param b Second submission
+     * @param profileA N-grams of the first submission
+     * @param profileB N-grams of the second submission
+     * @param n Number of tokens in each n-gram, as profiled
+     * @return Results with the tokens of every n-gram the two share marked, and the pair's set similarity
+     */
+    private static AlgorithmResults compare(Submission a, Submission b, NGramProfile profileA, NGramProfile profileB,
+                                            int n) {
+        // One merge finds the shared n-grams, and every score follows from how many there are
+        long[] shared = profileA.sharedHashes(profileB);
+        double jaccard = NGramProfile.jaccard(shared.length, profileA.getNumDistinct(), profileB.getNumDistinct());
+        double containmentA = NGramProfile.containment(shared.length, profileA.getNumDistinct());
+        double containmentB = NGramProfile.containment(shared.length, profileB.getNumDistinct());
+
+        if(logs.isTraceEnabled()) {
+            logs.trace("Submissions " + a.getName() + " and " + b.getName() + " share " + shared.length
+                    + " n-grams - Jaccard similarity " + jaccard + ", containment " + containmentA + " and "
+                    + containmentB);
+        }
+
+        if(shared.length == 0) {
+            return new AlgorithmResults(a, b, a.getContentAsTokens(), b.getContentAsTokens())
+                    .withSetSimilarity(jaccard, containmentA, containmentB);
+        }
+
+        TokenList finalA = TokenList.cloneTokenList(a.getContentAsTokens());
+        TokenList finalB = TokenList.cloneTokenList(b.getContentAsTokens());
+        profileA.markCovered(shared, n, finalA);
+        profileB.markCovered(shared, n, finalB);
+
+        return new AlgorithmResults(a, b, finalA, finalB).withSetSimilarity(jaccard, containmentA, containmentB);
+    }
+
+    /**
+     * @param a Submission compared against itself
+     * @param b Submission equal to the first
+     * @param n Number of tokens in each n-gram
+     * @return Results with every token matched, and set similarity of 1, or 0 if there are too few tokens for an n-gram
+     */
+    private static AlgorithmResults identicalResults(Submission a, Submission b, int n) {
+        TokenList aInval = TokenList.cloneTokenList(a.getContentAsTokens());
+        aInval.stream().forEach((token) -> token.setValid(false));
+
+        double similarity = NGramProfile.of(a.getContentAsTokens(), n).getNumDistinct() == 0 ? 0.0 : 1.0;
+
+        return new AlgorithmResults(a, b, aInval, aInval).withSetSimilarity(similarity, similarity, similarity);
+    }
+
+    /**
+     * @return False - corpus detection profiles the whole corpus before comparing pairs
+     */
+    @Override
+    public boolean comparesPairsIndependently() {
+        return false;
+    }
+
+    @Override
+    public String toString() {
+        return "Singleton instance of N-Gram Similarity Algorithm";
+    }
+
+    @Override
+    public int hashCode() {
+        return this.getName().hashCode();
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        return other instanceof NGramSimilarity;
+    }
+}
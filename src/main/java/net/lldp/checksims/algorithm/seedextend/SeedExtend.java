@@ -0,0 +1,191 @@
+/*
+ * CDDL HEADER START
+ *
+ * The contents of this file are subject to the terms of the
+ * Common Development and Distribution License (the "License").
+ * You may not use this file except in compliance with the License.
+ *
+ * See LICENSE.txt included in this distribution for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing Covered Code, include this CDDL HEADER in each
+ * file and include the License file at LICENSE.txt.
+ * If applicable, add the following below this CDDL HEADER, with the
+ * fields enclosed by brackets "[]" replaced with your own identifying
+ * information: Portions Copyright [yyyy] [name of copyright owner]
+ *
+ * CDDL HEADER END
+ *
+ * Copyright (c) 2014-2015 Nicholas DeMarinis, Matthew Heon, and Dolan Murvihill
+ */
+
+package net.lldp.checksims.algorithm.seedextend;
+
+import net.lldp.checksims.algorithm.AlgorithmResults;
+import net.lldp.checksims.algorithm.InternalAlgorithmError;
+import net.lldp.checksims.algorithm.SimilarityDetector;
+import net.lldp.checksims.submission.Submission;
+import net.lldp.checksims.token.TokenList;
+import net.lldp.checksims.token.TokenType;
+import net.lldp.checksims.token.TokenTypeMismatchException;
+import org.apache.commons.lang3.tuple.Pair;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * Seed-and-extend similarity detector, which only runs Smith-Waterman around runs of identical tokens.
+ *
+ * Much faster than full Smith-Waterman for very large submissions, and unlike banded Smith-Waterman finds copied
+ * sections wherever they have moved to. Copied sections without at least one identical run of the seed length are
+ * missed, so very heavily edited copies may not be found.
+ */
+public final class SeedExtend implements SimilarityDetector {
+    private static SeedExtend instance;
+
+    private static Logger logs = LoggerFactory.getLogger(SeedExtend.class);
+
+    /**
+     * Default number of identical tokens needed to make a seed.
+     */
+    public static final int DEFAULT_SEED_LENGTH = 8;
+
+    /**
+     * Default number of tokens around each chain of seeds to align.
+     */
+    public static final int DEFAULT_EXTENSION = 32;
+
+    private volatile int seedLength = DEFAULT_SEED_LENGTH;
+    private volatile int extension = DEFAULT_EXTENSION;
+
+    private SeedExtend() {}
+
+    /**
+     * @return Singleton instance of the seed-and-extend algorithm
+     */
+    public static SeedExtend getInstance() {
+        if(instance == null) {
+            instance = new SeedExtend();
+        }
+
+        return instance;
+    }
+
+    /**
+     * @return Name of this implementation
+     */
+    @Override
+    public String getName() {
+        return "seedextend";
+    }
+
+    /**
+     * @return Default token type to be used for this similarity detector
+     */
+    @Override
+    public TokenType getDefaultTokenType() {
+        return TokenType.WHITESPACE;
+    }
+
+    /**
+     * @return Number of identical tokens needed to make a seed
+     */
+    public int getSeedLength() {
+        return seedLength;
+    }
+
+    /**
+     * @param seedLength Number of identical tokens needed to make a seed
+     */
+    public void setSeedLength(int seedLength) {
+        checkArgument(seedLength >= 1, "Seed length must be at least 1, got " + seedLength);
+
+        this.seedLength = seedLength;
+    }
+
+    /**
+     * @return Number of tokens around each chain of seeds to align
+     */
+    public int getExtension() {
+        return extension;
+    }
+
+    /**
+     * @param extension Number of tokens around each chain of seeds to align
+     */
+    public void setExtension(int extension) {
+        checkArgument(extension >= 1, "Extension must be at least 1, got " + extension);
+
+        this.extension = extension;
+    }
+
+    /**
+     * Apply the seed-and-extend algorithm to determine the similarity between two submissions.
+     *
+     * Token list types of A and B must match
+     *
+     * @param a First submission to apply to
+     * @param b Second submission to apply to
+     * @return Similarity results of comparing submissions A and B
+     * @throws TokenTypeMismatchException Thrown on comparing submissions with mismatched token types
+     * @throws InternalAlgorithmError Thrown on internal error
+     */
+    @Override
+    public AlgorithmResults detectSimilarity(Submission a, Submission b)
+            throws TokenTypeMismatchException, InternalAlgorithmError {
+        checkNotNull(a);
+        checkNotNull(b);
+
+        // Test for token type mismatch
+        if(!a.getTokenType().equals(b.getTokenType())) {
+            throw new TokenTypeMismatchException("Token list type mismatch: submission " + a.getName() + " has type " +
+                    a.getTokenType().toString() + ", while submission " + b.getName() + " has type "
+                    + b.getTokenType().toString());
+        }
+
+        // Handle a 0-token submission (no similarity)
+        if(a.getNumTokens() == 0 || b.getNumTokens() == 0) {
+            return new AlgorithmResults(a, b, a.getContentAsTokens(), b.getContentAsTokens());
+        } else if(a.equals(b)) {
+            // Handle identical submissions
+            TokenList aInval = TokenList.cloneTokenList(a.getContentAsTokens());
+            aInval.stream().forEach((token) -> token.setValid(false));
+            return new AlgorithmResults(a, b, aInval, aInval);
+        }
+
+        SeedExtendAlgorithm algorithm = new SeedExtendAlgorithm(a.getContentAsTokens(), b.getContentAsTokens(),
+                seedLength, extension);
+
+        Pair<TokenList, TokenList> endLists = algorithm.computeAlignment();
+
+        logs.trace("Found " + algorithm.getNumSeeds() + " seeds in " + algorithm.getNumChains()
+                + " chains between submissions " + a.getName() + " and " + b.getName());
+
+        return new AlgorithmResults(a, b, endLists.getLeft(), endLists.getRight());
+    }
+
+    /**
+     * @return True - every matched token is aligned against exactly one matched token in the other submission
+     */
+    @Override
+    public boolean matchesTokensOneToOne() {
+        return true;
+    }
+
+    @Override
+    public String toString() {
+        return "Singleton instance of Seed-and-Extend Algorithm";
+    }
+
+    @Override
+    public int hashCode() {
+        return this.getName().hashCode();
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        return other instanceof SeedExtend;
+    }
+}
@@ -0,0 +1,396 @@
+/*
+ * CDDL HEADER START
+ *
+ * The contents of this file are subject to the terms of the
+ * Common Development and Distribution License (the "License").
+ * You may not use this file except in compliance with the License.
+ *
+ * See LICENSE.txt included in this distribution for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing Covered Code, include this CDDL HEADER in each
+ * file and include the License file at LICENSE.txt.
+ * If applicable, add the following below this CDDL HEADER, with the
+ * fields enclosed by brackets "[]" replaced with your own identifying
+ * information: Portions Copyright [yyyy] [name of copyright owner]
+ *
+ * CDDL HEADER END
+ *
+ * Copyright (c) 2014-2015 Nicholas DeMarinis, Matthew Heon, and Dolan Murvihill
+ */
+
+package net.lldp.checksims.algorithm.seedextend;
+
+import net.lldp.checksims.algorithm.InternalAlgorithmError;
+import net.lldp.checksims.algorithm.smithwaterman.BandedSmithWatermanAlgorithm;
+import net.lldp.checksims.token.TokenList;
+import net.lldp.checksims.util.primitive.KGramIndex;
+import org.apache.commons.lang3.tuple.Pair;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * Heuristic local alignment which only runs Smith-Waterman around runs of identical tokens.
+ *
+ * Works in the manner of BLAST:
+ * 1. Every k-gram of valid tokens in the first list is indexed by hash.
+ * 2. Every k-gram of valid tokens in the second list is looked up, and each identical pair found is a seed. Seeds on
+ * the same diagonal which overlap or touch are merged into runs as they are found.
+ * 3. Runs which follow on from each other - in order along both lists, and no more than the extension apart or off
+ * each other's diagonal - are chained together.
+ * 4. Each chain is aligned with banded Smith-Waterman, over the tokens it spans plus the extension either side.
+ *
+ * Chains are aligned largest first, and tokens matched in one are invalid for all those after it. K-grams which occur
+ * more than {@link #MAX_SEED_OCCURRENCES} times in the first list are treated as boilerplate, and never used as seeds.
+ *
+ * Time taken depends on the number of seeds and the size of the chains rather than on the product of the list sizes,
+ * but similarity without an identical run of at least the seed length is never found.
+ */
+public class SeedExtendAlgorithm {
+    private final TokenList xList;
+    private final TokenList yList;
+    private final int[] xLexemes;
+    private final int[] yLexemes;
+    private final boolean[] xValid;
+    private final boolean[] yValid;
+    private final int xSize;
+    private final int ySize;
+    private final int seedLength;
+    private final int extension;
+
+    private int numSeeds;
+    private int numChains;
+
+    /**
+     * Largest number of times a k-gram may appear in the first list and still be used as a seed.
+     */
+    public static final int MAX_SEED_OCCURRENCES = 64;
+
+    /**
+     * Prepare for a seed-and-extend alignment.
+     *
+     * @param a First token list to align
+     * @param b Second token list to align
+     * @param seedLength Number of identical tokens needed to make a seed. Must be at least 1.
+     * @param extension Number of tokens around each chain of seeds to align. Must be at least 1.
+     */
+    public SeedExtendAlgorithm(TokenList a, TokenList b, int seedLength, int extension) {
+        checkNotNull(a);
+        checkNotNull(b);
+        checkArgument(!a.isEmpty(), "Cowardly refusing to perform alignment with empty token list A");
+        checkArgument(!b.isEmpty(), "Cowardly refusing to perform alignment with empty token list B");
+        checkArgument(a.type.equals(b.type), "Cannot align token lists of differing types " + a.type + " and "
+                + b.type);
+        checkArgument(seedLength >= 1, "Seed length must be at least 1, got " + seedLength);
+        checkArgument(extension >= 1, "Extension must be at least 1, got " + extension);
+
+        xList = TokenList.cloneTokenList(a);
+        yList = TokenList.cloneTokenList(b);
+
+        xSize = xList.size();
+        ySize = yList.size();
+
+        xLexemes = new int[xSize];
+        xValid = new boolean[xSize];
+        for(int i = 0; i < xSize; i++) {
+            xLexemes[i] = xList.get(i).getLexeme();
+            xValid[i] = xList.get(i).isValid();
+        }
+
+        yLexemes = new int[ySize];
+        yValid = new boolean[ySize];
+        for(int i = 0; i < ySize; i++) {
+            yLexemes[i] = yList.get(i).getLexeme();
+            yValid[i] = yList.get(i).isValid();
+        }
+
+        this.seedLength = seedLength;
+        this.extension = extension;
+    }
+
+    /**
+     * INTERNAL ONLY - for use in unit tests.
+     *
+     * @return Token list along X axis
+     */
+    TokenList getXList() {
+        return xList;
+    }
+
+    /**
+     * INTERNAL ONLY - for use in unit tests.
+     *
+     * @return Token list along Y axis
+     */
+    TokenList getYList() {
+        return yList;
+    }
+
+    /**
+     * @return Number of seeds found by the last alignment
+     */
+    public int getNumSeeds() {
+        return numSeeds;
+    }
+
+    /**
+     * @return Number of chains of seeds aligned by the last alignment
+     */
+    public int getNumChains() {
+        return numChains;
+    }
+
+    /**
+     * Compute a seed-and-extend alignment.
+     *
+     * @return Pair of TokenList representing detected alignments
+     * @throws InternalAlgorithmError Thrown if internal error causes violation of preconditions
+     */
+    public Pair<TokenList, TokenList> computeAlignment() throws InternalAlgorithmError {
+        List<Chain> chains = chainRuns(findRuns());
+
+        // Largest first, so they have first claim on the tokens they share with others
+        chains.sort(Comparator.comparingInt((Chain chain) -> chain.covered).reversed());
+        numChains = chains.size();
+
+        for(Chain chain : chains) {
+            extend(chain);
+        }
+
+        //noinspection SuspiciousNameCombination
+        return Pair.of(xList, yList);
+    }
+
+    /**
+     * Find every seed, merging seeds on the same diagonal which overlap or touch into runs.
+     *
+     * @return Runs of identical tokens, in no particular order
+     */
+    List<Run> findRuns() {
+        KGramIndex index = new KGramIndex(xLexemes, xValid, seedLength);
+
+        // The open run on each diagonal (y - x + xSize), if its end is nonzero
+        int[] runStart = new int[xSize + ySize + 1];
+        int[] runEnd = new int[xSize + ySize + 1];
+        List<Run> runs = new ArrayList<>();
+
+        numSeeds = 0;
+
+        // K-grams of Y are visited in ascending order, so seeds on each diagonal are found in ascending order
+        KGramIndex.forEachKGram(yLexemes, yValid, seedLength, (y, hash) -> {
+            if(index.getCount(hash) > MAX_SEED_OCCURRENCES) {
+                return;
+            }
+
+            for(int x = index.getFirst(hash); x != -1; x = index.getNext(x)) {
+                if(!index.matches(x, yLexemes, y)) {
+                    continue;
+                }
+
+                numSeeds++;
+
+                int diagonal = y - x + xSize;
+
+                if(runEnd[diagonal] != 0 && x <= runEnd[diagonal]) {
+                    runEnd[diagonal] = x + seedLength;
+                } else {
+                    if(runEnd[diagonal] != 0) {
+                        runs.add(new Run(runStart[diagonal], runEnd[diagonal], diagonal - xSize));
+                    }
+
+                    runStart[diagonal] = x;
+                    runEnd[diagonal] = x + seedLength;
+                }
+            }
+        });
+
+        for(int diagonal = 0; diagonal < runEnd.length; diagonal++) {
+            if(runEnd[diagonal] != 0) {
+                runs.add(new Run(runStart[diagonal], runEnd[diagonal], diagonal - xSize));
+            }
+        }
+
+        return runs;
+    }
+
+    /**
+     * Chain together runs which follow on from each other.
+     *
+     * Runs are taken in order along X. Each joins whichever chain it can follow on from with the smallest change of
+     * diagonal, or starts a new chain if there is none.
+     *
+     * @param runs Runs to chain. Will be sorted.
+     * @return Chains of runs
+     */
+    List<Chain> chainRuns(List<Run> runs) {
+        checkNotNull(runs);
+
+        runs.sort(Comparator.comparingInt((Run run) -> run.xStart).thenComparingInt(Run::getYStart));
+
+        List<Chain> chains = new ArrayList<>();
+        List<Chain> open = new ArrayList<>();
+
+        for(Run run : runs) {
+            Chain best = null;
+            int bestShift = Integer.MAX_VALUE;
+
+            Iterator<Chain> iterator = open.iterator();
+            while(iterator.hasNext()) {
+                Chain chain = iterator.next();
+
+                // Runs come in order along X, so nothing after this run can follow on from the chain either
+                if(chain.xEnd + extension < run.xStart) {
+                    iterator.remove();
+                    continue;
+                }
+
+                int shift = Math.abs(run.getDiagonal() - chain.lastDiagonal);
+
+                if(shift < bestShift && shift <= extension && run.xStart >= chain.xEnd - seedLength
+                        && run.getYStart() >= chain.yEnd - seedLength && run.getYStart() <= chain.yEnd + extension) {
+                    best = chain;
+                    bestShift = shift;
+                }
+            }
+
+            if(best == null) {
+                best = new Chain();
+                chains.add(best);
+                open.add(best);
+            }
+
+            best.add(run);
+        }
+
+        return chains;
+    }
+
+    /**
+     * Align the tokens around a chain with banded Smith-Waterman, and set everything matched invalid.
+     *
+     * The band follows the diagonal of the window being aligned, and is widened so every run in the chain lies at
+     * least the extension inside its edge.
+     *
+     * @param chain Chain to align around
+     * @throws InternalAlgorithmError Thrown if internal error causes violation of preconditions
+     */
+    private void extend(Chain chain) throws InternalAlgorithmError {
+        int xLower = Math.max(0, chain.xStart - extension);
+        int xUpper = Math.min(xSize, chain.xEnd + extension);
+        int yLower = Math.max(0, chain.yStart - extension);
+        int yUpper = Math.min(ySize, chain.yEnd + extension);
+
+        int width = xUpper - xLower;
+        int height = yUpper - yLower;
+
+        int bandWidth = extension;
+        for(Run run : chain.runs) {
+            int startOffset = run.xStart - xLower;
+            int endOffset = run.xEnd - xLower;
+            int startDeviation = (int)Math.abs(run.getYStart() - yLower - (long)startOffset * height / width);
+            int endDeviation = (int)Math.abs(run.getYEnd() - yLower - (long)endOffset * height / width);
+
+            // Plus one for rounding of the band's centre
+            bandWidth = Math.max(bandWidth, Math.max(startDeviation, endDeviation) + extension + 1);
+        }
+
+        TokenList xWindow = new TokenList(xList.type);
+        for(int i = xLower; i < xUpper; i++) {
+            xWindow.add(xList.get(i));
+        }
+
+        TokenList yWindow = new TokenList(yList.type);
+        for(int i = yLower; i < yUpper; i++) {
+            yWindow.add(yList.get(i));
+        }
+
+        Pair<TokenList, TokenList> aligned = new BandedSmithWatermanAlgorithm(xWindow, yWindow, bandWidth)
+                .computeSmithWatermanAlignment();
+
+        for(int i = 0; i < width; i++) {
+            if(!aligned.getLeft().get(i).isValid()) {
+                xList.get(xLower + i).setValid(false);
+                xValid[xLower + i] = false;
+            }
+        }
+
+        for(int i = 0; i < height; i++) {
+            if(!aligned.getRight().get(i).isValid()) {
+                yList.get(yLower + i).setValid(false);
+                yValid[yLower + i] = false;
+            }
+        }
+    }
+
+    /**
+     * Run of identical tokens along a diagonal.
+     */
+    static final class Run {
+        final int xStart;
+        final int xEnd;
+        final int diagonal;
+
+        /**
+         * @param xStart First position of the run along X (inclusive)
+         * @param xEnd Last position of the run along X (exclusive)
+         * @param diagonal Offset of positions along Y from positions along X
+         */
+        Run(int xStart, int xEnd, int diagonal) {
+            this.xStart = xStart;
+            this.xEnd = xEnd;
+            this.diagonal = diagonal;
+        }
+
+        int getDiagonal() {
+            return diagonal;
+        }
+
+        int getYStart() {
+            return xStart + diagonal;
+        }
+
+        int getYEnd() {
+            return xEnd + diagonal;
+        }
+
+        @Override
+        public String toString() {
+            return "Run of " + (xEnd - xStart) + " tokens from (" + xStart + ", " + getYStart() + ")";
+        }
+    }
+
+    /**
+     * Runs which follow on from each other, to be aligned together.
+     */
+    static final class Chain {
+        final List<Run> runs = new ArrayList<>();
+        int xStart = Integer.MAX_VALUE;
+        int xEnd = 0;
+        int yStart = Integer.MAX_VALUE;
+        int yEnd = 0;
+        int lastDiagonal;
+        int covered;
+
+        void add(Run run) {
+            runs.add(run);
+
+            xStart = Math.min(xStart, run.xStart);
+            xEnd = Math.max(xEnd, run.xEnd);
+            yStart = Math.min(yStart, run.getYStart());
+            yEnd = Math.max(yEnd, run.getYEnd());
+            lastDiagonal = run.getDiagonal();
+            covered += run.xEnd - run.xStart;
+        }
+
+        @Override
+        public String toString() {
+            return "Chain of " + runs.size() + " runs covering " + covered + " tokens";
+        }
+    }
+}
@@ -0,0 +1,29 @@
+/*
+ * CDDL HEADER START
+ *
+ * The contents of this file are subject to the terms of the
+ * Common Development and Distribution License (the "License").
+ * You may not use this file except in compliance with the License.
+ *
+ * See LICENSE.txt included in this distribution for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing Covered Code, include this CDDL HEADER in each
+ * file and include the License file at LICENSE.txt.
+ * If applicable, add the following below this CDDL HEADER, with the
+ * fields enclosed by brackets "[]" replaced with your own identifying
+ * information: Portions Copyright [yyyy] [name of copyright owner]
+ *
+ * CDDL HEADER END
+ *
+ * Copyright (c) 2014-2015 Nicholas DeMarinis, Matthew Heon, and Dolan Murvihill
+ */
+
+/**
+ * Contains implementation of the Seed-and-Extend algorithm.
+ *
+ * Seed-and-Extend finds runs of identical tokens with a hash index, and aligns with Smith-Waterman only around them.
+ * It is much faster than full Smith-Waterman on large submissions, at the cost of missing similarity which contains
+ * no identical run at least as long as the seed length.
+ */
+package net.lldp.checksims.algorithm.seedextend;
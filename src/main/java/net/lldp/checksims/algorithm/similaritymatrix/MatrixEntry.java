@@ -23,6 +23,9 @@ package net.lldp.checksims.algorithm.similaritymatrix;
 
 import net.lldp.checksims.submission.Submission;
 
+import java.util.Objects;
+import java.util.Optional;
+
 import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Preconditions.checkNotNull;
 
@@ -35,6 +38,8 @@ public final class MatrixEntry {
     private final double similarityPercent;
     private final int similarTokens;
     private final int totalTokens;
+    private final boolean compared;
+    private final String engine;
 
     /**
      * Construct a Similarity Matrix entry.
@@ -44,11 +49,37 @@ public final class MatrixEntry {
      * @param similarTokens Number of tokens shared by both submissions
      */
     public MatrixEntry(Submission base, Submission comparedTo, int similarTokens) {
+        this(base, comparedTo, similarTokens, true);
+    }
+
+    /**
+     * Construct a Similarity Matrix entry, which may be for a pair that was not compared.
+     *
+     * @param base Submission we are reporting relative to
+     * @param comparedTo Submission being compared to
+     * @param similarTokens Number of tokens shared by both submissions. Must be 0 if the pair was not compared.
+     * @param compared False if the pair was skipped without being compared
+     */
+    public MatrixEntry(Submission base, Submission comparedTo, int similarTokens, boolean compared) {
+        this(base, comparedTo, similarTokens, compared, null);
+    }
+
+    /**
+     * Construct a Similarity Matrix entry, marked with the algorithm which produced it.
+     *
+     * @param base Submission we are reporting relative to
+     * @param comparedTo Submission being compared to
+     * @param similarTokens Number of tokens shared by both submissions. Must be 0 if the pair was not compared.
+     * @param compared False if the pair was skipped without being compared
+     * @param engine Name of the algorithm which produced the entry, or null if not known
+     */
+    public MatrixEntry(Submission base, Submission comparedTo, int similarTokens, boolean compared, String engine) {
         checkNotNull(base);
         checkNotNull(comparedTo);
         checkArgument(similarTokens >= 0, "There cannot be a negative number of similar tokens");
         checkArgument(similarTokens <= base.getNumTokens(), "Attempted to created MatrixEntry with " + similarTokens
                 + " similar tokens --- only " + base.getNumTokens() + " tokens in base!");
+        checkArgument(compared || similarTokens == 0, "Pair which was not compared cannot have similar tokens");
 
         if(base.getNumTokens() == 0) {
             this.similarityPercent = 0.0;
@@ -60,6 +91,8 @@ public final class MatrixEntry {
         this.comparedTo = comparedTo;
         this.similarTokens = similarTokens;
         this.totalTokens = base.getNumTokens();
+        this.compared = compared;
+        this.engine = engine;
     }
 
     /**
@@ -97,6 +130,20 @@ public final class MatrixEntry {
         return totalTokens;
     }
 
+    /**
+     * @return False if the pair was skipped without being compared, true otherwise
+     */
+    public boolean isCompared() {
+        return compared;
+    }
+
+    /**
+     * @return Name of the algorithm which produced this entry, or empty if not known
+     */
+    public Optional<String> getEngine() {
+        return Optional.ofNullable(engine);
+    }
+
     @Override
     public String toString() {
         return "Similarity Matrix Entry comparing " + base.getName() + " and " + comparedTo.getName();
@@ -111,7 +158,8 @@ public final class MatrixEntry {
         MatrixEntry otherEntry = (MatrixEntry)other;
 
         return otherEntry.getBase().equals(base) && otherEntry.getComparedTo().equals(comparedTo)
-                && otherEntry.getSimilarTokens() == similarTokens;
+                && otherEntry.getSimilarTokens() == similarTokens && otherEntry.isCompared() == compared
+                && Objects.equals(otherEntry.engine, engine);
     }
 
     @Override
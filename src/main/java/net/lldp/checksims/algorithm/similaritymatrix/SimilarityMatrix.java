@@ -230,10 +230,12 @@ public final class SimilarityMatrix {
             matrix[i][i] = new MatrixEntry(s, s, s.getNumTokens());
         }
 
+        Map<Submission, Integer> indices = numberSubmissions(orderedSubmissions);
+
         // Now go through all the results, and build appropriate two MatrixEntry objects for each
         for (AlgorithmResults result : results) {
-            int aIndex = orderedSubmissions.indexOf(result.a);
-            int bIndex = orderedSubmissions.indexOf(result.b);
+            int aIndex = indexOf(result.a, indices);
+            int bIndex = indexOf(result.b, indices);
 
             if (aIndex == -1) {
                 throw new InternalAlgorithmError(
@@ -245,8 +247,11 @@ public final class SimilarityMatrix {
                         + result.b.getName() + "\"");
             }
 
-            matrix[aIndex][bIndex] = new MatrixEntry(result.a, result.b, result.identicalTokensA);
-            matrix[bIndex][aIndex] = new MatrixEntry(result.b, result.a, result.identicalTokensB);
+            String engine = result.getEngine().orElse(null);
+            matrix[aIndex][bIndex] = new MatrixEntry(result.a, result.b, result.identicalTokensA, result.isCompared(),
+                    engine);
+            matrix[bIndex][aIndex] = new MatrixEntry(result.b, result.a, result.identicalTokensB, result.isCompared(),
+                    engine);
         }
 
         // Verification pass: Go through and ensure that the entire array was populated
@@ -304,19 +309,21 @@ public final class SimilarityMatrix {
 
         // Generate the matrix
 
+        // Input submissions come first on the Y axis, in the same order as the X axis
+        Map<Submission, Integer> xIndices = numberSubmissions(xSubmissions);
+        Map<Submission, Integer> yIndices = numberSubmissions(ySubmissions);
+
         // First, handle identical submissions
-        for(Submission xSub : xSubmissions) {
-            // Get the X index
-            int xIndex = xSubmissions.indexOf(xSub);
-            int yIndex = ySubmissions.indexOf(xSub);
+        for(int xIndex = 0; xIndex < xSubmissions.size(); xIndex++) {
+            Submission xSub = xSubmissions.get(xIndex);
 
-            matrix[xIndex][yIndex] = new MatrixEntry(xSub, xSub, xSub.getNumTokens());
+            matrix[xIndex][xIndex] = new MatrixEntry(xSub, xSub, xSub.getNumTokens());
         }
 
         // Now iterate through all given algorithm results
         for(AlgorithmResults result : results) {
-            int aXCoord = xSubmissions.indexOf(result.a);
-            int bXCoord = xSubmissions.indexOf(result.b);
+            int aXCoord = indexOf(result.a, xIndices);
+            int bXCoord = indexOf(result.b, xIndices);
 
             if(aXCoord == -1 && bXCoord == -1) {
                 throw new InternalAlgorithmError("Neither submission \"" + result.a.getName() + "\" nor \"" +
@@ -324,15 +331,17 @@ public final class SimilarityMatrix {
             }
 
             if(aXCoord != -1) {
-                int bYCoord = ySubmissions.indexOf(result.b);
+                int bYCoord = indexOf(result.b, yIndices);
 
-                matrix[aXCoord][bYCoord] = new MatrixEntry(result.a, result.b, result.identicalTokensA);
+                matrix[aXCoord][bYCoord] = new MatrixEntry(result.a, result.b, result.identicalTokensA,
+                        result.isCompared(), result.getEngine().orElse(null));
             }
 
             if(bXCoord != -1) {
-                int aYCoord = ySubmissions.indexOf(result.a);
+                int aYCoord = indexOf(result.a, yIndices);
 
-                matrix[bXCoord][aYCoord] = new MatrixEntry(result.b, result.a, result.identicalTokensB);
+                matrix[bXCoord][aYCoord] = new MatrixEntry(result.b, result.a, result.identicalTokensB,
+                        result.isCompared(), result.getEngine().orElse(null));
             }
         }
 
@@ -349,4 +358,32 @@ public final class SimilarityMatrix {
 
         return new SimilarityMatrix(matrix, xSubmissions, ySubmissions, results);
     }
+
+    /**
+     * Number the submissions along one axis of the matrix, 0 to N-1 in the order given.
+     *
+     * Results refer to the same submission instances given to build the matrix, so lookups almost always stop at the
+     * identity check rather than comparing contents.
+     *
+     * @param submissions Submissions to number
+     * @return Map from each submission to its index in the list
+     */
+    private static Map<Submission, Integer> numberSubmissions(List<Submission> submissions) {
+        Map<Submission, Integer> indices = new HashMap<>();
+
+        for(int i = 0; i < submissions.size(); i++) {
+            indices.put(submissions.get(i), i);
+        }
+
+        return indices;
+    }
+
+    /**
+     * @param submission Submission to find
+     * @param indices Map from each submission to its index, as given by numberSubmissions
+     * @return Index of the submission, or -1 if it is not present
+     */
+    private static int indexOf(Submission submission, Map<Submission, Integer> indices) {
+        return indices.getOrDefault(submission, -1);
+    }
 }
@@ -122,7 +122,13 @@ public final class MatrixThresholdPrinter implements MatrixPrinter {
             builder.append(largerSubmission.getName());
             builder.append("\" and \"");
             builder.append(smallerSubmission.getName());
-            builder.append("\"\n");
+            builder.append("\"");
+            if(largestResult.getEngine().isPresent()) {
+                builder.append(" (scored by ");
+                builder.append(largestResult.getEngine().get());
+                builder.append(")");
+            }
+            builder.append("\n");
 
             // Remove the largest results
             filteredBelowThreshold.remove(largestResult);
@@ -22,6 +22,7 @@
 package net.lldp.checksims.algorithm.similaritymatrix.output;
 
 import net.lldp.checksims.algorithm.InternalAlgorithmError;
+import net.lldp.checksims.algorithm.similaritymatrix.MatrixEntry;
 import net.lldp.checksims.algorithm.similaritymatrix.SimilarityMatrix;
 import org.apache.commons.lang3.tuple.Pair;
 
@@ -84,9 +85,14 @@ public final class MatrixToCSVPrinter implements MatrixPrinter {
             builder.append(matrix.getXSubmission(x).getName());
             builder.append("\",");
 
-            // Next, append all the matrix values, formatted as given
+            // Next, append all the matrix values, formatted as given - NULL for pairs which were not compared
             for(int y = 0; y < arrayBounds.getRight(); y++) {
-                builder.append(formatter.format(matrix.getEntryFor(x, y).getSimilarityPercent()));
+                MatrixEntry entry = matrix.getEntryFor(x, y);
+                if(entry.isCompared()) {
+                    builder.append(formatter.format(entry.getSimilarityPercent()));
+                } else {
+                    builder.append("NULL");
+                }
                 if(y != (arrayBounds.getRight() - 1)) {
                     builder.append(",");
                 } else {
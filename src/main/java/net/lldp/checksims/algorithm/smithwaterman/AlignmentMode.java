@@ -0,0 +1,50 @@
+/*
+ * CDDL HEADER START
+ *
+ * The contents of this file are subject to the terms of the
+ * Common Development and Distribution License (the "License").
+ * You may not use this file except in compliance with the License.
+ *
+ * See LICENSE.txt included in this distribution for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing Covered Code, include this CDDL HEADER in each
+ * file and include the License file at LICENSE.txt.
+ * If applicable, add the following below this CDDL HEADER, with the
+ * fields enclosed by brackets "[]" replaced with your own identifying
+ * information: Portions Copyright [yyyy] [name of copyright owner]
+ *
+ * CDDL HEADER END
+ *
+ * Copyright (c) 2014-2015 Nicholas DeMarinis, Matthew Heon, and Dolan Murvihill
+ */
+
+package net.lldp.checksims.algorithm.smithwaterman;
+
+/**
+ * Strategies the Smith-Waterman similarity detector can use to compute an alignment.
+ *
+ * All modes produce identical results - they differ only in time and memory use.
+ */
+public enum AlignmentMode {
+    /**
+     * Choose per pair: incremental when the full tables fit within the detector's table size limit, linear space
+     * otherwise.
+     */
+    AUTOMATIC,
+
+    /**
+     * Hold the full S and M tables, computing them once and then recomputing only the cells each match changes.
+     */
+    INCREMENTAL,
+
+    /**
+     * Hold the full S and M tables, and recompute them in their entirety after each match is found.
+     */
+    EXHAUSTIVE,
+
+    /**
+     * Hold only a few rows of the S and M tables, recomputing rows as needed to trace back each match.
+     */
+    LINEAR_SPACE
+}
@@ -0,0 +1,171 @@
+/*
+ * CDDL HEADER START
+ *
+ * The contents of this file are subject to the terms of the
+ * Common Development and Distribution License (the "License").
+ * You may not use this file except in compliance with the License.
+ *
+ * See LICENSE.txt included in this distribution for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing Covered Code, include this CDDL HEADER in each
+ * file and include the License file at LICENSE.txt.
+ * If applicable, add the following below this CDDL HEADER, with the
+ * fields enclosed by brackets "[]" replaced with your own identifying
+ * information: Portions Copyright [yyyy] [name of copyright owner]
+ *
+ * CDDL HEADER END
+ *
+ * Copyright (c) 2014-2015 Nicholas DeMarinis, Matthew Heon, and Dolan Murvihill
+ */
+
+package net.lldp.checksims.algorithm.smithwaterman;
+
+import net.lldp.checksims.algorithm.AlgorithmResults;
+import net.lldp.checksims.algorithm.InternalAlgorithmError;
+import net.lldp.checksims.algorithm.SimilarityDetector;
+import net.lldp.checksims.submission.Submission;
+import net.lldp.checksims.token.TokenList;
+import net.lldp.checksims.token.TokenType;
+import net.lldp.checksims.token.TokenTypeMismatchException;
+import org.apache.commons.lang3.tuple.Pair;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * Smith-Waterman similarity detector which only aligns tokens near the diagonal.
+ *
+ * Much faster than {@link SmithWaterman} for large submissions, but only finds similarity where copied tokens keep
+ * roughly the same order in both submissions. Copied sections which have moved by more than the band width relative
+ * to each other are cut short or missed entirely.
+ */
+public final class BandedSmithWaterman implements SimilarityDetector {
+    private static BandedSmithWaterman instance;
+
+    private static Logger logs = LoggerFactory.getLogger(BandedSmithWaterman.class);
+
+    /**
+     * Default number of tokens either side of the diagonal to align.
+     */
+    public static final int DEFAULT_BAND_WIDTH = 128;
+
+    private volatile int bandWidth = DEFAULT_BAND_WIDTH;
+
+    private BandedSmithWaterman() {}
+
+    /**
+     * @return Singleton instance of the banded Smith-Waterman algorithm
+     */
+    public static BandedSmithWaterman getInstance() {
+        if(instance == null) {
+            instance = new BandedSmithWaterman();
+        }
+
+        return instance;
+    }
+
+    /**
+     * @return Name of this implementation
+     */
+    @Override
+    public String getName() {
+        return "smithwatermanbanded";
+    }
+
+    /**
+     * @return Default token type to be used for this similarity detector
+     */
+    @Override
+    public TokenType getDefaultTokenType() {
+        return TokenType.WHITESPACE;
+    }
+
+    /**
+     * @return Number of tokens either side of the diagonal to align
+     */
+    public int getBandWidth() {
+        return bandWidth;
+    }
+
+    /**
+     * @param bandWidth Number of tokens either side of the diagonal to align
+     */
+    public void setBandWidth(int bandWidth) {
+        checkArgument(bandWidth >= 1, "Band width must be at least 1, got " + bandWidth);
+
+        this.bandWidth = bandWidth;
+    }
+
+    /**
+     * Apply the banded Smith-Waterman algorithm to determine the similarity between two submissions.
+     *
+     * Token list types of A and B must match
+     *
+     * @param a First submission to apply to
+     * @param b Second submission to apply to
+     * @return Similarity results of comparing submissions A and B
+     * @throws TokenTypeMismatchException Thrown on comparing submissions with mismatched token types
+     * @throws InternalAlgorithmError Thrown on internal error
+     */
+    @Override
+    public AlgorithmResults detectSimilarity(Submission a, Submission b)
+            throws TokenTypeMismatchException, InternalAlgorithmError {
+        checkNotNull(a);
+        checkNotNull(b);
+
+        // Test for token type mismatch
+        if(!a.getTokenType().equals(b.getTokenType())) {
+            throw new TokenTypeMismatchException("Token list type mismatch: submission " + a.getName() + " has type " +
+                    a.getTokenType().toString() + ", while submission " + b.getName() + " has type "
+                    + b.getTokenType().toString());
+        }
+
+        // Handle a 0-token submission (no similarity)
+        if(a.getNumTokens() == 0 || b.getNumTokens() == 0) {
+            return new AlgorithmResults(a, b, a.getContentAsTokens(), b.getContentAsTokens());
+        } else if(a.equals(b)) {
+            // Handle identical submissions
+            TokenList aInval = TokenList.cloneTokenList(a.getContentAsTokens());
+            aInval.stream().forEach((token) -> token.setValid(false));
+            return new AlgorithmResults(a, b, aInval, aInval);
+        }
+
+        BandedSmithWatermanAlgorithm algorithm = new BandedSmithWatermanAlgorithm(a.getContentAsTokens(),
+                b.getContentAsTokens(), bandWidth);
+
+        Pair<TokenList, TokenList> endLists = algorithm.computeSmithWatermanAlignment();
+
+        if(algorithm.getClippedMatches() > 0) {
+            logs.debug(algorithm.getClippedMatches() + " matches between submissions " + a.getName() + " and "
+                    + b.getName() + " reached the edge of the band - full Smith-Waterman may find more similarity");
+        }
+
+        return new AlgorithmResults(a, b, endLists.getLeft(), endLists.getRight());
+    }
+
+    /**
+     * @return True - every matched token is aligned against exactly one matched token in the other submission
+     */
+    @Override
+    public boolean matchesTokensOneToOne() {
+        return true;
+    }
+
+    @Override
+    public String toString() {
+        return "Singleton instance of Banded Smith-Waterman Algorithm";
+    }
+
+    @Override
+    public int hashCode() {
+        return this.getName().hashCode();
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        return other instanceof BandedSmithWaterman;
+    }
+}
@@ -0,0 +1,580 @@
+/*
+ * CDDL HEADER START
+ *
+ * The contents of this file are subject to the terms of the
+ * Common Development and Distribution License (the "License").
+ * You may not use this file except in compliance with the License.
+ *
+ * See LICENSE.txt included in this distribution for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing Covered Code, include this CDDL HEADER in each
+ * file and include the License file at LICENSE.txt.
+ * If applicable, add the following below this CDDL HEADER, with the
+ * fields enclosed by brackets "[]" replaced with your own identifying
+ * information: Portions Copyright [yyyy] [name of copyright owner]
+ *
+ * CDDL HEADER END
+ *
+ * Copyright (c) 2014-2015 Nicholas DeMarinis, Matthew Heon, and Dolan Murvihill
+ */
+
+package net.lldp.checksims.algorithm.smithwaterman;
+
+import net.lldp.checksims.algorithm.InternalAlgorithmError;
+import net.lldp.checksims.token.TokenList;
+import net.lldp.checksims.util.primitive.LongList;
+import org.apache.commons.lang3.tuple.Pair;
+
+import java.util.Arrays;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * Smith-Waterman alignment restricted to a band around the diagonal of the S and M tables.
+ *
+ * Row X of the tables holds only the columns within bandWidth of X * (length of Y) / (length of X), so matches which
+ * keep their tokens in roughly the same order in both lists are found for a fraction of the cost of a full alignment.
+ * Cells outside the band are treated as 0. Within the band, the alignment is computed exactly as
+ * {@link SmithWatermanAlgorithm#computeSmithWatermanAlignmentExhaustive()} would compute it, so a band wide enough to
+ * cover the whole table gives identical results.
+ *
+ * Matches which leave the band are cut short or missed. To show how far a result may differ from the full alignment,
+ * every match whose traceback touches the edge of the band is counted as clipped.
+ *
+ * Only the band is stored. After each match, rows are recomputed from the first row whose band contains a matched
+ * token, each over only the columns which can have changed, and recomputation stops at the first row past the match
+ * which comes out unchanged.
+ */
+public class BandedSmithWatermanAlgorithm {
+    private final TokenList xList;
+    private final TokenList yList;
+    private final int[] xLexemes;
+    private final int[] yLexemes;
+    private final boolean[] xValid;
+    private final boolean[] yValid;
+    private final int xSize;
+    private final int ySize;
+
+    // Row x of the tables holds columns bandLower[x] (inclusive) through bandUpper[x] (exclusive)
+    private final int[] bandLower;
+    private final int[] bandUpper;
+
+    // Row x of the band - column y is at index y - bandLower[x]. Row 0 is all zeroes, and is not stored.
+    private final int[][] s;
+    private final int[][] m;
+
+    // Largest significant S value in each row, and the first column holding it, or 0 if the row has none
+    private final int[] rowBestScore;
+    private final int[] rowBestY;
+
+    // Holds the best cell of each row, rather than every significant cell, as that is all that can ever be chosen
+    private final CandidateHeap candidates;
+
+    // Full-width rows the kernel computes in, before the band part is copied out
+    private int[] sPrevScratch;
+    private int[] mPrevScratch;
+    private int[] sScratch;
+    private int[] mScratch;
+
+    private int clippedMatches;
+
+    // Number of columns to extend recomputation by at a time, once past the cells known to need it
+    private static final int CHANGE_CHUNK_SIZE = 32;
+
+    /**
+     * Prepare for a banded Smith-Waterman alignment.
+     *
+     * @param a First token list to align
+     * @param b Second token list to align
+     * @param bandWidth Number of columns either side of the diagonal to compute in each row. Must be at least 1.
+     */
+    public BandedSmithWatermanAlgorithm(TokenList a, TokenList b, int bandWidth) {
+        checkNotNull(a);
+        checkNotNull(b);
+        checkArgument(!a.isEmpty(), "Cowardly refusing to perform alignment with empty token list A");
+        checkArgument(!b.isEmpty(), "Cowardly refusing to perform alignment with empty token list B");
+        checkArgument(a.type.equals(b.type), "Cannot align token lists of differing types " + a.type + " and "
+                + b.type);
+        checkArgument(bandWidth >= 1, "Band width must be at least 1, got " + bandWidth);
+
+        xList = TokenList.cloneTokenList(a);
+        yList = TokenList.cloneTokenList(b);
+
+        xSize = xList.size();
+        ySize = yList.size();
+
+        xLexemes = SmithWatermanAlgorithm.getLexemes(xList);
+        yLexemes = SmithWatermanAlgorithm.getLexemes(yList);
+        xValid = SmithWatermanAlgorithm.getValidity(xList);
+        yValid = SmithWatermanAlgorithm.getValidity(yList);
+
+        bandLower = new int[xSize + 1];
+        bandUpper = new int[xSize + 1];
+        s = new int[xSize + 1][];
+        m = new int[xSize + 1][];
+
+        for(int x = 1; x <= xSize; x++) {
+            int center = (int)((long)x * ySize / xSize);
+
+            bandLower[x] = Math.max(1, center - bandWidth);
+            bandUpper[x] = Math.min(ySize, center + bandWidth) + 1;
+            s[x] = new int[bandUpper[x] - bandLower[x]];
+            m[x] = new int[bandUpper[x] - bandLower[x]];
+        }
+
+        sPrevScratch = new int[ySize + 1];
+        mPrevScratch = new int[ySize + 1];
+        sScratch = new int[ySize + 1];
+        mScratch = new int[ySize + 1];
+
+        rowBestScore = new int[xSize + 1];
+        rowBestY = new int[xSize + 1];
+        candidates = new CandidateHeap();
+    }
+
+    /**
+     * INTERNAL ONLY - for use in unit tests.
+     *
+     * @return Token list along X axis
+     */
+    TokenList getXList() {
+        return xList;
+    }
+
+    /**
+     * INTERNAL ONLY - for use in unit tests.
+     *
+     * @return Token list along Y axis
+     */
+    TokenList getYList() {
+        return yList;
+    }
+
+    /**
+     * @return Number of matches found by the last alignment which touched the edge of the band, and so may have been
+     *         cut short by it
+     */
+    public int getClippedMatches() {
+        return clippedMatches;
+    }
+
+    /**
+     * Compute a banded Smith-Waterman alignment by recomputing the whole band after each match.
+     *
+     * Slow, but simple enough to check {@link #computeSmithWatermanAlignment()} against.
+     *
+     * @return Pair of TokenList representing optimal alignments within the band
+     * @throws InternalAlgorithmError Thrown if internal error causes violation of preconditions
+     */
+    public Pair<TokenList, TokenList> computeSmithWatermanAlignmentExhaustive() throws InternalAlgorithmError {
+        clippedMatches = 0;
+
+        while(true) {
+            // Zero the band, so every row is recomputed as a change and its best cell added to the candidates
+            candidates.clear();
+            for(int x = 1; x <= xSize; x++) {
+                Arrays.fill(s[x], 0);
+                Arrays.fill(m[x], 0);
+                rowBestScore[x] = 0;
+            }
+
+            computeRows(1, xSize, 1, xSize, 1, ySize);
+
+            if(candidates.isEmpty()) {
+                break;
+            }
+
+            int x = candidates.peekX();
+            int y = candidates.peekY();
+
+            LongList coords = traceMatch(x, y);
+
+            if(coords.isEmpty()) {
+                throw new InternalAlgorithmError("Candidate at (" + x + ", " + y
+                        + ") did not trace back to any matches!");
+            }
+
+            setMatchInvalid(coords);
+        }
+
+        //noinspection SuspiciousNameCombination
+        return Pair.of(xList, yList);
+    }
+
+    /**
+     * Compute a banded Smith-Waterman alignment.
+     *
+     * @return Pair of TokenList representing optimal alignments within the band
+     * @throws InternalAlgorithmError Thrown if internal error causes violation of preconditions
+     */
+    public Pair<TokenList, TokenList> computeSmithWatermanAlignment() throws InternalAlgorithmError {
+        candidates.clear();
+        clippedMatches = 0;
+
+        computeRows(1, xSize, 1, xSize, 1, ySize);
+
+        // Go through all candidates, largest first
+        while(!candidates.isEmpty()) {
+            int score = candidates.peekScore();
+            int x = candidates.peekX();
+            int y = candidates.peekY();
+
+            // Candidates are deleted lazily - discard any which are no longer the best in their row
+            if(rowBestScore[x] != score || rowBestY[x] != y) {
+                candidates.poll();
+                continue;
+            }
+
+            LongList coords = traceMatch(x, y);
+
+            if(coords.isEmpty()) {
+                throw new InternalAlgorithmError("Candidate at (" + x + ", " + y
+                        + ") did not trace back to any matches!");
+            }
+
+            setMatchInvalid(coords);
+
+            // Coordinates run from the end of the match, so the last pair holds the smallest X and Y
+            int minX = CandidateHeap.unpackX(coords.get(coords.size() - 1));
+            int minY = CandidateHeap.unpackY(coords.get(coords.size() - 1));
+
+            // Every row from the first whose band holds a matched token, to the last, may have changed
+            computeRows(Math.min(minX, getFirstRowContaining(minY)), Math.max(x, getLastRowContaining(y)), minX, x,
+                    minY, y);
+        }
+
+        //noinspection SuspiciousNameCombination
+        return Pair.of(xList, yList);
+    }
+
+    /**
+     * Recompute rows of the band, adding the new best cell of every row which changes to the candidates.
+     *
+     * Only cells which can have changed are recomputed. In each row, those start from the first column whose token
+     * changed, or which changed in the row above, whichever is first. They run to the last column whose token changed,
+     * or the column after the last which changed in the row above - and on past that for as long as cells keep
+     * changing, as a changed cell can change the one to its right. Rows between matchFirstX and matchLastX had their
+     * own token change, so every column in them is treated as having changed.
+     *
+     * Rows after lastRow had no tokens change, so recomputation stops at the first of them which comes out unchanged.
+     *
+     * @param firstRow First row to recompute
+     * @param lastRow Last row whose tokens may have changed (inclusive)
+     * @param matchFirstX First row whose token may have changed
+     * @param matchLastX Last row whose token may have changed (inclusive)
+     * @param matchFirstY First column whose token may have changed
+     * @param matchLastY Last column whose token may have changed (inclusive)
+     */
+    void computeRows(int firstRow, int lastRow, int matchFirstX, int matchLastX, int matchFirstY, int matchLastY) {
+        int[] sPrev = sPrevScratch;
+        int[] mPrev = mPrevScratch;
+        int[] sRow = sScratch;
+        int[] mRow = mScratch;
+
+        // Row 0 is all zeroes, which the first fill below takes care of
+        if(firstRow > 1) {
+            loadRow(firstRow - 1, sPrev, mPrev);
+        }
+
+        // Nothing changed in the row before the first
+        int prevFirstChanged = ySize + 1;
+        int prevLastChanged = 0;
+
+        for(int x = firstRow; x <= xSize; x++) {
+            int lower = bandLower[x];
+            int upper = bandUpper[x];
+
+            // Columns past the band of the previous row read as 0. Earlier columns were zeroed for earlier rows, or are
+            // never read.
+            Arrays.fill(sPrev, bandUpper[x - 1], upper, 0);
+            Arrays.fill(mPrev, bandUpper[x - 1], upper, 0);
+
+            // Columns whose tokens changed, as far as this row is concerned
+            int directFirst = ySize + 1;
+            int directLast = 0;
+            if(x >= matchFirstX && x <= matchLastX) {
+                directFirst = lower;
+                directLast = upper - 1;
+            } else if(x <= lastRow) {
+                directFirst = matchFirstY;
+                directLast = matchLastY;
+            }
+
+            int first = Math.max(lower, Math.min(directFirst, prevFirstChanged));
+            int limit = Math.min(upper, Math.max(directLast, prevLastChanged + 1) + 1);
+
+            // Columns outside the recomputed range keep their stored values, and the kernel reads the one before it
+            loadRow(x, sRow, mRow);
+
+            int firstChanged = ySize + 1;
+            int lastChanged = 0;
+
+            if(first < limit) {
+                SmithWatermanAlgorithm.computeRow(xValid[x - 1], xLexemes[x - 1], yValid, yLexemes, sPrev, mPrev, sRow,
+                        mRow, first, limit);
+
+                // Past the limit, a cell can only change if the one to its left did
+                while(limit < upper && isChanged(x, limit - 1, sRow, mRow)) {
+                    int next = Math.min(upper, limit + CHANGE_CHUNK_SIZE);
+
+                    SmithWatermanAlgorithm.computeRow(xValid[x - 1], xLexemes[x - 1], yValid, yLexemes, sPrev, mPrev,
+                            sRow, mRow, limit, next);
+
+                    limit = next;
+                }
+
+                firstChanged = first;
+                while(firstChanged < limit && !isChanged(x, firstChanged, sRow, mRow)) {
+                    firstChanged++;
+                }
+
+                lastChanged = limit - 1;
+                while(lastChanged >= firstChanged && !isChanged(x, lastChanged, sRow, mRow)) {
+                    lastChanged--;
+                }
+
+                if(firstChanged < limit) {
+                    System.arraycopy(sRow, firstChanged, s[x], firstChanged - lower, lastChanged + 1 - firstChanged);
+                    System.arraycopy(mRow, firstChanged, m[x], firstChanged - lower, lastChanged + 1 - firstChanged);
+
+                    updateRowBest(x);
+                } else {
+                    firstChanged = ySize + 1;
+                    lastChanged = 0;
+                }
+            }
+
+            if(x > lastRow && firstChanged > ySize) {
+                break;
+            }
+
+            prevFirstChanged = firstChanged;
+            prevLastChanged = lastChanged;
+
+            int[] tmp = sPrev;
+            sPrev = sRow;
+            sRow = tmp;
+
+            tmp = mPrev;
+            mPrev = mRow;
+            mRow = tmp;
+        }
+    }
+
+    /**
+     * @param x Row of the cell
+     * @param y Column of the cell
+     * @param sRow Full-width row of the S table holding the new value of the cell
+     * @param mRow Full-width row of the M table holding the new value of the cell
+     * @return True if the new value of the cell differs from the one stored in the band
+     */
+    private boolean isChanged(int x, int y, int[] sRow, int[] mRow) {
+        int index = y - bandLower[x];
+
+        return s[x][index] != sRow[y] || m[x][index] != mRow[y];
+    }
+
+    /**
+     * Find the best cell in a row - the one with the largest significant S value, taking the first if several share
+     * it - and add it to the candidates if it has changed.
+     *
+     * @param x Row to search
+     */
+    private void updateRowBest(int x) {
+        int[] sBand = s[x];
+        int[] mBand = m[x];
+
+        int bestScore = 0;
+        int bestIndex = 0;
+
+        for(int i = 0; i < sBand.length; i++) {
+            if(sBand[i] > bestScore && SmithWatermanAlgorithm.isSignificant(sBand[i], mBand[i])) {
+                bestScore = sBand[i];
+                bestIndex = i;
+            }
+        }
+
+        int bestY = bandLower[x] + bestIndex;
+
+        if(bestScore != rowBestScore[x] || bestY != rowBestY[x]) {
+            rowBestScore[x] = bestScore;
+            rowBestY[x] = bestY;
+
+            if(bestScore > 0) {
+                candidates.add(bestScore, x, bestY);
+            }
+        }
+    }
+
+    /**
+     * Copy a stored row of the band into full-width rows, with the cell before the band set to 0.
+     *
+     * @param x Row to copy. Must be at least 1.
+     * @param sRow Full-width row of the S table to copy into
+     * @param mRow Full-width row of the M table to copy into
+     */
+    private void loadRow(int x, int[] sRow, int[] mRow) {
+        int lower = bandLower[x];
+
+        sRow[lower - 1] = 0;
+        mRow[lower - 1] = 0;
+        System.arraycopy(s[x], 0, sRow, lower, s[x].length);
+        System.arraycopy(m[x], 0, mRow, lower, m[x].length);
+    }
+
+    /**
+     * Trace back from the end of a match, retrieving the coordinates of every matched token pair.
+     *
+     * Follows the same path as {@link SmithWatermanAlgorithm#traceMatch(int, int)}, treating cells outside the band
+     * as 0. Counts the match as clipped if the path touches the edge of the band.
+     *
+     * @param endX X coordinate of the end of the match
+     * @param endY Y coordinate of the end of the match
+     * @return Packed coordinates of all matched token pairs in the match, starting from the end
+     */
+    LongList traceMatch(int endX, int endY) {
+        LongList matchCoordinates = new LongList();
+        boolean clipped = false;
+
+        int x = endX;
+        int y = endY;
+
+        int largestPredecessor;
+        do {
+            clipped |= isBandEdge(x, y);
+
+            // Only add the current coordinate if the tokens at the given point match
+            if(xValid[x - 1] && yValid[y - 1] && xLexemes[x - 1] == yLexemes[y - 1]) {
+                matchCoordinates.add(CandidateHeap.pack(x, y));
+
+                // If they match, the predecessor is always the upper-left diagonal
+                x = x - 1;
+                y = y - 1;
+
+                largestPredecessor = getS(x, y);
+
+                continue;
+            }
+
+            // Get predecessors
+            int a = getS(x - 1, y - 1);
+            int b = getS(x - 1, y);
+            int c = getS(x, y - 1);
+
+            largestPredecessor = SmithWatermanAlgorithm.getMaxOfInts(a, b, c);
+
+            // Figure out which predecessor is the largest, and move to its coordinates
+            if(a == largestPredecessor) {
+                x = x - 1;
+                y = y - 1;
+            } else if(b == largestPredecessor) {
+                x = x - 1;
+            } else {
+                y = y - 1;
+            }
+        } while(largestPredecessor > 0);
+
+        if(clipped) {
+            clippedMatches++;
+        }
+
+        return matchCoordinates;
+    }
+
+    /**
+     * Set every token in a match invalid.
+     *
+     * @param coordinates Packed coordinates of the matched token pairs
+     */
+    private void setMatchInvalid(LongList coordinates) {
+        for(int i = 0; i < coordinates.size(); i++) {
+            int x = CandidateHeap.unpackX(coordinates.get(i)) - 1;
+            int y = CandidateHeap.unpackY(coordinates.get(i)) - 1;
+
+            xList.get(x).setValid(false);
+            yList.get(y).setValid(false);
+            xValid[x] = false;
+            yValid[y] = false;
+        }
+    }
+
+    /**
+     * @param x X coordinate in the tables
+     * @param y Y coordinate in the tables
+     * @return Value of the S table at the given coordinates, or 0 if they are outside the band
+     */
+    int getS(int x, int y) {
+        if(x < 1 || y < bandLower[x] || y >= bandUpper[x]) {
+            return 0;
+        }
+
+        return s[x][y - bandLower[x]];
+    }
+
+    /**
+     * @param x X coordinate in the tables
+     * @param y Y coordinate in the tables
+     * @return Value of the M table at the given coordinates, or 0 if they are outside the band
+     */
+    int getM(int x, int y) {
+        if(x < 1 || y < bandLower[x] || y >= bandUpper[x]) {
+            return 0;
+        }
+
+        return m[x][y - bandLower[x]];
+    }
+
+    /**
+     * @param x X coordinate in the tables
+     * @param y Y coordinate in the tables
+     * @return True if the cell is the first or last in its row of the band, and the band was cut off there
+     */
+    boolean isBandEdge(int x, int y) {
+        return (y == bandLower[x] && y > 1) || (y == bandUpper[x] - 1 && y < ySize);
+    }
+
+    /**
+     * @param y Column of the tables
+     * @return First row whose band contains the given column, or the last row if none do
+     */
+    private int getFirstRowContaining(int y) {
+        // Band bounds never decrease from one row to the next, so binary search on the upper bound
+        int low = 1;
+        int high = xSize;
+
+        while(low < high) {
+            int mid = (low + high) >>> 1;
+
+            if(bandUpper[mid] > y) {
+                high = mid;
+            } else {
+                low = mid + 1;
+            }
+        }
+
+        return low;
+    }
+
+    /**
+     * @param y Column of the tables
+     * @return Last row whose band contains the given column, or the first row if none do
+     */
+    private int getLastRowContaining(int y) {
+        int low = 1;
+        int high = xSize;
+
+        while(low < high) {
+            int mid = (low + high + 1) >>> 1;
+
+            if(bandLower[mid] <= y) {
+                low = mid;
+            } else {
+                high = mid - 1;
+            }
+        }
+
+        return low;
+    }
+}
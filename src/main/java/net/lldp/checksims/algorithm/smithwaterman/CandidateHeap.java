@@ -0,0 +1,241 @@
+/*
+ * CDDL HEADER START
+ *
+ * The contents of this file are subject to the terms of the
+ * Common Development and Distribution License (the "License").
+ * You may not use this file except in compliance with the License.
+ *
+ * See LICENSE.txt included in this distribution for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing Covered Code, include this CDDL HEADER in each
+ * file and include the License file at LICENSE.txt.
+ * If applicable, add the following below this CDDL HEADER, with the
+ * fields enclosed by brackets "[]" replaced with your own identifying
+ * information: Portions Copyright [yyyy] [name of copyright owner]
+ *
+ * CDDL HEADER END
+ *
+ * Copyright (c) 2014-2015 Nicholas DeMarinis, Matthew Heon, and Dolan Murvihill
+ */
+
+package net.lldp.checksims.algorithm.smithwaterman;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * Priority queue of Smith-Waterman match candidates.
+ *
+ * Candidates are bucketed by score. Each bucket is a binary min-heap of coordinates packed into longs, so the head of
+ * the queue is the highest-scoring candidate, with ties broken by lowest X, then lowest Y - the same order
+ * {@link SmithWatermanAlgorithm#getLowestCoordinate(Set)} uses.
+ *
+ * Candidates are never removed other than from the head. Users are expected to delete lazily: when a cell's score
+ * changes, add it again under its new score, and discard stale entries as they reach the head.
+ */
+final class CandidateHeap {
+    private long[][] buckets;
+    private int[] bucketSizes;
+    private int maxScore;
+    private int size;
+
+    /**
+     * Create an empty candidate heap.
+     */
+    CandidateHeap() {
+        buckets = new long[16][];
+        bucketSizes = new int[16];
+        maxScore = 0;
+        size = 0;
+    }
+
+    /**
+     * @return Number of candidates in the heap, including any stale duplicates
+     */
+    int size() {
+        return size;
+    }
+
+    /**
+     * @return True if there are no candidates in the heap
+     */
+    boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Remove all candidates from the heap.
+     */
+    void clear() {
+        Arrays.fill(bucketSizes, 0);
+        maxScore = 0;
+        size = 0;
+    }
+
+    /**
+     * Add a candidate.
+     *
+     * @param score Score of the candidate. Must be greater than 0.
+     * @param x X coordinate of the candidate. Must not be negative.
+     * @param y Y coordinate of the candidate. Must not be negative.
+     */
+    void add(int score, int x, int y) {
+        // Checked by hand, as checkArgument would build its message on every call, and this is called for every
+        // significant cell
+        if(score <= 0 || x < 0 || y < 0) {
+            throw new IllegalArgumentException("Invalid candidate at (" + x + ", " + y + ") with score " + score
+                    + " - score must be greater than 0 and coordinates must not be negative");
+        }
+
+        if(score >= buckets.length) {
+            int newLength = Math.max(score + 1, buckets.length * 2);
+            buckets = Arrays.copyOf(buckets, newLength);
+            bucketSizes = Arrays.copyOf(bucketSizes, newLength);
+        }
+
+        long[] bucket = buckets[score];
+        int bucketSize = bucketSizes[score];
+
+        if(bucket == null) {
+            bucket = new long[8];
+            buckets[score] = bucket;
+        } else if(bucketSize == bucket.length) {
+            bucket = Arrays.copyOf(bucket, bucketSize * 2);
+            buckets[score] = bucket;
+        }
+
+        // Sift up
+        long packed = pack(x, y);
+        int index = bucketSize;
+        while(index > 0) {
+            int parent = (index - 1) >>> 1;
+            if(bucket[parent] <= packed) {
+                break;
+            }
+            bucket[index] = bucket[parent];
+            index = parent;
+        }
+        bucket[index] = packed;
+
+        bucketSizes[score] = bucketSize + 1;
+        size++;
+
+        if(score > maxScore) {
+            maxScore = score;
+        }
+    }
+
+    /**
+     * @return Score of the head of the heap
+     * @throws NoSuchElementException Thrown if the heap is empty
+     */
+    int peekScore() {
+        if(isEmpty()) {
+            throw new NoSuchElementException("Candidate heap is empty");
+        }
+
+        return maxScore;
+    }
+
+    /**
+     * @return X coordinate of the head of the heap
+     * @throws NoSuchElementException Thrown if the heap is empty
+     */
+    int peekX() {
+        return unpackX(buckets[peekScore()][0]);
+    }
+
+    /**
+     * @return Y coordinate of the head of the heap
+     * @throws NoSuchElementException Thrown if the heap is empty
+     */
+    int peekY() {
+        return unpackY(buckets[peekScore()][0]);
+    }
+
+    /**
+     * Remove the head of the heap.
+     *
+     * @throws NoSuchElementException Thrown if the heap is empty
+     */
+    void poll() {
+        int score = peekScore();
+        long[] bucket = buckets[score];
+        int bucketSize = bucketSizes[score] - 1;
+
+        // Sift down the last element from the root
+        long last = bucket[bucketSize];
+        int index = 0;
+        int half = bucketSize >>> 1;
+        while(index < half) {
+            int child = 2 * index + 1;
+            int right = child + 1;
+            if(right < bucketSize && bucket[right] < bucket[child]) {
+                child = right;
+            }
+            if(last <= bucket[child]) {
+                break;
+            }
+            bucket[index] = bucket[child];
+            index = child;
+        }
+        bucket[index] = last;
+
+        bucketSizes[score] = bucketSize;
+        size--;
+
+        // Find the next highest non-empty bucket
+        while(maxScore > 0 && bucketSizes[maxScore] == 0) {
+            maxScore--;
+        }
+    }
+
+    /**
+     * INTERNAL ONLY - for use in unit tests.
+     *
+     * @return All candidates in the heap, mapped from score to coordinates
+     */
+    Map<Integer, Set<Coordinate>> toMap() {
+        Map<Integer, Set<Coordinate>> map = new HashMap<>();
+
+        for(int score = 0; score < buckets.length; score++) {
+            for(int i = 0; i < bucketSizes[score]; i++) {
+                long packed = buckets[score][i];
+                map.computeIfAbsent(score, (key) -> new HashSet<>()).add(Coordinate.of(unpackX(packed),
+                        unpackY(packed)));
+            }
+        }
+
+        return map;
+    }
+
+    /**
+     * @param x X coordinate
+     * @param y Y coordinate
+     * @return Coordinates packed into a long, which sorts in row-major order
+     */
+    static long pack(int x, int y) {
+        return ((long)x << 32) | y;
+    }
+
+    /**
+     * @param packed Packed coordinates
+     * @return X coordinate
+     */
+    static int unpackX(long packed) {
+        return (int)(packed >>> 32);
+    }
+
+    /**
+     * @param packed Packed coordinates
+     * @return Y coordinate
+     */
+    static int unpackY(long packed) {
+        return (int)packed;
+    }
+}
@@ -0,0 +1,439 @@
+/*
+ * CDDL HEADER START
+ *
+ * The contents of this file are subject to the terms of the
+ * Common Development and Distribution License (the "License").
+ * You may not use this file except in compliance with the License.
+ *
+ * See LICENSE.txt included in this distribution for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing Covered Code, include this CDDL HEADER in each
+ * file and include the License file at LICENSE.txt.
+ * If applicable, add the following below this CDDL HEADER, with the
+ * fields enclosed by brackets "[]" replaced with your own identifying
+ * information: Portions Copyright [yyyy] [name of copyright owner]
+ *
+ * CDDL HEADER END
+ *
+ * Copyright (c) 2014-2015 Nicholas DeMarinis, Matthew Heon, and Dolan Murvihill
+ */
+
+package net.lldp.checksims.algorithm.smithwaterman;
+
+import net.lldp.checksims.algorithm.InternalAlgorithmError;
+import net.lldp.checksims.token.TokenList;
+import org.apache.commons.lang3.tuple.Pair;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * Smith-Waterman alignment which never holds the full S and M tables in memory.
+ *
+ * Produces exactly the alignment of {@link SmithWatermanAlgorithm#computeSmithWatermanAlignmentExhaustive()}. The
+ * rows of the tables are split into blocks of checkpointInterval rows. Scans keep only two rows of each table, plus a
+ * copy of the last row of every block as a checkpoint, and record the best match endpoint in each block. A match is
+ * rebuilt by recomputing the rows it spans from the nearest checkpoint, one block at a time, and tracing back through
+ * each block.
+ *
+ * Setting a match invalid can only change cells in rows whose match status changed, and cells those changes reach
+ * moving down and right. Only the blocks holding such rows are rescanned after each match, followed by any block
+ * whose checkpoint row came out changed, so the scan stops as soon as the change dies out. Every other block keeps
+ * its checkpoint and best endpoint from before.
+ *
+ * For an N by M alignment this needs O(sqrt(N) * M) memory, rather than the O(N * M) of the full tables, at the cost
+ * of recomputing the blocks each match touches.
+ */
+public class LinearSpaceSmithWatermanAlgorithm {
+    private final TokenList xList;
+    private final TokenList yList;
+    private final int[] xLexemes;
+    private final int[] yLexemes;
+    private final boolean[] xValid;
+    private final boolean[] yValid;
+    private final int xSize;
+    private final int ySize;
+    private final int checkpointInterval;
+
+    // Checkpointed rows of the S and M tables - row (i * checkpointInterval) is at index i
+    private final int[][] sCheckpoints;
+    private final int[][] mCheckpoints;
+
+    // Best match endpoint in each block of rows, as of the last time the block was scanned - score 0 if none
+    private final int numBlocks;
+    private final int[] blockBestScore;
+    private final int[] blockBestX;
+    private final int[] blockBestY;
+
+    // Blocks which must be rescanned before the next endpoint is chosen
+    private final boolean[] dirtyBlocks;
+
+    // Rows each lexeme appears at along the X axis, to find rows a matched Y token could have matched
+    private final Map<Integer, int[]> xPositions;
+
+    private long cellsScanned;
+
+    /**
+     * Prepare for a linear-space Smith-Waterman alignment.
+     *
+     * @param a First token list to align
+     * @param b Second token list to align
+     */
+    public LinearSpaceSmithWatermanAlgorithm(TokenList a, TokenList b) {
+        this(a, b, getDefaultCheckpointInterval(a));
+    }
+
+    /**
+     * Prepare for a linear-space Smith-Waterman alignment with a given checkpoint interval.
+     *
+     * @param a First token list to align
+     * @param b Second token list to align
+     * @param checkpointInterval Number of rows between saved checkpoints. Must be at least 1.
+     */
+    LinearSpaceSmithWatermanAlgorithm(TokenList a, TokenList b, int checkpointInterval) {
+        checkNotNull(a);
+        checkNotNull(b);
+        checkArgument(!a.isEmpty(), "Cowardly refusing to perform alignment with empty token list A");
+        checkArgument(!b.isEmpty(), "Cowardly refusing to perform alignment with empty token list B");
+        checkArgument(a.type.equals(b.type), "Cannot align token lists of differing types " + a.type + " and "
+                + b.type);
+        checkArgument(checkpointInterval >= 1, "Checkpoint interval must be at least 1, got " + checkpointInterval);
+
+        xList = TokenList.cloneTokenList(a);
+        yList = TokenList.cloneTokenList(b);
+
+        xSize = xList.size();
+        ySize = yList.size();
+
+        xLexemes = SmithWatermanAlgorithm.getLexemes(xList);
+        yLexemes = SmithWatermanAlgorithm.getLexemes(yList);
+        xValid = SmithWatermanAlgorithm.getValidity(xList);
+        yValid = SmithWatermanAlgorithm.getValidity(yList);
+
+        this.checkpointInterval = checkpointInterval;
+
+        int numCheckpoints = xSize / checkpointInterval + 1;
+        sCheckpoints = new int[numCheckpoints][ySize + 1];
+        mCheckpoints = new int[numCheckpoints][ySize + 1];
+
+        numBlocks = (xSize + checkpointInterval - 1) / checkpointInterval;
+        blockBestScore = new int[numBlocks];
+        blockBestX = new int[numBlocks];
+        blockBestY = new int[numBlocks];
+
+        // Nothing has been scanned yet
+        dirtyBlocks = new boolean[numBlocks];
+        Arrays.fill(dirtyBlocks, true);
+
+        xPositions = SmithWatermanAlgorithm.getPositions(xLexemes);
+    }
+
+    /**
+     * INTERNAL ONLY - for use in unit tests.
+     *
+     * @return Token list along X axis
+     */
+    TokenList getXList() {
+        return xList;
+    }
+
+    /**
+     * INTERNAL ONLY - for use in unit tests.
+     *
+     * @return Token list along Y axis
+     */
+    TokenList getYList() {
+        return yList;
+    }
+
+    /**
+     * INTERNAL ONLY - for use in unit tests.
+     *
+     * @return Number of cells of the S and M tables computed by scans so far, not counting tracebacks
+     */
+    long getCellsScanned() {
+        return cellsScanned;
+    }
+
+    /**
+     * Compute a Smith-Waterman alignment.
+     *
+     * @return Pair of TokenList representing optimal alignments
+     * @throws InternalAlgorithmError Thrown if internal error causes violation of preconditions
+     */
+    public Pair<TokenList, TokenList> computeSmithWatermanAlignment() throws InternalAlgorithmError {
+        int[] endpoint;
+
+        // Keep computing while we have results over threshold
+        while((endpoint = scan()) != null) {
+            int matched = traceback(endpoint[0], endpoint[1]);
+
+            if(matched == 0) {
+                throw new InternalAlgorithmError("Error: candidate at (" + endpoint[0] + ", " + endpoint[1]
+                        + ") did not trace back to any matched tokens!");
+            }
+        }
+
+        //noinspection SuspiciousNameCombination
+        return Pair.of(xList, yList);
+    }
+
+    /**
+     * Rescan every block of the S and M tables which may have changed since it was last scanned, saving checkpoint
+     * rows, and find the best match endpoint.
+     *
+     * The first scan covers every block. Later scans cover the blocks marked by {@link #traceback(int, int)}, and any
+     * block following a rescanned block whose last row came out different from the checkpoint saved for it.
+     *
+     * The endpoint chosen is the significant coordinate with the largest S value, with ties broken the same way as
+     * {@link SmithWatermanAlgorithm#getLowestCoordinate}: the first found scanning row by row.
+     *
+     * @return X and Y coordinates of best match endpoint, or null if there are no significant coordinates
+     */
+    int[] scan() {
+        int[] sPrevRow = new int[ySize + 1];
+        int[] mPrevRow = new int[ySize + 1];
+        int[] sRow = new int[ySize + 1];
+        int[] mRow = new int[ySize + 1];
+
+        boolean startChanged = false;
+
+        for(int block = 0; block < numBlocks; block++) {
+            if(!dirtyBlocks[block] && !startChanged) {
+                continue;
+            }
+
+            dirtyBlocks[block] = false;
+
+            int blockStart = block * checkpointInterval;
+            int blockEnd = Math.min(blockStart + checkpointInterval, xSize);
+
+            System.arraycopy(sCheckpoints[block], 0, sPrevRow, 0, ySize + 1);
+            System.arraycopy(mCheckpoints[block], 0, mPrevRow, 0, ySize + 1);
+
+            int bestScore = 0;
+            int bestX = 0;
+            int bestY = 0;
+
+            for(int x = blockStart + 1; x <= blockEnd; x++) {
+                int rowMax = SmithWatermanAlgorithm.computeRow(xValid[x - 1], xLexemes[x - 1], yValid, yLexemes,
+                        sPrevRow, mPrevRow, sRow, mRow, 1, ySize + 1);
+
+                // Only strictly larger scores replace the best, so ties go to the lowest row, then lowest column
+                if(rowMax > bestScore) {
+                    for(int y = 1; y <= ySize; y++) {
+                        if(sRow[y] == rowMax && SmithWatermanAlgorithm.isSignificant(sRow[y], mRow[y])) {
+                            bestScore = rowMax;
+                            bestX = x;
+                            bestY = y;
+                            break;
+                        }
+                    }
+                }
+
+                // Swap rows
+                int[] tmp = sPrevRow;
+                sPrevRow = sRow;
+                sRow = tmp;
+
+                tmp = mPrevRow;
+                mPrevRow = mRow;
+                mRow = tmp;
+            }
+
+            cellsScanned += (long)(blockEnd - blockStart) * ySize;
+
+            blockBestScore[block] = bestScore;
+            blockBestX[block] = bestX;
+            blockBestY[block] = bestY;
+
+            // The next block need only be rescanned for this one if the row it starts from changed
+            if(blockEnd % checkpointInterval == 0 && block + 1 < sCheckpoints.length) {
+                int checkpoint = block + 1;
+                startChanged = !Arrays.equals(sPrevRow, sCheckpoints[checkpoint])
+                        || !Arrays.equals(mPrevRow, mCheckpoints[checkpoint]);
+
+                System.arraycopy(sPrevRow, 0, sCheckpoints[checkpoint], 0, ySize + 1);
+                System.arraycopy(mPrevRow, 0, mCheckpoints[checkpoint], 0, ySize + 1);
+            }
+        }
+
+        int bestBlock = -1;
+        for(int block = 0; block < numBlocks; block++) {
+            if(blockBestScore[block] > 0 && (bestBlock < 0 || blockBestScore[block] > blockBestScore[bestBlock])) {
+                bestBlock = block;
+            }
+        }
+
+        if(bestBlock < 0) {
+            return null;
+        }
+
+        return new int[] {blockBestX[bestBlock], blockBestY[bestBlock]};
+    }
+
+    /**
+     * Trace back from a match endpoint, setting every matched token along the way invalid.
+     *
+     * Follows the same path as {@link SmithWatermanAlgorithm#getMatchCoordinates(Coordinate)}, recomputing the rows
+     * it needs from the checkpoints saved by the last call to {@link #scan()}. Every block holding a row whose match
+     * status changed is marked to be rescanned by the next scan.
+     *
+     * @param endX X coordinate of match endpoint
+     * @param endY Y coordinate of match endpoint
+     * @return Number of token pairs matched
+     */
+    int traceback(int endX, int endY) {
+        checkArgument(endX >= 1 && endX <= xSize, "Match endpoint X coordinate " + endX + " out of bounds");
+        checkArgument(endY >= 1 && endY <= ySize, "Match endpoint Y coordinate " + endY + " out of bounds");
+
+        // Block of S rows - row (blockStart + i) is at index i
+        int[][] block = new int[Math.min(checkpointInterval, endX) + 1][];
+        int[] mPrevRow = new int[endY + 1];
+        int[] mRow = new int[endY + 1];
+        int blockStart = -1;
+
+        // Token validity is only updated once the traceback is done, as recomputed blocks must see the same tokens
+        // the scan did
+        int[] matchedX = new int[Math.min(endX, endY)];
+        int[] matchedY = new int[matchedX.length];
+        int numMatched = 0;
+
+        int x = endX;
+        int y = endY;
+
+        int largestPredecessor;
+        do {
+            // Make sure the block holds rows x - 1 and x
+            if(blockStart < 0 || x <= blockStart) {
+                blockStart = ((x - 1) / checkpointInterval) * checkpointInterval;
+                int blockEnd = Math.min(blockStart + checkpointInterval, endX);
+                computeBlock(block, blockStart, blockEnd, endY, mPrevRow, mRow);
+            }
+
+            int[] sRow = block[x - blockStart];
+            int[] sPrevRow = block[x - 1 - blockStart];
+
+            // Only record the current coordinate if the tokens at the given point match
+            if(xValid[x - 1] && yValid[y - 1] && xLexemes[x - 1] == yLexemes[y - 1]) {
+                matchedX[numMatched] = x - 1;
+                matchedY[numMatched] = y - 1;
+                numMatched++;
+
+                // If they match, the predecessor is always the upper-left diagonal
+                largestPredecessor = sPrevRow[y - 1];
+                x = x - 1;
+                y = y - 1;
+
+                continue;
+            }
+
+            // Get predecessors
+            int a = sPrevRow[y - 1];
+            int b = sPrevRow[y];
+            int c = sRow[y - 1];
+
+            largestPredecessor = SmithWatermanAlgorithm.getMaxOfInts(a, b, c);
+
+            // Figure out which predecessor is the largest, and move to its coordinates
+            if(a == largestPredecessor) {
+                x = x - 1;
+                y = y - 1;
+            } else if(b == largestPredecessor) {
+                x = x - 1;
+            } else {
+                y = y - 1;
+            }
+        } while(largestPredecessor > 0);
+
+        for(int i = 0; i < numMatched; i++) {
+            xList.get(matchedX[i]).setValid(false);
+            yList.get(matchedY[i]).setValid(false);
+            xValid[matchedX[i]] = false;
+            yValid[matchedY[i]] = false;
+        }
+
+        markChangedBlocks(matchedX, matchedY, numMatched);
+
+        return numMatched;
+    }
+
+    /**
+     * Mark every block holding a row whose match status changed when a match was set invalid.
+     *
+     * Rows of matched X tokens no longer match anything. Rows of X tokens still valid no longer match any matched Y
+     * token they shared a lexeme with. No other row changes, except through changes to the rows above it.
+     *
+     * @param matchedX X coordinates (from 0) of matched token pairs
+     * @param matchedY Y coordinates (from 0) of matched token pairs
+     * @param numMatched Number of matched token pairs
+     */
+    private void markChangedBlocks(int[] matchedX, int[] matchedY, int numMatched) {
+        Set<Integer> lexemesSeen = new HashSet<>();
+
+        for(int i = 0; i < numMatched; i++) {
+            dirtyBlocks[matchedX[i] / checkpointInterval] = true;
+
+            int lexeme = yLexemes[matchedY[i]];
+            if(!lexemesSeen.add(lexeme)) {
+                continue;
+            }
+
+            for(int x : xPositions.get(lexeme)) {
+                if(xValid[x - 1]) {
+                    dirtyBlocks[(x - 1) / checkpointInterval] = true;
+                }
+            }
+        }
+    }
+
+    /**
+     * Recompute a block of rows of the S table, starting from a checkpoint.
+     *
+     * @param block Array to hold the computed rows. Row (blockStart + i) is placed at index i.
+     * @param blockStart First row of the block. Must be a checkpointed row.
+     * @param blockEnd Last row of the block (inclusive)
+     * @param yUpper Last column to compute (inclusive)
+     * @param mPrevRow Scratch row for the M table, at least yUpper + 1 long
+     * @param mRow Scratch row for the M table, at least yUpper + 1 long
+     */
+    private void computeBlock(int[][] block, int blockStart, int blockEnd, int yUpper, int[] mPrevRow, int[] mRow) {
+        int checkpoint = blockStart / checkpointInterval;
+
+        for(int i = 0; i <= blockEnd - blockStart; i++) {
+            if(block[i] == null) {
+                block[i] = new int[yUpper + 1];
+            }
+        }
+
+        System.arraycopy(sCheckpoints[checkpoint], 0, block[0], 0, yUpper + 1);
+        System.arraycopy(mCheckpoints[checkpoint], 0, mPrevRow, 0, yUpper + 1);
+
+        for(int x = blockStart + 1; x <= blockEnd; x++) {
+            int[] sRow = block[x - blockStart];
+
+            SmithWatermanAlgorithm.computeRow(xValid[x - 1], xLexemes[x - 1], yValid, yLexemes,
+                    block[x - 1 - blockStart], mPrevRow, sRow, mRow, 1, yUpper + 1);
+
+            int[] tmp = mPrevRow;
+            mPrevRow = mRow;
+            mRow = tmp;
+        }
+    }
+
+    /**
+     * @param list Token list along the X axis
+     * @return Number of rows between checkpoints which minimises memory use for the given list
+     */
+    private static int getDefaultCheckpointInterval(TokenList list) {
+        checkNotNull(list);
+
+        return Math.max(1, (int)Math.ceil(Math.sqrt(list.size())));
+    }
+}
@@ -0,0 +1,171 @@
+/*
+ * CDDL HEADER START
+ *
+ * The contents of this file are subject to the terms of the
+ * Common Development and Distribution License (the "License").
+ * You may not use this file except in compliance with the License.
+ *
+ * See LICENSE.txt included in this distribution for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing Covered Code, include this CDDL HEADER in each
+ * file and include the License file at LICENSE.txt.
+ * If applicable, add the following below this CDDL HEADER, with the
+ * fields enclosed by brackets "[]" replaced with your own identifying
+ * information: Portions Copyright [yyyy] [name of copyright owner]
+ *
+ * CDDL HEADER END
+ *
+ * Copyright (c) 2014-2015 Nicholas DeMarinis, Matthew Heon, and Dolan Murvihill
+ */
+
+package net.lldp.checksims.algorithm.smithwaterman;
+
+import java.util.Arrays;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+/**
+ * Reusable storage for the S and M tables of successive Smith-Waterman alignments.
+ *
+ * An arena only ever grows, so a thread aligning many pairs allocates tables for the largest pair it has seen rather
+ * than for every pair. Tables are handed out larger than requested, and hold whatever the previous alignment left in
+ * them - only the first row and column of the requested size are cleared, as every other cell is written before it
+ * is read.
+ *
+ * Arenas are not thread safe, and only one alignment may use an arena at a time.
+ */
+final class ScoreTableArena {
+    private char[][] s;
+    private char[][] m;
+    private long cells;
+    private long maxCells;
+
+    /**
+     * Create an empty arena.
+     *
+     * @param maxCells Largest number of cells to hold in each table. Must be at least 0.
+     */
+    ScoreTableArena(long maxCells) {
+        checkArgument(maxCells >= 0, "Maximum arena size must be at least 0, got " + maxCells);
+
+        this.s = new char[0][];
+        this.m = new char[0][];
+        this.cells = 0;
+        this.maxCells = maxCells;
+    }
+
+    /**
+     * @return Number of cells currently held in each table
+     */
+    long getCells() {
+        return cells;
+    }
+
+    /**
+     * @return Largest number of cells to hold in each table
+     */
+    long getMaxCells() {
+        return maxCells;
+    }
+
+    /**
+     * Change the size limit of the arena. Tables already held above the new limit are released.
+     *
+     * @param maxCells Largest number of cells to hold in each table. Must be at least 0.
+     */
+    void setMaxCells(long maxCells) {
+        checkArgument(maxCells >= 0, "Maximum arena size must be at least 0, got " + maxCells);
+
+        this.maxCells = maxCells;
+
+        if(cells > maxCells) {
+            release();
+        }
+    }
+
+    /**
+     * Prepare tables of at least the given size for use.
+     *
+     * On success, {@link #getS()} and {@link #getM()} return tables with at least the given number of rows, each at
+     * least the given number of columns long, with row 0 and column 0 zeroed up to the requested size.
+     *
+     * If growing the held tables would exceed the size limit, they are replaced with tables of exactly the requested
+     * size. If even that would exceed the limit, the held tables are left alone and nothing is borrowed.
+     *
+     * @param rows Number of rows needed. Must be at least 1.
+     * @param columns Number of columns needed. Must be at least 1.
+     * @return True if tables were prepared, false if the request is too large for this arena
+     */
+    boolean borrow(int rows, int columns) {
+        checkArgument(rows >= 1, "Must borrow at least 1 row, got " + rows);
+        checkArgument(columns >= 1, "Must borrow at least 1 column, got " + columns);
+
+        if((long)rows * (long)columns > maxCells) {
+            return false;
+        }
+
+        // Work out how large the tables would be if grown to fit
+        long grownCells = 0;
+        for(int x = 0; x < Math.max(rows, s.length); x++) {
+            int held = x < s.length ? s[x].length : 0;
+            grownCells += x < rows ? Math.max(held, columns) : held;
+        }
+
+        if(grownCells > maxCells) {
+            release();
+            grownCells = (long)rows * (long)columns;
+        }
+
+        if(rows > s.length) {
+            int oldRows = s.length;
+            s = Arrays.copyOf(s, rows);
+            m = Arrays.copyOf(m, rows);
+
+            for(int x = oldRows; x < rows; x++) {
+                s[x] = new char[0];
+                m[x] = new char[0];
+            }
+        }
+
+        for(int x = 0; x < rows; x++) {
+            if(s[x].length < columns) {
+                s[x] = new char[columns];
+                m[x] = new char[columns];
+            } else {
+                s[x][0] = 0;
+                m[x][0] = 0;
+            }
+        }
+
+        Arrays.fill(s[0], 0, columns, (char)0);
+        Arrays.fill(m[0], 0, columns, (char)0);
+
+        cells = grownCells;
+
+        return true;
+    }
+
+    /**
+     * @return S table prepared by the last successful call to {@link #borrow(int, int)}
+     */
+    char[][] getS() {
+        return s;
+    }
+
+    /**
+     * @return M table prepared by the last successful call to {@link #borrow(int, int)}
+     */
+    char[][] getM() {
+        return m;
+    }
+
+    /**
+     * Drop the held tables, so their memory can be reclaimed.
+     */
+    void release() {
+        s = new char[0][];
+        m = new char[0][];
+        cells = 0;
+    }
+}
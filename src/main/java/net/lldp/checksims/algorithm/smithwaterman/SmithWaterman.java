@@ -28,16 +28,54 @@ import net.lldp.checksims.submission.Submission;
 import net.lldp.checksims.token.TokenList;
 import net.lldp.checksims.token.TokenType;
 import net.lldp.checksims.token.TokenTypeMismatchException;
+import net.lldp.checksims.util.threading.ParallelAlgorithm;
 import org.apache.commons.lang3.tuple.Pair;
 
+import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Preconditions.checkNotNull;
 
 /**
  * Implementation of the Smith-Waterman algorithm.
+ *
+ * By default, pairs are aligned incrementally. Pairs whose S and M tables would hold more than
+ * {@link #DEFAULT_MAX_TABLE_CELLS} cells each are aligned in linear space instead, to avoid holding tables several
+ * gigabytes in size for large submissions. Pairs too large for {@link SmithWatermanAlgorithm} to hold at all are
+ * aligned in linear space whatever the alignment mode.
+ *
+ * When more than one thread is configured, pairs with more than {@link #DEFAULT_WAVEFRONT_MIN_CELLS} cells have their
+ * table scans spread over the threads of {@link ParallelAlgorithm#getWavefrontPool()}.
+ *
+ * Each of the {@link ParallelAlgorithm} worker threads keeps its S and M tables from one pair to the next, growing
+ * them as needed up to {@link #DEFAULT_MAX_ARENA_CELLS} cells each, rather than allocating new tables for every pair.
+ * The tables are released when the executor is shut down at the end of a run, or replaced by
+ * {@link ParallelAlgorithm#setThreadCount(int)}.
  */
 public final class SmithWaterman implements SimilarityDetector {
     private static SmithWaterman instance;
 
+    /**
+     * Default limit on the number of cells in each table for the full-table implementation.
+     */
+    public static final long DEFAULT_MAX_TABLE_CELLS = 1L << 26;
+
+    /**
+     * Default number of cells in each table above which scans are computed in parallel.
+     */
+    public static final long DEFAULT_WAVEFRONT_MIN_CELLS = 1L << 24;
+
+    /**
+     * Default limit on the number of cells in each table kept by a worker thread for reuse.
+     */
+    public static final long DEFAULT_MAX_ARENA_CELLS = 1L << 24;
+
+    private volatile AlignmentMode alignmentMode = AlignmentMode.AUTOMATIC;
+    private volatile long maxTableCells = DEFAULT_MAX_TABLE_CELLS;
+    private volatile long wavefrontMinCells = DEFAULT_WAVEFRONT_MIN_CELLS;
+    private volatile long maxArenaCells = DEFAULT_MAX_ARENA_CELLS;
+
+    private static final ThreadLocal<ScoreTableArena> arenas =
+            ThreadLocal.withInitial(() -> new ScoreTableArena(DEFAULT_MAX_ARENA_CELLS));
+
     private SmithWaterman() {}
 
     /**
@@ -67,6 +105,71 @@ public final class SmithWaterman implements SimilarityDetector {
         return TokenType.WHITESPACE;
     }
 
+    /**
+     * @return Strategy used to compute alignments
+     */
+    public AlignmentMode getAlignmentMode() {
+        return alignmentMode;
+    }
+
+    /**
+     * @param alignmentMode New strategy to use to compute alignments
+     */
+    public void setAlignmentMode(AlignmentMode alignmentMode) {
+        checkNotNull(alignmentMode);
+
+        this.alignmentMode = alignmentMode;
+    }
+
+    /**
+     * @return Largest number of cells in each table before automatic mode switches to linear space
+     */
+    public long getMaxTableCells() {
+        return maxTableCells;
+    }
+
+    /**
+     * @param maxTableCells Largest number of cells in each table before automatic mode switches to linear space
+     */
+    public void setMaxTableCells(long maxTableCells) {
+        checkArgument(maxTableCells > 0, "Maximum table size must be greater than 0, got " + maxTableCells);
+
+        this.maxTableCells = maxTableCells;
+    }
+
+    /**
+     * @return Number of cells in each table above which scans are computed in parallel
+     */
+    public long getWavefrontMinCells() {
+        return wavefrontMinCells;
+    }
+
+    /**
+     * @param wavefrontMinCells Number of cells in each table above which scans are computed in parallel
+     */
+    public void setWavefrontMinCells(long wavefrontMinCells) {
+        checkArgument(wavefrontMinCells > 0, "Minimum wavefront table size must be greater than 0, got "
+                + wavefrontMinCells);
+
+        this.wavefrontMinCells = wavefrontMinCells;
+    }
+
+    /**
+     * @return Largest number of cells in each table kept by a worker thread for reuse
+     */
+    public long getMaxArenaCells() {
+        return maxArenaCells;
+    }
+
+    /**
+     * @param maxArenaCells Largest number of cells in each table kept by a worker thread for reuse. 0 disables reuse.
+     */
+    public void setMaxArenaCells(long maxArenaCells) {
+        checkArgument(maxArenaCells >= 0, "Maximum arena size must be at least 0, got " + maxArenaCells);
+
+        this.maxArenaCells = maxArenaCells;
+    }
+
     /**
      * Apply the Smith-Waterman algorithm to determine the similarity between two submissions.
      *
@@ -102,13 +205,89 @@ public final class SmithWaterman implements SimilarityDetector {
         }
 
         // Alright, easy cases taken care of. Generate an instance to perform the actual algorithm
-        SmithWatermanAlgorithm algorithm = new SmithWatermanAlgorithm(a.getContentAsTokens(), b.getContentAsTokens());
+        Pair<TokenList, TokenList> endLists;
+        if(useLinearSpace(a.getNumTokens(), b.getNumTokens())) {
+            LinearSpaceSmithWatermanAlgorithm algorithm = new LinearSpaceSmithWatermanAlgorithm(a.getContentAsTokens(),
+                    b.getContentAsTokens());
 
-        Pair<TokenList, TokenList> endLists = algorithm.computeSmithWatermanAlignmentExhaustive();
+            endLists = algorithm.computeSmithWatermanAlignment();
+        } else {
+            SmithWatermanAlgorithm algorithm = new SmithWatermanAlgorithm(a.getContentAsTokens(),
+                    b.getContentAsTokens(), getArena());
+
+            if(useWavefront(a.getNumTokens(), b.getNumTokens())) {
+                algorithm.setWavefrontPool(ParallelAlgorithm.getWavefrontPool());
+            }
+
+            if(alignmentMode == AlignmentMode.EXHAUSTIVE) {
+                endLists = algorithm.computeSmithWatermanAlignmentExhaustive();
+            } else {
+                endLists = algorithm.computeSmithWatermanAlignment();
+            }
+        }
 
         return new AlgorithmResults(a, b, endLists.getLeft(), endLists.getRight());
     }
 
+    /**
+     * @param numTokensA Number of tokens in first submission
+     * @param numTokensB Number of tokens in second submission
+     * @return Whether the pair should be aligned in linear space under the current mode
+     */
+    boolean useLinearSpace(int numTokensA, int numTokensB) {
+        // Scores in the full tables are only 16 bits wide, which is enough for any pair whose tables fit in memory
+        if(Math.min(numTokensA, numTokensB) > SmithWatermanAlgorithm.MAX_SHORTER_LIST_SIZE) {
+            return true;
+        }
+
+        switch(alignmentMode) {
+            case EXHAUSTIVE:
+            case INCREMENTAL:
+                return false;
+            case LINEAR_SPACE:
+                return true;
+            default:
+                return (long)(numTokensA + 1) * (long)(numTokensB + 1) > maxTableCells;
+        }
+    }
+
+    /**
+     * @return Table arena belonging to the calling thread, or null if the calling thread should not keep one
+     */
+    ScoreTableArena getArena() {
+        if(!ParallelAlgorithm.isWorkerThread()) {
+            return null;
+        }
+
+        ScoreTableArena arena = arenas.get();
+        arena.setMaxCells(maxArenaCells);
+
+        return arena;
+    }
+
+    /**
+     * @param numTokensA Number of tokens in first submission
+     * @param numTokensB Number of tokens in second submission
+     * @return Whether scans of the pair's tables should be computed in parallel
+     */
+    boolean useWavefront(int numTokensA, int numTokensB) {
+        if(ParallelAlgorithm.getThreadCount() < 2) {
+            return false;
+        }
+
+        long cells = (long)(numTokensA + 1) * (long)(numTokensB + 1);
+
+        return cells >= wavefrontMinCells;
+    }
+
+    /**
+     * @return True - every matched token is aligned against exactly one matched token in the other submission
+     */
+    @Override
+    public boolean matchesTokensOneToOne() {
+        return true;
+    }
+
     @Override
     public String toString() {
         return "Singleton instance of Smith-Waterman Algorithm";
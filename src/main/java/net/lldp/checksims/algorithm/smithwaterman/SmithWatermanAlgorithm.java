@@ -22,39 +22,73 @@
 package net.lldp.checksims.algorithm.smithwaterman;
 
 import com.google.common.collect.Iterables;
-import com.google.common.collect.Ordering;
 import net.lldp.checksims.algorithm.InternalAlgorithmError;
-import net.lldp.checksims.token.Token;
 import net.lldp.checksims.token.TokenList;
-import net.lldp.checksims.token.ValidityEnsuringToken;
+import net.lldp.checksims.util.primitive.LongList;
 import org.apache.commons.lang3.tuple.Pair;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
 
 import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Preconditions.checkNotNull;
 
 /**
  * Actual implementation of the Smith-Waterman algorithm.
+ *
+ * The token lists being aligned are flattened into arrays of lexemes and token validities on construction, so the
+ * scoring loop compares primitives rather than calling through Token and TokenList for every cell.
+ *
+ * If given a fork/join pool, scans of large parts of the array are split into square tiles and computed as a series
+ * of anti-diagonal wavefronts: every tile on a wavefront depends only on tiles from earlier wavefronts, so all of them
+ * can be computed at once. Recomputation after each match touches few cells and always runs on the calling thread.
  */
 public class SmithWatermanAlgorithm {
     private final TokenList xList;
     private final TokenList yList;
+    private final int[] xLexemes;
+    private final int[] yLexemes;
+    private final boolean[] xValid;
+    private final boolean[] yValid;
     private final ArraySubset wholeArray;
-    private final ArraySubset wholeArrayBounds;
-    private final int[][] s;
-    private final int[][] m;
-    private Map<Integer, Set<Coordinate>> candidates;
+    private final char[][] s;
+    private final char[][] m;
+    private final CandidateHeap candidates;
+
+    // Scratch space for recomputeInvalidated(), reused from one match to the next
+    private final LongList seeds;
+    private boolean[] xMatched;
+    private boolean[] yMatched;
+    private int[] changedScratch;
+    private int[] prevChangedScratch;
+
+    // Pool to compute large scans on in tiled wavefronts, or null to always scan on the calling thread
+    private ForkJoinPool wavefrontPool;
+    private int wavefrontTileSize = DEFAULT_WAVEFRONT_TILE_SIZE;
 
     private static Logger logs = LoggerFactory.getLogger(SmithWatermanAlgorithm.class);
 
-    private static final int threshold = 5;
-    private static final int swConstant = 1;
+    static final int threshold = 5;
+    static final int swConstant = 1;
+
+    /**
+     * Largest number of tokens the shorter of the two lists may hold. Every S and M value is at most the length of the
+     * shorter list, so this is the largest which lets the tables hold 16-bit values.
+     */
+    public static final int MAX_SHORTER_LIST_SIZE = Character.MAX_VALUE;
+
+    /**
+     * Default height and width, in cells, of the tiles computed in parallel by wavefront scans.
+     */
+    static final int DEFAULT_WAVEFRONT_TILE_SIZE = 256;
 
     /**
      * Prepare for a Smith-Waterman alignment.
@@ -63,21 +97,75 @@ public class SmithWatermanAlgorithm {
      * @param b Second token list to align
      */
     public SmithWatermanAlgorithm(TokenList a, TokenList b) {
+        this(a, b, null);
+    }
+
+    /**
+     * Prepare for a Smith-Waterman alignment, taking the S and M tables from an arena where possible.
+     *
+     * The tables borrowed may be larger than the alignment needs, and belong to the arena until the alignment is
+     * finished with. If the arena cannot provide them, fresh tables are allocated instead.
+     *
+     * @param a First token list to align
+     * @param b Second token list to align
+     * @param arena Arena to borrow tables from, or null to always allocate fresh tables
+     */
+    SmithWatermanAlgorithm(TokenList a, TokenList b, ScoreTableArena arena) {
         checkNotNull(a);
         checkNotNull(b);
         checkArgument(!a.isEmpty(), "Cowardly refusing to perform alignment with empty token list A");
         checkArgument(!b.isEmpty(), "Cowardly refusing to perform alignment with empty token list B");
+        checkArgument(a.type.equals(b.type), "Cannot align token lists of differing types " + a.type + " and "
+                + b.type);
+        checkArgument(Math.min(a.size(), b.size()) <= MAX_SHORTER_LIST_SIZE, "Cannot hold tables for token lists of "
+                + a.size() + " and " + b.size() + " tokens - use the linear-space implementation");
 
         xList = TokenList.cloneTokenList(a);
         yList = TokenList.cloneTokenList(b);
 
+        xLexemes = getLexemes(xList);
+        yLexemes = getLexemes(yList);
+        xValid = new boolean[xList.size()];
+        yValid = new boolean[yList.size()];
+        refreshValidity(1, xList.size() + 1, 1, yList.size() + 1);
+
         wholeArray = ArraySubset.of(1, 1, xList.size() + 1, yList.size() + 1);
-        wholeArrayBounds = ArraySubset.of(1, 1, xList.size(), yList.size());
 
-        s = new int[wholeArray.getMax().getX()][wholeArray.getMax().getY()];
-        m = new int[wholeArray.getMax().getX()][wholeArray.getMax().getY()];
+        int rows = wholeArray.getMax().getX();
+        int columns = wholeArray.getMax().getY();
+
+        if(arena != null && arena.borrow(rows, columns)) {
+            s = arena.getS();
+            m = arena.getM();
+        } else {
+            s = new char[rows][columns];
+            m = new char[rows][columns];
+        }
 
-        candidates = new HashMap<>();
+        candidates = new CandidateHeap();
+        seeds = new LongList();
+    }
+
+    /**
+     * Compute large scans of the array in parallel on the given pool.
+     *
+     * @param pool Pool to compute wavefront tiles on, or null to compute everything on the calling thread
+     */
+    public void setWavefrontPool(ForkJoinPool pool) {
+        setWavefrontPool(pool, DEFAULT_WAVEFRONT_TILE_SIZE);
+    }
+
+    /**
+     * Compute large scans of the array in parallel on the given pool, using tiles of the given size.
+     *
+     * @param pool Pool to compute wavefront tiles on, or null to compute everything on the calling thread
+     * @param tileSize Height and width of each tile, in cells. Must be at least 1.
+     */
+    void setWavefrontPool(ForkJoinPool pool, int tileSize) {
+        checkArgument(tileSize >= 1, "Wavefront tile size must be at least 1, got " + tileSize);
+
+        wavefrontPool = pool;
+        wavefrontTileSize = tileSize;
     }
 
     /**
@@ -85,7 +173,7 @@ public class SmithWatermanAlgorithm {
      *
      * @return Smith-Waterman S table
      */
-    int[][] getS() {
+    char[][] getS() {
         return s;
     }
 
@@ -94,7 +182,7 @@ public class SmithWatermanAlgorithm {
      *
      * @return Smith-Waterman M table
      */
-    int[][] getM() {
+    char[][] getM() {
         return m;
     }
 
@@ -110,10 +198,20 @@ public class SmithWatermanAlgorithm {
     /**
      * INTERNAL ONLY - for use in unit tests.
      *
-     * @return Smith-Waterman match candidates
+     * @return Current Smith-Waterman match candidates, with any stale entries left by lazy deletion filtered out
      */
     Map<Integer, Set<Coordinate>> getCandidates() {
-        return candidates;
+        Map<Integer, Set<Coordinate>> current = new HashMap<>();
+
+        for(Map.Entry<Integer, Set<Coordinate>> entry : candidates.toMap().entrySet()) {
+            for(Coordinate coord : entry.getValue()) {
+                if(isCurrentCandidate(entry.getKey(), coord.getX(), coord.getY())) {
+                    current.computeIfAbsent(entry.getKey(), (key) -> new HashSet<>()).add(coord);
+                }
+            }
+        }
+
+        return current;
     }
 
     /**
@@ -137,43 +235,42 @@ public class SmithWatermanAlgorithm {
     /**
      * Compute a Smith-Waterman alignment through exhaustive (but more reliable) process.
      *
+     * Where several candidates share the largest score, the one with the lowest X (then Y) coordinate is taken.
+     *
      * TODO tests for this (already tested through SmithWaterman)
      *
      * @return Pair of TokenList representing optimal alignments
      * @throws InternalAlgorithmError Thrown if internal error causes violation of preconditions
      */
     public Pair<TokenList, TokenList> computeSmithWatermanAlignmentExhaustive() throws InternalAlgorithmError {
-        Map<Integer, Set<Coordinate>> localCandidates;
+        CandidateHeap localCandidates = new CandidateHeap();
 
         // Keep computing while we have results over threshold
-        do {
+        while(true) {
             // Recompute whole array
-            localCandidates = computeArraySubset(wholeArray);
+            localCandidates.clear();
+            computeArraySubset(wholeArray, localCandidates);
 
             if(localCandidates.isEmpty()) {
                 break;
             }
 
-            // Get the largest key
-            int largestKey = Ordering.natural().max(localCandidates.keySet());
+            // The head of the heap is the largest candidate, with ties already broken deterministically, so other
+            // implementations can reproduce our choice
+            int x = localCandidates.peekX();
+            int y = localCandidates.peekY();
 
-            // Get matching coordinates
-            Set<Coordinate> largestCoords = localCandidates.get(largestKey);
+            // Get match coordinates
+            LongList matchCoords = traceMatch(x, y);
 
-            if(largestCoords == null || largestCoords.isEmpty()) {
-                throw new InternalAlgorithmError("Error: largest key " + largestKey
-                        + " maps to null or empty candidate set!");
+            if(matchCoords.isEmpty()) {
+                throw new InternalAlgorithmError("Candidate at (" + x + ", " + y
+                        + ") did not trace back to any matches!");
             }
 
-            // Arbitrarily break ties
-            Coordinate chosenCoord = Iterables.get(largestCoords, 0);
-
-            // Get match coordinates
-            Set<Coordinate> matchCoords = getMatchCoordinates(chosenCoord);
-
             // Set match invalid
-            setMatchesInvalid(matchCoords);
-        } while(!localCandidates.isEmpty());
+            setPackedMatchesInvalid(matchCoords);
+        }
 
         // IntelliJ has an aversion to passing anything with a 'y' in it as the right side of a pair
         // This alleviates the warning
@@ -182,9 +279,16 @@ public class SmithWatermanAlgorithm {
     }
 
     /**
-     * Compute a Smith-Waterman alignment.
+     * Compute a Smith-Waterman alignment incrementally.
      *
-     * TODO tests for this
+     * Produces exactly the results of {@link #computeSmithWatermanAlignmentExhaustive()}, but computes the full S and
+     * M arrays only once. After each match is set invalid, only the cells whose value can have changed are
+     * recomputed: those where the match status of the tokens changed, and those downstream of a cell whose value
+     * changed. Cells which become significant are added to the candidate heap as they are recomputed.
+     *
+     * Candidates are only ever traced back once they reach the head of the heap and are found to be current, and every
+     * trace is set invalid as a match, so no traceback is repeated and nothing about a candidate's match needs to be
+     * remembered between iterations.
      *
      * @return Pair of Token Lists representing optimal detected alignments
      * @throws InternalAlgorithmError Thrown if internal error causes violation of preconditions
@@ -194,64 +298,37 @@ public class SmithWatermanAlgorithm {
         candidates.clear();
 
         // Start by computing the entire array, and adding the results to candidates
-        mergeIntoCandidates(computeArraySubset(wholeArray));
-
-        // Go through all candidates
-        while(!candidates.isEmpty()) {
-            // Need to identify the largest key (largest value in the S-W array)
-            int largestKey = Ordering.natural().max(candidates.keySet());
+        computeArraySubset(wholeArray, candidates);
 
-            // Get coordinate(s) with largest value in S-W array
-            Set<Coordinate> largestCoords = candidates.get(largestKey);
+        // For each token, the tokens on the other axis it could match
+        int[][] yMatchesForX = getMatchingPositions(xLexemes, getPositions(yLexemes));
+        int[][] xMatchesForY = getMatchingPositions(yLexemes, getPositions(xLexemes));
 
-            if(largestCoords == null || largestCoords.isEmpty()) {
-                throw new InternalAlgorithmError("Null or empty mapping from largest coordinates!");
-            }
+        // Go through all candidates, largest first
+        while(!candidates.isEmpty()) {
+            int score = candidates.peekScore();
+            int x = candidates.peekX();
+            int y = candidates.peekY();
 
-            // Arbitrarily break ties, if they exist
-            Coordinate currMax = Iterables.get(largestCoords, 0);
-
-            // Check to verify that this match is over the threshold
-            // This should never happen, so log if it does
-            // TODO investigate why this is happening
-            if(s[currMax.getX()][currMax.getY()] < threshold) {
-                logs.trace("Potential algorithm error: identified candidate pointing to 0 at " + currMax);
-                largestCoords.remove(currMax);
-                if(largestCoords.isEmpty()) {
-                    candidates.remove(largestKey);
-                } else {
-                    candidates.put(largestKey, largestCoords);
-                }
+            // Candidates are deleted lazily - discard any whose cell has changed since they were added
+            if(!isCurrentCandidate(score, x, y)) {
+                candidates.poll();
                 continue;
             }
 
             // Get match coordinates
-            Set<Coordinate> coords = getMatchCoordinates(currMax);
-
-            // Get match origin
-            Coordinate currOrigin = getFirstMatchCoordinate(coords);
+            LongList coords = traceMatch(x, y);
 
-            if(currMax.equals(currOrigin)) {
-                throw new InternalAlgorithmError("Maximum and Origin point to same point - " + currMax + " and " +
-                        currOrigin + ". Size of match coordinates set is " + coords.size());
+            if(coords.isEmpty()) {
+                throw new InternalAlgorithmError("Candidate at (" + x + ", " + y
+                        + ") did not trace back to any matches!");
             }
 
-            // Filter postdominated results
-            candidates = filterPostdominated(currOrigin, currMax);
-
             // Set match invalid
-            setMatchesInvalid(coords);
-
-            // Zero the match
-            zeroMatch(currOrigin, currMax);
+            setPackedMatchesInvalid(coords);
 
-            // Generate array subsets we need to recompute
-            Set<ArraySubset> subsetsToCompute = generateSubsets(currOrigin, currMax);
-
-            // Recompute given array subsets
-            for(ArraySubset subset : subsetsToCompute) {
-                mergeIntoCandidates(computeArraySubset(subset));
-            }
+            // Recompute everything the match could have changed
+            recomputeInvalidated(coords, yMatchesForX, xMatchesForY);
         }
 
         // IntelliJ has an aversion to passing anything with a 'y' in it as the right side of a pair
@@ -261,164 +338,173 @@ public class SmithWatermanAlgorithm {
     }
 
     /**
-     * Generate subsets of the Smith-Waterman arrays that require recomputation.
+     * Recompute all cells of the S and M arrays that could have changed as a result of a match being set invalid.
      *
-     * TODO unit tests for this once optimizations are added
+     * Cells whose match status changed are recomputed first. Changes are then propagated forward, row by row, to
+     * successors of any cell whose value changed, until no more values change. Any cell which is significant after
+     * changing is added to the candidates; entries for its old value are left to be discarded lazily.
      *
-     * @param origin Origin of match requiring recomputation
-     * @param max Max of match requiring recomputation
-     * @return Set of array subsets requiring recomputation
+     * Nothing is cleared: cells are only ever overwritten with their new values, and changes are tracked cell by cell,
+     * so the cost of a match follows the number of cells it can affect rather than the rows and columns it spans.
+     *
+     * @param match Packed coordinates of tokens which were just set invalid, as given by {@link #traceMatch}
+     * @param yMatchesForX Coordinates along the Y axis with the same lexeme as each token along the X axis, as given
+     *                    by {@link #getMatchingPositions}
+     * @param xMatchesForY Coordinates along the X axis with the same lexeme as each token along the Y axis
+     * @return Number of cells recomputed
      */
-    Set<ArraySubset> generateSubsets(Coordinate origin, Coordinate max) {
-        checkNotNull(origin);
-        checkNotNull(max);
-        checkArgument(wholeArray.contains(origin), "Origin of requested area out of bounds: " + origin
-                + " not within " + wholeArray);
-        checkArgument(wholeArray.contains(max), "Max of requested area out of bounds: " + max
-                + " not within " + wholeArray);
-
-        Set<ArraySubset> toRecompute = new HashSet<>();
+    int recomputeInvalidated(LongList match, int[][] yMatchesForX, int[][] xMatchesForY) {
+        checkNotNull(match);
+        checkNotNull(yMatchesForX);
+        checkNotNull(xMatchesForY);
 
-        // There are potentially 4 zones we need to care about
-
-        // First: above and to the left
-        // Check if it exists
-        if(origin.getX() > 1 && origin.getY() > 1) {
-            toRecompute.add(ArraySubset.of(1, 1, origin.getX(), origin.getY()));
-        }
-
-        // Second: Above and to the right
-        // Check if it exists
-        if(max.getX() < (wholeArray.getMax().getX() - 1) && origin.getY() > 1) {
-            toRecompute.add(ArraySubset.of(max.getX(), 1, wholeArray.getMax().getX(), origin.getY()));
+        if(match.isEmpty()) {
+            return 0;
         }
 
-        // Third: Below and to the left
-        // Check if it exists
-        if(origin.getX() > 1 && max.getY() < (wholeArray.getMax().getY() - 1)) {
-            toRecompute.add(ArraySubset.of(1, max.getY(), origin.getX(), wholeArray.getMax().getY() - 1));
-        }
+        int xSize = xLexemes.length;
+        int ySize = yLexemes.length;
 
-        // Fourth: Below and to the right
-        // Check if it exists
-        if(max.getX() < (wholeArray.getMax().getX() - 1) && max.getY() < (wholeArray.getMax().getY() - 1)) {
-            toRecompute.add(ArraySubset.of(max.getX(), max.getY(), wholeArray.getMax().getX() - 1,
-                    wholeArray.getMax().getY() - 1));
+        if(xMatched == null) {
+            xMatched = new boolean[xSize + 1];
+            yMatched = new boolean[ySize + 1];
+            // No row can have more changed columns than there are columns
+            changedScratch = new int[ySize + 1];
+            prevChangedScratch = new int[ySize + 1];
         }
 
-        // If none of the subsets were added, we matched the entire array
-        // Nothing to do here, just return
-        if(toRecompute.isEmpty()) {
-            return toRecompute;
+        for(int i = 0; i < match.size(); i++) {
+            xMatched[CandidateHeap.unpackX(match.get(i))] = true;
+            yMatched[CandidateHeap.unpackY(match.get(i))] = true;
         }
 
-        // Now, if we DIDN'T match the entire array
-        // We're going to want to narrow down these subsets
-        // We can do this by removing invalid areas
-        // TODO this optimization
-
-        return toRecompute;
-    }
-
-    /**
-     * Zero out the portion of S and M arrays that was matched.
-     *
-     * @param origin Origin of the match
-     * @param max Endpoint of the match
-     */
-    void zeroMatch(Coordinate origin, Coordinate max) {
-        checkNotNull(origin);
-        checkNotNull(max);
-        checkArgument(wholeArrayBounds.contains(origin), "Origin of requested area out of bounds: " + origin
-                + " not within " + wholeArray);
-        checkArgument(wholeArrayBounds.contains(max), "Max of requested area out of bounds: " + max
-                + " not within " + wholeArray);
+        // Seed with every cell whose tokens matched before the match was set invalid, and no longer do
+        // Packed as (x, y) so sorting gives row-major order
+        seeds.clear();
+        for(int i = 0; i < match.size(); i++) {
+            int x = CandidateHeap.unpackX(match.get(i));
+            int y = CandidateHeap.unpackY(match.get(i));
 
-        int xLower = origin.getX();
-        int xUpper = max.getX();
+            for(int otherY : yMatchesForX[x - 1]) {
+                if(yValid[otherY - 1] || yMatched[otherY]) {
+                    seeds.add(CandidateHeap.pack(x, otherY));
+                }
+            }
 
-        // Zero out the X match
-        for(int x = xLower; x <= xUpper; x++) {
-            for(int y = 1; y < s[0].length; y++) {
-                s[x][y] = 0;
-                m[x][y] = 0;
+            for(int otherX : xMatchesForY[y - 1]) {
+                if(xValid[otherX - 1] || xMatched[otherX]) {
+                    seeds.add(CandidateHeap.pack(otherX, y));
+                }
             }
         }
+        seeds.sort();
+        int numSeeds = seeds.size();
 
-        int yLower = origin.getY();
-        int yUpper = max.getY();
-
-        // Zero out the Y match
-        for(int x = 1; x < s.length; x++) {
-            for(int y = yLower; y <= yUpper; y++) {
-                s[x][y] = 0;
-                m[x][y] = 0;
-            }
+        // The matched tokens are no longer needed - clear them for next time
+        for(int i = 0; i < match.size(); i++) {
+            xMatched[CandidateHeap.unpackX(match.get(i))] = false;
+            yMatched[CandidateHeap.unpackY(match.get(i))] = false;
         }
-    }
 
-    /**
-     * Filter postdominated results of a match.
-     *
-     * @param max Endpoint of match
-     * @return Filtered version of candidate results set, with all results postdominated by match removed
-     */
-    Map<Integer, Set<Coordinate>> filterPostdominated(Coordinate origin, Coordinate max) {
-        checkNotNull(origin);
-        checkNotNull(max);
-        checkArgument(wholeArray.contains(origin), "Origin of requested area out of bounds: " + origin + " not within "
-                + wholeArray);
-        checkArgument(wholeArray.contains(max), "Max of requested area out of bounds: " + max + " not within "
-                + wholeArray);
+        // Columns changed in the previous row and the current row, in ascending order
+        int[] prevChanged = prevChangedScratch;
+        int[] currChanged = changedScratch;
+        int numPrevChanged = 0;
+        int numCurrChanged;
+
+        int recomputed = 0;
+        int seedIndex = 0;
+        int x = numSeeds == 0 ? xSize + 1 : CandidateHeap.unpackX(seeds.get(0));
+
+        while(x <= xSize) {
+            char[] sRow = s[x];
+            char[] mRow = m[x];
+            char[] sPrevRow = s[x - 1];
+            char[] mPrevRow = m[x - 1];
+            boolean xTokenValid = xValid[x - 1];
+            int xLexeme = xLexemes[x - 1];
+
+            numCurrChanged = 0;
+
+            // Each changed cell in the previous row dirties the cells below it and diagonally below-right of it
+            int prevIndex = 0;
+            boolean prevSecond = false;
+            // A changed cell dirties the cell to its right
+            int carry = Integer.MAX_VALUE;
+
+            while(true) {
+                int next = Integer.MAX_VALUE;
+
+                if(seedIndex < numSeeds && CandidateHeap.unpackX(seeds.get(seedIndex)) == x) {
+                    next = CandidateHeap.unpackY(seeds.get(seedIndex));
+                }
+                if(prevIndex < numPrevChanged) {
+                    next = Math.min(next, prevChanged[prevIndex] + (prevSecond ? 1 : 0));
+                }
+                next = Math.min(next, carry);
 
-        if(candidates.isEmpty()) {
-            return candidates;
-        }
+                if(next == Integer.MAX_VALUE) {
+                    break;
+                }
+
+                // Consume every source pointing at this column
+                while(seedIndex < numSeeds && seeds.get(seedIndex) == CandidateHeap.pack(x, next)) {
+                    seedIndex++;
+                }
+                while(prevIndex < numPrevChanged && prevChanged[prevIndex] + (prevSecond ? 1 : 0) <= next) {
+                    if(prevSecond) {
+                        prevIndex++;
+                    }
+                    prevSecond = !prevSecond;
+                }
+                if(carry == next) {
+                    carry = Integer.MAX_VALUE;
+                }
 
-        Map<Integer, Set<Coordinate>> filteredResults = new HashMap<>();
+                int y = next;
+                if(y > ySize) {
+                    continue;
+                }
 
-        // X match invalidation
-        ArraySubset xInval = ArraySubset.of(origin.getX(), 0, max.getX(), wholeArray.getMax().getY());
-        ArraySubset yInval = ArraySubset.of(0, origin.getY(), wholeArray.getMax().getX(), max.getY());
+                int oldS = sRow[y];
+                int oldM = mRow[y];
 
-        // Loop through all candidates and see if they need to be filtered
-        for(int key : candidates.keySet()) {
-            Set<Coordinate> allCandidates = candidates.get(key);
+                computeCell(xTokenValid && yValid[y - 1] && xLexeme == yLexemes[y - 1], sPrevRow, mPrevRow, sRow, mRow,
+                        y);
+                recomputed++;
 
-            Set<Coordinate> newSet = new HashSet<>();
+                int newS = sRow[y];
+                int newM = mRow[y];
 
-            for(Coordinate coord : allCandidates) {
-                // Unclear how this candidate got added, but it's no longer valid
-                // This shouldn't happen, so log it as well
-                // TODO investigate why this is happening
-                if(s[coord.getX()][coord.getY()] < threshold) {
-                    logs.trace("Potential algorithm error - filtered match lower than threshold at " + coord);
+                if(newS == oldS && newM == oldM) {
                     continue;
                 }
 
-                // Identify the origin of the result
-                Coordinate originOfCandidate = getFirstMatchCoordinate(getMatchCoordinates(coord));
-
-                // If the origin is NOT the same as the given origin, it's a candidate
-                if(!originOfCandidate.equals(origin)) {
-                    // Also need to check if the origin and max are not within the rectangles identified
-                    if(xInval.contains(coord)
-                            || yInval.contains(coord)
-                            || xInval.contains(max)
-                            || yInval.contains(max)) {
-                        newSet.add(coord);
-                    }
+                if(isSignificant(newS, newM)) {
+                    candidates.add(newS, x, y);
                 }
+
+                currChanged[numCurrChanged++] = y;
+                carry = y + 1;
             }
 
-            if(!newSet.isEmpty()) {
-                // We didn't filter everything
-                // Add the filtered set to our filtered results
-                filteredResults.put(key, newSet);
+            // Swap changed columns
+            int[] tmp = prevChanged;
+            prevChanged = currChanged;
+            currChanged = tmp;
+            numPrevChanged = numCurrChanged;
+
+            if(numPrevChanged > 0) {
+                x++;
+            } else if(seedIndex < numSeeds) {
+                // Nothing propagates into the next row, so skip straight to the next seed
+                x = CandidateHeap.unpackX(seeds.get(seedIndex));
+            } else {
+                break;
             }
         }
 
-        return filteredResults;
+        return recomputed;
     }
 
     /**
@@ -428,101 +514,163 @@ public class SmithWatermanAlgorithm {
      * @return Map containing all candidate results identified while computing
      */
     Map<Integer, Set<Coordinate>> computeArraySubset(ArraySubset toCompute) {
+        CandidateHeap newCandidates = new CandidateHeap();
+
+        computeArraySubset(toCompute, newCandidates);
+
+        return newCandidates.toMap();
+    }
+
+    /**
+     * Compute a subset of the array, adding all significant results to the given candidates.
+     *
+     * @param toCompute Subset to recompute. Can be entire array, if desired.
+     * @param newCandidates Heap to add candidate results identified while computing to
+     */
+    void computeArraySubset(ArraySubset toCompute, CandidateHeap newCandidates) {
         checkNotNull(toCompute);
+        checkNotNull(newCandidates);
         checkArgument(wholeArray.contains(toCompute.getOrigin()), "Origin of subset out of bounds: "
                 + toCompute.getOrigin() + " not within " + wholeArray);
         checkArgument(wholeArray.contains(toCompute.getMax()), "Maximum of subset out of bounds: "
                 + toCompute.getMax() + " not within " + wholeArray);
 
-        Map<Integer, Set<Coordinate>> newCandidates = new HashMap<>();
+        int xLower = toCompute.getOrigin().getX();
+        int xUpper = toCompute.getMax().getX();
+        int yLower = toCompute.getOrigin().getY();
+        int yUpper = toCompute.getMax().getY();
 
-        for(int x = toCompute.getOrigin().getX(); x < toCompute.getMax().getX(); x++) {
-            Token xToken = new ValidityEnsuringToken(xList.get(x - 1));
+        // Validity may have changed through the token lists since we last looked, so refresh the rows and columns
+        // we're about to compute. This is linear in the size of the subset, not quadratic.
+        refreshValidity(xLower, xUpper, yLower, yUpper);
 
-            for(int y = toCompute.getOrigin().getY(); y < toCompute.getMax().getY(); y++) {
-                int prevX = x - 1;
-                int prevY = y - 1;
+        // Large subsets with more than one tile in each direction are worth computing in parallel
+        if(wavefrontPool != null && xUpper - xLower > wavefrontTileSize && yUpper - yLower > wavefrontTileSize) {
+            boolean[] rowHasCandidates = new boolean[xUpper];
 
-                int newS;
-                int newM;
+            computeWavefronts(xLower, xUpper, yLower, yUpper, rowHasCandidates);
 
-                // Token Match - increment S table
-                if(xToken.isValid() && xToken.equals(yList.get(y - 1))) {
-                    int sPred = s[prevX][prevY];
-                    int mPred = m[prevX][prevY];
-
-                    newS = sPred + swConstant;
+            for(int x = xLower; x < xUpper; x++) {
+                if(rowHasCandidates[x]) {
+                    addRowCandidates(x, yLower, yUpper, newCandidates);
+                }
+            }
 
-                    // Predecessors table is the largest of the S table or M table predecessors
-                    if(sPred > mPred) {
-                        newM = sPred;
-                    } else {
-                        newM = mPred;
-                    }
-                } else {
-                    // Tokens did not match
-                    // Get the max of S table predecessors and decrement
-                    int a = s[prevX][prevY];
-                    int b = s[prevX][y];
-                    int c = s[x][prevY];
+            return;
+        }
 
-                    int max = getMaxOfInts(a, b, c);
+        for(int x = xLower; x < xUpper; x++) {
+            int rowMax = computeRow(xValid[x - 1], xLexemes[x - 1], yValid, yLexemes, s[x - 1], m[x - 1], s[x], m[x],
+                    yLower, yUpper);
 
-                    newS = max - swConstant;
+            // Most rows hold nothing significant - only look for candidates in those that do
+            if(rowMax != 0) {
+                addRowCandidates(x, yLower, yUpper, newCandidates);
+            }
+        }
+    }
 
-                    if(newS < 0) {
-                        newS = 0;
-                    }
+    /**
+     * Add every significant cell in part of a row to the given candidates.
+     *
+     * @param x Row to search
+     * @param yLower First column to search (inclusive)
+     * @param yUpper Last column to search (exclusive)
+     * @param newCandidates Heap to add candidates to
+     */
+    private void addRowCandidates(int x, int yLower, int yUpper, CandidateHeap newCandidates) {
+        char[] sRow = s[x];
+        char[] mRow = m[x];
+
+        for(int y = yLower; y < yUpper; y++) {
+            // Check if we our result is significant
+            if(isSignificant(sRow[y], mRow[y])) {
+                // It's significant, add it to our results
+                newCandidates.add(sRow[y], x, y);
+            }
+        }
+    }
 
-                    // If S is 0, zero out the predecessor table entry
-                    if(newS == 0) {
-                        newM = 0;
-                    } else {
-                        int aM = m[prevX][prevY];
-                        int bM = m[prevX][y];
-                        int cM = m[x][prevY];
-
-                        // Get largest predecessor in M table
-                        int maxM = getMaxOfInts(aM, bM, cM);
-
-                        // If S nonzero, predecessor table entry is largest of the predecessors in the S and M tables
-                        if(max > maxM) {
-                            newM = max;
-                        } else {
-                            newM = maxM;
-                        }
+    /**
+     * Compute the S and M arrays over the given bounds as anti-diagonal wavefronts of tiles on the wavefront pool.
+     *
+     * Tile (i, j) needs only the last row of tile (i - 1, j), the last column of tile (i, j - 1), and the corner of
+     * tile (i - 1, j - 1). All of these lie on earlier wavefronts, so the tiles of each wavefront are independent.
+     *
+     * @param xLower First row to compute (inclusive)
+     * @param xUpper Last row to compute (exclusive)
+     * @param yLower First column to compute (inclusive)
+     * @param yUpper Last column to compute (exclusive)
+     * @param rowHasCandidates Set true for each row in which any tile found a significant cell
+     */
+    private void computeWavefronts(int xLower, int xUpper, int yLower, int yUpper, boolean[] rowHasCandidates) {
+        int tileSize = wavefrontTileSize;
+        int xTiles = (xUpper - xLower + tileSize - 1) / tileSize;
+        int yTiles = (yUpper - yLower + tileSize - 1) / tileSize;
+
+        wavefrontPool.invoke(new RecursiveAction() {
+            @Override
+            protected void compute() {
+                for(int wavefront = 0; wavefront < xTiles + yTiles - 1; wavefront++) {
+                    List<TileComputation> tiles = new ArrayList<>();
+
+                    for(int i = Math.max(0, wavefront - yTiles + 1); i <= Math.min(wavefront, xTiles - 1); i++) {
+                        int j = wavefront - i;
+                        int tileX = xLower + i * tileSize;
+                        int tileY = yLower + j * tileSize;
+
+                        tiles.add(new TileComputation(tileX, Math.min(tileX + tileSize, xUpper), tileY,
+                                Math.min(tileY + tileSize, yUpper), rowHasCandidates));
                     }
-                }
 
-                // Check threshold
-                if(newM - newS >= threshold) {
-                    newM = 0;
-                    newS = 0;
+                    invokeAll(tiles);
                 }
+            }
+        });
+    }
 
-                // Set S and M table entries
-                s[x][y] = newS;
-                m[x][y] = newM;
-
-                // Check if we our result is significant
-                if(newS >= threshold && newS > newM) {
-                    // It's significant, add it to our results
-                    if(newCandidates.containsKey(newS)) {
-                        Set<Coordinate> valuesForKey = newCandidates.get(newS);
-
-                        valuesForKey.add(Coordinate.of(x, y));
-                    } else {
-                        Set<Coordinate> valuesForKey = new HashSet<>();
+    /**
+     * Computes a single tile of the S and M arrays as part of a wavefront.
+     */
+    private final class TileComputation extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final int xLower;
+        private final int xUpper;
+        private final int yLower;
+        private final int yUpper;
+        private final boolean[] rowHasCandidates;
+
+        TileComputation(int xLower, int xUpper, int yLower, int yUpper, boolean[] rowHasCandidates) {
+            this.xLower = xLower;
+            this.xUpper = xUpper;
+            this.yLower = yLower;
+            this.yUpper = yUpper;
+            this.rowHasCandidates = rowHasCandidates;
+        }
 
-                        valuesForKey.add(Coordinate.of(x, y));
+        @Override
+        protected void compute() {
+            for(int x = xLower; x < xUpper; x++) {
+                int rowMax = computeRow(xValid[x - 1], xLexemes[x - 1], yValid, yLexemes, s[x - 1], m[x - 1], s[x],
+                        m[x], yLower, yUpper);
 
-                        newCandidates.put(newS, valuesForKey);
-                    }
+                // Tiles only ever set flags, and the join at the end of each wavefront publishes them
+                if(rowMax != 0) {
+                    rowHasCandidates[x] = true;
                 }
             }
         }
+    }
 
-        return newCandidates;
+    /**
+     * @param score Score a candidate was added with
+     * @param x X coordinate of candidate
+     * @param y Y coordinate of candidate
+     * @return True if the candidate still reflects the S and M arrays - its cell has the same score and is significant
+     */
+    boolean isCurrentCandidate(int score, int x, int y) {
+        return s[x][y] == score && isSignificant(s[x][y], m[x][y]);
     }
 
     /**
@@ -551,6 +699,31 @@ public class SmithWatermanAlgorithm {
         return candidate;
     }
 
+    /**
+     * Break ties between equally-scored candidates.
+     *
+     * The coordinate chosen is the first that would be encountered in a row-by-row scan of the S array: lowest X,
+     * then lowest Y.
+     *
+     * @param coordinates Coordinates to choose from
+     * @return Coordinate with the lowest X value, ties broken by lowest Y value
+     */
+    static Coordinate getLowestCoordinate(Set<Coordinate> coordinates) {
+        checkNotNull(coordinates);
+        checkArgument(!coordinates.isEmpty(), "Cannot choose lowest coordinate as coordinate set is empty!");
+
+        Coordinate lowest = null;
+
+        for(Coordinate coord : coordinates) {
+            if(lowest == null || coord.getX() < lowest.getX()
+                    || (coord.getX() == lowest.getX() && coord.getY() < lowest.getY())) {
+                lowest = coord;
+            }
+        }
+
+        return lowest;
+    }
+
     /**
      * Set matched tokens invalid.
      *
@@ -563,13 +736,31 @@ public class SmithWatermanAlgorithm {
             return;
         }
 
-        // Iterate through all match coordinates and set them invalid
+        LongList packed = new LongList(coordinates.size());
         for(Coordinate coordinate : coordinates) {
-            int x = coordinate.getX() - 1;
-            int y = coordinate.getY() - 1;
+            packed.add(CandidateHeap.pack(coordinate.getX(), coordinate.getY()));
+        }
+
+        setPackedMatchesInvalid(packed);
+    }
+
+    /**
+     * Set matched tokens invalid.
+     *
+     * @param coordinates Packed matched coordinates in the S array, as given by {@link #traceMatch}
+     */
+    void setPackedMatchesInvalid(LongList coordinates) {
+        checkNotNull(coordinates);
+
+        // Iterate through all match coordinates and set them invalid
+        for(int i = 0; i < coordinates.size(); i++) {
+            int x = CandidateHeap.unpackX(coordinates.get(i)) - 1;
+            int y = CandidateHeap.unpackY(coordinates.get(i)) - 1;
 
             xList.get(x).setValid(false);
             yList.get(y).setValid(false);
+            xValid[x] = false;
+            yValid[y] = false;
         }
     }
 
@@ -586,16 +777,35 @@ public class SmithWatermanAlgorithm {
         checkArgument(s[matchCoord.getX()][matchCoord.getY()] != 0, "Requested match coordinate "
                 + matchCoord + " points to 0 in S array!");
 
+        LongList packed = traceMatch(matchCoord.getX(), matchCoord.getY());
+
         Set<Coordinate> matchCoordinates = new HashSet<>();
+        for(int i = 0; i < packed.size(); i++) {
+            matchCoordinates.add(Coordinate.of(CandidateHeap.unpackX(packed.get(i)),
+                    CandidateHeap.unpackY(packed.get(i))));
+        }
+
+        return matchCoordinates;
+    }
+
+    /**
+     * Trace back from the end of a match, retrieving the coordinates of every matched token pair.
+     *
+     * @param endX X coordinate of the end of the match. Must point to a nonzero value in the S array.
+     * @param endY Y coordinate of the end of the match. Must point to a nonzero value in the S array.
+     * @return Packed coordinates of all matched token pairs in the match, starting from the end
+     */
+    LongList traceMatch(int endX, int endY) {
+        LongList matchCoordinates = new LongList();
 
-        int x = matchCoord.getX();
-        int y = matchCoord.getY();
+        int x = endX;
+        int y = endY;
 
         int largestPredecessor;
         do {
             // Only add the current coordinate if the tokens at the given point match
-            if(new ValidityEnsuringToken(xList.get(x - 1)).equals(yList.get(y - 1))) {
-                matchCoordinates.add(Coordinate.of(x, y));
+            if(tokensMatch(x, y)) {
+                matchCoordinates.add(CandidateHeap.pack(x, y));
 
                 // If they match, the predecessor is always the upper-left diagonal
                 x = x - 1;
@@ -655,24 +865,310 @@ public class SmithWatermanAlgorithm {
     }
 
     /**
-     * Merge given map into the Candidates list.
+     * Map each lexeme to the coordinates along one axis of the S array it appears at.
      *
-     * @param merge Map to merge into candidates
+     * @param lexemes Lexemes along one axis
+     * @return Map from lexeme to coordinates it appears at, in ascending order. Coordinates start at 1.
      */
-    void mergeIntoCandidates(Map<Integer, Set<Coordinate>> merge) {
-        checkNotNull(merge);
+    static Map<Integer, int[]> getPositions(int[] lexemes) {
+        checkNotNull(lexemes);
 
-        for(Integer key : merge.keySet()) {
-            Set<Coordinate> contentsToMerge = merge.get(key);
+        Map<Integer, Integer> counts = new HashMap<>();
+        for(int lexeme : lexemes) {
+            counts.merge(lexeme, 1, Integer::sum);
+        }
 
-            if(!candidates.containsKey(key)) {
-                candidates.put(key, contentsToMerge);
-            } else {
-                Set<Coordinate> contentsMergeInto = candidates.get(key);
+        Map<Integer, int[]> positions = new HashMap<>();
+        Map<Integer, Integer> filled = new HashMap<>();
+        for(int i = 0; i < lexemes.length; i++) {
+            int lexeme = lexemes[i];
+
+            int[] forLexeme = positions.get(lexeme);
+            if(forLexeme == null) {
+                forLexeme = new int[counts.get(lexeme)];
+                positions.put(lexeme, forLexeme);
+            }
+
+            int index = filled.merge(lexeme, 1, Integer::sum) - 1;
+            forLexeme[index] = i + 1;
+        }
+
+        return positions;
+    }
+
+    /**
+     * Find, for each token along one axis, the coordinates of tokens with the same lexeme along the other axis.
+     *
+     * Tokens sharing a lexeme share the same array.
+     *
+     * @param lexemes Lexemes along one axis
+     * @param otherPositions Positions of each lexeme along the other axis, as given by {@link #getPositions(int[])}
+     * @return Coordinates along the other axis each token could match, indexed from 0
+     */
+    static int[][] getMatchingPositions(int[] lexemes, Map<Integer, int[]> otherPositions) {
+        checkNotNull(lexemes);
+        checkNotNull(otherPositions);
+
+        int[] none = new int[0];
+        int[][] matching = new int[lexemes.length][];
+
+        for(int i = 0; i < lexemes.length; i++) {
+            matching[i] = otherPositions.getOrDefault(lexemes[i], none);
+        }
+
+        return matching;
+    }
+
+
+    /**
+     * Compute a single cell of the S and M tables from its predecessors.
+     *
+     * This is the scoring recurrence shared by all Smith-Waterman implementations in this package. The kernels below
+     * only differ in where they load predecessors from and store results to.
+     *
+     * Both the match and mismatch cases are computed and selected between, which compiles to conditional moves rather
+     * than branches on the (unpredictable) match.
+     *
+     * @param tokensMatch Whether the tokens for this cell are both valid and identical
+     * @param sDiag S value of the cell above and to the left
+     * @param mDiag M value of the cell above and to the left
+     * @param sUp S value of the cell above
+     * @param mUp M value of the cell above
+     * @param sLeft S value of the cell to the left
+     * @param mLeft M value of the cell to the left
+     * @return New S value in the upper 32 bits and new M value in the lower 32 bits, as read by {@link #getS(long)} and
+     *         {@link #getM(long)}
+     */
+    static long scoreCell(boolean tokensMatch, int sDiag, int mDiag, int sUp, int mUp, int sLeft, int mLeft) {
+        int sMax = Math.max(Math.max(sDiag, sUp), sLeft);
+        int mMax = Math.max(Math.max(mDiag, mUp), mLeft);
+        int sMismatch = Math.max(sMax - swConstant, 0);
+        int mMismatch = sMismatch == 0 ? 0 : Math.max(sMax, mMax);
+
+        int newS = tokensMatch ? sDiag + swConstant : sMismatch;
+        int newM = tokensMatch ? Math.max(sDiag, mDiag) : mMismatch;
+
+        // Both values are non-negative, so neither spills into the other's half
+        long cell = ((long)newS << 32) | newM;
+
+        // Check threshold
+        return newM - newS >= threshold ? 0L : cell;
+    }
+
+    /**
+     * @param cell Cell as returned by {@link #scoreCell}
+     * @return S value of the cell
+     */
+    static int getS(long cell) {
+        return (int)(cell >>> 32);
+    }
 
-                contentsMergeInto.addAll(contentsToMerge);
+    /**
+     * @param cell Cell as returned by {@link #scoreCell}
+     * @return M value of the cell
+     */
+    static int getM(long cell) {
+        return (int)cell;
+    }
+
+    /**
+     * Compute part of a single row of the S and M tables from the row above it.
+     *
+     * Columns below yLower in the current row must already have been computed, as must columns yLower - 1 through
+     * yUpper - 1 of the previous row. Produces exactly what calling {@link #computeCell} for each column would, but
+     * keeps the left and upper-left predecessors in locals instead of reloading them.
+     *
+     * @param xTokenValid Whether the token for this row is valid
+     * @param xLexeme Lexeme of the token for this row
+     * @param yValid Validity of the tokens for each column, indexed from 0 (column 1 of the tables)
+     * @param yLexemes Lexemes of the tokens for each column, indexed from 0 (column 1 of the tables)
+     * @param sPrevRow Previous row of the S table
+     * @param mPrevRow Previous row of the M table
+     * @param sRow Row of the S table to compute
+     * @param mRow Row of the M table to compute
+     * @param yLower First column to compute (inclusive). Must be at least 1.
+     * @param yUpper Last column to compute (exclusive)
+     * @return Largest significant S value computed in the row, or 0 if none were significant
+     */
+    static int computeRow(boolean xTokenValid, int xLexeme, boolean[] yValid, int[] yLexemes, int[] sPrevRow,
+                          int[] mPrevRow, int[] sRow, int[] mRow, int yLower, int yUpper) {
+        int rowMax = 0;
+
+        // Predecessors to the left and upper left are carried from one column to the next rather than reloaded
+        int sDiag = sPrevRow[yLower - 1];
+        int mDiag = mPrevRow[yLower - 1];
+        int sLeft = sRow[yLower - 1];
+        int mLeft = mRow[yLower - 1];
+
+        for(int y = yLower; y < yUpper; y++) {
+            int sUp = sPrevRow[y];
+            int mUp = mPrevRow[y];
+
+            long cell = scoreCell(xTokenValid && yValid[y - 1] && xLexeme == yLexemes[y - 1], sDiag, mDiag, sUp, mUp,
+                    sLeft, mLeft);
+            sLeft = getS(cell);
+            mLeft = getM(cell);
+
+            sRow[y] = sLeft;
+            mRow[y] = mLeft;
+
+            if(sLeft > rowMax && isSignificant(sLeft, mLeft)) {
+                rowMax = sLeft;
+            }
+
+            sDiag = sUp;
+            mDiag = mUp;
+        }
+
+        return rowMax;
+    }
+
+    /**
+     * Compute part of a single row of 16-bit S and M tables from the row above it.
+     *
+     * Same as {@link #computeRow(boolean, int, boolean[], int[], int[], int[], int[], int[], int, int)}, for the
+     * narrow tables {@link SmithWatermanAlgorithm} holds; only the loads and stores differ. No value can exceed the
+     * length of the shorter token list, so nothing is lost in narrowing as long as that is at most
+     * {@link #MAX_SHORTER_LIST_SIZE}.
+     *
+     * @param xTokenValid Whether the token for this row is valid
+     * @param xLexeme Lexeme of the token for this row
+     * @param yValid Validity of the tokens for each column, indexed from 0 (column 1 of the tables)
+     * @param yLexemes Lexemes of the tokens for each column, indexed from 0 (column 1 of the tables)
+     * @param sPrevRow Previous row of the S table
+     * @param mPrevRow Previous row of the M table
+     * @param sRow Row of the S table to compute
+     * @param mRow Row of the M table to compute
+     * @param yLower First column to compute (inclusive). Must be at least 1.
+     * @param yUpper Last column to compute (exclusive)
+     * @return Largest significant S value computed in the row, or 0 if none were significant
+     */
+    static int computeRow(boolean xTokenValid, int xLexeme, boolean[] yValid, int[] yLexemes, char[] sPrevRow,
+                          char[] mPrevRow, char[] sRow, char[] mRow, int yLower, int yUpper) {
+        int rowMax = 0;
+
+        int sDiag = sPrevRow[yLower - 1];
+        int mDiag = mPrevRow[yLower - 1];
+        int sLeft = sRow[yLower - 1];
+        int mLeft = mRow[yLower - 1];
+
+        for(int y = yLower; y < yUpper; y++) {
+            int sUp = sPrevRow[y];
+            int mUp = mPrevRow[y];
+
+            long cell = scoreCell(xTokenValid && yValid[y - 1] && xLexeme == yLexemes[y - 1], sDiag, mDiag, sUp, mUp,
+                    sLeft, mLeft);
+            sLeft = getS(cell);
+            mLeft = getM(cell);
+
+            sRow[y] = (char)sLeft;
+            mRow[y] = (char)mLeft;
+
+            if(sLeft > rowMax && isSignificant(sLeft, mLeft)) {
+                rowMax = sLeft;
             }
+
+            sDiag = sUp;
+            mDiag = mUp;
         }
+
+        return rowMax;
+    }
+
+    /**
+     * Compute a single cell of 16-bit S and M tables in place from its predecessors.
+     *
+     * @param tokensMatch Whether the tokens for this cell are both valid and identical
+     * @param sPrevRow Previous row of the S table
+     * @param mPrevRow Previous row of the M table
+     * @param sRow Row of the S table containing the cell
+     * @param mRow Row of the M table containing the cell
+     * @param y Column of the cell. Must be at least 1.
+     */
+    static void computeCell(boolean tokensMatch, char[] sPrevRow, char[] mPrevRow, char[] sRow, char[] mRow, int y) {
+        long cell = scoreCell(tokensMatch, sPrevRow[y - 1], mPrevRow[y - 1], sPrevRow[y], mPrevRow[y], sRow[y - 1],
+                mRow[y - 1]);
+
+        sRow[y] = (char)getS(cell);
+        mRow[y] = (char)getM(cell);
+    }
+
+    /**
+     * @param sValue Value in the S table
+     * @param mValue Value in the M table at the same point
+     * @return True if the given point is a candidate endpoint for a match
+     */
+    static boolean isSignificant(int sValue, int mValue) {
+        return sValue >= threshold && sValue > mValue;
+    }
+
+    /**
+     * Check whether the tokens at a given point in the S array match.
+     *
+     * Equivalent to comparing the two tokens with a ValidityEnsuringToken, but uses the flattened lexeme and validity
+     * arrays.
+     *
+     * @param x X coordinate in the S array
+     * @param y Y coordinate in the S array
+     * @return True if both tokens are valid and share a lexeme
+     */
+    boolean tokensMatch(int x, int y) {
+        return xValid[x - 1] && yValid[y - 1] && xLexemes[x - 1] == yLexemes[y - 1];
+    }
+
+    /**
+     * Copy current token validity out of the token lists for the given rows and columns.
+     *
+     * @param xLower First row to refresh (inclusive, S array coordinates)
+     * @param xUpper Last row to refresh (exclusive, S array coordinates)
+     * @param yLower First column to refresh (inclusive, S array coordinates)
+     * @param yUpper Last column to refresh (exclusive, S array coordinates)
+     */
+    private void refreshValidity(int xLower, int xUpper, int yLower, int yUpper) {
+        for(int x = xLower; x < xUpper; x++) {
+            xValid[x - 1] = xList.get(x - 1).isValid();
+        }
+
+        for(int y = yLower; y < yUpper; y++) {
+            yValid[y - 1] = yList.get(y - 1).isValid();
+        }
+    }
+
+    /**
+     * Flatten a token list into an array of its lexemes.
+     *
+     * Token types are not retained. This is safe as token lists are single-typed, and we refuse to align lists of
+     * differing types.
+     *
+     * @param tokens Token list to flatten
+     * @return Array containing the lexeme of each token, in order
+     */
+    static int[] getLexemes(TokenList tokens) {
+        checkNotNull(tokens);
+
+        int[] lexemes = new int[tokens.size()];
+
+        for(int i = 0; i < lexemes.length; i++) {
+            lexemes[i] = tokens.get(i).getLexeme();
+        }
+
+        return lexemes;
+    }
+
+    /**
+     * @param tokens Token list to get validity of
+     * @return Validity of each token in the list, in order
+     */
+    static boolean[] getValidity(TokenList tokens) {
+        checkNotNull(tokens);
+
+        boolean[] valid = new boolean[tokens.size()];
+
+        for(int i = 0; i < valid.length; i++) {
+            valid[i] = tokens.get(i).isValid();
+        }
+
+        return valid;
     }
 
     /**
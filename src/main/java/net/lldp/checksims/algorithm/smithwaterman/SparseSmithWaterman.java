@@ -0,0 +1,175 @@
+/*
+ * CDDL HEADER START
+ *
+ * The contents of this file are subject to the terms of the
+ * Common Development and Distribution License (the "License").
+ * You may not use this file except in compliance with the License.
+ *
+ * See LICENSE.txt included in this distribution for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing Covered Code, include this CDDL HEADER in each
+ * file and include the License file at LICENSE.txt.
+ * If applicable, add the following below this CDDL HEADER, with the
+ * fields enclosed by brackets "[]" replaced with your own identifying
+ * information: Portions Copyright [yyyy] [name of copyright owner]
+ *
+ * CDDL HEADER END
+ *
+ * Copyright (c) 2014-2015 Nicholas DeMarinis, Matthew Heon, and Dolan Murvihill
+ */
+
+package net.lldp.checksims.algorithm.smithwaterman;
+
+import net.lldp.checksims.algorithm.AlgorithmResults;
+import net.lldp.checksims.algorithm.InternalAlgorithmError;
+import net.lldp.checksims.algorithm.SimilarityDetector;
+import net.lldp.checksims.submission.Submission;
+import net.lldp.checksims.token.TokenList;
+import net.lldp.checksims.token.TokenType;
+import net.lldp.checksims.token.TokenTypeMismatchException;
+import org.apache.commons.lang3.tuple.Pair;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * Smith-Waterman similarity detector which only computes cells near tokens which match.
+ *
+ * Gives exactly the same results as {@link SmithWaterman}, in time which grows with the number of matching token
+ * pairs rather than the product of the submission sizes. Pairs where more than the maximum match density of token
+ * pairs match are handed to {@link SmithWaterman} instead, as the full tables are faster to compute there.
+ */
+public final class SparseSmithWaterman implements SimilarityDetector {
+    private static SparseSmithWaterman instance;
+
+    private static Logger logs = LoggerFactory.getLogger(SparseSmithWaterman.class);
+
+    /**
+     * Default fraction of token pairs which may match before full tables are used instead.
+     */
+    public static final double DEFAULT_MAX_MATCH_DENSITY = 0.01;
+
+    private volatile double maxMatchDensity = DEFAULT_MAX_MATCH_DENSITY;
+
+    private SparseSmithWaterman() {}
+
+    /**
+     * @return Singleton instance of the sparse Smith-Waterman algorithm
+     */
+    public static SparseSmithWaterman getInstance() {
+        if(instance == null) {
+            instance = new SparseSmithWaterman();
+        }
+
+        return instance;
+    }
+
+    /**
+     * @return Name of this implementation
+     */
+    @Override
+    public String getName() {
+        return "smithwatermansparse";
+    }
+
+    /**
+     * @return Default token type to be used for this similarity detector
+     */
+    @Override
+    public TokenType getDefaultTokenType() {
+        return TokenType.WHITESPACE;
+    }
+
+    /**
+     * @return Fraction of token pairs which may match before full tables are used instead
+     */
+    public double getMaxMatchDensity() {
+        return maxMatchDensity;
+    }
+
+    /**
+     * @param maxMatchDensity Fraction of token pairs which may match before full tables are used instead. 0 always
+     *                        uses full tables, and 1 never does.
+     */
+    public void setMaxMatchDensity(double maxMatchDensity) {
+        checkArgument(maxMatchDensity >= 0.0 && maxMatchDensity <= 1.0,
+                "Maximum match density must be between 0 and 1, got " + maxMatchDensity);
+
+        this.maxMatchDensity = maxMatchDensity;
+    }
+
+    /**
+     * Apply the sparse Smith-Waterman algorithm to determine the similarity between two submissions.
+     *
+     * Token list types of A and B must match
+     *
+     * @param a First submission to apply to
+     * @param b Second submission to apply to
+     * @return Similarity results of comparing submissions A and B
+     * @throws TokenTypeMismatchException Thrown on comparing submissions with mismatched token types
+     * @throws InternalAlgorithmError Thrown on internal error
+     */
+    @Override
+    public AlgorithmResults detectSimilarity(Submission a, Submission b)
+            throws TokenTypeMismatchException, InternalAlgorithmError {
+        checkNotNull(a);
+        checkNotNull(b);
+
+        // Test for token type mismatch
+        if(!a.getTokenType().equals(b.getTokenType())) {
+            throw new TokenTypeMismatchException("Token list type mismatch: submission " + a.getName() + " has type " +
+                    a.getTokenType().toString() + ", while submission " + b.getName() + " has type "
+                    + b.getTokenType().toString());
+        }
+
+        // Handle a 0-token submission (no similarity)
+        if(a.getNumTokens() == 0 || b.getNumTokens() == 0) {
+            return new AlgorithmResults(a, b, a.getContentAsTokens(), b.getContentAsTokens());
+        } else if(a.equals(b)) {
+            // Handle identical submissions
+            TokenList aInval = TokenList.cloneTokenList(a.getContentAsTokens());
+            aInval.stream().forEach((token) -> token.setValid(false));
+            return new AlgorithmResults(a, b, aInval, aInval);
+        }
+
+        SparseSmithWatermanAlgorithm algorithm = new SparseSmithWatermanAlgorithm(a.getContentAsTokens(),
+                b.getContentAsTokens());
+
+        if(algorithm.getMatchDensity() > maxMatchDensity) {
+            logs.trace("Match density " + algorithm.getMatchDensity() + " between submissions " + a.getName()
+                    + " and " + b.getName() + " is too high for sparse alignment - using full tables");
+
+            return SmithWaterman.getInstance().detectSimilarity(a, b);
+        }
+
+        Pair<TokenList, TokenList> endLists = algorithm.computeSmithWatermanAlignment();
+
+        return new AlgorithmResults(a, b, endLists.getLeft(), endLists.getRight());
+    }
+
+    /**
+     * @return True - every matched token is aligned against exactly one matched token in the other submission
+     */
+    @Override
+    public boolean matchesTokensOneToOne() {
+        return true;
+    }
+
+    @Override
+    public String toString() {
+        return "Singleton instance of Sparse Smith-Waterman Algorithm";
+    }
+
+    @Override
+    public int hashCode() {
+        return this.getName().hashCode();
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        return other instanceof SparseSmithWaterman;
+    }
+}
@@ -0,0 +1,601 @@
+/*
+ * CDDL HEADER START
+ *
+ * The contents of this file are subject to the terms of the
+ * Common Development and Distribution License (the "License").
+ * You may not use this file except in compliance with the License.
+ *
+ * See LICENSE.txt included in this distribution for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing Covered Code, include this CDDL HEADER in each
+ * file and include the License file at LICENSE.txt.
+ * If applicable, add the following below this CDDL HEADER, with the
+ * fields enclosed by brackets "[]" replaced with your own identifying
+ * information: Portions Copyright [yyyy] [name of copyright owner]
+ *
+ * CDDL HEADER END
+ *
+ * Copyright (c) 2014-2015 Nicholas DeMarinis, Matthew Heon, and Dolan Murvihill
+ */
+
+package net.lldp.checksims.algorithm.smithwaterman;
+
+import net.lldp.checksims.algorithm.InternalAlgorithmError;
+import net.lldp.checksims.token.TokenList;
+import net.lldp.checksims.util.primitive.LongList;
+import org.apache.commons.lang3.tuple.Pair;
+
+import java.util.Arrays;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * Smith-Waterman alignment which only holds the cells of the S and M tables near tokens which match.
+ *
+ * A cell's S value only rises where its tokens match, and falls by at least {@code swConstant} for every step away
+ * from the last match on its path. Once it falls {@code threshold} below the best value on that path, the cell is
+ * zeroed. So every cell which is not zero lies within {@link #REACH} rows and columns after some matching pair of
+ * tokens. Only those cells are stored, each row as a sorted list of columns, and all others are treated as 0 - giving
+ * exactly the alignment of {@link SmithWatermanAlgorithm#computeSmithWatermanAlignmentExhaustive()}.
+ *
+ * Matching pairs are found from a list of the positions of every lexeme in the second token list, built once. Time
+ * and memory then grow with the number of matching pairs rather than the size of the tables, which suits token types
+ * like {@link net.lldp.checksims.token.TokenType#WHITESPACE} where most pairs of tokens differ. Where most pairs of
+ * tokens match, the full tables are cheaper - see {@link #getMatchDensity()}.
+ *
+ * After each match, rows are recomputed from the first holding a cell in a matched row or column, and recomputation
+ * stops at the first row past the match which comes out unchanged.
+ */
+public class SparseSmithWatermanAlgorithm {
+    private final TokenList xList;
+    private final TokenList yList;
+    private final int[] xLexemes;
+    private final int[] yLexemes;
+    private final boolean[] xValid;
+    private final boolean[] yValid;
+    private final int xSize;
+    private final int ySize;
+
+    // Lexeme (high 32 bits) and position (low 32 bits) of every valid token of Y, sorted - so the positions of each
+    // lexeme are contiguous and ascending
+    private final long[] yByLexeme;
+
+    // Tokens of Y matching the token for row x are at yByLexeme[matchStart[x]] (inclusive) to [matchEnd[x]] (exclusive)
+    private final int[] matchStart;
+    private final int[] matchEnd;
+    private final long numMatches;
+
+    // Columns stored for each row, ascending, and their S and M values. Built on first use.
+    private int[][] columns;
+    private int[][] s;
+    private int[][] m;
+    private long numCells;
+
+    // First and last row storing each column, or xSize + 1 and 0 if none do
+    private int[] columnFirstRow;
+    private int[] columnLastRow;
+
+    // Largest significant S value in each row, and the first column holding it, or 0 if the row has none
+    private int[] rowBestScore;
+    private int[] rowBestY;
+
+    private final CandidateHeap candidates;
+
+    // Rows the kernel computes in, before they are compared against the stored rows
+    private int[] sScratch;
+    private int[] mScratch;
+
+    /**
+     * Number of rows and columns past a matching pair of tokens that a nonzero cell can lie.
+     */
+    public static final int REACH = (SmithWatermanAlgorithm.threshold - 1) / SmithWatermanAlgorithm.swConstant;
+
+    /**
+     * Prepare for a sparse Smith-Waterman alignment.
+     *
+     * Only finds the matching pairs of tokens, so is cheap even where the alignment itself would not be.
+     *
+     * @param a First token list to align
+     * @param b Second token list to align
+     */
+    public SparseSmithWatermanAlgorithm(TokenList a, TokenList b) {
+        checkNotNull(a);
+        checkNotNull(b);
+        checkArgument(!a.isEmpty(), "Cowardly refusing to perform alignment with empty token list A");
+        checkArgument(!b.isEmpty(), "Cowardly refusing to perform alignment with empty token list B");
+        checkArgument(a.type.equals(b.type), "Cannot align token lists of differing types " + a.type + " and "
+                + b.type);
+
+        xList = TokenList.cloneTokenList(a);
+        yList = TokenList.cloneTokenList(b);
+
+        xSize = xList.size();
+        ySize = yList.size();
+
+        xLexemes = SmithWatermanAlgorithm.getLexemes(xList);
+        yLexemes = SmithWatermanAlgorithm.getLexemes(yList);
+        xValid = SmithWatermanAlgorithm.getValidity(xList);
+        yValid = SmithWatermanAlgorithm.getValidity(yList);
+
+        LongList positions = new LongList(ySize);
+        for(int y = 0; y < ySize; y++) {
+            if(yValid[y]) {
+                positions.add(((long)yLexemes[y] << 32) | y);
+            }
+        }
+
+        yByLexeme = new long[positions.size()];
+        for(int i = 0; i < yByLexeme.length; i++) {
+            yByLexeme[i] = positions.get(i);
+        }
+        Arrays.sort(yByLexeme);
+
+        matchStart = new int[xSize + 1];
+        matchEnd = new int[xSize + 1];
+
+        long matches = 0;
+        for(int x = 1; x <= xSize; x++) {
+            if(xValid[x - 1]) {
+                long key = (long)xLexemes[x - 1] << 32;
+
+                matchStart[x] = lowerBound(key);
+                matchEnd[x] = lowerBound(key | Integer.MAX_VALUE);
+                matches += matchEnd[x] - matchStart[x];
+            }
+        }
+        numMatches = matches;
+
+        candidates = new CandidateHeap();
+    }
+
+    /**
+     * INTERNAL ONLY - for use in unit tests.
+     *
+     * @return Token list along X axis
+     */
+    TokenList getXList() {
+        return xList;
+    }
+
+    /**
+     * INTERNAL ONLY - for use in unit tests.
+     *
+     * @return Token list along Y axis
+     */
+    TokenList getYList() {
+        return yList;
+    }
+
+    /**
+     * @return Number of pairs of valid tokens, one from each list, which match
+     */
+    public long getNumMatches() {
+        return numMatches;
+    }
+
+    /**
+     * @return Fraction of all pairs of tokens, one from each list, which match
+     */
+    public double getMatchDensity() {
+        return (double)numMatches / ((double)xSize * (double)ySize);
+    }
+
+    /**
+     * @return Number of cells stored in each of the S and M tables, or 0 if no alignment has been computed yet
+     */
+    public long getNumCells() {
+        return numCells;
+    }
+
+    /**
+     * Compute a Smith-Waterman alignment.
+     *
+     * @return Pair of TokenList representing optimal alignments
+     * @throws InternalAlgorithmError Thrown if internal error causes violation of preconditions
+     */
+    public Pair<TokenList, TokenList> computeSmithWatermanAlignment() throws InternalAlgorithmError {
+        if(columns == null) {
+            buildTables();
+        }
+
+        candidates.clear();
+
+        computeRows(1, xSize, 1, xSize, 1, ySize);
+
+        // Go through all candidates, largest first
+        while(!candidates.isEmpty()) {
+            int score = candidates.peekScore();
+            int x = candidates.peekX();
+            int y = candidates.peekY();
+
+            // Candidates are deleted lazily - discard any which are no longer the best in their row
+            if(rowBestScore[x] != score || rowBestY[x] != y) {
+                candidates.poll();
+                continue;
+            }
+
+            LongList coords = traceMatch(x, y);
+
+            if(coords.isEmpty()) {
+                throw new InternalAlgorithmError("Candidate at (" + x + ", " + y
+                        + ") did not trace back to any matches!");
+            }
+
+            setMatchInvalid(coords);
+
+            // Coordinates run from the end of the match, so the last pair holds the smallest X and Y
+            int minX = CandidateHeap.unpackX(coords.get(coords.size() - 1));
+            int minY = CandidateHeap.unpackY(coords.get(coords.size() - 1));
+
+            int firstRow = minX;
+            int lastRow = x;
+            for(int column = minY; column <= y; column++) {
+                firstRow = Math.min(firstRow, columnFirstRow[column]);
+                lastRow = Math.max(lastRow, columnLastRow[column]);
+            }
+
+            computeRows(firstRow, lastRow, minX, x, minY, y);
+        }
+
+        //noinspection SuspiciousNameCombination
+        return Pair.of(xList, yList);
+    }
+
+    /**
+     * Work out which cells of each row to store, and allocate them.
+     *
+     * Row x stores every column from each matching pair in rows x - REACH to x, through REACH columns past it.
+     */
+    private void buildTables() {
+        columns = new int[xSize + 1][];
+        s = new int[xSize + 1][];
+        m = new int[xSize + 1][];
+
+        columnFirstRow = new int[ySize + 1];
+        columnLastRow = new int[ySize + 1];
+        Arrays.fill(columnFirstRow, xSize + 1);
+
+        rowBestScore = new int[xSize + 1];
+        rowBestY = new int[xSize + 1];
+
+        sScratch = new int[ySize + 1];
+        mScratch = new int[ySize + 1];
+
+        // Row 0 is all zeroes, and stores nothing
+        columns[0] = new int[0];
+        s[0] = new int[0];
+        m[0] = new int[0];
+
+        int[] starts = new int[16];
+        int[] row = new int[ySize + 1];
+        numCells = 0;
+
+        for(int x = 1; x <= xSize; x++) {
+            int numStarts = 0;
+
+            for(int i = Math.max(1, x - REACH); i <= x; i++) {
+                int count = matchEnd[i] - matchStart[i];
+
+                if(numStarts + count > starts.length) {
+                    starts = Arrays.copyOf(starts, Math.max(starts.length * 2, numStarts + count));
+                }
+
+                for(int j = matchStart[i]; j < matchEnd[i]; j++) {
+                    starts[numStarts++] = (int)yByLexeme[j] + 1;
+                }
+            }
+
+            Arrays.sort(starts, 0, numStarts);
+
+            int rowLength = 0;
+            int covered = 0;
+            for(int i = 0; i < numStarts; i++) {
+                int last = Math.min(starts[i] + REACH, ySize);
+
+                for(int y = Math.max(starts[i], covered + 1); y <= last; y++) {
+                    row[rowLength++] = y;
+
+                    columnFirstRow[y] = Math.min(columnFirstRow[y], x);
+                    columnLastRow[y] = x;
+                }
+
+                covered = Math.max(covered, last);
+            }
+
+            columns[x] = Arrays.copyOf(row, rowLength);
+            s[x] = new int[rowLength];
+            m[x] = new int[rowLength];
+            numCells += rowLength;
+        }
+    }
+
+    /**
+     * Recompute rows of the tables, adding the new best cell of every row which changes to the candidates.
+     *
+     * A row is recomputed if its own token may have changed, if it stores a column whose token may have changed, or
+     * if the row above it changed. Rows after lastRow had no tokens change, so recomputation stops at the first of
+     * them which comes out unchanged.
+     *
+     * @param firstRow First row to recompute
+     * @param lastRow Last row storing a column whose token may have changed (inclusive)
+     * @param matchFirstX First row whose token may have changed
+     * @param matchLastX Last row whose token may have changed (inclusive)
+     * @param matchFirstY First column whose token may have changed
+     * @param matchLastY Last column whose token may have changed (inclusive)
+     */
+    void computeRows(int firstRow, int lastRow, int matchFirstX, int matchLastX, int matchFirstY, int matchLastY) {
+        boolean prevChanged = false;
+
+        for(int x = firstRow; x <= xSize; x++) {
+            boolean changed = false;
+
+            if(prevChanged || (x <= lastRow && ((x >= matchFirstX && x <= matchLastX)
+                    || hasColumnBetween(x, matchFirstY, matchLastY)))) {
+                changed = computeRow(x);
+            }
+
+            if(x > lastRow && !changed) {
+                break;
+            }
+
+            prevChanged = changed;
+        }
+    }
+
+    /**
+     * Recompute every stored cell of a row from the row above it.
+     *
+     * Uses the same recurrence as every other implementation, {@link SmithWatermanAlgorithm#scoreCell}, with cells
+     * which are not stored read as 0.
+     *
+     * @param x Row to compute. Must be at least 1.
+     * @return True if any cell in the row changed
+     */
+    private boolean computeRow(int x) {
+        int[] rowColumns = columns[x];
+        int[] prevColumns = columns[x - 1];
+        int[] sPrev = s[x - 1];
+        int[] mPrev = m[x - 1];
+
+        boolean xTokenValid = xValid[x - 1];
+        int xLexeme = xLexemes[x - 1];
+
+        int prev = 0;
+        int sLeft = 0;
+        int mLeft = 0;
+
+        for(int i = 0; i < rowColumns.length; i++) {
+            int y = rowColumns[i];
+
+            // The cell to the left reads as 0 unless it is stored
+            if(i == 0 || rowColumns[i - 1] != y - 1) {
+                sLeft = 0;
+                mLeft = 0;
+            }
+
+            while(prev < prevColumns.length && prevColumns[prev] < y - 1) {
+                prev++;
+            }
+
+            int sDiag = 0;
+            int mDiag = 0;
+            int sUp = 0;
+            int mUp = 0;
+
+            int up = prev;
+            if(up < prevColumns.length && prevColumns[up] == y - 1) {
+                sDiag = sPrev[up];
+                mDiag = mPrev[up];
+                up++;
+            }
+            if(up < prevColumns.length && prevColumns[up] == y) {
+                sUp = sPrev[up];
+                mUp = mPrev[up];
+            }
+
+            long cell = SmithWatermanAlgorithm.scoreCell(xTokenValid && yValid[y - 1] && xLexeme == yLexemes[y - 1],
+                    sDiag, mDiag, sUp, mUp, sLeft, mLeft);
+            sLeft = SmithWatermanAlgorithm.getS(cell);
+            mLeft = SmithWatermanAlgorithm.getM(cell);
+
+            sScratch[i] = sLeft;
+            mScratch[i] = mLeft;
+        }
+
+        int[] sRow = s[x];
+        int[] mRow = m[x];
+        boolean changed = false;
+
+        for(int i = 0; i < rowColumns.length; i++) {
+            if(sRow[i] != sScratch[i] || mRow[i] != mScratch[i]) {
+                changed = true;
+                break;
+            }
+        }
+
+        if(changed) {
+            System.arraycopy(sScratch, 0, sRow, 0, rowColumns.length);
+            System.arraycopy(mScratch, 0, mRow, 0, rowColumns.length);
+
+            updateRowBest(x);
+        }
+
+        return changed;
+    }
+
+    /**
+     * Find the best cell in a row - the one with the largest significant S value, taking the first if several share
+     * it - and add it to the candidates if it has changed.
+     *
+     * @param x Row to search
+     */
+    private void updateRowBest(int x) {
+        int[] sRow = s[x];
+        int[] mRow = m[x];
+
+        int bestScore = 0;
+        int bestIndex = 0;
+
+        for(int i = 0; i < sRow.length; i++) {
+            if(sRow[i] > bestScore && SmithWatermanAlgorithm.isSignificant(sRow[i], mRow[i])) {
+                bestScore = sRow[i];
+                bestIndex = i;
+            }
+        }
+
+        int bestY = bestScore == 0 ? 0 : columns[x][bestIndex];
+
+        if(bestScore != rowBestScore[x] || bestY != rowBestY[x]) {
+            rowBestScore[x] = bestScore;
+            rowBestY[x] = bestY;
+
+            if(bestScore > 0) {
+                candidates.add(bestScore, x, bestY);
+            }
+        }
+    }
+
+    /**
+     * Trace back from the end of a match, retrieving the coordinates of every matched token pair.
+     *
+     * Follows the same path as {@link SmithWatermanAlgorithm#traceMatch(int, int)}.
+     *
+     * @param endX X coordinate of the end of the match
+     * @param endY Y coordinate of the end of the match
+     * @return Packed coordinates of all matched token pairs in the match, starting from the end
+     */
+    LongList traceMatch(int endX, int endY) {
+        LongList matchCoordinates = new LongList();
+
+        int x = endX;
+        int y = endY;
+
+        int largestPredecessor;
+        do {
+            // Only add the current coordinate if the tokens at the given point match
+            if(xValid[x - 1] && yValid[y - 1] && xLexemes[x - 1] == yLexemes[y - 1]) {
+                matchCoordinates.add(CandidateHeap.pack(x, y));
+
+                // If they match, the predecessor is always the upper-left diagonal
+                x = x - 1;
+                y = y - 1;
+
+                largestPredecessor = getS(x, y);
+
+                continue;
+            }
+
+            // Get predecessors
+            int a = getS(x - 1, y - 1);
+            int b = getS(x - 1, y);
+            int c = getS(x, y - 1);
+
+            largestPredecessor = SmithWatermanAlgorithm.getMaxOfInts(a, b, c);
+
+            // Figure out which predecessor is the largest, and move to its coordinates
+            if(a == largestPredecessor) {
+                x = x - 1;
+                y = y - 1;
+            } else if(b == largestPredecessor) {
+                x = x - 1;
+            } else {
+                y = y - 1;
+            }
+        } while(largestPredecessor > 0);
+
+        return matchCoordinates;
+    }
+
+    /**
+     * Set every token in a match invalid.
+     *
+     * @param coordinates Packed coordinates of the matched token pairs
+     */
+    private void setMatchInvalid(LongList coordinates) {
+        for(int i = 0; i < coordinates.size(); i++) {
+            int x = CandidateHeap.unpackX(coordinates.get(i)) - 1;
+            int y = CandidateHeap.unpackY(coordinates.get(i)) - 1;
+
+            xList.get(x).setValid(false);
+            yList.get(y).setValid(false);
+            xValid[x] = false;
+            yValid[y] = false;
+        }
+    }
+
+    /**
+     * @param x X coordinate in the tables
+     * @param y Y coordinate in the tables
+     * @return Value of the S table at the given coordinates, or 0 if the cell is not stored
+     */
+    int getS(int x, int y) {
+        int index = indexOf(x, y);
+
+        return index < 0 ? 0 : s[x][index];
+    }
+
+    /**
+     * @param x X coordinate in the tables
+     * @param y Y coordinate in the tables
+     * @return Value of the M table at the given coordinates, or 0 if the cell is not stored
+     */
+    int getM(int x, int y) {
+        int index = indexOf(x, y);
+
+        return index < 0 ? 0 : m[x][index];
+    }
+
+    /**
+     * @param x X coordinate in the tables
+     * @param y Y coordinate in the tables
+     * @return Index of the given cell within its row, or a negative number if it is not stored
+     */
+    private int indexOf(int x, int y) {
+        if(x < 1 || y < 1) {
+            return -1;
+        }
+
+        return Arrays.binarySearch(columns[x], y);
+    }
+
+    /**
+     * @param x Row of the tables
+     * @param lower First column (inclusive)
+     * @param upper Last column (inclusive)
+     * @return True if the row stores any column between the given bounds
+     */
+    private boolean hasColumnBetween(int x, int lower, int upper) {
+        int index = Arrays.binarySearch(columns[x], lower);
+
+        if(index >= 0) {
+            return true;
+        }
+
+        int insertion = -index - 1;
+
+        return insertion < columns[x].length && columns[x][insertion] <= upper;
+    }
+
+    /**
+     * @param key Packed lexeme and position to search for
+     * @return Index of the first entry of yByLexeme not less than the key
+     */
+    private int lowerBound(long key) {
+        int low = 0;
+        int high = yByLexeme.length;
+
+        while(low < high) {
+            int mid = (low + high) >>> 1;
+
+            if(yByLexeme[mid] < key) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+
+        return low;
+    }
+}
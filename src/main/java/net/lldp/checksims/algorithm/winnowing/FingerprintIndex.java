@@ -0,0 +1,280 @@
+/*
+ * CDDL HEADER START
+ *
+ * The contents of this file are subject to the terms of the
+ * Common Development and Distribution License (the "License").
+ * You may not use this file except in compliance with the License.
+ *
+ * See LICENSE.txt included in this distribution for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing Covered Code, include this CDDL HEADER in each
+ * file and include the License file at LICENSE.txt.
+ * If applicable, add the following below this CDDL HEADER, with the
+ * fields enclosed by brackets "[]" replaced with your own identifying
+ * information: Portions Copyright [yyyy] [name of copyright owner]
+ *
+ * CDDL HEADER END
+ *
+ * Copyright (c) 2014-2015 Nicholas DeMarinis, Matthew Heon, and Dolan Murvihill
+ */
+
+package net.lldp.checksims.algorithm.winnowing;
+
+import net.lldp.checksims.util.primitive.LongList;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * Inverted index from fingerprint hash to the submissions holding it, across a whole corpus.
+ *
+ * Only hashes held by at least two submissions are kept, as no others can be shared. Hashes held by more submissions
+ * than a given cap are common to too much of the corpus to say anything about any one pair, and are set aside rather
+ * than kept, as MOSS does. Postings are held in primitive arrays: the kept hashes in ascending order, and for each the
+ * submissions holding it, in ascending order of index.
+ */
+final class FingerprintIndex {
+    private final int numSubmissions;
+    private final long[] hashes;
+    private final long[] commonHashes;
+
+    // Postings of hash i are submissions[postingStart[i]] to submissions[postingStart[i + 1] - 1]
+    private final int[] postingStart;
+    private final int[] submissions;
+
+    /**
+     * Receives each pair of submissions with fingerprints in common.
+     */
+    interface SharedPairConsumer {
+        /**
+         * @param first Index of the first submission of the pair
+         * @param second Index of the second submission of the pair, always greater than first
+         * @param numShared Number of distinct hashes the two have in common
+         */
+        void accept(int first, int second, int numShared);
+    }
+
+    /**
+     * Index the fingerprints of a corpus, keeping every hash held by more than one submission.
+     *
+     * @param fingerprints Fingerprints of each submission. Submissions are referred to by their index in this list.
+     */
+    FingerprintIndex(List<WinnowedFingerprints> fingerprints) {
+        this(fingerprints, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Index the fingerprints of a corpus.
+     *
+     * @param fingerprints Fingerprints of each submission. Submissions are referred to by their index in this list.
+     * @param maxHolders Most submissions a hash may be held by and still be kept. Must be at least 2.
+     */
+    FingerprintIndex(List<WinnowedFingerprints> fingerprints, int maxHolders) {
+        checkNotNull(fingerprints);
+        checkArgument(maxHolders >= 2, "Hashes held by at least 2 submissions must be kept, got cap of " + maxHolders);
+
+        numSubmissions = fingerprints.size();
+        long[][] distinct = new long[numSubmissions][];
+        int[] cursors = new int[numSubmissions];
+        int total = 0;
+        for(int i = 0; i < numSubmissions; i++) {
+            distinct[i] = fingerprints.get(i).getDistinctHashes();
+            total += distinct[i].length;
+        }
+
+        // Merge the sorted hashes of every submission, smallest first, through a heap of submission indices keyed on
+        // each submission's next hash
+        int[] heap = new int[numSubmissions];
+        int heapSize = 0;
+        for(int i = 0; i < numSubmissions; i++) {
+            if(distinct[i].length > 0) {
+                heap[heapSize++] = i;
+                siftUp(heap, heapSize - 1, distinct, cursors);
+            }
+        }
+
+        LongList keptHashes = new LongList();
+        LongList setAside = new LongList();
+        int[] starts = new int[total + 1];
+        int[] postings = new int[total];
+        int numPostings = 0;
+        int numKept = 0;
+
+        int[] holders = new int[numSubmissions];
+        while(heapSize > 0) {
+            long hash = distinct[heap[0]][cursors[heap[0]]];
+            int numHolders = 0;
+
+            // Pop every submission holding this hash, advancing each to its next
+            while(heapSize > 0 && distinct[heap[0]][cursors[heap[0]]] == hash) {
+                int submission = heap[0];
+                holders[numHolders++] = submission;
+
+                if(++cursors[submission] < distinct[submission].length) {
+                    siftDown(heap, heapSize, 0, distinct, cursors);
+                } else {
+                    heap[0] = heap[--heapSize];
+                    siftDown(heap, heapSize, 0, distinct, cursors);
+                }
+            }
+
+            if(numHolders > maxHolders) {
+                setAside.add(hash);
+            } else if(numHolders > 1) {
+                Arrays.sort(holders, 0, numHolders);
+                keptHashes.add(hash);
+                starts[numKept] = numPostings;
+                System.arraycopy(holders, 0, postings, numPostings, numHolders);
+                numPostings += numHolders;
+                numKept++;
+            }
+        }
+        starts[numKept] = numPostings;
+
+        hashes = keptHashes.toArray();
+        commonHashes = setAside.toArray();
+        postingStart = Arrays.copyOf(starts, numKept + 1);
+        submissions = Arrays.copyOf(postings, numPostings);
+    }
+
+    /**
+     * @return Number of hashes held by more than one submission
+     */
+    int getNumSharedHashes() {
+        return hashes.length;
+    }
+
+    /**
+     * @param hash Hash to look up
+     * @return Whether the hash is held by more submissions than the cap, and so was not kept
+     */
+    boolean isCommon(long hash) {
+        return Arrays.binarySearch(commonHashes, hash) >= 0;
+    }
+
+    /**
+     * @param hash Hash to look up
+     * @return Indices of the submissions holding the hash, ascending, or an empty array if fewer than two do
+     */
+    int[] getPostings(long hash) {
+        int index = Arrays.binarySearch(hashes, hash);
+
+        if(index < 0) {
+            return new int[0];
+        }
+
+        return Arrays.copyOfRange(submissions, postingStart[index], postingStart[index + 1]);
+    }
+
+    /**
+     * Count the hashes each pair of submissions has in common, straight from the postings.
+     *
+     * Pairs with nothing in common never appear in any posting list together, so are never visited. Counts are
+     * accumulated for one submission at a time against every later one, so only a count per submission is ever held,
+     * however many pairs share a hash.
+     *
+     * @param consumer Called once for each pair with at least one hash in common, in ascending order of pair
+     */
+    void forEachSharedPair(SharedPairConsumer consumer) {
+        checkNotNull(consumer);
+
+        // Invert the postings: the kept hashes each submission holds, as indices into hashes, ascending
+        int[] heldStart = new int[numSubmissions + 1];
+        for(int submission : submissions) {
+            heldStart[submission + 1]++;
+        }
+        for(int s = 0; s < numSubmissions; s++) {
+            heldStart[s + 1] += heldStart[s];
+        }
+
+        int[] held = new int[submissions.length];
+        int[] fill = Arrays.copyOf(heldStart, numSubmissions);
+        for(int i = 0; i < hashes.length; i++) {
+            for(int x = postingStart[i]; x < postingStart[i + 1]; x++) {
+                held[fill[submissions[x]]++] = i;
+            }
+        }
+
+        int[] counts = new int[numSubmissions];
+        int[] touched = new int[numSubmissions];
+        for(int first = 0; first < numSubmissions; first++) {
+            int numTouched = 0;
+
+            for(int h = heldStart[first]; h < heldStart[first + 1]; h++) {
+                int i = held[h];
+
+                // Postings are ascending, so every holder after this submission is later in the corpus
+                int x = Arrays.binarySearch(submissions, postingStart[i], postingStart[i + 1], first) + 1;
+                for(; x < postingStart[i + 1]; x++) {
+                    int second = submissions[x];
+                    if(counts[second]++ == 0) {
+                        touched[numTouched++] = second;
+                    }
+                }
+            }
+
+            Arrays.sort(touched, 0, numTouched);
+            for(int t = 0; t < numTouched; t++) {
+                int second = touched[t];
+                consumer.accept(first, second, counts[second]);
+                counts[second] = 0;
+            }
+        }
+    }
+
+    /**
+     * @return Next hash of the given submission in the merge
+     */
+    private static long key(int submission, long[][] distinct, int[] cursors) {
+        return distinct[submission][cursors[submission]];
+    }
+
+    /**
+     * Move a heap entry towards the root until its parent's key is no larger.
+     */
+    private static void siftUp(int[] heap, int index, long[][] distinct, int[] cursors) {
+        int i = index;
+        while(i > 0) {
+            int parent = (i - 1) / 2;
+            if(key(heap[parent], distinct, cursors) <= key(heap[i], distinct, cursors)) {
+                break;
+            }
+
+            int tmp = heap[parent];
+            heap[parent] = heap[i];
+            heap[i] = tmp;
+            i = parent;
+        }
+    }
+
+    /**
+     * Move a heap entry away from the root until neither child's key is smaller.
+     */
+    private static void siftDown(int[] heap, int heapSize, int index, long[][] distinct, int[] cursors) {
+        int i = index;
+        while(true) {
+            int smallest = i;
+            int left = 2 * i + 1;
+            int right = left + 1;
+
+            if(left < heapSize && key(heap[left], distinct, cursors) < key(heap[smallest], distinct, cursors)) {
+                smallest = left;
+            }
+            if(right < heapSize && key(heap[right], distinct, cursors) < key(heap[smallest], distinct, cursors)) {
+                smallest = right;
+            }
+            if(smallest == i) {
+                return;
+            }
+
+            int tmp = heap[smallest];
+            heap[smallest] = heap[i];
+            heap[i] = tmp;
+            i = smallest;
+        }
+    }
+}
@@ -0,0 +1,209 @@
+/*
+ * CDDL HEADER START
+ *
+ * The contents of this file are subject to the terms of the
+ * Common Development and Distribution License (the "License").
+ * You may not use this file except in compliance with the License.
+ *
+ * See LICENSE.txt included in this distribution for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing Covered Code, include this CDDL HEADER in each
+ * file and include the License file at LICENSE.txt.
+ * If applicable, add the following below this CDDL HEADER, with the
+ * fields enclosed by brackets "[]" replaced with your own identifying
+ * information: Portions Copyright [yyyy] [name of copyright owner]
+ *
+ * CDDL HEADER END
+ *
+ * Copyright (c) 2014-2015 Nicholas DeMarinis, Matthew Heon, and Dolan Murvihill
+ */
+
+package net.lldp.checksims.algorithm.winnowing;
+
+import net.lldp.checksims.token.TokenList;
+import net.lldp.checksims.util.primitive.KGramIndex;
+import net.lldp.checksims.util.primitive.LongList;
+
+import java.util.Arrays;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * Winnowed fingerprints of one token list.
+ *
+ * Every k-gram of valid tokens is hashed, and from each window of w consecutive k-grams the one with the smallest hash
+ * is kept, the rightmost on ties. A k-gram kept by several windows in a row is only kept once. Any run of at least
+ * k + w - 1 tokens two lists share is guaranteed to give them a fingerprint in common.
+ */
+final class WinnowedFingerprints {
+    private final long[] hashes;
+    private final int[] positions;
+    private final long[] distinctHashes;
+
+    private WinnowedFingerprints(long[] hashes, int[] positions) {
+        this.hashes = hashes;
+        this.positions = positions;
+
+        long[] sorted = hashes.clone();
+        Arrays.sort(sorted);
+
+        int numDistinct = 0;
+        for(int i = 0; i < sorted.length; i++) {
+            if(i == 0 || sorted[i] != sorted[i - 1]) {
+                sorted[numDistinct++] = sorted[i];
+            }
+        }
+
+        distinctHashes = Arrays.copyOf(sorted, numDistinct);
+    }
+
+    /**
+     * Fingerprint a token list.
+     *
+     * @param tokens Tokens to fingerprint
+     * @param k Number of tokens in each k-gram. Must be at least 1.
+     * @param w Number of k-grams in each window. Must be at least 1.
+     * @return Fingerprints of the given tokens
+     */
+    static WinnowedFingerprints of(TokenList tokens, int k, int w) {
+        checkNotNull(tokens);
+        checkArgument(k >= 1, "K-gram length must be at least 1, got " + k);
+        checkArgument(w >= 1, "Window size must be at least 1, got " + w);
+
+        int[] lexemes = new int[tokens.size()];
+        boolean[] valid = new boolean[tokens.size()];
+        for(int i = 0; i < tokens.size(); i++) {
+            lexemes[i] = tokens.get(i).getLexeme();
+            valid[i] = tokens.get(i).isValid();
+        }
+
+        LongList kGramHashes = new LongList();
+        LongList kGramPositions = new LongList();
+        KGramIndex.forEachKGram(lexemes, valid, k, (position, hash) -> {
+            kGramHashes.add(hash);
+            kGramPositions.add(position);
+        });
+
+        int numKGrams = kGramHashes.size();
+
+        // Lists shorter than one window still get their smallest k-gram
+        int window = Math.min(w, numKGrams);
+
+        LongList selectedHashes = new LongList();
+        LongList selectedPositions = new LongList();
+
+        // Indices of k-grams which may yet be the minimum of a window, with strictly increasing hashes
+        int[] candidates = new int[numKGrams];
+        int head = 0;
+        int tail = 0;
+        int lastSelected = -1;
+
+        for(int i = 0; i < numKGrams; i++) {
+            long hash = kGramHashes.get(i);
+
+            // Anything not smaller than the new hash can never be a minimum again - ties go to the rightmost
+            while(tail > head && kGramHashes.get(candidates[tail - 1]) >= hash) {
+                tail--;
+            }
+            candidates[tail++] = i;
+
+            if(candidates[head] <= i - window) {
+                head++;
+            }
+
+            if(i >= window - 1 && candidates[head] != lastSelected) {
+                lastSelected = candidates[head];
+                selectedHashes.add(kGramHashes.get(lastSelected));
+                selectedPositions.add(kGramPositions.get(lastSelected));
+            }
+        }
+
+        int[] positions = new int[selectedPositions.size()];
+        for(int i = 0; i < positions.length; i++) {
+            positions[i] = (int)selectedPositions.get(i);
+        }
+
+        return new WinnowedFingerprints(selectedHashes.toArray(), positions);
+    }
+
+    /**
+     * @return Number of fingerprints, counting repeated hashes once for each position
+     */
+    int getNumFingerprints() {
+        return hashes.length;
+    }
+
+    /**
+     * @param index Index of a fingerprint, in ascending order of position
+     * @return Hash of the fingerprint
+     */
+    long getHash(int index) {
+        return hashes[index];
+    }
+
+    /**
+     * @param index Index of a fingerprint, in ascending order of position
+     * @return Position of the first token of the fingerprinted k-gram
+     */
+    int getPosition(int index) {
+        return positions[index];
+    }
+
+    /**
+     * @return Every distinct fingerprint hash, sorted ascending. Must not be modified.
+     */
+    long[] getDistinctHashes() {
+        return distinctHashes;
+    }
+
+    /**
+     * @param other Fingerprints to compare against
+     * @return Every distinct hash found in both, sorted ascending
+     */
+    long[] sharedHashes(WinnowedFingerprints other) {
+        checkNotNull(other);
+
+        long[] ours = distinctHashes;
+        long[] theirs = other.distinctHashes;
+        long[] shared = new long[Math.min(ours.length, theirs.length)];
+        int numShared = 0;
+
+        int i = 0;
+        int j = 0;
+        while(i < ours.length && j < theirs.length) {
+            if(ours[i] < theirs[j]) {
+                i++;
+            } else if(ours[i] > theirs[j]) {
+                j++;
+            } else {
+                shared[numShared++] = ours[i];
+                i++;
+                j++;
+            }
+        }
+
+        return Arrays.copyOf(shared, numShared);
+    }
+
+    /**
+     * Set invalid every token of each k-gram whose fingerprint is among the given hashes.
+     *
+     * @param toMark Hashes to mark, sorted ascending
+     * @param k Number of tokens in each k-gram, as fingerprinted
+     * @param tokens Token list these fingerprints were taken from
+     */
+    void markTokens(long[] toMark, int k, TokenList tokens) {
+        checkNotNull(toMark);
+        checkNotNull(tokens);
+
+        for(int i = 0; i < hashes.length; i++) {
+            if(Arrays.binarySearch(toMark, hashes[i]) >= 0) {
+                for(int j = positions[i]; j < positions[i] + k; j++) {
+                    tokens.get(j).setValid(false);
+                }
+            }
+        }
+    }
+}
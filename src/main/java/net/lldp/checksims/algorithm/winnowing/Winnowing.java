@@ -0,0 +1,417 @@
+/*
+ * CDDL HEADER START
+ *
+ * The contents of this file are subject to the terms of the
+ * Common Development and Distribution License (the "License").
+ * You may not use this file except in compliance with the License.
+ *
+ * See LICENSE.txt included in this distribution for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing Covered Code, include this CDDL HEADER in each
+ * file and include the License file at LICENSE.txt.
+ * If applicable, add the following below this CDDL HEADER, with the
+ * fields enclosed by brackets "[]" replaced with your own identifying
+ * information: Portions Copyright [yyyy] [name of copyright owner]
+ *
+ * CDDL HEADER END
+ *
+ * Copyright (c) 2014-2015 Nicholas DeMarinis, Matthew Heon, and Dolan Murvihill
+ */
+
+package net.lldp.checksims.algorithm.winnowing;
+
+import net.lldp.checksims.ChecksimsException;
+import net.lldp.checksims.algorithm.AlgorithmResults;
+import net.lldp.checksims.algorithm.InternalAlgorithmError;
+import net.lldp.checksims.algorithm.SimilarityDetector;
+import net.lldp.checksims.submission.Submission;
+import net.lldp.checksims.token.TokenList;
+import net.lldp.checksims.token.TokenType;
+import net.lldp.checksims.token.TokenTypeMismatchException;
+import net.lldp.checksims.util.PairGenerator;
+import net.lldp.checksims.util.primitive.LongList;
+import net.lldp.checksims.util.threading.ParallelAlgorithm;
+import org.apache.commons.lang3.tuple.Pair;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * Winnowing similarity detector, after MOSS.
+ *
+ * Run on a whole corpus, fingerprints each submission once, and indexes the fingerprints of all of them together, so
+ * the cost grows with the number of pairs which actually share fingerprints rather than with the number of pairs.
+ * Tokens of every k-gram whose fingerprint a submission shares with the other are marked matched. A token may be
+ * matched against several in the other submission, and copies shorter than the k-gram length plus the window size are
+ * not guaranteed to be found.
+ *
+ * As in MOSS, fingerprints held by too much of the corpus can be ignored, as can pairs sharing too few fingerprints to
+ * be worth marking. By default nothing is ignored.
+ */
+public final class Winnowing implements SimilarityDetector {
+    private static Winnowing instance;
+
+    private static Logger logs = LoggerFactory.getLogger(Winnowing.class);
+
+    /**
+     * Default number of tokens fingerprinted together.
+     */
+    public static final int DEFAULT_KGRAM_LENGTH = 5;
+
+    /**
+     * Default number of consecutive k-grams from which one fingerprint is kept.
+     */
+    public static final int DEFAULT_WINDOW_SIZE = 4;
+
+    /**
+     * Default largest fraction of the corpus a fingerprint may be held by without being ignored.
+     */
+    public static final double DEFAULT_MAX_FINGERPRINT_FREQUENCY = 1.0;
+
+    /**
+     * Default number of fingerprints a pair must share to have any tokens matched.
+     */
+    public static final int DEFAULT_MIN_SHARED_FINGERPRINTS = 1;
+
+    private volatile int kgramLength = DEFAULT_KGRAM_LENGTH;
+    private volatile int windowSize = DEFAULT_WINDOW_SIZE;
+    private volatile double maxFingerprintFrequency = DEFAULT_MAX_FINGERPRINT_FREQUENCY;
+    private volatile int minSharedFingerprints = DEFAULT_MIN_SHARED_FINGERPRINTS;
+
+    private Winnowing() {}
+
+    /**
+     * @return Singleton instance of the winnowing algorithm
+     */
+    public static Winnowing getInstance() {
+        if(instance == null) {
+            instance = new Winnowing();
+        }
+
+        return instance;
+    }
+
+    /**
+     * @return Name of this implementation
+     */
+    @Override
+    public String getName() {
+        return "winnowing";
+    }
+
+    /**
+     * @return Default token type to be used for this similarity detector
+     */
+    @Override
+    public TokenType getDefaultTokenType() {
+        return TokenType.WHITESPACE;
+    }
+
+    /**
+     * @return Number of tokens fingerprinted together
+     */
+    public int getKgramLength() {
+        return kgramLength;
+    }
+
+    /**
+     * @param kgramLength Number of tokens fingerprinted together
+     */
+    public void setKgramLength(int kgramLength) {
+        checkArgument(kgramLength >= 1, "K-gram length must be at least 1, got " + kgramLength);
+
+        this.kgramLength = kgramLength;
+    }
+
+    /**
+     * @return Number of consecutive k-grams from which one fingerprint is kept
+     */
+    public int getWindowSize() {
+        return windowSize;
+    }
+
+    /**
+     * @param windowSize Number of consecutive k-grams from which one fingerprint is kept
+     */
+    public void setWindowSize(int windowSize) {
+        checkArgument(windowSize >= 1, "Window size must be at least 1, got " + windowSize);
+
+        this.windowSize = windowSize;
+    }
+
+    /**
+     * @return Largest fraction of the corpus a fingerprint may be held by without being ignored
+     */
+    public double getMaxFingerprintFrequency() {
+        return maxFingerprintFrequency;
+    }
+
+    /**
+     * Fingerprints held by more than this fraction of the submissions compared are ignored, though one held by only two
+     * submissions never is.
+     *
+     * @param maxFingerprintFrequency Largest fraction of the corpus a fingerprint may be held by without being
+     *                                ignored. Must be above 0 and at most 1.
+     */
+    public void setMaxFingerprintFrequency(double maxFingerprintFrequency) {
+        checkArgument(maxFingerprintFrequency > 0 && maxFingerprintFrequency <= 1,
+                "Fingerprint frequency cap must be above 0 and at most 1, got " + maxFingerprintFrequency);
+
+        this.maxFingerprintFrequency = maxFingerprintFrequency;
+    }
+
+    /**
+     * @return Number of fingerprints a pair must share to have any tokens matched
+     */
+    public int getMinSharedFingerprints() {
+        return minSharedFingerprints;
+    }
+
+    /**
+     * @param minSharedFingerprints Number of fingerprints a pair must share to have any tokens matched. Must be at
+     *                              least 1.
+     */
+    public void setMinSharedFingerprints(int minSharedFingerprints) {
+        checkArgument(minSharedFingerprints >= 1,
+                "Pairs must share at least 1 fingerprint to be matched, got " + minSharedFingerprints);
+
+        this.minSharedFingerprints = minSharedFingerprints;
+    }
+
+    /**
+     * Apply the winnowing algorithm to determine the similarity between two submissions.
+     *
+     * Token list types of A and B must match
+     *
+     * @param a First submission to apply to
+     * @param b Second submission to apply to
+     * @return Similarity results of comparing submissions A and B
+     * @throws TokenTypeMismatchException Thrown on comparing submissions with mismatched token types
+     * @throws InternalAlgorithmError Thrown on internal error
+     */
+    @Override
+    public AlgorithmResults detectSimilarity(Submission a, Submission b)
+            throws TokenTypeMismatchException, InternalAlgorithmError {
+        checkNotNull(a);
+        checkNotNull(b);
+
+        Set<Pair<Submission, Submission>> pair = new HashSet<>();
+        pair.add(Pair.of(a, b));
+
+        return index(pair).compare(a, b);
+    }
+
+    /**
+     * Apply the winnowing algorithm to a whole corpus at once.
+     *
+     * Every pair is given results, so nothing is gained by pruning, and the prune threshold is ignored.
+     *
+     * @param submissions Submissions to compare. There must be at least two, all with the same token type.
+     * @param archiveSubmissions Archive submissions to compare against, which may be empty
+     * @param pruneThreshold Ignored
+     * @return Similarity results for each pair compared
+     * @throws ChecksimsException Thrown on error detecting similarities
+     */
+    @Override
+    public Set<AlgorithmResults> detectSimilarity(Set<Submission> submissions, Set<Submission> archiveSubmissions,
+                                                  double pruneThreshold) throws ChecksimsException {
+        checkNotNull(submissions);
+        checkNotNull(archiveSubmissions);
+
+        Set<Pair<Submission, Submission>> pairs = PairGenerator.generatePairsWithArchive(submissions,
+                archiveSubmissions);
+
+        logs.info("Performing similarity detection on " + pairs.size() + " pairs using algorithm " + getName());
+        long startTime = System.currentTimeMillis();
+
+        Set<AlgorithmResults> results = detectSimilarityAll(pairs);
+
+        logs.info("Finished similarity detection in " + (System.currentTimeMillis() - startTime) + " ms");
+
+        return results;
+    }
+
+    /**
+     * Apply the winnowing algorithm to many pairs of submissions at once.
+     *
+     * Each submission is fingerprinted once, however many pairs it is in, and pairs sharing fewer fingerprints than the
+     * minimum, once common fingerprints are ignored, are given results with no tokens matched without being compared.
+     * The remaining pairs are marked in parallel, through {@link ParallelAlgorithm}.
+     *
+     * @param pairs Pairs of submissions to compare. Token list types within each pair must match.
+     * @return Similarity results for each pair
+     * @throws TokenTypeMismatchException Thrown if any pair has mismatched token types
+     * @throws ChecksimsException Thrown on error comparing a pair
+     */
+    public Set<AlgorithmResults> detectSimilarityAll(Set<Pair<Submission, Submission>> pairs)
+            throws ChecksimsException {
+        checkNotNull(pairs);
+
+        return ParallelAlgorithm.parallelPairComparison(index(pairs)::compare, pairs);
+    }
+
+    /**
+     * Fingerprint every submission of the given pairs, and index the fingerprints together.
+     *
+     * @param pairs Pairs of submissions to index. Token list types within each pair must match.
+     * @return Index able to compare any of the given pairs
+     * @throws TokenTypeMismatchException Thrown if any pair has mismatched token types
+     */
+    private CorpusIndex index(Set<Pair<Submission, Submission>> pairs) throws TokenTypeMismatchException {
+        int k = kgramLength;
+        int w = windowSize;
+        double maxFrequency = maxFingerprintFrequency;
+        int minShared = minSharedFingerprints;
+
+        // Number every submission, and fingerprint each once
+        Map<Submission, Integer> indices = new HashMap<>();
+        List<Submission> submissions = new ArrayList<>();
+        for(Pair<Submission, Submission> pair : pairs) {
+            Submission a = pair.getLeft();
+            Submission b = pair.getRight();
+
+            // Test for token type mismatch
+            if(!a.getTokenType().equals(b.getTokenType())) {
+                throw new TokenTypeMismatchException("Token list type mismatch: submission " + a.getName()
+                        + " has type " + a.getTokenType().toString() + ", while submission " + b.getName()
+                        + " has type " + b.getTokenType().toString());
+            }
+
+            for(Submission s : new Submission[] {a, b}) {
+                if(!indices.containsKey(s)) {
+                    indices.put(s, submissions.size());
+                    submissions.add(s);
+                }
+            }
+        }
+
+        List<WinnowedFingerprints> fingerprints = new ArrayList<>(submissions.size());
+        for(Submission s : submissions) {
+            fingerprints.add(WinnowedFingerprints.of(s.getContentAsTokens(), k, w));
+        }
+
+        int maxHolders = Math.max(2, (int)Math.floor(maxFrequency * submissions.size()));
+        FingerprintIndex index = new FingerprintIndex(fingerprints, maxHolders);
+
+        // Note each pair sharing enough fingerprints, the first of the pair in the high bits - these come in ascending
+        // order, so can be binary searched
+        LongList sharingPairs = new LongList();
+        index.forEachSharedPair((first, second, numShared) -> {
+            if(numShared >= minShared) {
+                sharingPairs.add(((long)first << 32) | second);
+            }
+        });
+        long[] sharing = sharingPairs.toArray();
+
+        logs.debug("Indexed " + index.getNumSharedHashes() + " fingerprints shared between " + sharing.length
+                + " pairs of " + submissions.size() + " submissions");
+
+        return new CorpusIndex(k, indices, fingerprints, index, sharing);
+    }
+
+    /**
+     * Fingerprints of every submission of a corpus, and the pairs among them sharing enough to be marked.
+     *
+     * Never changed once built, so pairs can be compared against it from any number of threads.
+     */
+    private static final class CorpusIndex {
+        private final int k;
+        private final Map<Submission, Integer> indices;
+        private final List<WinnowedFingerprints> fingerprints;
+        private final FingerprintIndex index;
+        private final long[] sharing;
+
+        CorpusIndex(int k, Map<Submission, Integer> indices, List<WinnowedFingerprints> fingerprints,
+                    FingerprintIndex index, long[] sharing) {
+            this.k = k;
+            this.indices = indices;
+            this.fingerprints = fingerprints;
+            this.index = index;
+            this.sharing = sharing;
+        }
+
+        /**
+         * @param a First submission, which must have been indexed
+         * @param b Second submission, which must have been indexed
+         * @return Results with the tokens of every k-gram whose fingerprint the two share marked
+         */
+        AlgorithmResults compare(Submission a, Submission b) {
+            if(a.equals(b)) {
+                // Handle identical submissions
+                TokenList aInval = TokenList.cloneTokenList(a.getContentAsTokens());
+                aInval.stream().forEach((token) -> token.setValid(false));
+                return new AlgorithmResults(a, b, aInval, aInval);
+            }
+
+            int indexA = indices.get(a);
+            int indexB = indices.get(b);
+            long key = ((long)Math.min(indexA, indexB) << 32) | Math.max(indexA, indexB);
+
+            if(Arrays.binarySearch(sharing, key) < 0) {
+                return new AlgorithmResults(a, b, a.getContentAsTokens(), b.getContentAsTokens());
+            }
+
+            WinnowedFingerprints fingerprintsA = fingerprints.get(indexA);
+            WinnowedFingerprints fingerprintsB = fingerprints.get(indexB);
+            long[] shared = withoutCommon(fingerprintsA.sharedHashes(fingerprintsB), index);
+
+            TokenList finalA = TokenList.cloneTokenList(a.getContentAsTokens());
+            TokenList finalB = TokenList.cloneTokenList(b.getContentAsTokens());
+            fingerprintsA.markTokens(shared, k, finalA);
+            fingerprintsB.markTokens(shared, k, finalB);
+
+            return new AlgorithmResults(a, b, finalA, finalB);
+        }
+    }
+
+    /**
+     * @param hashes Hashes to filter, sorted ascending
+     * @param index Index recording which hashes are common
+     * @return The given hashes, less any common enough to be ignored, still sorted ascending
+     */
+    private static long[] withoutCommon(long[] hashes, FingerprintIndex index) {
+        long[] kept = new long[hashes.length];
+        int numKept = 0;
+        for(long hash : hashes) {
+            if(!index.isCommon(hash)) {
+                kept[numKept++] = hash;
+            }
+        }
+
+        return numKept == hashes.length ? hashes : Arrays.copyOf(kept, numKept);
+    }
+
+    /**
+     * @return False - corpus detection fingerprints the whole corpus together
+     */
+    @Override
+    public boolean comparesPairsIndependently() {
+        return false;
+    }
+
+    @Override
+    public String toString() {
+        return "Singleton instance of Winnowing Algorithm";
+    }
+
+    @Override
+    public int hashCode() {
+        return this.getName().hashCode();
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        return other instanceof Winnowing;
+    }
+}
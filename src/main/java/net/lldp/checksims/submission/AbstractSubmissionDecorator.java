@@ -32,10 +32,14 @@ import static com.google.common.base.Preconditions.checkNotNull;
 public abstract class AbstractSubmissionDecorator implements Submission {
     private final Submission wrappedSubmission;
 
+    // Taken once from the wrapped submission, which may not hold its own
+    private final long fingerprint;
+
     public AbstractSubmissionDecorator(Submission wrappedSubmission) {
         checkNotNull(wrappedSubmission);
 
         this.wrappedSubmission = wrappedSubmission;
+        this.fingerprint = wrappedSubmission.getFingerprint();
     }
 
     @Override
@@ -63,6 +67,11 @@ public abstract class AbstractSubmissionDecorator implements Submission {
         return wrappedSubmission.getTokenType();
     }
 
+    @Override
+    public long getFingerprint() {
+        return fingerprint;
+    }
+
     @Override
     public boolean equals(Object other) {
         return other instanceof Submission && wrappedSubmission.equals(other);
@@ -36,6 +36,7 @@ public final class ConcreteSubmission implements Submission {
     private final TokenList tokenList;
     private final String content;
     private final String name;
+    private final long fingerprint;
 
     /**
      * Construct a new Concrete Submission with given name and contents.
@@ -58,6 +59,39 @@ public final class ConcreteSubmission implements Submission {
         this.name = name;
         this.content = content;
         this.tokenList = TokenList.immutableCopy(tokens);
+        this.fingerprint = fingerprint(name, tokens.type, content);
+    }
+
+    /**
+     * 64-bit FNV-1a hash of a submission's name, token type, and content.
+     *
+     * @param name Name of submission
+     * @param type Type of submission's tokens
+     * @param content Content of submission, as string
+     * @return Fingerprint of the submission
+     */
+    static long fingerprint(String name, TokenType type, String content) {
+        long hash = 0xCBF29CE484222325L;
+
+        hash = fingerprintChars(hash, name);
+        hash = (hash ^ type.ordinal()) * 0x100000001B3L;
+        hash = fingerprintChars(hash, content);
+
+        return hash;
+    }
+
+    /**
+     * @param hash Fingerprint so far
+     * @param chars Characters to add
+     * @return Fingerprint including the given characters
+     */
+    private static long fingerprintChars(long hash, String chars) {
+        for(int i = 0; i < chars.length(); i++) {
+            hash = (hash ^ chars.charAt(i)) * 0x100000001B3L;
+        }
+
+        // Separate strings, so moving characters from one to the next changes the fingerprint
+        return (hash ^ chars.length()) * 0x100000001B3L;
     }
 
     @Override
@@ -85,6 +119,11 @@ public final class ConcreteSubmission implements Submission {
         return tokenList.type;
     }
 
+    @Override
+    public long getFingerprint() {
+        return fingerprint;
+    }
+
     @Override
     public String toString() {
         return "A submission with name " + name + " and " + getNumTokens() + " tokens";
@@ -92,12 +131,19 @@ public final class ConcreteSubmission implements Submission {
 
     @Override
     public boolean equals(Object other) {
-        if(!(other instanceof ConcreteSubmission)) {
+        if(other == this) {
+            return true;
+        } else if(!(other instanceof ConcreteSubmission)) {
             return false;
         }
 
         Submission otherSubmission = (Submission)other;
 
+        // Submissions differing in name or content cannot be equal, so avoid comparing every token
+        if(otherSubmission.getFingerprint() != this.fingerprint) {
+            return false;
+        }
+
         return otherSubmission.getName().equals(this.name)
                 && otherSubmission.getNumTokens() == this.getNumTokens()
                 && otherSubmission.getContentAsTokens().equals(this.tokenList)
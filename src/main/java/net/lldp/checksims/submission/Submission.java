@@ -75,6 +75,20 @@ public interface Submission extends Comparable<Submission> {
      */
     TokenType getTokenType();
 
+    /**
+     * Fingerprint of this submission's name, token type, and string content.
+     *
+     * Submissions with different fingerprints are never equal, so equality checks may stop when fingerprints differ
+     * without comparing contents. This default hashes the whole content on every call, so is only a fallback:
+     * {@link ConcreteSubmission} computes its fingerprint once when built, and decorators take theirs once from the
+     * submission they wrap.
+     *
+     * @return 64-bit fingerprint of this submission
+     */
+    default long getFingerprint() {
+        return ConcreteSubmission.fingerprint(getName(), getTokenType(), getContentAsString());
+    }
+
     /**
      * Generate a list of all student submissions from a directory.
      *
@@ -45,7 +45,8 @@ public final class ValidityEnsuringSubmission extends AbstractSubmissionDecorato
 
         Submission otherSubmission = (Submission)other;
 
-        if(!otherSubmission.getTokenType().equals(this.getTokenType())
+        if(otherSubmission.getFingerprint() != this.getFingerprint()
+                || !otherSubmission.getTokenType().equals(this.getTokenType())
                 || !otherSubmission.getName().equals(this.getName())
                 || !(otherSubmission.getNumTokens() == this.getNumTokens())
                 || !(otherSubmission.getContentAsString().equals(this.getContentAsString()))) {
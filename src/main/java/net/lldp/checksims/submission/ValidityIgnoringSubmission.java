@@ -39,13 +39,16 @@ public final class ValidityIgnoringSubmission extends AbstractSubmissionDecorato
 
     @Override
     public boolean equals(Object other) {
-        if(!(other instanceof Submission)) {
+        if(other == this) {
+            return true;
+        } else if(!(other instanceof Submission)) {
             return false;
         }
 
         Submission otherSubmission = (Submission)other;
 
-        if(!otherSubmission.getTokenType().equals(this.getTokenType())
+        if(otherSubmission.getFingerprint() != this.getFingerprint()
+                || !otherSubmission.getTokenType().equals(this.getTokenType())
                 || !otherSubmission.getName().equals(this.getName())
                 || !(otherSubmission.getNumTokens() == this.getNumTokens())
                 || !(otherSubmission.getContentAsString().equals(this.getContentAsString()))) {
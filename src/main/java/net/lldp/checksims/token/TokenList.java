@@ -114,12 +114,19 @@ public class TokenList extends PredicatedList<Token> {
     /**
      * Peforms a deep copy of a TokenList, returning an immutable version of the initial list with immutable tokens.
      *
+     * Lists which are already immutable are returned as they are, as nothing can change them.
+     *
      * @param cloneFrom List to copy
      * @return Immutable copy of cloneFrom
      */
     public static TokenList immutableCopy(final TokenList cloneFrom) {
         checkNotNull(cloneFrom);
 
+        // Only immutableCopy builds lists over an ImmutableList, and it fills them with immutable tokens
+        if(cloneFrom.decorated() instanceof ImmutableList) {
+            return cloneFrom;
+        }
+
         final List<ImmutableToken> tmp = new LinkedList<>();
         for(final Token t : cloneFrom) {
             tmp.add(new ImmutableToken(Token.cloneToken(t)));
@@ -0,0 +1,228 @@
+/*
+ * CDDL HEADER START
+ *
+ * The contents of this file are subject to the terms of the
+ * Common Development and Distribution License (the "License").
+ * You may not use this file except in compliance with the License.
+ *
+ * See LICENSE.txt included in this distribution for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing Covered Code, include this CDDL HEADER in each
+ * file and include the License file at LICENSE.txt.
+ * If applicable, add the following below this CDDL HEADER, with the
+ * fields enclosed by brackets "[]" replaced with your own identifying
+ * information: Portions Copyright [yyyy] [name of copyright owner]
+ *
+ * CDDL HEADER END
+ *
+ * Copyright (c) 2014-2015 Nicholas DeMarinis, Matthew Heon, and Dolan Murvihill
+ */
+
+package net.lldp.checksims.util.primitive;
+
+import java.util.Arrays;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * Index of every run of k lexemes (k-gram) in an array, by hash.
+ *
+ * Held entirely in primitive arrays: an open-addressed table from k-gram hash to the first position with that hash,
+ * and a chain from each position to the next with the same hash, in ascending order. K-grams containing an invalid
+ * token are not indexed.
+ *
+ * Hashes can collide, so positions found through the index must be checked with {@link #matches(int, int[], int)}.
+ */
+public final class KGramIndex {
+    private final int[] lexemes;
+    private final int k;
+
+    // Open-addressed table - an empty slot has a count of 0
+    private final long[] slotHashes;
+    private final int[] slotFirst;
+    private final int[] slotCounts;
+    private final int mask;
+
+    // Next position with the same hash as each position, or -1
+    private final int[] next;
+
+    // Multiplier for the polynomial hash
+    private static final long HASH_BASE = 0x9E3779B97F4A7C15L;
+
+    /**
+     * Index the k-grams of an array of lexemes.
+     *
+     * @param lexemes Lexemes to index. Not copied, so must not be modified while the index is in use.
+     * @param valid Validity of each lexeme. Only k-grams made up of valid lexemes are indexed.
+     * @param k Length of each k-gram. Must be at least 1.
+     */
+    public KGramIndex(int[] lexemes, boolean[] valid, int k) {
+        checkNotNull(lexemes);
+        checkNotNull(valid);
+        checkArgument(lexemes.length == valid.length, "Must have validity for every lexeme - got " + valid.length
+                + " for " + lexemes.length + " lexemes");
+        checkArgument(k >= 1, "K-gram length must be at least 1, got " + k);
+
+        this.lexemes = lexemes;
+        this.k = k;
+
+        // At most half full
+        int numSlots = Integer.highestOneBit(Math.max(lexemes.length, 1) * 2 + 1) * 2;
+        slotHashes = new long[numSlots];
+        slotFirst = new int[numSlots];
+        slotCounts = new int[numSlots];
+        mask = numSlots - 1;
+
+        next = new int[lexemes.length];
+        Arrays.fill(next, -1);
+
+        long[] hashes = new long[lexemes.length];
+        boolean[] indexed = new boolean[lexemes.length];
+        forEachKGram(lexemes, valid, k, (position, hash) -> {
+            hashes[position] = hash;
+            indexed[position] = true;
+        });
+
+        // Insert from the end, so each chain comes out in ascending order
+        for(int i = lexemes.length - 1; i >= 0; i--) {
+            if(!indexed[i]) {
+                continue;
+            }
+
+            int slot = findSlot(hashes[i]);
+
+            if(slotCounts[slot] != 0) {
+                next[i] = slotFirst[slot];
+            }
+
+            slotHashes[slot] = hashes[i];
+            slotFirst[slot] = i;
+            slotCounts[slot]++;
+        }
+    }
+
+    /**
+     * @return Length of each k-gram
+     */
+    public int getK() {
+        return k;
+    }
+
+    /**
+     * @param hash Hash of a k-gram, as given by {@link #forEachKGram}
+     * @return First position of a k-gram with the given hash, or -1 if there are none
+     */
+    public int getFirst(long hash) {
+        int slot = findSlot(hash);
+
+        return slotCounts[slot] == 0 ? -1 : slotFirst[slot];
+    }
+
+    /**
+     * @param hash Hash of a k-gram, as given by {@link #forEachKGram}
+     * @return Number of k-grams indexed with the given hash
+     */
+    public int getCount(long hash) {
+        return slotCounts[findSlot(hash)];
+    }
+
+    /**
+     * @param position Position of a k-gram in the index
+     * @return Next position of a k-gram with the same hash, or -1 if there are no more
+     */
+    public int getNext(int position) {
+        return next[position];
+    }
+
+    /**
+     * @param position Position of a k-gram in the indexed lexemes
+     * @param other Other lexemes to compare against
+     * @param otherPosition Position of a k-gram in the other lexemes
+     * @return True if the two k-grams hold identical lexemes
+     */
+    public boolean matches(int position, int[] other, int otherPosition) {
+        for(int i = 0; i < k; i++) {
+            if(lexemes[position + i] != other[otherPosition + i]) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * Callback for each k-gram of an array.
+     */
+    @FunctionalInterface
+    public interface KGramConsumer {
+        /**
+         * @param position Position of the first lexeme of the k-gram
+         * @param hash Hash of the k-gram
+         */
+        void accept(int position, long hash);
+    }
+
+    /**
+     * Hash every k-gram of valid lexemes in an array, in ascending order of position.
+     *
+     * Uses a rolling hash, so takes time linear in the length of the array whatever the value of k.
+     *
+     * @param lexemes Lexemes to hash
+     * @param valid Validity of each lexeme
+     * @param k Length of each k-gram. Must be at least 1.
+     * @param consumer Called with the position and hash of each k-gram
+     */
+    public static void forEachKGram(int[] lexemes, boolean[] valid, int k, KGramConsumer consumer) {
+        checkArgument(k >= 1, "K-gram length must be at least 1, got " + k);
+
+        // HASH_BASE to the power k - 1, to remove the lexeme leaving the window
+        long topPower = 1;
+        for(int i = 1; i < k; i++) {
+            topPower *= HASH_BASE;
+        }
+
+        long hash = 0;
+        int validRun = 0;
+
+        for(int i = 0; i < lexemes.length; i++) {
+            // Drop the lexeme leaving the window
+            if(validRun == k) {
+                hash -= lexemes[i - k] * topPower;
+            }
+
+            hash = hash * HASH_BASE + lexemes[i];
+
+            if(valid[i]) {
+                validRun = Math.min(validRun + 1, k);
+            } else {
+                validRun = 0;
+                hash = 0;
+            }
+
+            if(validRun == k) {
+                consumer.accept(i - k + 1, hash);
+            }
+        }
+    }
+
+    /**
+     * @param hash Hash to look for
+     * @return Slot holding the hash, or the empty slot where it would go
+     */
+    private int findSlot(long hash) {
+        // Spread the bits, as the low bits of the polynomial hash depend only on the last few lexemes
+        long mixed = hash ^ (hash >>> 33);
+        mixed *= 0xFF51AFD7ED558CCDL;
+        mixed ^= mixed >>> 33;
+
+        int slot = (int)mixed & mask;
+
+        while(slotCounts[slot] != 0 && slotHashes[slot] != hash) {
+            slot = (slot + 1) & mask;
+        }
+
+        return slot;
+    }
+}
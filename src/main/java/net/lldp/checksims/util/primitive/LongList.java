@@ -0,0 +1,118 @@
+/*
+ * CDDL HEADER START
+ *
+ * The contents of this file are subject to the terms of the
+ * Common Development and Distribution License (the "License").
+ * You may not use this file except in compliance with the License.
+ *
+ * See LICENSE.txt included in this distribution for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing Covered Code, include this CDDL HEADER in each
+ * file and include the License file at LICENSE.txt.
+ * If applicable, add the following below this CDDL HEADER, with the
+ * fields enclosed by brackets "[]" replaced with your own identifying
+ * information: Portions Copyright [yyyy] [name of copyright owner]
+ *
+ * CDDL HEADER END
+ *
+ * Copyright (c) 2014-2015 Nicholas DeMarinis, Matthew Heon, and Dolan Murvihill
+ */
+
+package net.lldp.checksims.util.primitive;
+
+import java.util.Arrays;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkElementIndex;
+
+/**
+ * Growable list of primitive longs.
+ */
+public final class LongList {
+    private long[] elements;
+    private int size;
+
+    /**
+     * Create an empty list.
+     */
+    public LongList() {
+        this(16);
+    }
+
+    /**
+     * Create an empty list with a given initial capacity.
+     *
+     * @param initialCapacity Number of elements the list can hold before growing. Must not be negative.
+     */
+    public LongList(int initialCapacity) {
+        checkArgument(initialCapacity >= 0, "Initial capacity must not be negative, got " + initialCapacity);
+
+        elements = new long[Math.max(initialCapacity, 1)];
+        size = 0;
+    }
+
+    /**
+     * @return Number of elements in the list
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @return True if the list has no elements
+     */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Append an element to the list.
+     *
+     * @param value Value to append
+     */
+    public void add(long value) {
+        if(size == elements.length) {
+            elements = Arrays.copyOf(elements, size * 2);
+        }
+
+        elements[size++] = value;
+    }
+
+    /**
+     * @param index Index of element to get
+     * @return Element at given index
+     * @throws IndexOutOfBoundsException Thrown if index is not within the list
+     */
+    public long get(int index) {
+        checkElementIndex(index, size);
+
+        return elements[index];
+    }
+
+    /**
+     * Remove all elements from the list, keeping its capacity.
+     */
+    public void clear() {
+        size = 0;
+    }
+
+    /**
+     * Sort the elements of the list in ascending order.
+     */
+    public void sort() {
+        Arrays.sort(elements, 0, size);
+    }
+
+    /**
+     * @return Copy of the elements of the list
+     */
+    public long[] toArray() {
+        return Arrays.copyOf(elements, size);
+    }
+
+    @Override
+    public String toString() {
+        return "LongList of size " + size;
+    }
+}
@@ -149,6 +149,12 @@ public class Registry<T extends NamedInstantiable> {
                 continue;
             }
 
+            // Nor interfaces and abstract classes extending the base class, which cannot be instantiated
+            if(type.isInterface() || Modifier.isAbstract(type.getModifiers())) {
+                logs.trace("Not adding abstract type " + type.getName() + " to registry");
+                continue;
+            }
+
             // TODO maybe just throw these exceptions, and let Registry constructor handle?
             try {
                 // Get getInstance method of the class
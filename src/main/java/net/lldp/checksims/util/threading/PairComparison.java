@@ -0,0 +1,43 @@
+/*
+ * CDDL HEADER START
+ *
+ * The contents of this file are subject to the terms of the
+ * Common Development and Distribution License (the "License").
+ * You may not use this file except in compliance with the License.
+ *
+ * See LICENSE.txt included in this distribution for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing Covered Code, include this CDDL HEADER in each
+ * file and include the License file at LICENSE.txt.
+ * If applicable, add the following below this CDDL HEADER, with the
+ * fields enclosed by brackets "[]" replaced with your own identifying
+ * information: Portions Copyright [yyyy] [name of copyright owner]
+ *
+ * CDDL HEADER END
+ *
+ * Copyright (c) 2014-2015 Nicholas DeMarinis, Matthew Heon, and Dolan Murvihill
+ */
+
+package net.lldp.checksims.util.threading;
+
+import net.lldp.checksims.ChecksimsException;
+import net.lldp.checksims.algorithm.AlgorithmResults;
+import net.lldp.checksims.submission.Submission;
+
+/**
+ * Compare one pair of submissions, usually against state a corpus detector has built beforehand for every pair.
+ *
+ * Lets corpus detectors, which are not pairwise {@link net.lldp.checksims.algorithm.SimilarityDetector}s, run their
+ * per-pair work through {@link ParallelAlgorithm#parallelPairComparison}.
+ */
+@FunctionalInterface
+public interface PairComparison {
+    /**
+     * @param a First submission of the pair
+     * @param b Second submission of the pair
+     * @return Similarity results of comparing the pair
+     * @throws ChecksimsException Thrown on error comparing the pair
+     */
+    AlgorithmResults compare(Submission a, Submission b) throws ChecksimsException;
+}
@@ -46,9 +46,28 @@ public final class ParallelAlgorithm {
 
     private static Logger logs = LoggerFactory.getLogger(ParallelAlgorithm.class);
 
+    // Set on the executor's threads, so algorithms know when they can keep per-thread scratch space around
+    private static final ThreadLocal<Boolean> workerThread = ThreadLocal.withInitial(() -> false);
+
     private static int threadCount = Runtime.getRuntime().availableProcessors();
-    private static ThreadPoolExecutor executor = new ThreadPoolExecutor(threadCount, threadCount, 1, TimeUnit.SECONDS,
-            new LinkedBlockingQueue<>(), new ThreadPoolExecutor.AbortPolicy());
+    private static ThreadPoolExecutor executor = newExecutor(threadCount);
+    private static ForkJoinPool wavefrontPool = new ForkJoinPool(threadCount);
+
+    /**
+     * Create an executor whose threads are marked as workers, so algorithms can keep scratch space on them.
+     *
+     * @param threads Number of threads to execute on
+     * @return New executor
+     */
+    private static ThreadPoolExecutor newExecutor(int threads) {
+        ThreadFactory factory = (runnable) -> Executors.defaultThreadFactory().newThread(() -> {
+            workerThread.set(true);
+            runnable.run();
+        });
+
+        return new ThreadPoolExecutor(threads, threads, 1, TimeUnit.SECONDS, new LinkedBlockingQueue<>(), factory,
+                new ThreadPoolExecutor.AbortPolicy());
+    }
 
     /**
      * @param threads Number of threads to be used for execution
@@ -60,8 +79,9 @@ public final class ParallelAlgorithm {
         threadCount = threads;
         executor.shutdown();
         // Set up the executor again with the new thread count
-        executor = new ThreadPoolExecutor(threadCount, threadCount, 1, TimeUnit.SECONDS, new LinkedBlockingQueue<>(),
-                new ThreadPoolExecutor.AbortPolicy());
+        executor = newExecutor(threadCount);
+        wavefrontPool.shutdown();
+        wavefrontPool = new ForkJoinPool(threadCount);
     }
 
     /**
@@ -69,6 +89,7 @@ public final class ParallelAlgorithm {
      */
     public static void shutdownExecutor() {
         executor.shutdown();
+        wavefrontPool.shutdown();
     }
 
     /**
@@ -78,6 +99,31 @@ public final class ParallelAlgorithm {
         return threadCount;
     }
 
+    /**
+     * Get the pool used to parallelize work within a single task.
+     *
+     * Algorithms working on a single large pair can use this to spread their work over threads which would otherwise
+     * sit idle. It has the same number of threads as the main executor.
+     *
+     * @return Fork/join pool for work within a single task
+     */
+    public static ForkJoinPool getWavefrontPool() {
+        return wavefrontPool;
+    }
+
+    /**
+     * Whether the calling thread is one of the executor's worker threads.
+     *
+     * Workers run task after task, and exit when the executor is shut down or replaced, so they are the right place to
+     * keep scratch space (in a ThreadLocal) to be reused from one task to the next. Any other thread may live for the
+     * rest of the program.
+     *
+     * @return True if called from a worker thread
+     */
+    public static boolean isWorkerThread() {
+        return workerThread.get();
+    }
+
     /**
      * Detect similarities in parallel.
      *
@@ -99,6 +145,38 @@ public final class ParallelAlgorithm {
         return ImmutableSet.copyOf(executeTasks(workers));
     }
 
+    /**
+     * Compare pairs in parallel, with a comparison which may share state between pairs.
+     *
+     * Called from one of the executor's own threads, the pairs are compared on the calling thread instead, as waiting
+     * on the executor from within it could leave no threads free to do the work.
+     *
+     * @param comparison Comparison to apply to each pair. Must be safe to call from several threads at once.
+     * @param pairs Pairs of submissions to compare
+     * @return Collection of results, one for each pair
+     */
+    public static Set<AlgorithmResults> parallelPairComparison(PairComparison comparison,
+                                                               Set<Pair<Submission, Submission>> pairs)
+            throws ChecksimsException {
+        checkNotNull(comparison);
+        checkNotNull(pairs);
+
+        if(isWorkerThread()) {
+            Set<AlgorithmResults> results = new HashSet<>();
+            for(Pair<Submission, Submission> pair : pairs) {
+                results.add(comparison.compare(pair.getLeft(), pair.getRight()));
+            }
+
+            return results;
+        }
+
+        Collection<Callable<AlgorithmResults>> workers = pairs.stream()
+                .map((pair) -> (Callable<AlgorithmResults>) () -> comparison.compare(pair.getLeft(), pair.getRight()))
+                .collect(Collectors.toList());
+
+        return ImmutableSet.copyOf(executeTasks(workers));
+    }
+
     public static Set<Submission> parallelSubmissionPreprocessing(SubmissionPreprocessor preprocessor,
                                                                   Set<Submission> submissions)
             throws ChecksimsException {
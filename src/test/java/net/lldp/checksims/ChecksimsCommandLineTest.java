@@ -175,6 +175,30 @@ public class ChecksimsCommandLineTest {
         ChecksimsCommandLine.runCLI(invalid);
     }
 
+    @Test
+    public void TestParsePruneThreshold() throws Exception {
+        ChecksimsConfig config = parseToConfig(new String[] { "-prune", "0.5" });
+
+        assertEquals(0.5, config.getPruneThreshold(), 0.0);
+    }
+
+    @Test
+    public void TestParsePruneThresholdDefault() throws Exception {
+        ChecksimsConfig config = parseToConfig(new String[] {});
+
+        assertEquals(0.0, config.getPruneThreshold(), 0.0);
+    }
+
+    @Test(expected = ChecksimsException.class)
+    public void TestParsePruneThresholdAboveOne() throws Exception {
+        parseToConfig(new String[] { "-prune", "1.5" });
+    }
+
+    @Test(expected = ChecksimsException.class)
+    public void TestParsePruneThresholdNotNumber() throws Exception {
+        parseToConfig(new String[] { "-prune", "half" });
+    }
+
     @Test
     public void TestParseNumThreadsOne() throws Exception {
         ChecksimsConfig config = parseToConfig(new String[] { "-j", "1" });
@@ -433,4 +457,52 @@ public class ChecksimsCommandLineTest {
 
         ChecksimsCommandLine.parseOpts(invalid, false);
     }
+
+    @Test
+    public void TestParseLshAuditRate() throws Exception {
+        ChecksimsConfig config = parseToConfig(new String[] { "-a", "smithwaterman", "-lsh", "0.05" });
+
+        assertEquals(0.05, config.getLshAuditRate().getAsDouble(), 0.0);
+    }
+
+    @Test
+    public void TestParseLshDefault() throws Exception {
+        ChecksimsConfig config = parseToConfig(new String[] {});
+
+        assertFalse(config.getLshAuditRate().isPresent());
+    }
+
+    @Test(expected = ChecksimsException.class)
+    public void TestParseLshAuditRateAboveOne() throws Exception {
+        parseToConfig(new String[] { "-a", "smithwaterman", "-lsh", "1.5" });
+    }
+
+    @Test(expected = ChecksimsException.class)
+    public void TestParseLshWithCorpusAlgorithmThrowsException() throws Exception {
+        parseToConfig(new String[] { "-a", "winnowing", "-lsh", "0.05" });
+    }
+
+    @Test
+    public void TestParseEscalationThreshold() throws Exception {
+        ChecksimsConfig config = parseToConfig(new String[] { "-escalate", "0.6" });
+
+        assertEquals(0.6, config.getEscalationThreshold().getAsDouble(), 0.0);
+    }
+
+    @Test
+    public void TestParseEscalationThresholdDefault() throws Exception {
+        ChecksimsConfig config = parseToConfig(new String[] {});
+
+        assertFalse(config.getEscalationThreshold().isPresent());
+    }
+
+    @Test(expected = ChecksimsException.class)
+    public void TestParseEscalationThresholdAboveOne() throws Exception {
+        parseToConfig(new String[] { "-escalate", "1.5" });
+    }
+
+    @Test(expected = ChecksimsException.class)
+    public void TestParseEscalationThresholdNotNumber() throws Exception {
+        parseToConfig(new String[] { "-escalate", "most" });
+    }
 }
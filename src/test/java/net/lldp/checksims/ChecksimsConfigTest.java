@@ -129,6 +129,62 @@ public class ChecksimsConfigTest {
         config.setNumThreads(0);
     }
 
+    @Test
+    public void TestSetPruneThresholdNegative() {
+        expectedEx.expect(IllegalArgumentException.class);
+
+        ChecksimsConfig config = new ChecksimsConfig();
+        config.setPruneThreshold(-0.1);
+    }
+
+    @Test
+    public void TestSetPruneThresholdAboveOne() {
+        expectedEx.expect(IllegalArgumentException.class);
+
+        ChecksimsConfig config = new ChecksimsConfig();
+        config.setPruneThreshold(1.1);
+    }
+
+    @Test
+    public void TestPruneThresholdInequality() {
+        ChecksimsConfig config = new ChecksimsConfig();
+        ChecksimsConfig config2 = new ChecksimsConfig().setPruneThreshold(0.5);
+
+        assertNotEquals(config, config2);
+    }
+
+    @Test
+    public void TestSetLshAuditRateAboveOne() {
+        expectedEx.expect(IllegalArgumentException.class);
+
+        ChecksimsConfig config = new ChecksimsConfig();
+        config.setLshAuditRate(1.1);
+    }
+
+    @Test
+    public void TestLshAuditRateInequality() {
+        ChecksimsConfig config = new ChecksimsConfig();
+        ChecksimsConfig config2 = new ChecksimsConfig().setLshAuditRate(0.05);
+
+        assertNotEquals(config, config2);
+    }
+
+    @Test
+    public void TestSetEscalationThresholdAboveOne() {
+        expectedEx.expect(IllegalArgumentException.class);
+
+        ChecksimsConfig config = new ChecksimsConfig();
+        config.setEscalationThreshold(1.1);
+    }
+
+    @Test
+    public void TestEscalationThresholdInequality() {
+        ChecksimsConfig config = new ChecksimsConfig();
+        ChecksimsConfig config2 = new ChecksimsConfig().setEscalationThreshold(0.5);
+
+        assertNotEquals(config, config2);
+    }
+
     @Test
     public void TestBaseConfigEquality() {
         assertEquals(new ChecksimsConfig(), new ChecksimsConfig());
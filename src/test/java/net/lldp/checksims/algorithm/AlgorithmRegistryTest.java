@@ -22,8 +22,16 @@
 package net.lldp.checksims.algorithm;
 
 import net.lldp.checksims.ChecksimsException;
+import net.lldp.checksims.algorithm.cascade.CascadeSimilarity;
 import net.lldp.checksims.algorithm.linesimilarity.LineSimilarityChecker;
+import net.lldp.checksims.algorithm.greedystringtiling.GreedyStringTiling;
+import net.lldp.checksims.algorithm.lcs.BitParallelLcs;
+import net.lldp.checksims.algorithm.ngram.NGramSimilarity;
+import net.lldp.checksims.algorithm.seedextend.SeedExtend;
+import net.lldp.checksims.algorithm.smithwaterman.BandedSmithWaterman;
 import net.lldp.checksims.algorithm.smithwaterman.SmithWaterman;
+import net.lldp.checksims.algorithm.smithwaterman.SparseSmithWaterman;
+import net.lldp.checksims.algorithm.winnowing.Winnowing;
 import org.junit.Before;
 import org.junit.Test;
 
@@ -58,6 +66,62 @@ public class AlgorithmRegistryTest {
         checkRegistryContainsImpl(smithWatermanName, instance);
     }
 
+    @Test
+    public void TestIncludeBandedSmithWaterman() throws ChecksimsException {
+        String bandedName = BandedSmithWaterman.getInstance().getName();
+
+        checkRegistryContainsImpl(bandedName, instance);
+    }
+
+    @Test
+    public void TestIncludeSeedExtend() throws ChecksimsException {
+        String seedExtendName = SeedExtend.getInstance().getName();
+
+        checkRegistryContainsImpl(seedExtendName, instance);
+    }
+
+    @Test
+    public void TestIncludeGreedyStringTiling() throws ChecksimsException {
+        String greedyStringTilingName = GreedyStringTiling.getInstance().getName();
+
+        checkRegistryContainsImpl(greedyStringTilingName, instance);
+    }
+
+    @Test
+    public void TestIncludeWinnowing() throws ChecksimsException {
+        String winnowingName = Winnowing.getInstance().getName();
+
+        checkRegistryContainsImpl(winnowingName, instance);
+    }
+
+    @Test
+    public void TestIncludeSparseSmithWaterman() throws ChecksimsException {
+        String sparseName = SparseSmithWaterman.getInstance().getName();
+
+        checkRegistryContainsImpl(sparseName, instance);
+    }
+
+    @Test
+    public void TestIncludeBitParallelLcs() throws ChecksimsException {
+        String lcsName = BitParallelLcs.getInstance().getName();
+
+        checkRegistryContainsImpl(lcsName, instance);
+    }
+
+    @Test
+    public void TestIncludeNGramSimilarity() throws ChecksimsException {
+        String ngramName = NGramSimilarity.getInstance().getName();
+
+        checkRegistryContainsImpl(ngramName, instance);
+    }
+
+    @Test
+    public void TestIncludeCascadeSimilarity() throws ChecksimsException {
+        String cascadeName = CascadeSimilarity.getInstance().getName();
+
+        checkRegistryContainsImpl(cascadeName, instance);
+    }
+
     @Test
     public void TestDefaultAlgorithmIsLineCompare() {
         String lineCompareName = LineSimilarityChecker.getInstance().getName();
@@ -31,7 +31,9 @@ import org.junit.rules.ExpectedException;
 
 import static net.lldp.checksims.testutil.SubmissionUtils.charSubmissionFromString;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
 
 /**
  * Tests for Algorithm Results
@@ -176,4 +178,67 @@ public class AlgorithmResultsTest {
 
         assertNotEquals(one, two);
     }
+
+    @Test
+    public void TestNotComparedMatchesNothing() {
+        AlgorithmResults results = AlgorithmResults.notCompared(a, abcd);
+
+        assertFalse(results.isCompared());
+        assertEquals(0, results.identicalTokensA);
+        assertEquals(0, results.identicalTokensB);
+        assertEquals(0.0, results.percentMatchedB(), 0.0);
+    }
+
+    @Test
+    public void TestNotComparedUnequalToCompared() {
+        AlgorithmResults compared = new AlgorithmResults(a, b, a.getContentAsTokens(), b.getContentAsTokens());
+        AlgorithmResults notCompared = AlgorithmResults.notCompared(a, b);
+
+        assertTrue(compared.isCompared());
+        assertNotEquals(compared, notCompared);
+        assertEquals(notCompared, AlgorithmResults.notCompared(a, b));
+    }
+
+    @Test
+    public void TestWithEngineKeepsResults() {
+        AlgorithmResults results = new AlgorithmResults(a, abcd, a.getContentAsTokens(), abcd.getContentAsTokens());
+        AlgorithmResults marked = results.withEngine("engine");
+
+        assertFalse(results.getEngine().isPresent());
+        assertEquals("engine", marked.getEngine().get());
+        assertEquals(results.identicalTokensB, marked.identicalTokensB);
+        assertEquals(results.finalListB, marked.finalListB);
+        assertNotEquals(results, marked);
+    }
+
+    @Test
+    public void TestNoSetSimilarityByDefault() {
+        AlgorithmResults results = new AlgorithmResults(a, abcd, a.getContentAsTokens(), abcd.getContentAsTokens());
+
+        assertFalse(results.getJaccard().isPresent());
+        assertFalse(results.getContainmentA().isPresent());
+        assertFalse(results.getContainmentB().isPresent());
+    }
+
+    @Test
+    public void TestWithSetSimilarityKeptThroughEngine() {
+        AlgorithmResults results = new AlgorithmResults(a, abcd, a.getContentAsTokens(), abcd.getContentAsTokens());
+        AlgorithmResults scored = results.withSetSimilarity(0.25, 1.0, 0.25).withEngine("engine");
+
+        assertEquals(0.25, scored.getJaccard().getAsDouble(), 0.0);
+        assertEquals(1.0, scored.getContainmentA().getAsDouble(), 0.0);
+        assertEquals(0.25, scored.getContainmentB().getAsDouble(), 0.0);
+        assertEquals("engine", scored.getEngine().get());
+        assertEquals(results.finalListA, scored.finalListA);
+        assertNotEquals(results.withEngine("engine"), scored);
+    }
+
+    @Test
+    public void TestWithSetSimilarityOutOfRangeThrowsException() {
+        AlgorithmResults results = new AlgorithmResults(a, abcd, a.getContentAsTokens(), abcd.getContentAsTokens());
+
+        expectedEx.expect(IllegalArgumentException.class);
+
+        results.withSetSimilarity(0.5, 1.5, 0.5);
+    }
 }
@@ -22,8 +22,10 @@
 package net.lldp.checksims.algorithm;
 
 import net.lldp.checksims.ChecksimsException;
+import net.lldp.checksims.algorithm.lsh.LshCandidateGenerator;
 import net.lldp.checksims.submission.Submission;
 import net.lldp.checksims.testutil.AlgorithmUtils;
+import net.lldp.checksims.token.TokenList;
 import net.lldp.checksims.token.TokenType;
 import org.apache.commons.lang3.tuple.Pair;
 import org.junit.Before;
@@ -36,8 +38,11 @@ import java.util.HashSet;
 import java.util.Set;
 
 import static net.lldp.checksims.testutil.SubmissionUtils.charSubmissionFromString;
+import static net.lldp.checksims.testutil.SubmissionUtils.lineSubmissionFromString;
 import static net.lldp.checksims.testutil.SubmissionUtils.setFromElements;
 import static java.util.Collections.singleton;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
 
 /**
  * Tests for the AlgorithmRunner class
@@ -49,6 +54,8 @@ public class AlgorithmRunnerTest {
     private Submission d;
 
     private SimilarityDetector detectNothing;
+    private SimilarityDetector detectAllOneToOne;
+    private Set<Pair<Submission, Submission>> ran;
 
     @Rule
     public ExpectedException expectedEx = ExpectedException.none();
@@ -72,6 +79,40 @@ public class AlgorithmRunnerTest {
             }
         };
 
+        ran = new HashSet<>();
+
+        // Marks every token matched, and records which pairs it was run on
+        detectAllOneToOne = new SimilarityDetector() {
+            @Override
+            public TokenType getDefaultTokenType() {
+                return TokenType.CHARACTER;
+            }
+
+            @Override
+            public AlgorithmResults detectSimilarity(Submission a, Submission b) {
+                synchronized(ran) {
+                    ran.add(Pair.of(a, b));
+                }
+
+                TokenList finalA = TokenList.cloneTokenList(a.getContentAsTokens());
+                TokenList finalB = TokenList.cloneTokenList(b.getContentAsTokens());
+                finalA.stream().forEach((token) -> token.setValid(false));
+                finalB.stream().forEach((token) -> token.setValid(false));
+
+                return new AlgorithmResults(a, b, finalA, finalB);
+            }
+
+            @Override
+            public boolean matchesTokensOneToOne() {
+                return true;
+            }
+
+            @Override
+            public String getName() {
+                return "all";
+            }
+        };
+
         a = charSubmissionFromString("A", "A");
         b = charSubmissionFromString("B", "B");
         c = charSubmissionFromString("C", "C");
@@ -130,4 +171,119 @@ public class AlgorithmRunnerTest {
 
         AlgorithmUtils.checkResultsContainsPairs(results, submissions);
     }
+
+    @Test
+    public void TestRunAlgorithmPruneThresholdAboveOne() throws ChecksimsException {
+        expectedEx.expect(IllegalArgumentException.class);
+
+        AlgorithmRunner.runAlgorithm(singleton(Pair.of(a, b)), detectNothing, 1.5);
+    }
+
+    @Test
+    public void TestPrunesPairsWithNothingInCommon() throws ChecksimsException {
+        Submission abcd = charSubmissionFromString("ABCD", "abcd");
+        Submission abxy = charSubmissionFromString("ABXY", "abxy");
+        Submission wxyz = charSubmissionFromString("WXYZ", "wxyz");
+
+        Set<Pair<Submission, Submission>> submissions = setFromElements(Pair.of(abcd, abxy), Pair.of(abcd, wxyz),
+                Pair.of(abxy, wxyz));
+        Collection<AlgorithmResults> results = AlgorithmRunner.runAlgorithm(submissions, detectAllOneToOne, 0.5);
+
+        AlgorithmUtils.checkResultsContainsPairs(results, submissions);
+
+        // Half of each of the others is shared with ABXY, so only ABCD against WXYZ cannot reach 0.5
+        assertEquals(setFromElements(Pair.of(abcd, abxy), Pair.of(abxy, wxyz)), ran);
+
+        for(AlgorithmResults result : results) {
+            if(result.a.equals(abcd) && result.b.equals(wxyz)) {
+                assertEquals(0, result.identicalTokensA);
+                assertEquals(0, result.identicalTokensB);
+            }
+        }
+    }
+
+    @Test
+    public void TestDoesNotPruneWithoutOneToOneMatching() throws ChecksimsException {
+        Set<Pair<Submission, Submission>> submissions = setFromElements(Pair.of(a, b), Pair.of(c, d));
+        Collection<AlgorithmResults> results = AlgorithmRunner.runAlgorithm(submissions, new SimilarityDetector() {
+            @Override
+            public TokenType getDefaultTokenType() {
+                return TokenType.CHARACTER;
+            }
+
+            @Override
+            public AlgorithmResults detectSimilarity(Submission first, Submission second) {
+                synchronized(ran) {
+                    ran.add(Pair.of(first, second));
+                }
+
+                return new AlgorithmResults(first, second, first.getContentAsTokens(), second.getContentAsTokens());
+            }
+
+            @Override
+            public String getName() {
+                return "record";
+            }
+        }, 0.5);
+
+        AlgorithmUtils.checkResultsContainsPairs(results, submissions);
+        assertEquals(submissions, ran);
+    }
+
+    @Test
+    public void TestDoesNotPruneMismatchedTokenTypes() throws ChecksimsException {
+        Submission line = lineSubmissionFromString("Line", "B");
+
+        AlgorithmRunner.runAlgorithm(singleton(Pair.of(a, line)), detectAllOneToOne, 0.5);
+
+        assertEquals(singleton(Pair.of(a, line)), ran);
+    }
+
+    @Test
+    public void TestPairwiseDetectorRunsEveryPairOfCorpus() throws ChecksimsException {
+        Set<AlgorithmResults> results = detectAllOneToOne.detectSimilarity(setFromElements(a, b, c), singleton(d),
+                0.0);
+
+        Set<Pair<Submission, Submission>> expected = setFromElements(Pair.of(a, b), Pair.of(a, c), Pair.of(b, c),
+                Pair.of(a, d), Pair.of(b, d), Pair.of(c, d));
+
+        assertEquals(6, results.size());
+        assertEquals(expected.size(), ran.size());
+        for(Pair<Submission, Submission> pair : expected) {
+            assertTrue(ran.contains(pair) || ran.contains(Pair.of(pair.getRight(), pair.getLeft())));
+        }
+    }
+
+    @Test
+    public void TestPairwiseDetectorOnCorpusPrunes() throws ChecksimsException {
+        Set<AlgorithmResults> results = detectAllOneToOne.detectSimilarity(setFromElements(a, b, c), singleton(d),
+                0.5);
+
+        assertEquals(6, results.size());
+        assertTrue(ran.isEmpty());
+    }
+
+    @Test
+    public void TestRunsOnlyCandidatePairs() throws ChecksimsException {
+        StringBuilder text = new StringBuilder();
+        for(int i = 0; i < 50; i++) {
+            text.append("line ").append(i).append('\n');
+        }
+
+        Submission original = lineSubmissionFromString("Original", text.toString());
+        Submission copy = lineSubmissionFromString("Copy", text.toString() + "extra\n");
+        Submission other = lineSubmissionFromString("Other", text.toString().replace("line", "other"));
+
+        Set<Pair<Submission, Submission>> submissions = setFromElements(Pair.of(original, copy),
+                Pair.of(original, other), Pair.of(copy, other));
+        Collection<AlgorithmResults> results = AlgorithmRunner.runAlgorithm(submissions, detectAllOneToOne, 0.0,
+                new LshCandidateGenerator(0.0));
+
+        AlgorithmUtils.checkResultsContainsPairs(results, submissions);
+        assertEquals(singleton(Pair.of(original, copy)), ran);
+
+        for(AlgorithmResults result : results) {
+            assertEquals(ran.contains(Pair.of(result.a, result.b)), result.isCompared());
+        }
+    }
 }
@@ -0,0 +1,98 @@
+/*
+ * CDDL HEADER START
+ *
+ * The contents of this file are subject to the terms of the
+ * Common Development and Distribution License (the "License").
+ * You may not use this file except in compliance with the License.
+ *
+ * See LICENSE.txt included in this distribution for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing Covered Code, include this CDDL HEADER in each
+ * file and include the License file at LICENSE.txt.
+ * If applicable, add the following below this CDDL HEADER, with the
+ * fields enclosed by brackets "[]" replaced with your own identifying
+ * information: Portions Copyright [yyyy] [name of copyright owner]
+ *
+ * CDDL HEADER END
+ *
+ * Copyright (c) 2014-2015 Nicholas DeMarinis, Matthew Heon, and Dolan Murvihill
+ */
+
+package net.lldp.checksims.algorithm;
+
+import net.lldp.checksims.testutil.TokenUtils;
+import net.lldp.checksims.token.TokenList;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Tests for lexeme histograms used to bound similarity
+ */
+public class LexemeHistogramTest {
+    @Rule
+    public ExpectedException expectedEx = ExpectedException.none();
+
+    private static TokenList fromString(String content) {
+        return TokenUtils.makeTokenListCharacter(content.chars().mapToObj((c) -> (char)c).toArray(Character[]::new));
+    }
+
+    @Test
+    public void TestOfNullThrowsException() {
+        expectedEx.expect(NullPointerException.class);
+
+        LexemeHistogram.of(null);
+    }
+
+    @Test
+    public void TestIntersectionCountsRepeatsAsOftenAsBothHaveThem() {
+        LexemeHistogram first = LexemeHistogram.of(fromString("aaabbc"));
+        LexemeHistogram second = LexemeHistogram.of(fromString("aabbbd"));
+
+        assertEquals(4, first.intersectionSize(second));
+        assertEquals(4, second.intersectionSize(first));
+    }
+
+    @Test
+    public void TestNothingInCommonEmptyIntersection() {
+        LexemeHistogram first = LexemeHistogram.of(fromString("abc"));
+        LexemeHistogram second = LexemeHistogram.of(fromString("xyz"));
+
+        assertEquals(0, first.intersectionSize(second));
+        assertEquals(0.0, first.maxPercentMatched(second), 0.0);
+    }
+
+    @Test
+    public void TestInvalidTokensNotCountedButBoundIncludesThem() {
+        TokenList tokens = fromString("abcd");
+        tokens.get(0).setValid(false);
+        tokens.get(1).setValid(false);
+
+        LexemeHistogram first = LexemeHistogram.of(tokens);
+        LexemeHistogram second = LexemeHistogram.of(fromString("abc"));
+
+        assertEquals(4, first.getNumTokens());
+        assertEquals(2, first.getNumInvalid());
+        assertEquals(1, first.intersectionSize(second));
+        assertEquals(0.75, first.maxPercentMatched(second), 0.0);
+    }
+
+    @Test
+    public void TestBoundIsPerList() {
+        LexemeHistogram first = LexemeHistogram.of(fromString("ab"));
+        LexemeHistogram second = LexemeHistogram.of(fromString("abcdefgh"));
+
+        assertEquals(1.0, first.maxPercentMatched(second), 0.0);
+        assertEquals(0.25, second.maxPercentMatched(first), 0.0);
+    }
+
+    @Test
+    public void TestEmptyListBoundIsZero() {
+        LexemeHistogram empty = LexemeHistogram.of(fromString(""));
+
+        assertEquals(0.0, empty.maxPercentMatched(LexemeHistogram.of(fromString("abc"))), 0.0);
+    }
+}
@@ -0,0 +1,196 @@
+/*
+ * CDDL HEADER START
+ *
+ * The contents of this file are subject to the terms of the
+ * Common Development and Distribution License (the "License").
+ * You may not use this file except in compliance with the License.
+ *
+ * See LICENSE.txt included in this distribution for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing Covered Code, include this CDDL HEADER in each
+ * file and include the License file at LICENSE.txt.
+ * If applicable, add the following below this CDDL HEADER, with the
+ * fields enclosed by brackets "[]" replaced with your own identifying
+ * information: Portions Copyright [yyyy] [name of copyright owner]
+ *
+ * CDDL HEADER END
+ *
+ * Copyright (c) 2014-2015 Nicholas DeMarinis, Matthew Heon, and Dolan Murvihill
+ */
+
+package net.lldp.checksims.algorithm.cascade;
+
+import net.lldp.checksims.algorithm.AlgorithmResults;
+import net.lldp.checksims.algorithm.DetectionParameters;
+import net.lldp.checksims.algorithm.linesimilarity.LineSimilarityChecker;
+import net.lldp.checksims.algorithm.ngram.NGramSimilarity;
+import net.lldp.checksims.algorithm.smithwaterman.SmithWaterman;
+import net.lldp.checksims.submission.Submission;
+import net.lldp.checksims.token.TokenTypeMismatchException;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+
+import java.util.Optional;
+import java.util.OptionalDouble;
+import java.util.Set;
+
+import static net.lldp.checksims.testutil.AlgorithmUtils.*;
+import static net.lldp.checksims.testutil.SubmissionUtils.*;
+import static java.util.Collections.singleton;
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Tests for the cascade similarity detector
+ */
+public class CascadeSimilarityTest {
+    private Submission empty;
+    private Submission typeMismatch;
+    private Submission oneToken;
+    private Submission hello;
+    private Submission world;
+    private Submission quickFox;
+    private Submission lazyFox;
+
+    private CascadeSimilarity instance;
+
+    @Rule
+    public ExpectedException expectedEx = ExpectedException.none();
+
+    @Before
+    public void setUp() {
+        instance = CascadeSimilarity.getInstance();
+
+        empty = whitespaceSubmissionFromString("Empty", "");
+        typeMismatch = lineSubmissionFromString("Type Mismatch", "hello");
+        oneToken = whitespaceSubmissionFromString("One Token", "hello");
+        hello = whitespaceSubmissionFromString("Hello", "hello there general kenobi");
+        world = whitespaceSubmissionFromString("World", "a whole new world to see");
+        quickFox = whitespaceSubmissionFromString("Quick Fox", "first the quick brown fox jumps over last");
+        lazyFox = whitespaceSubmissionFromString("Lazy Fox", "the quick brown fox jumps over the lazy dog");
+    }
+
+    @After
+    public void tearDown() {
+        instance.setScreen(NGramSimilarity.getInstance());
+        instance.setEscalationThreshold(CascadeSimilarity.DEFAULT_ESCALATION_THRESHOLD);
+    }
+
+    @Test(expected = TokenTypeMismatchException.class)
+    public void TestTokenTypeMismatchThrowsException() throws Exception {
+        instance.detectSimilarity(empty, typeMismatch);
+    }
+
+    @Test
+    public void TestOneEmptyOneNonEmptySubmissionsAreNotSimilar() throws Exception {
+        AlgorithmResults results = instance.detectSimilarity(empty, oneToken);
+
+        checkResultsNoMatch(results, empty, oneToken);
+    }
+
+    @Test
+    public void TestIdenticalNonEmptySubmissionsAreIdentical() throws Exception {
+        AlgorithmResults results = instance.detectSimilarity(oneToken, oneToken);
+
+        checkResultsIdenticalSubmissions(results, oneToken);
+        assertEquals(Optional.of(SmithWaterman.getInstance().getName()), results.getEngine());
+    }
+
+    @Test
+    public void TestDissimilarPairKeepsScreenResults() throws Exception {
+        AlgorithmResults results = instance.detectSimilarity(hello, world);
+
+        checkResultsNoMatch(results, hello, world);
+        assertEquals(Optional.of(NGramSimilarity.getInstance().getName()), results.getEngine());
+    }
+
+    @Test
+    public void TestSimilarPairEscalatedToSmithWaterman() throws Exception {
+        AlgorithmResults results = instance.detectSimilarity(quickFox, lazyFox);
+        AlgorithmResults expected = SmithWaterman.getInstance().detectSimilarity(quickFox, lazyFox);
+
+        checkResults(results, quickFox, lazyFox, expected.finalListA, expected.finalListB);
+        assertEquals(Optional.of(SmithWaterman.getInstance().getName()), results.getEngine());
+    }
+
+    @Test
+    public void TestPairBelowThresholdNotEscalated() throws Exception {
+        // Six of nine tokens of the lazy fox are shared
+        instance.setEscalationThreshold(0.8);
+
+        AlgorithmResults results = instance.detectSimilarity(quickFox, lazyFox);
+
+        assertEquals(NGramSimilarity.getInstance().detectSimilarity(quickFox, lazyFox).withEngine("ngram"), results);
+    }
+
+    @Test
+    public void TestLineScreen() throws Exception {
+        instance.setScreen(LineSimilarityChecker.getInstance());
+
+        Submission first = lineSubmissionFromString("First", "a\nb\nc");
+        Submission second = lineSubmissionFromString("Second", "x\ny\nz");
+
+        AlgorithmResults results = instance.detectSimilarity(first, second);
+
+        checkResultsNoMatch(results, first, second);
+        assertEquals(Optional.of(LineSimilarityChecker.getInstance().getName()), results.getEngine());
+    }
+
+    @Test
+    public void TestCorpusSameAsEachPair() throws Exception {
+        Set<AlgorithmResults> results = instance.detectSimilarity(setFromElements(quickFox, lazyFox, hello),
+                setFromElements(world, empty), 0.0);
+
+        assertEquals(9, results.size());
+        for(AlgorithmResults result : results) {
+            assertEquals(instance.detectSimilarity(result.a, result.b), result);
+        }
+    }
+
+    @Test
+    public void TestCorpusTokenTypeMismatchThrowsException() throws Exception {
+        expectedEx.expect(TokenTypeMismatchException.class);
+
+        instance.detectSimilarity(setFromElements(hello, typeMismatch), setFromElements(), 0.0);
+    }
+
+    @Test
+    public void TestCorpusUsesRunEscalationThreshold() throws Exception {
+        DetectionParameters parameters = new DetectionParameters(0.0, OptionalDouble.of(0.8));
+
+        Set<AlgorithmResults> results = instance.detectSimilarity(setFromElements(quickFox, lazyFox),
+                setFromElements(), parameters);
+
+        assertEquals(singleton(NGramSimilarity.getInstance().detectSimilarity(quickFox, lazyFox).withEngine("ngram")),
+                results);
+        assertEquals(CascadeSimilarity.DEFAULT_ESCALATION_THRESHOLD, instance.getEscalationThreshold(), 0.0);
+    }
+
+    @Test
+    public void TestCorpusWithoutRunEscalationThresholdUsesOwn() throws Exception {
+        instance.setEscalationThreshold(0.8);
+
+        Set<AlgorithmResults> results = instance.detectSimilarity(setFromElements(quickFox, lazyFox),
+                setFromElements(), new DetectionParameters(0.0));
+
+        assertEquals(singleton(NGramSimilarity.getInstance().detectSimilarity(quickFox, lazyFox).withEngine("ngram")),
+                results);
+    }
+
+    @Test
+    public void TestSetEscalationThresholdAboveOneThrowsException() {
+        expectedEx.expect(IllegalArgumentException.class);
+
+        instance.setEscalationThreshold(1.5);
+    }
+
+    @Test
+    public void TestSetScreenToCascadeThrowsException() {
+        expectedEx.expect(IllegalArgumentException.class);
+
+        instance.setScreen(instance);
+    }
+}
@@ -0,0 +1,244 @@
+/*
+ * CDDL HEADER START
+ *
+ * The contents of this file are subject to the terms of the
+ * Common Development and Distribution License (the "License").
+ * You may not use this file except in compliance with the License.
+ *
+ * See LICENSE.txt included in this distribution for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing Covered Code, include this CDDL HEADER in each
+ * file and include the License file at LICENSE.txt.
+ * If applicable, add the following below this CDDL HEADER, with the
+ * fields enclosed by brackets "[]" replaced with your own identifying
+ * information: Portions Copyright [yyyy] [name of copyright owner]
+ *
+ * CDDL HEADER END
+ *
+ * Copyright (c) 2014-2015 Nicholas DeMarinis, Matthew Heon, and Dolan Murvihill
+ */
+
+package net.lldp.checksims.algorithm.greedystringtiling;
+
+import net.lldp.checksims.testutil.TokenUtils;
+import net.lldp.checksims.token.TokenList;
+import net.lldp.checksims.token.TokenType;
+import org.apache.commons.lang3.tuple.Pair;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests for the Greedy String Tiling implementation
+ */
+public class GreedyStringTilingAlgorithmTest {
+    @Rule
+    public ExpectedException expectedEx = ExpectedException.none();
+
+    /**
+     * Build a character token list from a string.
+     */
+    private static TokenList fromString(String content) {
+        return TokenUtils.makeTokenListCharacter(content.chars().mapToObj((c) -> (char)c).toArray(Character[]::new));
+    }
+
+    /**
+     * Generate a random string from the first few lowercase letters.
+     */
+    private static String randomString(Random random, int length, int alphabet) {
+        StringBuilder builder = new StringBuilder();
+
+        for(int i = 0; i < length; i++) {
+            builder.append((char)('a' + random.nextInt(alphabet)));
+        }
+
+        return builder.toString();
+    }
+
+    private static long countInvalid(TokenList list) {
+        return list.stream().filter((token) -> !token.isValid()).count();
+    }
+
+    /**
+     * Length of the longest run of identical tokens which are valid in both lists - found the slow way.
+     */
+    private static int longestValidCommonRun(TokenList a, TokenList b) {
+        int longest = 0;
+
+        for(int i = 0; i < a.size(); i++) {
+            for(int j = 0; j < b.size(); j++) {
+                int length = 0;
+                while(i + length < a.size() && j + length < b.size() && a.get(i + length).isValid()
+                        && b.get(j + length).isValid() && a.get(i + length).equals(b.get(j + length))) {
+                    length++;
+                }
+
+                longest = Math.max(longest, length);
+            }
+        }
+
+        return longest;
+    }
+
+    @Test
+    public void TestConstructorNullListAThrowsException() {
+        expectedEx.expect(NullPointerException.class);
+
+        new GreedyStringTilingAlgorithm(null, fromString("hello"), 2);
+    }
+
+    @Test
+    public void TestConstructorEmptyListThrowsException() {
+        expectedEx.expect(IllegalArgumentException.class);
+
+        new GreedyStringTilingAlgorithm(fromString("hello"), new TokenList(TokenType.CHARACTER), 2);
+    }
+
+    @Test
+    public void TestConstructorTypeMismatchThrowsException() {
+        expectedEx.expect(IllegalArgumentException.class);
+
+        new GreedyStringTilingAlgorithm(fromString("hello"), TokenUtils.makeTokenListWhitespace("hello"), 2);
+    }
+
+    @Test
+    public void TestConstructorZeroMinimumMatchLengthThrowsException() {
+        expectedEx.expect(IllegalArgumentException.class);
+
+        new GreedyStringTilingAlgorithm(fromString("hello"), fromString("hello"), 0);
+    }
+
+    @Test
+    public void TestDoesNotModifyInputLists() {
+        TokenList a = fromString("hello world");
+        TokenList b = fromString("hello there");
+
+        new GreedyStringTilingAlgorithm(a, b, 3).computeTiling();
+
+        assertEquals(0, countInvalid(a));
+        assertEquals(0, countInvalid(b));
+    }
+
+    @Test
+    public void TestMatchesShorterThanMinimumNotTiled() {
+        GreedyStringTilingAlgorithm algorithm = new GreedyStringTilingAlgorithm(fromString("abcdefgh"),
+                fromString("hgfedcba"), 2);
+
+        Pair<TokenList, TokenList> results = algorithm.computeTiling();
+
+        assertEquals(0, algorithm.getNumTiles());
+        assertEquals(0, countInvalid(results.getLeft()));
+        assertEquals(0, countInvalid(results.getRight()));
+    }
+
+    @Test
+    public void TestEditSplitsMatchIntoTiles() {
+        GreedyStringTilingAlgorithm algorithm = new GreedyStringTilingAlgorithm(fromString("abcXdef"),
+                fromString("abcYdef"), 3);
+
+        Pair<TokenList, TokenList> results = algorithm.computeTiling();
+
+        assertEquals(2, algorithm.getNumTiles());
+        assertEquals(6, countInvalid(results.getLeft()));
+        assertTrue(results.getLeft().get(3).isValid());
+        assertTrue(results.getRight().get(3).isValid());
+    }
+
+    @Test
+    public void TestEditLeavesPiecesBelowMinimumUntiled() {
+        GreedyStringTilingAlgorithm algorithm = new GreedyStringTilingAlgorithm(fromString("abcXdef"),
+                fromString("abcYdef"), 4);
+
+        Pair<TokenList, TokenList> results = algorithm.computeTiling();
+
+        assertEquals(0, algorithm.getNumTiles());
+        assertEquals(0, countInvalid(results.getLeft()));
+    }
+
+    @Test
+    public void TestReorderedBlocksBothTiled() {
+        Random random = new Random(3);
+        String first = randomString(random, 30, 26);
+        String second = randomString(random, 30, 26);
+
+        GreedyStringTilingAlgorithm algorithm = new GreedyStringTilingAlgorithm(fromString(first + second),
+                fromString(second + first), 8);
+
+        Pair<TokenList, TokenList> results = algorithm.computeTiling();
+
+        assertEquals(60, countInvalid(results.getLeft()));
+        assertEquals(60, countInvalid(results.getRight()));
+    }
+
+    @Test
+    public void TestLongestMatchTiledFirst() {
+        // The first "abcd" of A also matches the start of B, but the whole of B matches later in A
+        GreedyStringTilingAlgorithm algorithm = new GreedyStringTilingAlgorithm(fromString("abcdabcdefgh"),
+                fromString("abcdefgh"), 4);
+
+        Pair<TokenList, TokenList> results = algorithm.computeTiling();
+
+        assertEquals(1, algorithm.getNumTiles());
+        for(int i = 0; i < 4; i++) {
+            assertTrue(results.getLeft().get(i).isValid());
+        }
+        for(int i = 4; i < 12; i++) {
+            assertFalse(results.getLeft().get(i).isValid());
+        }
+    }
+
+    @Test
+    public void TestLongIdenticalListsOneTile() {
+        String content = randomString(new Random(11), 500, 26);
+
+        GreedyStringTilingAlgorithm algorithm = new GreedyStringTilingAlgorithm(fromString(content),
+                fromString(content), 8);
+
+        Pair<TokenList, TokenList> results = algorithm.computeTiling();
+
+        assertEquals(1, algorithm.getNumTiles());
+        assertEquals(500, countInvalid(results.getLeft()));
+        assertEquals(500, countInvalid(results.getRight()));
+    }
+
+    @Test
+    public void TestInvalidTokensNeverTiled() {
+        TokenList a = fromString("abcdefgh");
+        a.get(4).setValid(false);
+
+        GreedyStringTilingAlgorithm algorithm = new GreedyStringTilingAlgorithm(a, fromString("abcdefgh"), 3);
+
+        Pair<TokenList, TokenList> results = algorithm.computeTiling();
+
+        // "abcd" is tiled, and "fgh" - "e" was never valid, so it is not matched in B either
+        assertEquals(2, algorithm.getNumTiles());
+        assertTrue(results.getRight().get(4).isValid());
+        assertEquals(7, countInvalid(results.getRight()));
+    }
+
+    @Test
+    public void TestNoCommonRunOfMinimumLengthLeftUntiled() {
+        // Small alphabets give many overlapping matches, so tiles often cut across each other
+        Random random = new Random(5);
+
+        for(int trial = 0; trial < 50; trial++) {
+            int minimumMatchLength = 1 + random.nextInt(6);
+            TokenList a = fromString(randomString(random, 1 + random.nextInt(120), 3));
+            TokenList b = fromString(randomString(random, 1 + random.nextInt(120), 3));
+
+            Pair<TokenList, TokenList> results = new GreedyStringTilingAlgorithm(a, b, minimumMatchLength)
+                    .computeTiling();
+
+            assertEquals(countInvalid(results.getLeft()), countInvalid(results.getRight()));
+            assertTrue("Trial " + trial + " left a common run untiled",
+                    longestValidCommonRun(results.getLeft(), results.getRight()) < minimumMatchLength);
+        }
+    }
+}
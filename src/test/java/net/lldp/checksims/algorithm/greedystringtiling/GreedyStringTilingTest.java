@@ -0,0 +1,126 @@
+/*
+ * CDDL HEADER START
+ *
+ * The contents of this file are subject to the terms of the
+ * Common Development and Distribution License (the "License").
+ * You may not use this file except in compliance with the License.
+ *
+ * See LICENSE.txt included in this distribution for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing Covered Code, include this CDDL HEADER in each
+ * file and include the License file at LICENSE.txt.
+ * If applicable, add the following below this CDDL HEADER, with the
+ * fields enclosed by brackets "[]" replaced with your own identifying
+ * information: Portions Copyright [yyyy] [name of copyright owner]
+ *
+ * CDDL HEADER END
+ *
+ * Copyright (c) 2014-2015 Nicholas DeMarinis, Matthew Heon, and Dolan Murvihill
+ */
+
+package net.lldp.checksims.algorithm.greedystringtiling;
+
+import net.lldp.checksims.algorithm.AlgorithmResults;
+import net.lldp.checksims.submission.Submission;
+import net.lldp.checksims.token.TokenTypeMismatchException;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+
+import static net.lldp.checksims.testutil.AlgorithmUtils.*;
+import static net.lldp.checksims.testutil.SubmissionUtils.*;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests for the Greedy String Tiling plagiarism detector
+ */
+public class GreedyStringTilingTest {
+    private Submission empty;
+    private Submission typeMismatch;
+    private Submission oneToken;
+    private Submission hello;
+    private Submission world;
+    private Submission quickFox;
+    private Submission lazyFox;
+
+    private GreedyStringTiling instance;
+
+    @Rule
+    public ExpectedException expectedEx = ExpectedException.none();
+
+    @Before
+    public void setUp() {
+        instance = GreedyStringTiling.getInstance();
+
+        empty = whitespaceSubmissionFromString("Empty", "");
+        typeMismatch = lineSubmissionFromString("Type Mismatch", "hello");
+        oneToken = whitespaceSubmissionFromString("One Token", "hello");
+        hello = charSubmissionFromString("Hello", "hello");
+        world = charSubmissionFromString("World", "world");
+        quickFox = charSubmissionFromString("Quick Fox", "qqqqqqqq the quick brown fox zzzzzzzz");
+        lazyFox = charSubmissionFromString("Lazy Fox", "jumps over the quick brown fox lazy dog");
+    }
+
+    @After
+    public void tearDown() {
+        instance.setMinimumMatchLength(GreedyStringTiling.DEFAULT_MINIMUM_MATCH_LENGTH);
+    }
+
+    @Test(expected = TokenTypeMismatchException.class)
+    public void TestTokenTypeMismatchThrowsException() throws Exception {
+        instance.detectSimilarity(empty, typeMismatch);
+    }
+
+    @Test
+    public void TestOneEmptyOneNonEmptySubmissionsAreNotSimilar() throws Exception {
+        AlgorithmResults results = instance.detectSimilarity(empty, oneToken);
+
+        checkResultsNoMatch(results, empty, oneToken);
+    }
+
+    @Test
+    public void TestIdenticalNonEmptySubmissionsAreIdentical() throws Exception {
+        AlgorithmResults results = instance.detectSimilarity(oneToken, oneToken);
+
+        checkResultsIdenticalSubmissions(results, oneToken);
+    }
+
+    @Test
+    public void TestDifferentSubmissionsNoMatches() throws Exception {
+        AlgorithmResults results = instance.detectSimilarity(hello, world);
+
+        checkResultsNoMatch(results, hello, world);
+    }
+
+    @Test
+    public void TestCopiedBlockTiled() throws Exception {
+        // " the quick brown fox " is the only run of 8 or more characters common to both
+        AlgorithmResults results = instance.detectSimilarity(quickFox, lazyFox);
+
+        assertEquals(21, results.identicalTokensA);
+        assertEquals(21, results.identicalTokensB);
+        assertFalse(results.finalListA.get(8).isValid());
+        assertTrue(results.finalListA.get(7).isValid());
+    }
+
+    @Test
+    public void TestMinimumMatchLengthLongerThanCopyNoMatches() throws Exception {
+        instance.setMinimumMatchLength(40);
+
+        AlgorithmResults results = instance.detectSimilarity(quickFox, lazyFox);
+
+        checkResultsNoMatch(results, quickFox, lazyFox);
+    }
+
+    @Test
+    public void TestSetMinimumMatchLengthZeroThrowsException() {
+        expectedEx.expect(IllegalArgumentException.class);
+
+        instance.setMinimumMatchLength(0);
+    }
+}
@@ -0,0 +1,263 @@
+/*
+ * CDDL HEADER START
+ *
+ * The contents of this file are subject to the terms of the
+ * Common Development and Distribution License (the "License").
+ * You may not use this file except in compliance with the License.
+ *
+ * See LICENSE.txt included in this distribution for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing Covered Code, include this CDDL HEADER in each
+ * file and include the License file at LICENSE.txt.
+ * If applicable, add the following below this CDDL HEADER, with the
+ * fields enclosed by brackets "[]" replaced with your own identifying
+ * information: Portions Copyright [yyyy] [name of copyright owner]
+ *
+ * CDDL HEADER END
+ *
+ * Copyright (c) 2014-2015 Nicholas DeMarinis, Matthew Heon, and Dolan Murvihill
+ */
+
+package net.lldp.checksims.algorithm.lcs;
+
+import net.lldp.checksims.testutil.TokenUtils;
+import net.lldp.checksims.token.Token;
+import net.lldp.checksims.token.TokenList;
+import net.lldp.checksims.token.TokenType;
+import org.apache.commons.lang3.tuple.Pair;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+
+import java.util.Random;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests for the bit-parallel LCS implementation
+ */
+public class BitParallelLcsAlgorithmTest {
+    @Rule
+    public ExpectedException expectedEx = ExpectedException.none();
+
+    /**
+     * Build a character token list from a string.
+     */
+    private static TokenList fromString(String content) {
+        return TokenUtils.makeTokenListCharacter(content.chars().mapToObj((c) -> (char)c).toArray(Character[]::new));
+    }
+
+    /**
+     * Generate a random string from the first few lowercase letters.
+     */
+    private static String randomString(Random random, int length, int alphabet) {
+        StringBuilder builder = new StringBuilder();
+
+        for(int i = 0; i < length; i++) {
+            builder.append((char)('a' + random.nextInt(alphabet)));
+        }
+
+        return builder.toString();
+    }
+
+    /**
+     * LCS lengths of every prefix of x with all of y, by the textbook dynamic program.
+     */
+    private static int[] naivePrefixLengths(int[] x, int[] y) {
+        int[][] table = new int[x.length + 1][y.length + 1];
+
+        for(int i = 1; i <= x.length; i++) {
+            for(int j = 1; j <= y.length; j++) {
+                if(x[i - 1] != -1 && x[i - 1] == y[j - 1]) {
+                    table[i][j] = table[i - 1][j - 1] + 1;
+                } else {
+                    table[i][j] = Math.max(table[i - 1][j], table[i][j - 1]);
+                }
+            }
+        }
+
+        int[] lengths = new int[x.length + 1];
+        for(int i = 0; i <= x.length; i++) {
+            lengths[i] = table[i][y.length];
+        }
+
+        return lengths;
+    }
+
+    /**
+     * Check the invalid tokens of two result lists are a common subsequence of the given length, and return it.
+     */
+    private static String checkCommonSubsequence(Pair<TokenList, TokenList> results, int length) {
+        StringBuilder inA = new StringBuilder();
+        StringBuilder inB = new StringBuilder();
+
+        results.getLeft().stream().filter((token) -> !token.isValid()).map(Token::getTokenAsString)
+                .forEach(inA::append);
+        results.getRight().stream().filter((token) -> !token.isValid()).map(Token::getTokenAsString)
+                .forEach(inB::append);
+
+        assertEquals(inA.toString(), inB.toString());
+        assertEquals(length, inA.length());
+
+        return inA.toString();
+    }
+
+    @Test
+    public void TestEmptyListAThrowsException() {
+        expectedEx.expect(IllegalArgumentException.class);
+
+        new BitParallelLcsAlgorithm(new TokenList(TokenType.CHARACTER), fromString("abc"));
+    }
+
+    @Test
+    public void TestEmptyListBThrowsException() {
+        expectedEx.expect(IllegalArgumentException.class);
+
+        new BitParallelLcsAlgorithm(fromString("abc"), new TokenList(TokenType.CHARACTER));
+    }
+
+    @Test
+    public void TestTypeMismatchThrowsException() {
+        expectedEx.expect(IllegalArgumentException.class);
+
+        new BitParallelLcsAlgorithm(fromString("abc"), TokenUtils.makeTokenListWhitespace("abc"));
+    }
+
+    @Test
+    public void TestZeroTracebackLimitThrowsException() {
+        expectedEx.expect(IllegalArgumentException.class);
+
+        new BitParallelLcsAlgorithm(fromString("abc"), fromString("abc"), 0);
+    }
+
+    @Test
+    public void TestKnownSubsequence() {
+        BitParallelLcsAlgorithm algorithm = new BitParallelLcsAlgorithm(fromString("xaybzc"), fromString("abqc"));
+
+        Pair<TokenList, TokenList> results = algorithm.computeLcs();
+
+        assertEquals(3, algorithm.getLcsLength());
+        assertEquals("abc", checkCommonSubsequence(results, 3));
+        assertFalse(results.getLeft().get(1).isValid());
+        assertTrue(results.getLeft().get(2).isValid());
+        assertTrue(results.getRight().get(2).isValid());
+    }
+
+    @Test
+    public void TestNoCommonTokens() {
+        BitParallelLcsAlgorithm algorithm = new BitParallelLcsAlgorithm(fromString("hello"), fromString("wxyz"));
+
+        Pair<TokenList, TokenList> results = algorithm.computeLcs();
+
+        assertEquals(0, algorithm.getLcsLength());
+        checkCommonSubsequence(results, 0);
+    }
+
+    @Test
+    public void TestInputListsNotModified() {
+        TokenList a = fromString("abcabc");
+        TokenList b = fromString("cbacba");
+
+        new BitParallelLcsAlgorithm(a, b).computeLcs();
+
+        assertEquals(6, a.numValid());
+        assertEquals(6, b.numValid());
+    }
+
+    @Test
+    public void TestInvalidTokensNeverMatch() {
+        TokenList a = fromString("abcd");
+        TokenList b = fromString("abcd");
+        a.get(1).setValid(false);
+        b.get(2).setValid(false);
+
+        BitParallelLcsAlgorithm algorithm = new BitParallelLcsAlgorithm(a, b);
+        algorithm.computeLcs();
+
+        assertEquals(2, algorithm.getLcsLength());
+    }
+
+    @Test
+    public void TestRunsShorterThanMinimumDropped() {
+        // Common subsequence abcdefg, in runs abc and defg
+        BitParallelLcsAlgorithm algorithm = new BitParallelLcsAlgorithm(fromString("abcxyzdefg"),
+                fromString("abc123defgh"));
+        algorithm.setMinRunLength(4);
+
+        Pair<TokenList, TokenList> results = algorithm.computeLcs();
+
+        assertEquals(4, algorithm.getLcsLength());
+        assertEquals("defg", checkCommonSubsequence(results, 4));
+        assertTrue(results.getLeft().get(0).isValid());
+        assertFalse(results.getLeft().get(6).isValid());
+    }
+
+    @Test
+    public void TestRunAcrossSplitNotDropped() {
+        BitParallelLcsAlgorithm algorithm = new BitParallelLcsAlgorithm(fromString("xxabcdefyy"),
+                fromString("zabcdefz"), 1);
+        algorithm.setMinRunLength(6);
+
+        checkCommonSubsequence(algorithm.computeLcs(), 6);
+    }
+
+    @Test
+    public void TestZeroMinRunLengthThrowsException() {
+        expectedEx.expect(IllegalArgumentException.class);
+
+        new BitParallelLcsAlgorithm(fromString("abc"), fromString("abc")).setMinRunLength(0);
+    }
+
+    @Test
+    public void TestPrefixLengthsMatchDynamicProgram() {
+        Random random = new Random(22);
+
+        for(int trial = 0; trial < 50; trial++) {
+            TokenList a = fromString(randomString(random, 1 + random.nextInt(300), 4));
+            TokenList b = fromString(randomString(random, 1 + random.nextInt(300), 5));
+            BitParallelLcsAlgorithm algorithm = new BitParallelLcsAlgorithm(a, b);
+
+            int[] x = algorithm.getXSymbols();
+            int[] y = algorithm.getYSymbols();
+
+            assertArrayEquals(naivePrefixLengths(x, y), algorithm.prefixLengths(x, y));
+        }
+    }
+
+    @Test
+    public void TestLengthMatchesDynamicProgram() {
+        Random random = new Random(2022);
+
+        for(int trial = 0; trial < 50; trial++) {
+            TokenList a = fromString(randomString(random, 1 + random.nextInt(400), 6));
+            TokenList b = fromString(randomString(random, 1 + random.nextInt(400), 6));
+            BitParallelLcsAlgorithm algorithm = new BitParallelLcsAlgorithm(a, b);
+
+            int[] expected = naivePrefixLengths(algorithm.getXSymbols(), algorithm.getYSymbols());
+
+            checkCommonSubsequence(algorithm.computeLcs(), expected[a.size()]);
+            assertEquals(expected[a.size()], algorithm.getLcsLength());
+        }
+    }
+
+    @Test
+    public void TestSplitProblemSameLengthAsDirectTraceback() {
+        Random random = new Random(7);
+
+        for(int trial = 0; trial < 30; trial++) {
+            TokenList a = fromString(randomString(random, 1 + random.nextInt(500), 4));
+            TokenList b = fromString(randomString(random, 1 + random.nextInt(500), 4));
+
+            BitParallelLcsAlgorithm direct = new BitParallelLcsAlgorithm(a, b);
+            direct.computeLcs();
+
+            // Small enough that every problem is split down to a column or two
+            BitParallelLcsAlgorithm split = new BitParallelLcsAlgorithm(a, b, 1);
+            checkCommonSubsequence(split.computeLcs(), direct.getLcsLength());
+        }
+    }
+}
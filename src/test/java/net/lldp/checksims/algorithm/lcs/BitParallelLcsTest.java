@@ -0,0 +1,146 @@
+/*
+ * CDDL HEADER START
+ *
+ * The contents of this file are subject to the terms of the
+ * Common Development and Distribution License (the "License").
+ * You may not use this file except in compliance with the License.
+ *
+ * See LICENSE.txt included in this distribution for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing Covered Code, include this CDDL HEADER in each
+ * file and include the License file at LICENSE.txt.
+ * If applicable, add the following below this CDDL HEADER, with the
+ * fields enclosed by brackets "[]" replaced with your own identifying
+ * information: Portions Copyright [yyyy] [name of copyright owner]
+ *
+ * CDDL HEADER END
+ *
+ * Copyright (c) 2014-2015 Nicholas DeMarinis, Matthew Heon, and Dolan Murvihill
+ */
+
+package net.lldp.checksims.algorithm.lcs;
+
+import net.lldp.checksims.algorithm.AlgorithmResults;
+import net.lldp.checksims.submission.Submission;
+import net.lldp.checksims.token.TokenType;
+import net.lldp.checksims.token.TokenTypeMismatchException;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import static net.lldp.checksims.testutil.AlgorithmUtils.*;
+import static net.lldp.checksims.testutil.SubmissionUtils.*;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests for the bit-parallel LCS plagiarism detector
+ */
+public class BitParallelLcsTest {
+    private Submission empty;
+    private Submission typeMismatch;
+    private Submission oneToken;
+    private Submission hello;
+    private Submission world;
+    private Submission abc;
+    private Submission aXbYc;
+
+    private BitParallelLcs instance;
+
+    @Before
+    public void setUp() {
+        instance = BitParallelLcs.getInstance();
+
+        empty = charSubmissionFromString("Empty", "");
+        typeMismatch = lineSubmissionFromString("Type Mismatch", "hello");
+        oneToken = charSubmissionFromString("One Token", "h");
+        hello = charSubmissionFromString("Hello", "hello");
+        world = charSubmissionFromString("World", "xyz");
+        abc = charSubmissionFromString("ABC", "abc");
+        aXbYc = charSubmissionFromString("AXBYC", "axbyc");
+    }
+
+    @After
+    public void tearDown() {
+        instance.setMinRunLength(BitParallelLcs.DEFAULT_MIN_RUN_LENGTH);
+    }
+
+    @Test
+    public void TestDefaultTokenTypeIsCharacter() {
+        assertEquals(TokenType.CHARACTER, instance.getDefaultTokenType());
+    }
+
+    @Test(expected = TokenTypeMismatchException.class)
+    public void TestTokenTypeMismatchThrowsException() throws Exception {
+        instance.detectSimilarity(empty, typeMismatch);
+    }
+
+    @Test
+    public void TestOneEmptyOneNonEmptySubmissionsAreNotSimilar() throws Exception {
+        AlgorithmResults results = instance.detectSimilarity(empty, oneToken);
+
+        checkResultsNoMatch(results, empty, oneToken);
+    }
+
+    @Test
+    public void TestIdenticalNonEmptySubmissionsAreIdentical() throws Exception {
+        AlgorithmResults results = instance.detectSimilarity(hello, hello);
+
+        checkResultsIdenticalSubmissions(results, hello);
+    }
+
+    @Test
+    public void TestDifferentSubmissionsNoMatches() throws Exception {
+        AlgorithmResults results = instance.detectSimilarity(hello, world);
+
+        checkResultsNoMatch(results, hello, world);
+    }
+
+    @Test
+    public void TestSubsequenceWithGapsMatched() throws Exception {
+        instance.setMinRunLength(1);
+
+        AlgorithmResults results = instance.detectSimilarity(abc, aXbYc);
+
+        assertEquals(3, results.identicalTokensA);
+        assertEquals(3, results.identicalTokensB);
+        assertFalse(results.finalListB.get(2).isValid());
+        assertTrue(results.finalListB.get(1).isValid());
+    }
+
+    @Test
+    public void TestShortRunsDroppedByDefault() throws Exception {
+        AlgorithmResults results = instance.detectSimilarity(abc, aXbYc);
+
+        checkResultsNoMatch(results, abc, aXbYc);
+    }
+
+    @Test
+    public void TestUnrelatedSubmissionsScoreLow() throws Exception {
+        Submission code = charSubmissionFromString("Code", "public static int countMatches(List<Integer> values, "
+                + "int target) {\n    int count = 0;\n    for(int i = 0; i < values.size(); i++) {\n"
+                + "        if(values.get(i) == target) {\n            count++;\n        }\n    }\n"
+                + "    return count;\n}\n");
+        Submission prose = charSubmissionFromString("Prose", "Checksims detects similarity between student "
+                + "submissions. Point it at a folder holding one directory per student, choose an algorithm, and it "
+                + "reports which pairs of students handed in work sharing a suspicious amount of content.\n");
+
+        AlgorithmResults results = instance.detectSimilarity(code, prose);
+
+        assertTrue(results.percentMatchedA() < 0.05);
+        assertTrue(results.percentMatchedB() < 0.05);
+
+        // Every scattered character in common counts without a minimum run length
+        instance.setMinRunLength(1);
+        AlgorithmResults unfiltered = instance.detectSimilarity(code, prose);
+
+        assertTrue(unfiltered.percentMatchedA() > 0.25);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void TestSetMinRunLengthZeroThrowsException() {
+        instance.setMinRunLength(0);
+    }
+}
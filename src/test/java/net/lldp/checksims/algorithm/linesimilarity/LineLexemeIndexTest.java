@@ -0,0 +1,125 @@
+/*
+ * CDDL HEADER START
+ *
+ * The contents of this file are subject to the terms of the
+ * Common Development and Distribution License (the "License").
+ * You may not use this file except in compliance with the License.
+ *
+ * See LICENSE.txt included in this distribution for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing Covered Code, include this CDDL HEADER in each
+ * file and include the License file at LICENSE.txt.
+ * If applicable, add the following below this CDDL HEADER, with the
+ * fields enclosed by brackets "[]" replaced with your own identifying
+ * information: Portions Copyright [yyyy] [name of copyright owner]
+ *
+ * CDDL HEADER END
+ *
+ * Copyright (c) 2014-2015 Nicholas DeMarinis, Matthew Heon, and Dolan Murvihill
+ */
+
+package net.lldp.checksims.algorithm.linesimilarity;
+
+import net.lldp.checksims.testutil.TokenUtils;
+import net.lldp.checksims.token.TokenList;
+import org.apache.commons.lang3.tuple.Pair;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests for the corpus-wide line index
+ */
+public class LineLexemeIndexTest {
+    @Rule
+    public ExpectedException expectedEx = ExpectedException.none();
+
+    private static List<Pair<Integer, Integer>> sharedPairs(LineLexemeIndex index) {
+        List<Pair<Integer, Integer>> pairs = new ArrayList<>();
+        index.forEachSharedPair((first, second) -> pairs.add(Pair.of(first, second)));
+        return pairs;
+    }
+
+    @Test
+    public void TestEmptyCorpusNoGroups() throws Exception {
+        LineLexemeIndex index = new LineLexemeIndex(new ArrayList<>());
+
+        assertEquals(0, index.getNumGroups());
+        assertTrue(sharedPairs(index).isEmpty());
+    }
+
+    @Test
+    public void TestIdenticalLinesShareGroup() throws Exception {
+        LineLexemeIndex index = new LineLexemeIndex(Arrays.asList(TokenUtils.makeTokenListLine("A", "B", "A"),
+                TokenUtils.makeTokenListLine("B", "C")));
+
+        assertEquals(3, index.getNumGroups());
+    }
+
+    @Test
+    public void TestOnlyPairsWithLineInCommonVisited() throws Exception {
+        LineLexemeIndex index = new LineLexemeIndex(Arrays.asList(TokenUtils.makeTokenListLine("A", "B"),
+                TokenUtils.makeTokenListLine("C", "D"), TokenUtils.makeTokenListLine("B", "D", "B"),
+                TokenUtils.makeTokenListLine("E")));
+
+        assertEquals(Arrays.asList(Pair.of(0, 2), Pair.of(1, 2)), sharedPairs(index));
+    }
+
+    @Test
+    public void TestLineRepeatedInOneSubmissionNotShared() throws Exception {
+        LineLexemeIndex index = new LineLexemeIndex(Arrays.asList(TokenUtils.makeTokenListLine("A", "A"),
+                TokenUtils.makeTokenListLine("B")));
+
+        assertTrue(sharedPairs(index).isEmpty());
+    }
+
+    @Test
+    public void TestLineCommonToManySubmissionsVisitsEachPairOnce() throws Exception {
+        List<TokenList> corpus = new ArrayList<>();
+        for(int i = 0; i < 300; i++) {
+            corpus.add(TokenUtils.makeTokenListLine("}", "Line " + i, "}", "Shared " + (i / 2)));
+        }
+
+        List<Pair<Integer, Integer>> expected = new ArrayList<>();
+        for(int i = 0; i < corpus.size(); i++) {
+            for(int j = i + 1; j < corpus.size(); j++) {
+                expected.add(Pair.of(i, j));
+            }
+        }
+
+        assertEquals(expected, sharedPairs(new LineLexemeIndex(corpus)));
+    }
+
+    @Test
+    public void TestMarkSharedLinesMarksEveryCopy() throws Exception {
+        TokenList a = TokenUtils.makeTokenListLine("A", "B", "A", "C");
+        LineLexemeIndex index = new LineLexemeIndex(Arrays.asList(a, TokenUtils.makeTokenListLine("C", "A")));
+
+        TokenList marked = TokenList.cloneTokenList(a);
+
+        assertEquals(3, index.markSharedLines(0, 1, marked));
+        assertFalse(marked.get(0).isValid());
+        assertTrue(marked.get(1).isValid());
+        assertFalse(marked.get(2).isValid());
+        assertFalse(marked.get(3).isValid());
+    }
+
+    @Test
+    public void TestMarkSharedLinesWrongLengthThrowsException() throws Exception {
+        LineLexemeIndex index = new LineLexemeIndex(Arrays.asList(TokenUtils.makeTokenListLine("A", "B"),
+                TokenUtils.makeTokenListLine("A")));
+
+        expectedEx.expect(IllegalArgumentException.class);
+
+        index.markSharedLines(0, 1, TokenUtils.makeTokenListLine("A"));
+    }
+}
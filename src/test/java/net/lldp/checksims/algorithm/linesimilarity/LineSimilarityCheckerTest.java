@@ -31,10 +31,16 @@ import net.lldp.checksims.token.TokenType;
 import org.junit.Before;
 import org.junit.Test;
 
+import java.util.HashSet;
+import java.util.Set;
+
 import static net.lldp.checksims.testutil.AlgorithmUtils.checkResults;
 import static net.lldp.checksims.testutil.AlgorithmUtils.checkResultsIdenticalSubmissions;
 import static net.lldp.checksims.testutil.AlgorithmUtils.checkResultsNoMatch;
 import static net.lldp.checksims.testutil.SubmissionUtils.lineSubmissionFromString;
+import static net.lldp.checksims.testutil.SubmissionUtils.setFromElements;
+import static net.lldp.checksims.testutil.SubmissionUtils.whitespaceSubmissionFromString;
+import static org.junit.Assert.assertEquals;
 
 /**
  * Tests for the Line Comparison algorithm
@@ -139,4 +145,24 @@ public class LineSimilarityCheckerTest {
 
         checkResultsNoMatch(results, aabc, def);
     }
+
+    @Test
+    public void TestCorpusSameAsEachPair() throws ChecksimsException {
+        Set<AlgorithmResults> results = lineCompare.detectSimilarity(setFromElements(empty, abc, aabc, abcde),
+                setFromElements(def), 0.0);
+
+        // Every pair of the four, and each of the four against the archive submission
+        assertEquals(10, results.size());
+        for(AlgorithmResults result : results) {
+            checkResults(result, result.a, result.b, lineCompare.detectSimilarity(result.a, result.b).finalListA,
+                    lineCompare.detectSimilarity(result.a, result.b).finalListB);
+        }
+    }
+
+    @Test(expected = ChecksimsException.class)
+    public void TestCorpusErrorOnTokenTypeMismatch() throws ChecksimsException {
+        Submission whitespace = whitespaceSubmissionFromString("Whitespace", "A B C");
+
+        lineCompare.detectSimilarity(setFromElements(abc, whitespace), new HashSet<>(), 0.0);
+    }
 }
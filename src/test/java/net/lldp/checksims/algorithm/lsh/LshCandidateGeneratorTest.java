@@ -0,0 +1,163 @@
+/*
+ * CDDL HEADER START
+ *
+ * The contents of this file are subject to the terms of the
+ * Common Development and Distribution License (the "License").
+ * You may not use this file except in compliance with the License.
+ *
+ * See LICENSE.txt included in this distribution for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing Covered Code, include this CDDL HEADER in each
+ * file and include the License file at LICENSE.txt.
+ * If applicable, add the following below this CDDL HEADER, with the
+ * fields enclosed by brackets "[]" replaced with your own identifying
+ * information: Portions Copyright [yyyy] [name of copyright owner]
+ *
+ * CDDL HEADER END
+ *
+ * Copyright (c) 2014-2015 Nicholas DeMarinis, Matthew Heon, and Dolan Murvihill
+ */
+
+package net.lldp.checksims.algorithm.lsh;
+
+import net.lldp.checksims.submission.Submission;
+import org.apache.commons.lang3.tuple.Pair;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static net.lldp.checksims.testutil.SubmissionUtils.setFromElements;
+import static net.lldp.checksims.testutil.SubmissionUtils.whitespaceSubmissionFromString;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests for MinHash/LSH candidate selection
+ */
+public class LshCandidateGeneratorTest {
+    private Submission original;
+    private Submission nearCopy;
+    private Submission unrelated;
+    private Submission empty;
+
+    @Rule
+    public ExpectedException expectedEx = ExpectedException.none();
+
+    @Before
+    public void setUp() {
+        StringBuilder originalText = new StringBuilder();
+        StringBuilder nearCopyText = new StringBuilder();
+        StringBuilder unrelatedText = new StringBuilder();
+        for(int i = 0; i < 100; i++) {
+            originalText.append("word").append(i).append(' ');
+            nearCopyText.append(i == 50 ? "changed" : "word" + i).append(' ');
+            unrelatedText.append("other").append(i).append(' ');
+        }
+
+        original = whitespaceSubmissionFromString("Original", originalText.toString());
+        nearCopy = whitespaceSubmissionFromString("Near Copy", nearCopyText.toString());
+        unrelated = whitespaceSubmissionFromString("Unrelated", unrelatedText.toString());
+        empty = whitespaceSubmissionFromString("Empty", "");
+    }
+
+    @Test
+    public void TestNullPairsThrowsException() {
+        expectedEx.expect(NullPointerException.class);
+
+        new LshCandidateGenerator(0.0).selectCandidates(null);
+    }
+
+    @Test
+    public void TestAuditRateAboveOneThrowsException() {
+        expectedEx.expect(IllegalArgumentException.class);
+
+        new LshCandidateGenerator(1.5);
+    }
+
+    @Test
+    public void TestZeroBandsThrowsException() {
+        expectedEx.expect(IllegalArgumentException.class);
+
+        new LshCandidateGenerator(5, 0, 5, 0.0, 0L);
+    }
+
+    @Test
+    public void TestNearCopiesSelectedUnrelatedNot() {
+        Set<Pair<Submission, Submission>> pairs = setFromElements(Pair.of(original, nearCopy),
+                Pair.of(original, unrelated), Pair.of(nearCopy, unrelated));
+
+        Set<Pair<Submission, Submission>> candidates = new LshCandidateGenerator(0.0).selectCandidates(pairs);
+
+        assertEquals(setFromElements(Pair.of(original, nearCopy)), candidates);
+    }
+
+    @Test
+    public void TestCopiesCollidingInEveryBandEachSelected() {
+        List<Submission> copies = new ArrayList<>();
+        for(int i = 0; i < 200; i++) {
+            copies.add(whitespaceSubmissionFromString("Copy " + i, "the quick brown fox jumps over the lazy dog"));
+        }
+
+        Set<Pair<Submission, Submission>> pairs = new HashSet<>();
+        for(int i = 0; i < copies.size(); i++) {
+            for(int j = i + 1; j < copies.size(); j++) {
+                pairs.add(Pair.of(copies.get(i), copies.get(j)));
+            }
+        }
+
+        assertEquals(pairs, new LshCandidateGenerator(0.0).selectCandidates(pairs));
+    }
+
+    @Test
+    public void TestEmptySubmissionsNotSelected() {
+        Submission otherEmpty = whitespaceSubmissionFromString("Other Empty", "");
+
+        Set<Pair<Submission, Submission>> pairs = setFromElements(Pair.of(empty, otherEmpty),
+                Pair.of(empty, original));
+
+        assertTrue(new LshCandidateGenerator(0.0).selectCandidates(pairs).isEmpty());
+    }
+
+    @Test
+    public void TestFullAuditSelectsEveryPair() {
+        Set<Pair<Submission, Submission>> pairs = setFromElements(Pair.of(original, nearCopy),
+                Pair.of(original, unrelated), Pair.of(nearCopy, unrelated), Pair.of(empty, unrelated));
+
+        assertEquals(pairs, new LshCandidateGenerator(1.0).selectCandidates(pairs));
+    }
+
+    @Test
+    public void TestAuditIndependentOfPairOrder() {
+        Set<Pair<Submission, Submission>> pairs = new HashSet<>();
+        Set<Pair<Submission, Submission>> reversed = new HashSet<>();
+        for(int i = 0; i < 50; i++) {
+            Submission a = whitespaceSubmissionFromString("A" + i, "a" + i);
+            Submission b = whitespaceSubmissionFromString("B" + i, "b" + i);
+
+            pairs.add(Pair.of(a, b));
+            reversed.add(Pair.of(b, a));
+        }
+
+        LshCandidateGenerator generator = new LshCandidateGenerator(0.5);
+        Set<Pair<Submission, Submission>> audited = generator.selectCandidates(pairs);
+        Set<Pair<Submission, Submission>> auditedReversed = generator.selectCandidates(reversed);
+
+        assertEquals(audited.size(), auditedReversed.size());
+        for(Pair<Submission, Submission> pair : audited) {
+            assertTrue(auditedReversed.contains(Pair.of(pair.getRight(), pair.getLeft())));
+        }
+    }
+
+    @Test
+    public void TestEqualGeneratorsEqual() {
+        assertEquals(new LshCandidateGenerator(0.25), new LshCandidateGenerator(0.25));
+        assertEquals(new LshCandidateGenerator(0.25).hashCode(), new LshCandidateGenerator(0.25).hashCode());
+    }
+}
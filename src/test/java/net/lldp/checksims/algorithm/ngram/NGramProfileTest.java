@@ -0,0 +1,125 @@
+/*
+ * CDDL HEADER START
+ *
+ * The contents of this file are subject to the terms of the
+ * Common Development and Distribution License (the "License").
+ * You may not use this file except in compliance with the License.
+ *
+ * See LICENSE.txt included in this distribution for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing Covered Code, include this CDDL HEADER in each
+ * file and include the License file at LICENSE.txt.
+ * If applicable, add the following below this CDDL HEADER, with the
+ * fields enclosed by brackets "[]" replaced with your own identifying
+ * information: Portions Copyright [yyyy] [name of copyright owner]
+ *
+ * CDDL HEADER END
+ *
+ * Copyright (c) 2014-2015 Nicholas DeMarinis, Matthew Heon, and Dolan Murvihill
+ */
+
+package net.lldp.checksims.algorithm.ngram;
+
+import net.lldp.checksims.testutil.TokenUtils;
+import net.lldp.checksims.token.TokenList;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests for n-gram profiles
+ */
+public class NGramProfileTest {
+    @Rule
+    public ExpectedException expectedEx = ExpectedException.none();
+
+    private static TokenList words(String content) {
+        return TokenUtils.makeTokenListWhitespace(content.split(" "));
+    }
+
+    @Test
+    public void TestZeroLengthThrowsException() {
+        expectedEx.expect(IllegalArgumentException.class);
+
+        NGramProfile.of(words("a b c"), 0);
+    }
+
+    @Test
+    public void TestRepeatedNGramsCountedOnce() {
+        NGramProfile profile = NGramProfile.of(words("a b a b a b"), 2);
+
+        assertEquals(2, profile.getNumDistinct());
+    }
+
+    @Test
+    public void TestListShorterThanNGramEmpty() {
+        NGramProfile profile = NGramProfile.of(words("a b"), 3);
+
+        assertEquals(0, profile.getNumDistinct());
+        assertEquals(0.0, profile.jaccard(profile), 0.0);
+        assertEquals(0.0, profile.containment(profile), 0.0);
+    }
+
+    @Test
+    public void TestNGramsSpanningInvalidTokensSkipped() {
+        TokenList tokens = words("a b c d");
+        tokens.get(1).setValid(false);
+
+        assertEquals(1, NGramProfile.of(tokens, 2).getNumDistinct());
+    }
+
+    @Test
+    public void TestJaccardAndContainment() {
+        // Bigrams {ab, bc, cd} and {bc, cd, de, ef, fg}
+        NGramProfile small = NGramProfile.of(words("a b c d"), 2);
+        NGramProfile large = NGramProfile.of(words("b c d e f g"), 2);
+
+        assertEquals(2, small.intersectionSize(large));
+        assertEquals(2.0 / 6.0, small.jaccard(large), 1e-9);
+        assertEquals(2.0 / 6.0, large.jaccard(small), 1e-9);
+        assertEquals(2.0 / 3.0, small.containment(large), 1e-9);
+        assertEquals(2.0 / 5.0, large.containment(small), 1e-9);
+    }
+
+    @Test
+    public void TestJaccardAndContainmentFromCounts() {
+        assertEquals(2.0 / 6.0, NGramProfile.jaccard(2, 3, 5), 1e-9);
+        assertEquals(2.0 / 3.0, NGramProfile.containment(2, 3), 1e-9);
+        assertEquals(0.0, NGramProfile.jaccard(0, 0, 0), 0.0);
+        assertEquals(0.0, NGramProfile.containment(0, 0), 0.0);
+    }
+
+    @Test
+    public void TestSharedHashesSortedAndDistinct() {
+        // Bigrams {xy, yx, yz} and {xy, yz, zx}, with xy repeated in both
+        NGramProfile a = NGramProfile.of(words("x y x y z"), 2);
+        NGramProfile b = NGramProfile.of(words("x y z x y"), 2);
+
+        long[] shared = a.sharedHashes(b);
+
+        assertEquals(2, shared.length);
+        assertTrue(shared[0] < shared[1]);
+        assertArrayEquals(shared, b.sharedHashes(a));
+    }
+
+    @Test
+    public void TestMarkCoveredMarksEveryCopy() {
+        TokenList tokens = words("p a b q a b r");
+        NGramProfile profile = NGramProfile.of(tokens, 2);
+        NGramProfile other = NGramProfile.of(words("a b"), 2);
+
+        profile.markCovered(profile.sharedHashes(other), 2, tokens);
+
+        assertEquals(3, tokens.numValid());
+        assertTrue(tokens.get(0).isValid());
+        assertFalse(tokens.get(1).isValid());
+        assertFalse(tokens.get(5).isValid());
+        assertTrue(tokens.get(6).isValid());
+    }
+}
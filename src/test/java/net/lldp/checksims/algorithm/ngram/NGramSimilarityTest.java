@@ -0,0 +1,165 @@
+/*
+ * CDDL HEADER START
+ *
+ * The contents of this file are subject to the terms of the
+ * Common Development and Distribution License (the "License").
+ * You may not use this file except in compliance with the License.
+ *
+ * See LICENSE.txt included in this distribution for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing Covered Code, include this CDDL HEADER in each
+ * file and include the License file at LICENSE.txt.
+ * If applicable, add the following below this CDDL HEADER, with the
+ * fields enclosed by brackets "[]" replaced with your own identifying
+ * information: Portions Copyright [yyyy] [name of copyright owner]
+ *
+ * CDDL HEADER END
+ *
+ * Copyright (c) 2014-2015 Nicholas DeMarinis, Matthew Heon, and Dolan Murvihill
+ */
+
+package net.lldp.checksims.algorithm.ngram;
+
+import net.lldp.checksims.algorithm.AlgorithmResults;
+import net.lldp.checksims.submission.Submission;
+import net.lldp.checksims.token.TokenTypeMismatchException;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+
+import java.util.Set;
+
+import static net.lldp.checksims.testutil.AlgorithmUtils.*;
+import static net.lldp.checksims.testutil.SubmissionUtils.*;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests for the n-gram similarity detector
+ */
+public class NGramSimilarityTest {
+    private Submission empty;
+    private Submission typeMismatch;
+    private Submission oneToken;
+    private Submission hello;
+    private Submission world;
+    private Submission quickFox;
+    private Submission lazyFox;
+
+    private NGramSimilarity instance;
+
+    @Rule
+    public ExpectedException expectedEx = ExpectedException.none();
+
+    @Before
+    public void setUp() {
+        instance = NGramSimilarity.getInstance();
+
+        empty = whitespaceSubmissionFromString("Empty", "");
+        typeMismatch = lineSubmissionFromString("Type Mismatch", "hello");
+        oneToken = whitespaceSubmissionFromString("One Token", "hello");
+        hello = whitespaceSubmissionFromString("Hello", "hello there general kenobi");
+        world = whitespaceSubmissionFromString("World", "a whole new world to see");
+        quickFox = whitespaceSubmissionFromString("Quick Fox", "first the quick brown fox jumps over last");
+        lazyFox = whitespaceSubmissionFromString("Lazy Fox", "the quick brown fox jumps over the lazy dog");
+    }
+
+    @After
+    public void tearDown() {
+        instance.setNgramLength(NGramSimilarity.DEFAULT_NGRAM_LENGTH);
+    }
+
+    @Test(expected = TokenTypeMismatchException.class)
+    public void TestTokenTypeMismatchThrowsException() throws Exception {
+        instance.detectSimilarity(empty, typeMismatch);
+    }
+
+    @Test
+    public void TestOneEmptyOneNonEmptySubmissionsAreNotSimilar() throws Exception {
+        AlgorithmResults results = instance.detectSimilarity(empty, oneToken);
+
+        checkResultsNoMatch(results, empty, oneToken);
+    }
+
+    @Test
+    public void TestIdenticalNonEmptySubmissionsAreIdentical() throws Exception {
+        AlgorithmResults results = instance.detectSimilarity(oneToken, oneToken);
+
+        checkResultsIdenticalSubmissions(results, oneToken);
+    }
+
+    @Test
+    public void TestDifferentSubmissionsNoMatches() throws Exception {
+        AlgorithmResults results = instance.detectSimilarity(hello, world);
+
+        checkResultsNoMatch(results, hello, world);
+    }
+
+    @Test
+    public void TestSharedNGramsCovered() throws Exception {
+        // "the quick brown fox jumps over" gives the only n-grams common to both
+        AlgorithmResults results = instance.detectSimilarity(quickFox, lazyFox);
+
+        assertEquals(6, results.identicalTokensA);
+        assertEquals(6, results.identicalTokensB);
+        assertTrue(results.finalListA.get(0).isValid());
+        assertFalse(results.finalListA.get(1).isValid());
+        assertTrue(results.finalListB.get(6).isValid());
+    }
+
+    @Test
+    public void TestSetSimilarityGivenWithResults() throws Exception {
+        // 3 n-grams shared, of 5 in the first and 6 in the second
+        AlgorithmResults results = instance.detectSimilarity(quickFox, lazyFox);
+
+        assertEquals(3.0 / 8.0, results.getJaccard().getAsDouble(), 1e-9);
+        assertEquals(3.0 / 5.0, results.getContainmentA().getAsDouble(), 1e-9);
+        assertEquals(3.0 / 6.0, results.getContainmentB().getAsDouble(), 1e-9);
+    }
+
+    @Test
+    public void TestIdenticalSubmissionsFullySimilar() throws Exception {
+        AlgorithmResults results = instance.detectSimilarity(lazyFox, lazyFox);
+
+        assertEquals(1.0, results.getJaccard().getAsDouble(), 0.0);
+        assertEquals(1.0, results.getContainmentA().getAsDouble(), 0.0);
+    }
+
+    @Test
+    public void TestNGramLengthLongerThanCopyNoMatches() throws Exception {
+        instance.setNgramLength(7);
+
+        AlgorithmResults results = instance.detectSimilarity(quickFox, lazyFox);
+
+        checkResultsNoMatch(results, quickFox, lazyFox);
+    }
+
+    @Test
+    public void TestCorpusSameAsEachPair() throws Exception {
+        Set<AlgorithmResults> results = instance.detectSimilarity(setFromElements(quickFox, lazyFox, hello),
+                setFromElements(world, empty), 0.0);
+
+        assertEquals(9, results.size());
+        for(AlgorithmResults result : results) {
+            assertEquals(instance.detectSimilarity(result.a, result.b), result);
+        }
+    }
+
+    @Test
+    public void TestCorpusTokenTypeMismatchThrowsException() throws Exception {
+        expectedEx.expect(TokenTypeMismatchException.class);
+
+        instance.detectSimilarity(setFromElements(hello, typeMismatch), setFromElements(), 0.0);
+    }
+
+    @Test
+    public void TestSetNgramLengthZeroThrowsException() {
+        expectedEx.expect(IllegalArgumentException.class);
+
+        instance.setNgramLength(0);
+    }
+}
@@ -0,0 +1,223 @@
+/*
+ * CDDL HEADER START
+ *
+ * The contents of this file are subject to the terms of the
+ * Common Development and Distribution License (the "License").
+ * You may not use this file except in compliance with the License.
+ *
+ * See LICENSE.txt included in this distribution for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing Covered Code, include this CDDL HEADER in each
+ * file and include the License file at LICENSE.txt.
+ * If applicable, add the following below this CDDL HEADER, with the
+ * fields enclosed by brackets "[]" replaced with your own identifying
+ * information: Portions Copyright [yyyy] [name of copyright owner]
+ *
+ * CDDL HEADER END
+ *
+ * Copyright (c) 2014-2015 Nicholas DeMarinis, Matthew Heon, and Dolan Murvihill
+ */
+
+package net.lldp.checksims.algorithm.seedextend;
+
+import net.lldp.checksims.algorithm.smithwaterman.SmithWatermanAlgorithm;
+import net.lldp.checksims.testutil.TokenUtils;
+import net.lldp.checksims.token.TokenList;
+import net.lldp.checksims.token.TokenType;
+import org.apache.commons.lang3.tuple.Pair;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests for the seed-and-extend alignment implementation
+ */
+public class SeedExtendAlgorithmTest {
+    @Rule
+    public ExpectedException expectedEx = ExpectedException.none();
+
+    /**
+     * Build a character token list from a string.
+     */
+    private static TokenList fromString(String content) {
+        return TokenUtils.makeTokenListCharacter(content.chars().mapToObj((c) -> (char)c).toArray(Character[]::new));
+    }
+
+    /**
+     * Generate a random string of lowercase letters.
+     */
+    private static String randomString(Random random, int length) {
+        StringBuilder builder = new StringBuilder();
+
+        for(int i = 0; i < length; i++) {
+            builder.append((char)('a' + random.nextInt(26)));
+        }
+
+        return builder.toString();
+    }
+
+    /**
+     * Copy a string, changing, inserting and deleting characters at random - as near-duplicate submissions would.
+     */
+    private static String mutate(Random random, String original) {
+        StringBuilder builder = new StringBuilder();
+
+        for(char c : original.toCharArray()) {
+            int roll = random.nextInt(40);
+
+            if(roll == 0) {
+                builder.append((char)('a' + random.nextInt(26)));
+            } else if(roll == 1) {
+                builder.append(c).append((char)('a' + random.nextInt(26)));
+            } else if(roll != 2) {
+                builder.append(c);
+            }
+        }
+
+        return builder.toString();
+    }
+
+    private static long countInvalid(TokenList list) {
+        return list.stream().filter((token) -> !token.isValid()).count();
+    }
+
+    private static void checkValidity(TokenList expected, TokenList actual) {
+        assertEquals(expected.size(), actual.size());
+
+        for(int i = 0; i < expected.size(); i++) {
+            assertEquals("Validity differs at token " + i, expected.get(i).isValid(), actual.get(i).isValid());
+        }
+    }
+
+    @Test
+    public void TestConstructorNullListAThrowsException() {
+        expectedEx.expect(NullPointerException.class);
+
+        new SeedExtendAlgorithm(null, fromString("hello"), 2, 2);
+    }
+
+    @Test
+    public void TestConstructorEmptyListThrowsException() {
+        expectedEx.expect(IllegalArgumentException.class);
+
+        new SeedExtendAlgorithm(fromString("hello"), new TokenList(TokenType.CHARACTER), 2, 2);
+    }
+
+    @Test
+    public void TestConstructorZeroSeedLengthThrowsException() {
+        expectedEx.expect(IllegalArgumentException.class);
+
+        new SeedExtendAlgorithm(fromString("hello"), fromString("hello"), 0, 2);
+    }
+
+    @Test
+    public void TestConstructorZeroExtensionThrowsException() {
+        expectedEx.expect(IllegalArgumentException.class);
+
+        new SeedExtendAlgorithm(fromString("hello"), fromString("hello"), 2, 0);
+    }
+
+    @Test
+    public void TestDoesNotModifyInputLists() throws Exception {
+        TokenList a = fromString("hello world");
+        TokenList b = fromString("hello there");
+
+        new SeedExtendAlgorithm(a, b, 3, 4).computeAlignment();
+
+        assertEquals(0, countInvalid(a));
+        assertEquals(0, countInvalid(b));
+    }
+
+    @Test
+    public void TestNoSeedsNoMatch() throws Exception {
+        SeedExtendAlgorithm algorithm = new SeedExtendAlgorithm(fromString("abcdefgh"), fromString("hgfedcba"), 3, 4);
+
+        Pair<TokenList, TokenList> results = algorithm.computeAlignment();
+
+        assertEquals(0, algorithm.getNumSeeds());
+        assertEquals(0, countInvalid(results.getLeft()));
+        assertEquals(0, countInvalid(results.getRight()));
+    }
+
+    @Test
+    public void TestCopiedBlockSameAsSmithWaterman() throws Exception {
+        TokenList a = fromString("qqqqqqqq the quick brown fox zzzzzzzz");
+        TokenList b = fromString("jumps over the quick brown fox lazy dog");
+
+        Pair<TokenList, TokenList> expected = new SmithWatermanAlgorithm(a, b).computeSmithWatermanAlignment();
+        Pair<TokenList, TokenList> results = new SeedExtendAlgorithm(a, b, 6, 8).computeAlignment();
+
+        checkValidity(expected.getLeft(), results.getLeft());
+        checkValidity(expected.getRight(), results.getRight());
+    }
+
+    @Test
+    public void TestMovedBlockFound() throws Exception {
+        // The copied block is over a thousand tokens further along in B, well outside any band around the diagonal
+        Random random = new Random(13);
+        String block = randomString(random, 100);
+        TokenList a = fromString(block + randomString(random, 1200));
+        TokenList b = fromString(randomString(random, 1200) + block);
+
+        Pair<TokenList, TokenList> results = new SeedExtendAlgorithm(a, b, 8, 16).computeAlignment();
+
+        for(int i = 0; i < block.length(); i++) {
+            assertTrue("Token " + i + " of A not matched", !results.getLeft().get(i).isValid());
+            assertTrue("Token " + i + " of block in B not matched", !results.getRight().get(1200 + i).isValid());
+        }
+    }
+
+    @Test
+    public void TestFrequentKGramsNotUsedAsSeeds() throws Exception {
+        StringBuilder repeated = new StringBuilder();
+        for(int i = 0; i <= SeedExtendAlgorithm.MAX_SEED_OCCURRENCES + 8; i++) {
+            repeated.append('a');
+        }
+
+        SeedExtendAlgorithm algorithm = new SeedExtendAlgorithm(fromString(repeated.toString()),
+                fromString(repeated.toString()), 4, 4);
+
+        Pair<TokenList, TokenList> results = algorithm.computeAlignment();
+
+        assertEquals(0, algorithm.getNumSeeds());
+        assertEquals(0, countInvalid(results.getLeft()));
+    }
+
+    @Test
+    public void TestNearDuplicateFindsMostOfSmithWatermanMatch() throws Exception {
+        Random random = new Random(42);
+        String original = randomString(random, 1500);
+        TokenList a = fromString(original);
+        TokenList b = fromString(mutate(random, original));
+
+        long expected = countInvalid(new SmithWatermanAlgorithm(a, b).computeSmithWatermanAlignment().getLeft());
+
+        SeedExtendAlgorithm algorithm = new SeedExtendAlgorithm(a, b, 8, 32);
+        long found = countInvalid(algorithm.computeAlignment().getLeft());
+
+        assertTrue("Found " + found + " of " + expected + " matched tokens", found >= expected * 9 / 10);
+        assertTrue(found <= a.size());
+    }
+
+    @Test
+    public void TestSeedsOnOneDiagonalChainedTogether() {
+        // Identical apart from every 20th token, so each stretch between changes is one run on the main diagonal
+        Random random = new Random(7);
+        String original = randomString(random, 400);
+        StringBuilder changed = new StringBuilder(original);
+        for(int i = 10; i < changed.length(); i += 20) {
+            changed.setCharAt(i, changed.charAt(i) == 'a' ? 'b' : 'a');
+        }
+
+        SeedExtendAlgorithm algorithm = new SeedExtendAlgorithm(fromString(original), fromString(changed.toString()),
+                8, 16);
+
+        assertEquals(1, algorithm.chainRuns(algorithm.findRuns()).size());
+    }
+}
@@ -29,7 +29,9 @@ import org.junit.rules.ExpectedException;
 
 import static net.lldp.checksims.testutil.SubmissionUtils.charSubmissionFromString;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
 
 /**
  * Tests for MatrixEntry
@@ -117,4 +119,27 @@ public class MatrixEntryTest {
         assertEquals(1, test1.getTotalTokens());
         assertEquals(2, test2.getTotalTokens());
     }
+
+    @Test
+    public void TestNotComparedWithTokensThrowsException() {
+        expectedEx.expect(IllegalArgumentException.class);
+
+        new MatrixEntry(ab, a, 1, false);
+    }
+
+    @Test
+    public void TestNotComparedUnequalToCompared() {
+        MatrixEntry compared = new MatrixEntry(a, b, 0);
+        MatrixEntry notCompared = new MatrixEntry(a, b, 0, false);
+
+        assertTrue(compared.isCompared());
+        assertFalse(notCompared.isCompared());
+        assertNotEquals(compared, notCompared);
+    }
+
+    @Test
+    public void TestEngine() {
+        assertFalse(new MatrixEntry(a, b, 0).getEngine().isPresent());
+        assertEquals("engine", new MatrixEntry(a, b, 0, true, "engine").getEngine().get());
+    }
 }
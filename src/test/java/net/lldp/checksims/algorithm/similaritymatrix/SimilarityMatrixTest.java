@@ -344,6 +344,15 @@ public class SimilarityMatrixTest {
         assertEquals(baseMatrixTwoSubmission, SimilarityMatrix.generateMatrix(setFromElements(a, b), singleton(aToB)));
     }
 
+    @Test
+    public void TestGenerateMatrixFromEqualSubmissionInstances() throws Exception {
+        Submission aCopy = charSubmissionFromString("A", "A");
+        Submission bCopy = charSubmissionFromString("B", "B");
+
+        assertEquals(baseMatrixTwoSubmission, SimilarityMatrix.generateMatrix(setFromElements(aCopy, bCopy),
+                singleton(aToB)));
+    }
+
     @Test
     public void TestGenerateMatrixArchiveNullSubmissions() throws Exception {
         expectedEx.expect(NullPointerException.class);
@@ -148,4 +148,22 @@ public class MatrixThresholdPrinterTest {
 
         assertEquals(expected, instance.printMatrix(twoSignificant));
     }
+
+    @Test
+    public void TestPrintNamesEngine() throws Exception {
+        Submission abcd = SubmissionUtils.charSubmissionFromString("ABCD", "ABCD");
+        Submission abcd2 = SubmissionUtils.charSubmissionFromString("ABCD2", "ABCD");
+
+        TokenList abcdInval = TokenList.cloneTokenList(abcd.getContentAsTokens());
+        abcdInval.stream().forEach((token) -> token.setValid(false));
+
+        AlgorithmResults results = new AlgorithmResults(abcd, abcd2, abcdInval, abcdInval).withEngine("engine");
+        SimilarityMatrix matrix = SimilarityMatrix.generateMatrix(SubmissionUtils.setFromElements(abcd, abcd2),
+                singleton(results));
+
+        String expected = "Found match of 100% (inverse match 100%) between submissions \"ABCD\" and \"ABCD2\" "
+                + "(scored by engine)\n";
+
+        assertEquals(expected, instance.printMatrix(matrix));
+    }
 }
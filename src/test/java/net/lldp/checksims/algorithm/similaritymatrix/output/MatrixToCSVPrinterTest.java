@@ -110,4 +110,17 @@ public class MatrixToCSVPrinterTest {
 
         assertEquals(expected, instance.printMatrix(twoByThree));
     }
+
+    @Test
+    public void TestPrinterMarksPairsNotCompared() throws Exception {
+        Submission abcd = charSubmissionFromString("ABCD", "ABCD");
+        Submission wxyz = charSubmissionFromString("WXYZ", "WXYZ");
+
+        SimilarityMatrix matrix = SimilarityMatrix.generateMatrix(setFromElements(abcd, wxyz),
+                singleton(AlgorithmResults.notCompared(abcd, wxyz)));
+
+        String expected = "NULL,\"ABCD\",\"WXYZ\"\n\"ABCD\",1.00,NULL\n\"WXYZ\",NULL,1.00\n";
+
+        assertEquals(expected, instance.printMatrix(matrix));
+    }
 }
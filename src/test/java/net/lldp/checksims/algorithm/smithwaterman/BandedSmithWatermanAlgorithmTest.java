@@ -0,0 +1,222 @@
+/*
+ * CDDL HEADER START
+ *
+ * The contents of this file are subject to the terms of the
+ * Common Development and Distribution License (the "License").
+ * You may not use this file except in compliance with the License.
+ *
+ * See LICENSE.txt included in this distribution for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing Covered Code, include this CDDL HEADER in each
+ * file and include the License file at LICENSE.txt.
+ * If applicable, add the following below this CDDL HEADER, with the
+ * fields enclosed by brackets "[]" replaced with your own identifying
+ * information: Portions Copyright [yyyy] [name of copyright owner]
+ *
+ * CDDL HEADER END
+ *
+ * Copyright (c) 2014-2015 Nicholas DeMarinis, Matthew Heon, and Dolan Murvihill
+ */
+
+package net.lldp.checksims.algorithm.smithwaterman;
+
+import net.lldp.checksims.token.TokenList;
+import net.lldp.checksims.token.TokenType;
+import net.lldp.checksims.testutil.TokenUtils;
+import org.apache.commons.lang3.tuple.Pair;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests for the banded Smith-Waterman implementation
+ */
+public class BandedSmithWatermanAlgorithmTest {
+    @Rule
+    public ExpectedException expectedEx = ExpectedException.none();
+
+    /**
+     * Build a character token list from a string.
+     */
+    private static TokenList fromString(String content) {
+        return TokenUtils.makeTokenListCharacter(content.chars().mapToObj((c) -> (char)c).toArray(Character[]::new));
+    }
+
+    /**
+     * Generate a random string over a small alphabet.
+     */
+    private static String randomString(Random random, int length) {
+        StringBuilder builder = new StringBuilder();
+
+        for(int i = 0; i < length; i++) {
+            builder.append((char)('a' + random.nextInt(4)));
+        }
+
+        return builder.toString();
+    }
+
+    /**
+     * Copy a string, changing, inserting and deleting characters at random - as near-duplicate submissions would.
+     */
+    private static String mutate(Random random, String original) {
+        StringBuilder builder = new StringBuilder();
+
+        for(char c : original.toCharArray()) {
+            int roll = random.nextInt(20);
+
+            if(roll == 0) {
+                builder.append((char)('a' + random.nextInt(4)));
+            } else if(roll == 1) {
+                builder.append(c).append((char)('a' + random.nextInt(4)));
+            } else if(roll != 2) {
+                builder.append(c);
+            }
+        }
+
+        return builder.toString();
+    }
+
+    private static void checkValidity(TokenList expected, TokenList actual) {
+        assertEquals(expected.size(), actual.size());
+
+        for(int i = 0; i < expected.size(); i++) {
+            assertEquals("Validity differs at token " + i, expected.get(i).isValid(), actual.get(i).isValid());
+        }
+    }
+
+    @Test
+    public void TestConstructorNullListAThrowsException() {
+        expectedEx.expect(NullPointerException.class);
+
+        new BandedSmithWatermanAlgorithm(null, fromString("hello"), 5);
+    }
+
+    @Test
+    public void TestConstructorEmptyListThrowsException() {
+        expectedEx.expect(IllegalArgumentException.class);
+
+        new BandedSmithWatermanAlgorithm(new TokenList(TokenType.CHARACTER), fromString("hello"), 5);
+    }
+
+    @Test
+    public void TestConstructorZeroBandWidthThrowsException() {
+        expectedEx.expect(IllegalArgumentException.class);
+
+        new BandedSmithWatermanAlgorithm(fromString("hello"), fromString("hello"), 0);
+    }
+
+    @Test
+    public void TestOutsideBandReadsAsZero() {
+        BandedSmithWatermanAlgorithm algorithm = new BandedSmithWatermanAlgorithm(fromString("aaaaaaaaaa"),
+                fromString("aaaaaaaaaa"), 2);
+
+        algorithm.computeRows(1, 10, 1, 10, 1, 10);
+
+        assertEquals(5, algorithm.getS(5, 5));
+        assertEquals(0, algorithm.getS(5, 8));
+        assertEquals(0, algorithm.getS(0, 3));
+        assertTrue(algorithm.isBandEdge(5, 7));
+        assertTrue(algorithm.isBandEdge(5, 3));
+        assertFalse(algorithm.isBandEdge(5, 5));
+        assertFalse(algorithm.isBandEdge(1, 1));
+    }
+
+    @Test
+    public void TestNearDiagonalCopyFound() throws Exception {
+        BandedSmithWatermanAlgorithm algorithm = new BandedSmithWatermanAlgorithm(fromString("xxhelloworldxx"),
+                fromString("yhelloworldyyy"), 2);
+
+        Pair<TokenList, TokenList> results = algorithm.computeSmithWatermanAlignment();
+
+        for(int i = 0; i < 14; i++) {
+            assertEquals(i >= 2 && i < 12, !results.getLeft().get(i).isValid());
+            assertEquals(i >= 1 && i < 11, !results.getRight().get(i).isValid());
+        }
+        assertEquals(0, algorithm.getClippedMatches());
+    }
+
+    @Test
+    public void TestMovedCopyOutsideBandMissed() throws Exception {
+        TokenList a = fromString("helloworldzzzzzzzzzzzzzzzzzzzz");
+        TokenList b = fromString("yyyyyyyyyyyyyyyyyyyyhelloworld");
+
+        Pair<TokenList, TokenList> results = new BandedSmithWatermanAlgorithm(a, b, 5).computeSmithWatermanAlignment();
+
+        results.getLeft().stream().forEach((token) -> assertTrue(token.isValid()));
+
+        // The full alignment finds it
+        Pair<TokenList, TokenList> full = new SmithWatermanAlgorithm(a, b).computeSmithWatermanAlignment();
+
+        assertFalse(full.getLeft().get(0).isValid());
+    }
+
+    @Test
+    public void TestMatchAlongBandEdgeClipped() throws Exception {
+        BandedSmithWatermanAlgorithm algorithm = new BandedSmithWatermanAlgorithm(fromString("helloworldzzzz"),
+                fromString("yyyyhelloworld"), 4);
+
+        algorithm.computeSmithWatermanAlignment();
+
+        assertEquals(1, algorithm.getClippedMatches());
+    }
+
+    @Test
+    public void TestFullWidthBandMatchesFullAlignment() throws Exception {
+        Random random = new Random(0xba4d);
+
+        for(int i = 0; i < 50; i++) {
+            String first = randomString(random, 20 + random.nextInt(150));
+            String second = mutate(random, first.substring(random.nextInt(first.length() / 2)))
+                    + randomString(random, random.nextInt(20));
+
+            TokenList a = fromString(first);
+            TokenList b = fromString(second);
+
+            Pair<TokenList, TokenList> expected = new SmithWatermanAlgorithm(a, b)
+                    .computeSmithWatermanAlignmentExhaustive();
+            BandedSmithWatermanAlgorithm banded = new BandedSmithWatermanAlgorithm(a, b,
+                    Math.max(a.size(), b.size()));
+            Pair<TokenList, TokenList> actual = banded.computeSmithWatermanAlignment();
+
+            checkValidity(expected.getLeft(), actual.getLeft());
+            checkValidity(expected.getRight(), actual.getRight());
+            assertEquals(0, banded.getClippedMatches());
+        }
+    }
+
+    @Test
+    public void TestNarrowBandMatchesExhaustiveBanded() throws Exception {
+        Random random = new Random(0xed9e);
+
+        for(int i = 0; i < 100; i++) {
+            String first = randomString(random, 20 + random.nextInt(150));
+            String second = mutate(random, mutate(random, first));
+
+            TokenList a = fromString(first);
+            TokenList b = fromString(second);
+
+            // Start with some tokens already invalid, as when other algorithms have run first
+            if(i % 4 == 0) {
+                a.stream().filter((token) -> random.nextInt(6) == 0).forEach((token) -> token.setValid(false));
+            }
+
+            int bandWidth = 1 + random.nextInt(12);
+
+            BandedSmithWatermanAlgorithm exhaustive = new BandedSmithWatermanAlgorithm(a, b, bandWidth);
+            Pair<TokenList, TokenList> expected = exhaustive.computeSmithWatermanAlignmentExhaustive();
+            BandedSmithWatermanAlgorithm incremental = new BandedSmithWatermanAlgorithm(a, b, bandWidth);
+            Pair<TokenList, TokenList> actual = incremental.computeSmithWatermanAlignment();
+
+            checkValidity(expected.getLeft(), actual.getLeft());
+            checkValidity(expected.getRight(), actual.getRight());
+            assertEquals(exhaustive.getClippedMatches(), incremental.getClippedMatches());
+        }
+    }
+}
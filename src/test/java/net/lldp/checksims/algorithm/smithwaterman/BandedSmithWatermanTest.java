@@ -0,0 +1,126 @@
+/*
+ * CDDL HEADER START
+ *
+ * The contents of this file are subject to the terms of the
+ * Common Development and Distribution License (the "License").
+ * You may not use this file except in compliance with the License.
+ *
+ * See LICENSE.txt included in this distribution for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing Covered Code, include this CDDL HEADER in each
+ * file and include the License file at LICENSE.txt.
+ * If applicable, add the following below this CDDL HEADER, with the
+ * fields enclosed by brackets "[]" replaced with your own identifying
+ * information: Portions Copyright [yyyy] [name of copyright owner]
+ *
+ * CDDL HEADER END
+ *
+ * Copyright (c) 2014-2015 Nicholas DeMarinis, Matthew Heon, and Dolan Murvihill
+ */
+
+package net.lldp.checksims.algorithm.smithwaterman;
+
+import net.lldp.checksims.algorithm.AlgorithmResults;
+import net.lldp.checksims.submission.Submission;
+import net.lldp.checksims.token.TokenTypeMismatchException;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+
+import static net.lldp.checksims.testutil.AlgorithmUtils.*;
+import static net.lldp.checksims.testutil.SubmissionUtils.*;
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Tests for the banded Smith-Waterman plagiarism detector
+ */
+public class BandedSmithWatermanTest {
+    private Submission empty;
+    private Submission typeMismatch;
+    private Submission oneToken;
+    private Submission hello;
+    private Submission world;
+    private Submission helloLongPauseWorld;
+    private Submission wrappedHelloPauseWorldIsWrapped;
+
+    private BandedSmithWaterman instance;
+
+    @Rule
+    public ExpectedException expectedEx = ExpectedException.none();
+
+    @Before
+    public void setUp() {
+        instance = BandedSmithWaterman.getInstance();
+
+        empty = whitespaceSubmissionFromString("Empty", "");
+        typeMismatch = lineSubmissionFromString("Type Mismatch", "hello");
+        oneToken = whitespaceSubmissionFromString("One Token", "hello");
+        hello = charSubmissionFromString("Hello", "hello");
+        world = charSubmissionFromString("World", "world");
+        helloLongPauseWorld = charSubmissionFromString("Hello World with Pause", "hello long pause world");
+        wrappedHelloPauseWorldIsWrapped = charSubmissionFromString("Wrapped Hello World with Pause", "wrapped hello random world is wrapped");
+    }
+
+    @After
+    public void tearDown() {
+        instance.setBandWidth(BandedSmithWaterman.DEFAULT_BAND_WIDTH);
+    }
+
+    @Test(expected = TokenTypeMismatchException.class)
+    public void TestTokenTypeMismatchThrowsException() throws Exception {
+        instance.detectSimilarity(empty, typeMismatch);
+    }
+
+    @Test
+    public void TestOneEmptyOneNonEmptySubmissionsAreNotSimilar() throws Exception {
+        AlgorithmResults results = instance.detectSimilarity(empty, oneToken);
+
+        checkResultsNoMatch(results, empty, oneToken);
+    }
+
+    @Test
+    public void TestIdenticalNonEmptySubmissionsAreIdentical() throws Exception {
+        AlgorithmResults results = instance.detectSimilarity(oneToken, oneToken);
+
+        checkResultsIdenticalSubmissions(results, oneToken);
+    }
+
+    @Test
+    public void TestDifferentSubmissionsNoMatches() throws Exception {
+        AlgorithmResults results = instance.detectSimilarity(hello, world);
+
+        checkResultsNoMatch(results, hello, world);
+    }
+
+    @Test
+    public void TestWideBandSameAsSmithWaterman() throws Exception {
+        AlgorithmResults expected = SmithWaterman.getInstance().detectSimilarity(helloLongPauseWorld,
+                wrappedHelloPauseWorldIsWrapped);
+
+        AlgorithmResults results = instance.detectSimilarity(helloLongPauseWorld, wrappedHelloPauseWorldIsWrapped);
+
+        checkResults(results, helloLongPauseWorld, wrappedHelloPauseWorldIsWrapped, expected.finalListA,
+                expected.finalListB);
+    }
+
+    @Test
+    public void TestNarrowBandMissesMovedMatch() throws Exception {
+        // "hello" is 8 tokens further along in the second submission, so a band of 2 cannot reach it
+        instance.setBandWidth(2);
+
+        AlgorithmResults results = instance.detectSimilarity(helloLongPauseWorld, wrappedHelloPauseWorldIsWrapped);
+
+        assertEquals(helloLongPauseWorld.getNumTokens(), results.finalListA.stream().filter((t) -> t.isValid())
+                .count());
+    }
+
+    @Test
+    public void TestSetBandWidthZeroThrowsException() {
+        expectedEx.expect(IllegalArgumentException.class);
+
+        instance.setBandWidth(0);
+    }
+}
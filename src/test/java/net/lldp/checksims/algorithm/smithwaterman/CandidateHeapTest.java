@@ -0,0 +1,200 @@
+/*
+ * CDDL HEADER START
+ *
+ * The contents of this file are subject to the terms of the
+ * Common Development and Distribution License (the "License").
+ * You may not use this file except in compliance with the License.
+ *
+ * See LICENSE.txt included in this distribution for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing Covered Code, include this CDDL HEADER in each
+ * file and include the License file at LICENSE.txt.
+ * If applicable, add the following below this CDDL HEADER, with the
+ * fields enclosed by brackets "[]" replaced with your own identifying
+ * information: Portions Copyright [yyyy] [name of copyright owner]
+ *
+ * CDDL HEADER END
+ *
+ * Copyright (c) 2014-2015 Nicholas DeMarinis, Matthew Heon, and Dolan Murvihill
+ */
+
+package net.lldp.checksims.algorithm.smithwaterman;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Random;
+import java.util.Set;
+
+import static net.lldp.checksims.testutil.SubmissionUtils.setFromElements;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests for the Smith-Waterman candidate heap
+ */
+public class CandidateHeapTest {
+    private CandidateHeap heap;
+
+    @Rule
+    public ExpectedException expectedEx = ExpectedException.none();
+
+    @Before
+    public void setUp() {
+        heap = new CandidateHeap();
+    }
+
+    @Test
+    public void TestNewHeapIsEmpty() {
+        assertTrue(heap.isEmpty());
+        assertEquals(0, heap.size());
+        assertTrue(heap.toMap().isEmpty());
+    }
+
+    @Test
+    public void TestPeekEmptyThrowsException() {
+        expectedEx.expect(NoSuchElementException.class);
+
+        heap.peekScore();
+    }
+
+    @Test
+    public void TestPollEmptyThrowsException() {
+        expectedEx.expect(NoSuchElementException.class);
+
+        heap.poll();
+    }
+
+    @Test
+    public void TestAddZeroScoreThrowsException() {
+        expectedEx.expect(IllegalArgumentException.class);
+
+        heap.add(0, 1, 1);
+    }
+
+    @Test
+    public void TestAddNegativeCoordinateThrowsException() {
+        expectedEx.expect(IllegalArgumentException.class);
+
+        heap.add(5, -1, 1);
+    }
+
+    @Test
+    public void TestHeadIsHighestScore() {
+        heap.add(5, 1, 1);
+        heap.add(9, 7, 7);
+        heap.add(6, 2, 2);
+
+        assertEquals(9, heap.peekScore());
+        assertEquals(7, heap.peekX());
+        assertEquals(7, heap.peekY());
+    }
+
+    @Test
+    public void TestTiesBrokenByLowestXThenY() {
+        heap.add(5, 3, 1);
+        heap.add(5, 2, 7);
+        heap.add(5, 2, 5);
+        heap.add(5, 4, 0);
+
+        assertEquals(2, heap.peekX());
+        assertEquals(5, heap.peekY());
+
+        heap.poll();
+
+        assertEquals(2, heap.peekX());
+        assertEquals(7, heap.peekY());
+    }
+
+    @Test
+    public void TestPollMovesToNextBucket() {
+        heap.add(5, 1, 1);
+        heap.add(12, 2, 2);
+
+        heap.poll();
+
+        assertEquals(5, heap.peekScore());
+        assertEquals(1, heap.size());
+
+        heap.poll();
+
+        assertTrue(heap.isEmpty());
+    }
+
+    @Test
+    public void TestClearEmptiesHeap() {
+        heap.add(5, 1, 1);
+        heap.add(40, 2, 2);
+
+        heap.clear();
+
+        assertTrue(heap.isEmpty());
+
+        heap.add(6, 3, 3);
+
+        assertEquals(6, heap.peekScore());
+    }
+
+    @Test
+    public void TestDuplicatesKeptUntilPolled() {
+        heap.add(5, 1, 1);
+        heap.add(5, 1, 1);
+
+        assertEquals(2, heap.size());
+
+        heap.poll();
+
+        assertFalse(heap.isEmpty());
+        assertEquals(1, heap.peekX());
+    }
+
+    @Test
+    public void TestToMap() {
+        heap.add(5, 1, 1);
+        heap.add(5, 2, 2);
+        heap.add(6, 3, 3);
+
+        Map<Integer, Set<Coordinate>> expected = new HashMap<>();
+        expected.put(5, setFromElements(Coordinate.of(1, 1), Coordinate.of(2, 2)));
+        expected.put(6, setFromElements(Coordinate.of(3, 3)));
+
+        assertEquals(expected, heap.toMap());
+    }
+
+    @Test
+    public void TestRandomOrderMatchesSort() {
+        Random random = new Random(1234);
+        long[] expected = new long[2000];
+
+        for(int i = 0; i < expected.length; i++) {
+            int score = 5 + random.nextInt(50);
+            int x = random.nextInt(100);
+            int y = random.nextInt(100);
+
+            heap.add(score, x, y);
+
+            // Descending score, then ascending X and Y
+            expected[i] = ((long)(1000 - score) << 40) | ((long)x << 20) | y;
+        }
+
+        Arrays.sort(expected);
+
+        for(long next : expected) {
+            assertEquals(1000 - (int)(next >>> 40), heap.peekScore());
+            assertEquals((int)((next >>> 20) & 0xFFFFF), heap.peekX());
+            assertEquals((int)(next & 0xFFFFF), heap.peekY());
+
+            heap.poll();
+        }
+
+        assertTrue(heap.isEmpty());
+    }
+}
@@ -0,0 +1,225 @@
+/*
+ * CDDL HEADER START
+ *
+ * The contents of this file are subject to the terms of the
+ * Common Development and Distribution License (the "License").
+ * You may not use this file except in compliance with the License.
+ *
+ * See LICENSE.txt included in this distribution for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing Covered Code, include this CDDL HEADER in each
+ * file and include the License file at LICENSE.txt.
+ * If applicable, add the following below this CDDL HEADER, with the
+ * fields enclosed by brackets "[]" replaced with your own identifying
+ * information: Portions Copyright [yyyy] [name of copyright owner]
+ *
+ * CDDL HEADER END
+ *
+ * Copyright (c) 2014-2015 Nicholas DeMarinis, Matthew Heon, and Dolan Murvihill
+ */
+
+package net.lldp.checksims.algorithm.smithwaterman;
+
+import net.lldp.checksims.token.TokenList;
+import net.lldp.checksims.token.TokenType;
+import net.lldp.checksims.testutil.TokenUtils;
+import org.apache.commons.lang3.tuple.Pair;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests for the linear-space Smith-Waterman implementation
+ */
+public class LinearSpaceSmithWatermanAlgorithmTest {
+    @Rule
+    public ExpectedException expectedEx = ExpectedException.none();
+
+    /**
+     * Build a character token list from a string.
+     */
+    private static TokenList fromString(String content) {
+        return TokenUtils.makeTokenListCharacter(content.chars().mapToObj((c) -> (char)c).toArray(Character[]::new));
+    }
+
+    /**
+     * Generate a random string over a small alphabet, with part of a second string copied in so there is something
+     * worth matching.
+     */
+    private static String randomString(Random random, int length, String toCopy) {
+        StringBuilder builder = new StringBuilder();
+
+        for(int i = 0; i < length; i++) {
+            builder.append((char)('a' + random.nextInt(4)));
+        }
+
+        if(toCopy != null && toCopy.length() > 1) {
+            int start = random.nextInt(toCopy.length() / 2);
+            int end = start + random.nextInt(toCopy.length() - start);
+            builder.insert(random.nextInt(builder.length()), toCopy.substring(start, end));
+        }
+
+        return builder.toString();
+    }
+
+    /**
+     * Check that the linear-space implementation produces exactly the results of the exhaustive implementation.
+     */
+    private static void checkMatchesExhaustive(TokenList a, TokenList b, int checkpointInterval) throws Exception {
+        Pair<TokenList, TokenList> expected = new SmithWatermanAlgorithm(a, b).computeSmithWatermanAlignmentExhaustive();
+        Pair<TokenList, TokenList> actual = new LinearSpaceSmithWatermanAlgorithm(a, b, checkpointInterval)
+                .computeSmithWatermanAlignment();
+
+        checkValidity(expected.getLeft(), actual.getLeft());
+        checkValidity(expected.getRight(), actual.getRight());
+    }
+
+    private static void checkValidity(TokenList expected, TokenList actual) {
+        assertEquals(expected.size(), actual.size());
+
+        for(int i = 0; i < expected.size(); i++) {
+            assertEquals("Validity differs at token " + i, expected.get(i).isValid(), actual.get(i).isValid());
+        }
+    }
+
+    @Test
+    public void TestConstructorNullListAThrowsException() {
+        expectedEx.expect(NullPointerException.class);
+
+        new LinearSpaceSmithWatermanAlgorithm(null, fromString("hello"));
+    }
+
+    @Test
+    public void TestConstructorEmptyListThrowsException() {
+        expectedEx.expect(IllegalArgumentException.class);
+
+        new LinearSpaceSmithWatermanAlgorithm(new TokenList(TokenType.CHARACTER), fromString("hello"));
+    }
+
+    @Test
+    public void TestConstructorZeroCheckpointIntervalThrowsException() {
+        expectedEx.expect(IllegalArgumentException.class);
+
+        new LinearSpaceSmithWatermanAlgorithm(fromString("hello"), fromString("hello"), 0);
+    }
+
+    @Test
+    public void TestScanNoMatchReturnsNull() {
+        LinearSpaceSmithWatermanAlgorithm algorithm = new LinearSpaceSmithWatermanAlgorithm(fromString("hello"),
+                fromString("world"));
+
+        assertEquals(null, algorithm.scan());
+    }
+
+    @Test
+    public void TestScanFindsMatchEndpoint() {
+        LinearSpaceSmithWatermanAlgorithm algorithm = new LinearSpaceSmithWatermanAlgorithm(fromString("xxhellox"),
+                fromString("yhelloyy"));
+
+        int[] endpoint = algorithm.scan();
+
+        assertEquals(7, endpoint[0]);
+        assertEquals(6, endpoint[1]);
+    }
+
+    @Test
+    public void TestTracebackInvalidatesMatch() {
+        LinearSpaceSmithWatermanAlgorithm algorithm = new LinearSpaceSmithWatermanAlgorithm(fromString("xxhellox"),
+                fromString("yhelloyy"), 2);
+
+        // Traceback recomputes rows from the checkpoints left by the scan
+        int[] endpoint = algorithm.scan();
+
+        assertEquals(5, algorithm.traceback(endpoint[0], endpoint[1]));
+
+        for(int i = 0; i < 8; i++) {
+            assertEquals(i >= 2 && i < 7, !algorithm.getXList().get(i).isValid());
+            assertEquals(i >= 1 && i < 6, !algorithm.getYList().get(i).isValid());
+        }
+    }
+
+    @Test
+    public void TestIdenticalListsFullyMatched() throws Exception {
+        checkMatchesExhaustive(fromString("hello world"), fromString("hello world"), 3);
+    }
+
+    @Test
+    public void TestTwoOverlaysMatchesExhaustive() throws Exception {
+        checkMatchesExhaustive(fromString("wrapped hello random world is wrapped"),
+                fromString("hello long pause world"), 4);
+    }
+
+    @Test
+    public void TestRandomListsMatchExhaustive() throws Exception {
+        Random random = new Random(0x5eed);
+
+        for(int i = 0; i < 50; i++) {
+            String first = randomString(random, 20 + random.nextInt(150), null);
+            String second = randomString(random, 20 + random.nextInt(150), first);
+
+            TokenList a = fromString(first);
+            TokenList b = fromString(second);
+
+            // Try every interval from one row per checkpoint to no checkpoints past row 0
+            checkMatchesExhaustive(a, b, 1);
+            checkMatchesExhaustive(a, b, 1 + random.nextInt(a.size()));
+            checkMatchesExhaustive(a, b, a.size() + 1);
+            checkMatchesExhaustive(b, a, 1 + random.nextInt(b.size()));
+        }
+    }
+
+    @Test
+    public void TestRandomListsWithInvalidTokensMatchExhaustive() throws Exception {
+        Random random = new Random(0xbad);
+
+        for(int i = 0; i < 20; i++) {
+            TokenList a = fromString(randomString(random, 30 + random.nextInt(100), null));
+            TokenList b = fromString(randomString(random, 30 + random.nextInt(100), null));
+
+            a.stream().filter((token) -> random.nextInt(5) == 0).forEach((token) -> token.setValid(false));
+
+            checkMatchesExhaustive(a, b, 1 + random.nextInt(10));
+        }
+    }
+
+    @Test
+    public void TestDisjointMatchesRescanOnlyChangedBlocks() throws Exception {
+        Random random = new Random(0xb10c);
+
+        // Several long copied sections, far apart in both lists, each separated by unrelated filler
+        StringBuilder first = new StringBuilder();
+        StringBuilder second = new StringBuilder();
+        for(int i = 0; i < 6; i++) {
+            StringBuilder section = new StringBuilder();
+            for(int j = 0; j < 40; j++) {
+                section.append((char)('a' + random.nextInt(8)));
+            }
+
+            first.append(section);
+            second.append(section);
+            for(int j = 0; j < 200; j++) {
+                first.append((char)('A' + random.nextInt(8)));
+                second.append((char)('0' + random.nextInt(8)));
+            }
+        }
+
+        TokenList a = fromString(first.toString());
+        TokenList b = fromString(second.toString());
+
+        checkMatchesExhaustive(a, b, 30);
+
+        LinearSpaceSmithWatermanAlgorithm algorithm = new LinearSpaceSmithWatermanAlgorithm(a, b, 30);
+        algorithm.computeSmithWatermanAlignment();
+
+        // Rescanning the whole table after each of the six matches would scan it seven times over
+        long tableCells = (long)a.size() * b.size();
+        assertTrue("Scanned " + algorithm.getCellsScanned() + " cells of a " + tableCells + " cell table",
+                algorithm.getCellsScanned() < 2 * tableCells);
+    }
+}
@@ -0,0 +1,191 @@
+/*
+ * CDDL HEADER START
+ *
+ * The contents of this file are subject to the terms of the
+ * Common Development and Distribution License (the "License").
+ * You may not use this file except in compliance with the License.
+ *
+ * See LICENSE.txt included in this distribution for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing Covered Code, include this CDDL HEADER in each
+ * file and include the License file at LICENSE.txt.
+ * If applicable, add the following below this CDDL HEADER, with the
+ * fields enclosed by brackets "[]" replaced with your own identifying
+ * information: Portions Copyright [yyyy] [name of copyright owner]
+ *
+ * CDDL HEADER END
+ *
+ * Copyright (c) 2014-2015 Nicholas DeMarinis, Matthew Heon, and Dolan Murvihill
+ */
+
+package net.lldp.checksims.algorithm.smithwaterman;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests for Smith-Waterman score table arenas
+ */
+public class ScoreTableArenaTest {
+    private ScoreTableArena arena;
+
+    @Rule
+    public ExpectedException expectedEx = ExpectedException.none();
+
+    @Before
+    public void setUp() {
+        arena = new ScoreTableArena(100);
+    }
+
+    @Test
+    public void TestNegativeMaxCellsThrowsException() {
+        expectedEx.expect(IllegalArgumentException.class);
+
+        new ScoreTableArena(-1);
+    }
+
+    @Test
+    public void TestSetNegativeMaxCellsThrowsException() {
+        expectedEx.expect(IllegalArgumentException.class);
+
+        arena.setMaxCells(-1);
+    }
+
+    @Test
+    public void TestBorrowZeroRowsThrowsException() {
+        expectedEx.expect(IllegalArgumentException.class);
+
+        arena.borrow(0, 1);
+    }
+
+    @Test
+    public void TestBorrowZeroColumnsThrowsException() {
+        expectedEx.expect(IllegalArgumentException.class);
+
+        arena.borrow(1, 0);
+    }
+
+    @Test
+    public void TestNewArenaIsEmpty() {
+        assertEquals(0, arena.getCells());
+        assertEquals(100, arena.getMaxCells());
+    }
+
+    @Test
+    public void TestBorrowGivesRequestedSize() {
+        assertTrue(arena.borrow(4, 6));
+
+        assertEquals(4, arena.getS().length);
+        assertEquals(4, arena.getM().length);
+        for(int x = 0; x < 4; x++) {
+            assertEquals(6, arena.getS()[x].length);
+            assertEquals(6, arena.getM()[x].length);
+        }
+        assertEquals(24, arena.getCells());
+    }
+
+    @Test
+    public void TestSmallerBorrowReusesTables() {
+        assertTrue(arena.borrow(8, 8));
+        char[][] s = arena.getS();
+        char[][] m = arena.getM();
+        char[] sRow = s[3];
+
+        assertTrue(arena.borrow(5, 3));
+
+        assertSame(s, arena.getS());
+        assertSame(m, arena.getM());
+        assertSame(sRow, arena.getS()[3]);
+        assertEquals(64, arena.getCells());
+    }
+
+    @Test
+    public void TestBorrowGrowsOnlyWhatIsNeeded() {
+        assertTrue(arena.borrow(4, 4));
+        char[] sRow = arena.getS()[1];
+
+        // Taller but narrower - existing rows are kept, new rows only as wide as needed
+        assertTrue(arena.borrow(6, 2));
+
+        assertSame(sRow, arena.getS()[1]);
+        assertEquals(6, arena.getS().length);
+        assertEquals(2, arena.getS()[5].length);
+        assertEquals(20, arena.getCells());
+    }
+
+    @Test
+    public void TestBorrowClearsFirstRowAndColumn() {
+        assertTrue(arena.borrow(5, 5));
+        for(int x = 0; x < 5; x++) {
+            for(int y = 0; y < 5; y++) {
+                arena.getS()[x][y] = 7;
+                arena.getM()[x][y] = 7;
+            }
+        }
+
+        assertTrue(arena.borrow(4, 3));
+
+        for(int y = 0; y < 3; y++) {
+            assertEquals(0, arena.getS()[0][y]);
+            assertEquals(0, arena.getM()[0][y]);
+        }
+        for(int x = 0; x < 4; x++) {
+            assertEquals(0, arena.getS()[x][0]);
+            assertEquals(0, arena.getM()[x][0]);
+        }
+
+        // Everything else is left to be overwritten
+        assertEquals(7, arena.getS()[1][1]);
+    }
+
+    @Test
+    public void TestBorrowOverLimitFails() {
+        assertTrue(arena.borrow(5, 5));
+        char[][] s = arena.getS();
+
+        assertFalse(arena.borrow(11, 10));
+
+        assertSame(s, arena.getS());
+        assertEquals(25, arena.getCells());
+    }
+
+    @Test
+    public void TestGrowingPastLimitStartsOver() {
+        assertTrue(arena.borrow(20, 5));
+
+        // Fits on its own, but not together with what is already held
+        assertTrue(arena.borrow(5, 20));
+
+        assertEquals(5, arena.getS().length);
+        assertEquals(20, arena.getS()[0].length);
+        assertEquals(100, arena.getCells());
+    }
+
+    @Test
+    public void TestLoweringLimitReleasesTables() {
+        assertTrue(arena.borrow(5, 5));
+
+        arena.setMaxCells(25);
+        assertEquals(25, arena.getCells());
+
+        arena.setMaxCells(24);
+        assertEquals(0, arena.getCells());
+        assertEquals(0, arena.getS().length);
+    }
+
+    @Test
+    public void TestRelease() {
+        assertTrue(arena.borrow(5, 5));
+
+        arena.release();
+
+        assertEquals(0, arena.getCells());
+        assertEquals(0, arena.getS().length);
+        assertEquals(0, arena.getM().length);
+    }
+}
@@ -23,6 +23,7 @@ package net.lldp.checksims.algorithm.smithwaterman;
 
 import net.lldp.checksims.token.TokenList;
 import net.lldp.checksims.token.TokenType;
+import net.lldp.checksims.util.primitive.LongList;
 import net.lldp.checksims.testutil.TokenUtils;
 import org.junit.Before;
 import org.junit.Rule;
@@ -30,6 +31,7 @@ import org.junit.Test;
 import org.junit.rules.ExpectedException;
 
 import java.util.*;
+import java.util.concurrent.ForkJoinPool;
 
 import static net.lldp.checksims.testutil.SubmissionUtils.setFromElements;
 import static net.lldp.checksims.testutil.TokenUtils.makeTokenListCharacter;
@@ -44,7 +46,7 @@ public class SmithWatermanAlgorithmTest {
     private TokenList bigTest1;
     private TokenList bigTest2;
 
-    private int[][] bigExpectedS;
+    private char[][] bigExpectedS;
 
     private SmithWatermanAlgorithm bigTest;
     private SmithWatermanAlgorithm helloTest;
@@ -65,7 +67,7 @@ public class SmithWatermanAlgorithmTest {
         bigTest = new SmithWatermanAlgorithm(bigTest1, bigTest2);
         helloTest = new SmithWatermanAlgorithm(hello, hello);
 
-        bigExpectedS = new int[][] {
+        bigExpectedS = new char[][] {
             { 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0 },
             { 0, 1, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0 },
             { 0, 0, 2, 1, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0 },
@@ -174,100 +176,6 @@ public class SmithWatermanAlgorithmTest {
         assertEquals(hello, helloTest.getYList());
     }
 
-    @Test
-    public void TestMergeCandidatesNull() {
-        expectedEx.expect(NullPointerException.class);
-
-        helloTest.mergeIntoCandidates(null);
-    }
-
-    @Test
-    public void TestMergeCandidatesEmpty() {
-        helloTest.mergeIntoCandidates(new HashMap<>());
-
-        assertTrue(helloTest.getCandidates().isEmpty());
-    }
-
-    @Test
-    public void TestMergeCandidatesIntoEmpty() {
-        Map<Integer, Set<Coordinate>> toMerge = new HashMap<>();
-        toMerge.put(5, setFromElements(Coordinate.of(1, 1), Coordinate.of(2, 2)));
-
-        helloTest.mergeIntoCandidates(toMerge);
-
-        assertEquals(toMerge, helloTest.getCandidates());
-    }
-
-    @Test
-    public void TestMergeCandidatesNoConflicts() {
-        Map<Integer, Set<Coordinate>> original = helloTest.getCandidates();
-        original.put(6, setFromElements(Coordinate.of(1, 1), Coordinate.of(2, 2)));
-
-        Map<Integer, Set<Coordinate>> toMerge = new HashMap<>();
-        toMerge.put(5, setFromElements(Coordinate.of(3, 3), Coordinate.of(4, 4), Coordinate.of(5, 5)));
-
-        Map<Integer, Set<Coordinate>> expected = new HashMap<>();
-        expected.put(6, original.get(6));
-        expected.put(5, toMerge.get(5));
-
-        helloTest.mergeIntoCandidates(toMerge);
-
-        assertEquals(expected, helloTest.getCandidates());
-    }
-
-    @Test
-    public void TestMergeCandidatesSameKey() {
-        Map<Integer, Set<Coordinate>> original = helloTest.getCandidates();
-        original.put(5, setFromElements(Coordinate.of(1, 1), Coordinate.of(2, 2)));
-
-        Map<Integer, Set<Coordinate>> toMerge = new HashMap<>();
-        toMerge.put(5, setFromElements(Coordinate.of(3, 3), Coordinate.of(4, 4), Coordinate.of(5, 5)));
-
-        Map<Integer, Set<Coordinate>> expected = new HashMap<>();
-        expected.put(5, setFromElements(Coordinate.of(1, 1), Coordinate.of(2, 2), Coordinate.of(3, 3),
-                Coordinate.of(4, 4), Coordinate.of(5, 5)));
-
-        helloTest.mergeIntoCandidates(toMerge);
-
-        assertEquals(expected, helloTest.getCandidates());
-    }
-
-    @Test
-    public void TestMergeCandidatesFollowsSetInvariants() {
-        Map<Integer, Set<Coordinate>> original = helloTest.getCandidates();
-        original.put(5, setFromElements(Coordinate.of(1, 1), Coordinate.of(2, 2)));
-
-        Map<Integer, Set<Coordinate>> toMerge = new HashMap<>();
-        toMerge.put(5, setFromElements(Coordinate.of(2, 2), Coordinate.of(4, 4), Coordinate.of(5, 5)));
-
-        Map<Integer, Set<Coordinate>> expected = new HashMap<>();
-        expected.put(5, setFromElements(Coordinate.of(1, 1), Coordinate.of(2, 2), Coordinate.of(4, 4),
-                Coordinate.of(5, 5)));
-
-        helloTest.mergeIntoCandidates(toMerge);
-
-        assertEquals(expected, helloTest.getCandidates());
-    }
-
-    @Test
-    public void TestMergeCandidatesDoesNotModifyExistingElements() {
-        Map<Integer, Set<Coordinate>> original = helloTest.getCandidates();
-        original.put(5, setFromElements(Coordinate.of(1, 1), Coordinate.of(2, 2)));
-        original.put(6, setFromElements(Coordinate.of(10, 10)));
-
-        Map<Integer, Set<Coordinate>> toMerge = new HashMap<>();
-        toMerge.put(5, setFromElements(Coordinate.of(3, 3), Coordinate.of(4, 4), Coordinate.of(5, 5)));
-
-        Map<Integer, Set<Coordinate>> expected = new HashMap<>();
-        expected.put(5, setFromElements(Coordinate.of(1, 1), Coordinate.of(2, 2), Coordinate.of(3, 3),
-                Coordinate.of(4, 4), Coordinate.of(5, 5)));
-        expected.put(6, setFromElements(Coordinate.of(10, 10)));
-
-        helloTest.mergeIntoCandidates(toMerge);
-
-        assertEquals(expected, helloTest.getCandidates());
-    }
-
     @Test
     public void TestComputeArraySubsetNullSubset() {
         expectedEx.expect(NullPointerException.class);
@@ -293,23 +201,23 @@ public class SmithWatermanAlgorithmTest {
     public void TestComputeArraySubsetOneRow() {
         helloTest.computeArraySubset(ArraySubset.of(1, 1, 2, 6));
 
-        int[][] expected = new int[6][6];
+        char[][] expected = new char[6][6];
         expected[1][1] = 1;
 
         assertTrue(Arrays.deepEquals(expected, helloTest.getS()));
-        assertTrue(Arrays.deepEquals(new int[6][6], helloTest.getM()));
+        assertTrue(Arrays.deepEquals(new char[6][6], helloTest.getM()));
     }
 
     @Test
     public void TestComputeArraySubsetTwoColumns() {
         helloTest.computeArraySubset(ArraySubset.of(1, 1, 6, 3));
 
-        int[][] expectedS = new int[6][6];
+        char[][] expectedS = new char[6][6];
         expectedS[1][1] = 1;
         expectedS[2][2] = 2;
         expectedS[3][2] = 1;
 
-        int[][] expectedM = new int[6][6];
+        char[][] expectedM = new char[6][6];
         expectedM[2][2] = 1;
         expectedM[3][2] = 2;
 
@@ -319,7 +227,7 @@ public class SmithWatermanAlgorithmTest {
 
     @Test
     public void TestComputeEntireArrayHello() {
-        int[][] expectedS = new int[][] {
+        char[][] expectedS = new char[][] {
                 { 0, 0, 0, 0, 0, 0 },
                 { 0, 1, 0, 0, 0, 0 },
                 { 0, 0, 2, 1, 0, 0 },
@@ -328,7 +236,7 @@ public class SmithWatermanAlgorithmTest {
                 { 0, 0, 0, 1, 3, 5 }
         };
 
-        int[][] expectedM = new int[][] {
+        char[][] expectedM = new char[][] {
                 { 0, 0, 0, 0, 0, 0 },
                 { 0, 0, 0, 0, 0, 0 },
                 { 0, 0, 1, 2, 0, 0 },
@@ -378,7 +286,7 @@ public class SmithWatermanAlgorithmTest {
 
         helloTest.computeArraySubset(ArraySubset.of(5, 5, 6, 6));
 
-        int[][] expectedS = new int[][] {
+        char[][] expectedS = new char[][] {
                 { 0, 0, 0, 0, 0, 0 },
                 { 0, 1, 0, 0, 0, 0 },
                 { 0, 0, 2, 1, 0, 0 },
@@ -387,7 +295,7 @@ public class SmithWatermanAlgorithmTest {
                 { 0, 0, 0, 1, 3, 3 }
         };
 
-        int[][] expectedM = new int[][] {
+        char[][] expectedM = new char[][] {
                 { 0, 0, 0, 0, 0, 0 },
                 { 0, 0, 0, 0, 0, 0 },
                 { 0, 0, 1, 2, 0, 0 },
@@ -572,246 +480,536 @@ public class SmithWatermanAlgorithmTest {
     }
 
     @Test
-    public void TestFilterPostDominatedNullFirst() {
-        expectedEx.expect(NullPointerException.class);
+    public void TestGetMaxAllZeroes() {
+        int max = SmithWatermanAlgorithm.getMaxOfInts(0, 0, 0);
 
-        helloTest.filterPostdominated(null, Coordinate.of(4, 5));
+        assertEquals(0, max);
     }
 
     @Test
-    public void TestFilterPostDominatedNullSecond() {
-        expectedEx.expect(NullPointerException.class);
+    public void TestGetMaxAllSameNonzero() {
+        int max = SmithWatermanAlgorithm.getMaxOfInts(3, 3, 3);
 
-        helloTest.filterPostdominated(Coordinate.of(4, 5), null);
+        assertEquals(3, max);
     }
 
     @Test
-    public void TestFilterPostDominatedFirstOutOfArray() {
-        expectedEx.expect(IllegalArgumentException.class);
+    public void TestGetMaxAllSameNegative() {
+        int max = SmithWatermanAlgorithm.getMaxOfInts(-5, -5, -5);
 
-        helloTest.filterPostdominated(Coordinate.of(100, 100), Coordinate.of(3, 3));
+        assertEquals(-5, max);
     }
 
     @Test
-    public void TestFilterPostDominatedSecondOutOfArray() {
-        expectedEx.expect(IllegalArgumentException.class);
+    public void TestGetMaxALargest() {
+        int max = SmithWatermanAlgorithm.getMaxOfInts(10, 4, 3);
 
-        helloTest.filterPostdominated(Coordinate.of(1, 1), Coordinate.of(8, 8));
+        assertEquals(10, max);
     }
 
     @Test
-    public void TestFilterPostDominatedEmpty() {
-        Map<Integer, Set<Coordinate>> results = helloTest.filterPostdominated(Coordinate.of(1, 1), Coordinate.of(6, 6));
+    public void TestGetMaxALargestBCSame() {
+        int max = SmithWatermanAlgorithm.getMaxOfInts(5, 4, 4);
 
-        assertTrue(results.isEmpty());
+        assertEquals(5, max);
     }
 
     @Test
-    public void TestFilterPostDominatedAllOfHelloFiltered() {
-        helloTest.mergeIntoCandidates(helloTest.computeArraySubset(helloTest.getWholeArray()));
+    public void TestGetMaxBLargest() {
+        int max = SmithWatermanAlgorithm.getMaxOfInts(9, 18, 17);
+
+        assertEquals(18, max);
+    }
 
-        Map<Integer, Set<Coordinate>> results = helloTest.filterPostdominated(Coordinate.of(1, 1), Coordinate.of(6, 6));
+    @Test
+    public void TestGetMaxBLargestACSame() {
+        int max = SmithWatermanAlgorithm.getMaxOfInts(9, 120, 9);
 
-        assertTrue(results.isEmpty());
+        assertEquals(120, max);
     }
 
     @Test
-    public void TestFilterPostDominatedBigTestFiltered() {
-        Map<Integer, Set<Coordinate>> expected = new HashMap<>();
-        expected.put(5, setFromElements(Coordinate.of(23, 22)));
-        expected.put(6, setFromElements(Coordinate.of(24, 23)));
+    public void TestGetMaxCLargest() {
+        int max = SmithWatermanAlgorithm.getMaxOfInts(1200, 1300, 1400);
 
-        bigTest.mergeIntoCandidates(bigTest.computeArraySubset(bigTest.getWholeArray()));
+        assertEquals(1400, max);
+    }
 
-        Map<Integer, Set<Coordinate>> results = bigTest.filterPostdominated(Coordinate.of(1, 1), Coordinate.of(10, 9));
+    @Test
+    public void TestGetMaxCLargestABSame() {
+        int max = SmithWatermanAlgorithm.getMaxOfInts(123, 123, 456);
 
-        assertEquals(expected, results);
+        assertEquals(456, max);
     }
 
     @Test
-    public void TestZeroMatchNullFirst() {
-        expectedEx.expect(NullPointerException.class);
+    public void TestUntestedBranch() {
+        int max = SmithWatermanAlgorithm.getMaxOfInts(3, 1, 2);
 
-        helloTest.zeroMatch(null, Coordinate.of(1, 1));
+        assertEquals(3, max);
     }
 
     @Test
-    public void TestZeroMatchNullSecond() {
+    public void TestGetMaxOfCoordinatesPassNull() {
         expectedEx.expect(NullPointerException.class);
 
-        helloTest.zeroMatch(Coordinate.of(3, 3), null);
+        bigTest.computeArraySubset(bigTest.getWholeArray());
+        bigTest.getMaxOfCoordinates(null);
     }
 
     @Test
-    public void TestZeroMatchOutOfBoundsFirst() {
+    public void TestGetMaxOfCoordinatesPassEmpty() {
         expectedEx.expect(IllegalArgumentException.class);
 
-        helloTest.zeroMatch(Coordinate.of(100, 100), Coordinate.of(6, 6));
+        bigTest.computeArraySubset(bigTest.getWholeArray());
+        bigTest.getMaxOfCoordinates(new HashSet<>());
+    }
+
+    @Test
+    public void TestGetMaxOfCoordinatesOneCoordinate() {
+        Set<Coordinate> toCheck = setFromElements(Coordinate.of(10, 10));
+
+        bigTest.computeArraySubset(bigTest.getWholeArray());
+        Coordinate result = bigTest.getMaxOfCoordinates(toCheck);
+
+        assertEquals(Coordinate.of(10, 10), result);
     }
 
     @Test
-    public void TestZeroMatchOutOfBoundsSecond() {
+    public void TestGetMaxOfCoordinatesBigTest() {
+        Set<Coordinate> toCheck = setFromElements( Coordinate.of(9, 8), Coordinate.of(8, 7), Coordinate.of(10, 9),
+                Coordinate.of(7, 6), Coordinate.of(6, 5), Coordinate.of(5, 4), Coordinate.of(3, 3), Coordinate.of(2, 2),
+                Coordinate.of(1, 1));
+        Coordinate expected = Coordinate.of(10, 9);
+
+        bigTest.computeArraySubset(bigTest.getWholeArray());
+        Coordinate result = bigTest.getMaxOfCoordinates(toCheck);
+
+        assertEquals(expected, result);
+    }
+
+    @Test
+    public void TestGetLowestCoordinateEmptyThrowsException() {
         expectedEx.expect(IllegalArgumentException.class);
 
-        helloTest.zeroMatch(Coordinate.of(1, 1), Coordinate.of(100, 100));
+        SmithWatermanAlgorithm.getLowestCoordinate(new HashSet<>());
     }
 
     @Test
-    public void TestZeroMatchHello() {
-        int[][] expected = new int[6][6];
+    public void TestGetLowestCoordinatePrefersLowestXThenY() {
+        Set<Coordinate> toCheck = setFromElements(Coordinate.of(3, 1), Coordinate.of(2, 7), Coordinate.of(2, 5),
+                Coordinate.of(4, 0));
+
+        assertEquals(Coordinate.of(2, 5), SmithWatermanAlgorithm.getLowestCoordinate(toCheck));
+    }
 
+    @Test
+    public void TestGetPositions() {
+        Map<Integer, int[]> positions = SmithWatermanAlgorithm.getPositions(new int[] {4, 2, 4, 4, 7});
+
+        assertEquals(3, positions.size());
+        assertArrayEquals(new int[] {1, 3, 4}, positions.get(4));
+        assertArrayEquals(new int[] {2}, positions.get(2));
+        assertArrayEquals(new int[] {5}, positions.get(7));
+    }
+
+    @Test
+    public void TestTraceMatchSameAsGetMatchCoordinates() {
+        bigTest.computeArraySubset(bigTest.getWholeArray());
+
+        LongList packed = bigTest.traceMatch(10, 9);
+        Set<Coordinate> unpacked = new HashSet<>();
+        for(int i = 0; i < packed.size(); i++) {
+            unpacked.add(Coordinate.of(CandidateHeap.unpackX(packed.get(i)), CandidateHeap.unpackY(packed.get(i))));
+        }
+
+        assertEquals(packed.size(), unpacked.size());
+        assertEquals(bigTest.getMatchCoordinates(Coordinate.of(10, 9)), unpacked);
+    }
+
+    @Test
+    public void TestTraceMatchStartsFromEnd() {
         helloTest.computeArraySubset(helloTest.getWholeArray());
 
-        helloTest.zeroMatch(Coordinate.of(1, 1), Coordinate.of(5, 5));
+        LongList packed = helloTest.traceMatch(5, 5);
 
-        assertTrue(Arrays.deepEquals(expected, helloTest.getS()));
-        assertTrue(Arrays.deepEquals(expected, helloTest.getM()));
-    }
-
-    @Test
-    public void TestZeroMatchBigTest() {
-        int[][] expected = new int[][] {
-                { 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0 },
-                { 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0 },
-                { 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0 },
-                { 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0 },
-                { 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0 },
-                { 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0 },
-                { 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0 },
-                { 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0 },
-                { 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0 },
-                { 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0 },
-                { 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0 },
-                { 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 7, 6, 5, 4, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0 },
-                { 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 6, 6, 5, 6, 5, 4, 0, 0, 0, 0, 0, 0, 0, 0 },
-                { 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 5, 5, 5, 5, 5, 4, 0, 0, 0, 0, 0, 0, 0, 0 },
-                { 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 6, 5, 4, 4, 4, 4, 0, 0, 0, 0, 1, 0, 0, 0 },
-                { 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 5, 5, 6, 5, 4, 0, 0, 0, 0, 0, 0, 0, 0, 0 },
-                { 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 4, 4, 5, 5, 4, 0, 0, 0, 0, 0, 0, 0, 1, 0 },
-                { 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 5, 4, 4, 4, 0, 0, 0, 0, 0, 0, 0, 0, 0 },
-                { 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 4, 4, 0, 0, 0, 1, 0, 0, 0, 0, 0, 0, 0 },
-                { 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 2, 1, 0, 0, 0, 0, 0 },
-                { 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 1, 1, 2, 1, 0, 0, 0 },
-                { 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 1, 0, 0, 0, 0, 0, 0, 0, 0, 1, 3, 2, 1, 0 },
-                { 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 2, 4, 3, 2 },
-                { 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 1, 3, 5, 4 },
-                { 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 2, 4, 6 }
-        };
+        assertEquals(5, packed.size());
+        assertEquals(CandidateHeap.pack(5, 5), packed.get(0));
+        assertEquals(CandidateHeap.pack(1, 1), packed.get(4));
+    }
+
+    @Test
+    public void TestComputeArraySubsetIntoHeap() {
+        CandidateHeap heap = new CandidateHeap();
 
+        helloTest.computeArraySubset(helloTest.getWholeArray(), heap);
 
-        bigTest.computeArraySubset(bigTest.getWholeArray());
+        assertEquals(1, heap.size());
+        assertEquals(5, heap.peekScore());
+        assertEquals(5, heap.peekX());
+        assertEquals(5, heap.peekY());
+    }
 
-        bigTest.zeroMatch(Coordinate.of(1, 1), Coordinate.of(10, 9));
+    @Test
+    public void TestScoreCellMatchExtendsDiagonal() {
+        long cell = SmithWatermanAlgorithm.scoreCell(true, 4, 2, 9, 9, 9, 9);
 
-        assertTrue(Arrays.deepEquals(expected, bigTest.getS()));
+        assertEquals(5, SmithWatermanAlgorithm.getS(cell));
+        assertEquals(4, SmithWatermanAlgorithm.getM(cell));
     }
 
     @Test
-    public void TestGetMaxAllZeroes() {
-        int max = SmithWatermanAlgorithm.getMaxOfInts(0, 0, 0);
+    public void TestScoreCellMismatchDecrementsLargestPredecessor() {
+        long cell = SmithWatermanAlgorithm.scoreCell(false, 2, 1, 6, 3, 4, 7);
 
-        assertEquals(0, max);
+        assertEquals(5, SmithWatermanAlgorithm.getS(cell));
+        assertEquals(7, SmithWatermanAlgorithm.getM(cell));
     }
 
     @Test
-    public void TestGetMaxAllSameNonzero() {
-        int max = SmithWatermanAlgorithm.getMaxOfInts(3, 3, 3);
+    public void TestScoreCellMismatchToZeroClearsM() {
+        long cell = SmithWatermanAlgorithm.scoreCell(false, 1, 8, 0, 8, 1, 8);
 
-        assertEquals(3, max);
+        assertEquals(0, cell);
     }
 
     @Test
-    public void TestGetMaxAllSameNegative() {
-        int max = SmithWatermanAlgorithm.getMaxOfInts(-5, -5, -5);
+    public void TestScoreCellResetBelowThreshold() {
+        // M would exceed S by the threshold, so both are reset
+        long cell = SmithWatermanAlgorithm.scoreCell(false, 3, 10, 3, 10, 3, 10);
 
-        assertEquals(-5, max);
+        assertEquals(0, SmithWatermanAlgorithm.getS(cell));
+        assertEquals(0, SmithWatermanAlgorithm.getM(cell));
     }
 
     @Test
-    public void TestGetMaxALargest() {
-        int max = SmithWatermanAlgorithm.getMaxOfInts(10, 4, 3);
+    public void TestComputeRowSameAsComputeCell() {
+        Random random = new Random(0xce11);
 
-        assertEquals(10, max);
+        for(int i = 0; i < 500; i++) {
+            int length = 1 + random.nextInt(60);
+            int[] yLexemes = new int[length];
+            boolean[] yValid = new boolean[length];
+            char[] sPrevRow = new char[length + 1];
+            char[] mPrevRow = new char[length + 1];
+
+            for(int y = 0; y < length; y++) {
+                yLexemes[y] = random.nextInt(3);
+                yValid[y] = random.nextInt(8) != 0;
+            }
+
+            // Previous rows hold arbitrary reachable-looking values, including ones right around the threshold
+            for(int y = 0; y <= length; y++) {
+                sPrevRow[y] = (char)random.nextInt(12);
+                mPrevRow[y] = (char)random.nextInt(12);
+            }
+
+            boolean xValid = random.nextInt(8) != 0;
+            int xLexeme = random.nextInt(3);
+            int yLower = 1 + random.nextInt(length);
+            int yUpper = yLower + random.nextInt(length + 2 - yLower);
+
+            char[] sExpected = new char[length + 1];
+            char[] mExpected = new char[length + 1];
+            char[] sRow = new char[length + 1];
+            char[] mRow = new char[length + 1];
+
+            // Columns to the left of the computed range are already filled in
+            for(int y = 0; y < yLower; y++) {
+                sExpected[y] = sRow[y] = (char)random.nextInt(12);
+                mExpected[y] = mRow[y] = (char)random.nextInt(12);
+            }
+
+            int[] sIntRow = toInts(sRow);
+            int[] mIntRow = toInts(mRow);
+
+            int expectedMax = 0;
+            for(int y = yLower; y < yUpper; y++) {
+                SmithWatermanAlgorithm.computeCell(xValid && yValid[y - 1] && xLexeme == yLexemes[y - 1], sPrevRow,
+                        mPrevRow, sExpected, mExpected, y);
+
+                if(SmithWatermanAlgorithm.isSignificant(sExpected[y], mExpected[y])) {
+                    expectedMax = Math.max(expectedMax, sExpected[y]);
+                }
+            }
+
+            int rowMax = SmithWatermanAlgorithm.computeRow(xValid, xLexeme, yValid, yLexemes, sPrevRow, mPrevRow, sRow,
+                    mRow, yLower, yUpper);
+
+            assertEquals(expectedMax, rowMax);
+            assertArrayEquals(sExpected, sRow);
+            assertArrayEquals(mExpected, mRow);
+
+            // The full-width version used by the linear-space and banded implementations must agree
+            int intRowMax = SmithWatermanAlgorithm.computeRow(xValid, xLexeme, yValid, yLexemes, toInts(sPrevRow),
+                    toInts(mPrevRow), sIntRow, mIntRow, yLower, yUpper);
+
+            assertEquals(expectedMax, intRowMax);
+            assertArrayEquals(toInts(sExpected), sIntRow);
+            assertArrayEquals(toInts(mExpected), mIntRow);
+        }
+    }
+
+    private static int[] toInts(char[] row) {
+        int[] ints = new int[row.length];
+
+        for(int i = 0; i < row.length; i++) {
+            ints[i] = row[i];
+        }
+
+        return ints;
     }
 
     @Test
-    public void TestGetMaxALargestBCSame() {
-        int max = SmithWatermanAlgorithm.getMaxOfInts(5, 4, 4);
+    public void TestConstructorShorterListTooLongThrowsException() {
+        expectedEx.expect(IllegalArgumentException.class);
 
-        assertEquals(5, max);
+        Character[] characters = new Character[SmithWatermanAlgorithm.MAX_SHORTER_LIST_SIZE + 1];
+        Arrays.fill(characters, 'a');
+        TokenList tooLong = makeTokenListCharacter(characters);
+
+        new SmithWatermanAlgorithm(tooLong, tooLong);
     }
 
     @Test
-    public void TestGetMaxBLargest() {
-        int max = SmithWatermanAlgorithm.getMaxOfInts(9, 18, 17);
+    public void TestGetMatchingPositions() {
+        Map<Integer, int[]> positions = SmithWatermanAlgorithm.getPositions(new int[] {4, 2, 4});
 
-        assertEquals(18, max);
+        int[][] matching = SmithWatermanAlgorithm.getMatchingPositions(new int[] {2, 9, 4}, positions);
+
+        assertArrayEquals(new int[] {2}, matching[0]);
+        assertArrayEquals(new int[0], matching[1]);
+        assertArrayEquals(new int[] {1, 3}, matching[2]);
     }
 
     @Test
-    public void TestGetMaxBLargestACSame() {
-        int max = SmithWatermanAlgorithm.getMaxOfInts(9, 120, 9);
+    public void TestIncrementalBigTestSameAsExhaustive() throws Exception {
+        SmithWatermanAlgorithm exhaustive = new SmithWatermanAlgorithm(bigTest1, bigTest2);
+        exhaustive.computeSmithWatermanAlignmentExhaustive();
 
-        assertEquals(120, max);
+        bigTest.computeSmithWatermanAlignment();
+
+        assertTrue(Arrays.deepEquals(exhaustive.getS(), bigTest.getS()));
+        assertTrue(Arrays.deepEquals(exhaustive.getM(), bigTest.getM()));
+        assertEquals(exhaustive.getXList(), bigTest.getXList());
+        assertEquals(exhaustive.getYList(), bigTest.getYList());
     }
 
     @Test
-    public void TestGetMaxCLargest() {
-        int max = SmithWatermanAlgorithm.getMaxOfInts(1200, 1300, 1400);
+    public void TestIncrementalRandomListsSameAsExhaustive() throws Exception {
+        Random random = new Random(0x5eed);
 
-        assertEquals(1400, max);
+        for(int i = 0; i < 100; i++) {
+            TokenList a = randomTokenList(random, 10 + random.nextInt(150), null);
+            TokenList b = randomTokenList(random, 10 + random.nextInt(150), a);
+
+            // Start with some tokens already invalid, as when other algorithms have run first
+            if(i % 4 == 0) {
+                a.stream().filter((token) -> random.nextInt(6) == 0).forEach((token) -> token.setValid(false));
+            }
+
+            SmithWatermanAlgorithm exhaustive = new SmithWatermanAlgorithm(a, b);
+            exhaustive.computeSmithWatermanAlignmentExhaustive();
+
+            SmithWatermanAlgorithm incremental = new SmithWatermanAlgorithm(a, b);
+            incremental.computeSmithWatermanAlignment();
+
+            // Every cell must be exactly what a full recompute would produce
+            assertTrue(Arrays.deepEquals(exhaustive.getS(), incremental.getS()));
+            assertTrue(Arrays.deepEquals(exhaustive.getM(), incremental.getM()));
+            assertEquals(exhaustive.getXList(), incremental.getXList());
+            assertEquals(exhaustive.getYList(), incremental.getYList());
+            assertTrue(incremental.getCandidates().isEmpty());
+        }
     }
 
     @Test
-    public void TestGetMaxCLargestABSame() {
-        int max = SmithWatermanAlgorithm.getMaxOfInts(123, 123, 456);
+    public void TestRecomputeInvalidatedOnlyTouchesAffectedCells() throws Exception {
+        int[] lexemes = SmithWatermanAlgorithm.getLexemes(hello);
+        int[][] matching = SmithWatermanAlgorithm.getMatchingPositions(lexemes, SmithWatermanAlgorithm.getPositions(lexemes));
 
-        assertEquals(456, max);
+        helloTest.computeArraySubset(helloTest.getWholeArray());
+        LongList match = helloTest.traceMatch(5, 5);
+        helloTest.setPackedMatchesInvalid(match);
+
+        int recomputed = helloTest.recomputeInvalidated(match, matching, matching);
+
+        // Only cells where the tokens used to match need recomputing, plus whatever changes spread to
+        assertTrue(recomputed > 0);
+        assertTrue(recomputed <= 25);
+
+        SmithWatermanAlgorithm expected = new SmithWatermanAlgorithm(hello, hello);
+        expected.getXList().stream().forEach((token) -> token.setValid(false));
+        expected.getYList().stream().forEach((token) -> token.setValid(false));
+        expected.computeArraySubset(expected.getWholeArray());
+
+        assertTrue(Arrays.deepEquals(expected.getS(), helloTest.getS()));
+        assertTrue(helloTest.getCandidates().isEmpty());
     }
 
     @Test
-    public void TestUntestedBranch() {
-        int max = SmithWatermanAlgorithm.getMaxOfInts(3, 1, 2);
+    public void TestRecomputeInvalidatedCostFollowsMatchNotTableSize() throws Exception {
+        Random random = new Random(0xd127);
+        Character[] aContent = new Character[600];
+        Character[] bContent = new Character[640];
 
-        assertEquals(3, max);
+        for(int i = 0; i < aContent.length; i++) {
+            aContent[i] = (char)('a' + random.nextInt(26));
+        }
+        for(int i = 0; i < bContent.length; i++) {
+            bContent[i] = (char)('a' + random.nextInt(26));
+        }
+
+        // The only large match is a copy of 40 tokens from the middle of A
+        System.arraycopy(aContent, 280, bContent, 300, 40);
+
+        TokenList a = makeTokenListCharacter(aContent);
+        TokenList b = makeTokenListCharacter(bContent);
+        int[] aLexemes = SmithWatermanAlgorithm.getLexemes(a);
+        int[] bLexemes = SmithWatermanAlgorithm.getLexemes(b);
+
+        SmithWatermanAlgorithm algorithm = new SmithWatermanAlgorithm(a, b);
+        Map<Integer, Set<Coordinate>> results = algorithm.computeArraySubset(algorithm.getWholeArray());
+        int best = Collections.max(results.keySet());
+        Coordinate end = SmithWatermanAlgorithm.getLowestCoordinate(results.get(best));
+
+        LongList match = algorithm.traceMatch(end.getX(), end.getY());
+        algorithm.setPackedMatchesInvalid(match);
+
+        int recomputed = algorithm.recomputeInvalidated(match,
+                SmithWatermanAlgorithm.getMatchingPositions(aLexemes, SmithWatermanAlgorithm.getPositions(bLexemes)),
+                SmithWatermanAlgorithm.getMatchingPositions(bLexemes, SmithWatermanAlgorithm.getPositions(aLexemes)));
+
+        // Far fewer cells than lie in the rows and columns of the match
+        assertTrue(match.size() >= 40);
+        assertTrue(recomputed < match.size() * (a.size() + b.size()) / 4);
+
+        SmithWatermanAlgorithm expected = new SmithWatermanAlgorithm(algorithm.getXList(), algorithm.getYList());
+        expected.computeArraySubset(expected.getWholeArray());
+
+        assertTrue(Arrays.deepEquals(expected.getS(), algorithm.getS()));
+        assertTrue(Arrays.deepEquals(expected.getM(), algorithm.getM()));
     }
 
     @Test
-    public void TestGetMaxOfCoordinatesPassNull() {
-        expectedEx.expect(NullPointerException.class);
+    public void TestWavefrontRandomListsSameAsSequential() throws Exception {
+        Random random = new Random(0xf00d);
+        ForkJoinPool pool = new ForkJoinPool(4);
 
-        bigTest.computeArraySubset(bigTest.getWholeArray());
-        bigTest.getMaxOfCoordinates(null);
+        try {
+            for(int i = 0; i < 50; i++) {
+                TokenList a = randomTokenList(random, 10 + random.nextInt(150), null);
+                TokenList b = randomTokenList(random, 10 + random.nextInt(150), a);
+                int tileSize = 1 + random.nextInt(20);
+
+                SmithWatermanAlgorithm sequential = new SmithWatermanAlgorithm(a, b);
+                Map<Integer, Set<Coordinate>> expected = sequential.computeArraySubset(sequential.getWholeArray());
+
+                SmithWatermanAlgorithm wavefront = new SmithWatermanAlgorithm(a, b);
+                wavefront.setWavefrontPool(pool, tileSize);
+                Map<Integer, Set<Coordinate>> results = wavefront.computeArraySubset(wavefront.getWholeArray());
+
+                assertEquals(expected, results);
+                assertTrue(Arrays.deepEquals(sequential.getS(), wavefront.getS()));
+                assertTrue(Arrays.deepEquals(sequential.getM(), wavefront.getM()));
+
+                // Whole alignments must match too, as the exhaustive alignment rescans after every match
+                sequential.computeSmithWatermanAlignmentExhaustive();
+                wavefront.computeSmithWatermanAlignmentExhaustive();
+
+                assertEquals(sequential.getXList(), wavefront.getXList());
+                assertEquals(sequential.getYList(), wavefront.getYList());
+            }
+        } finally {
+            pool.shutdown();
+        }
     }
 
     @Test
-    public void TestGetMaxOfCoordinatesPassEmpty() {
+    public void TestWavefrontBigTestSameAsSequential() throws Exception {
+        ForkJoinPool pool = new ForkJoinPool(2);
+
+        try {
+            SmithWatermanAlgorithm wavefront = new SmithWatermanAlgorithm(bigTest1, bigTest2);
+            wavefront.setWavefrontPool(pool, 3);
+            wavefront.computeSmithWatermanAlignment();
+
+            bigTest.computeSmithWatermanAlignment();
+
+            assertTrue(Arrays.deepEquals(bigTest.getS(), wavefront.getS()));
+            assertEquals(bigTest.getXList(), wavefront.getXList());
+            assertEquals(bigTest.getYList(), wavefront.getYList());
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    public void TestSetWavefrontPoolZeroTileSizeThrowsException() {
         expectedEx.expect(IllegalArgumentException.class);
 
-        bigTest.computeArraySubset(bigTest.getWholeArray());
-        bigTest.getMaxOfCoordinates(new HashSet<>());
+        helloTest.setWavefrontPool(null, 0);
     }
 
     @Test
-    public void TestGetMaxOfCoordinatesOneCoordinate() {
-        Set<Coordinate> toCheck = setFromElements(Coordinate.of(10, 10));
+    public void TestArenaReusedAcrossPairsSameAsFresh() throws Exception {
+        Random random = new Random(0xa4e4a);
+        ScoreTableArena arena = new ScoreTableArena(100 * 100);
 
-        bigTest.computeArraySubset(bigTest.getWholeArray());
-        Coordinate result = bigTest.getMaxOfCoordinates(toCheck);
+        for(int i = 0; i < 60; i++) {
+            // Some pairs are too large for the arena, and some force it to start over with smaller tables
+            TokenList a = randomTokenList(random, 5 + random.nextInt(150), null);
+            TokenList b = randomTokenList(random, 5 + random.nextInt(150), a);
 
-        assertEquals(Coordinate.of(10, 10), result);
+            SmithWatermanAlgorithm fresh = new SmithWatermanAlgorithm(a, b);
+            fresh.computeSmithWatermanAlignment();
+
+            SmithWatermanAlgorithm reused = new SmithWatermanAlgorithm(a, b, arena);
+            reused.computeSmithWatermanAlignment();
+
+            assertEquals(fresh.getXList(), reused.getXList());
+            assertEquals(fresh.getYList(), reused.getYList());
+
+            // Exhaustive alignment never recomputes cells selectively, so check it separately
+            SmithWatermanAlgorithm reusedExhaustive = new SmithWatermanAlgorithm(a, b, arena);
+            reusedExhaustive.computeSmithWatermanAlignmentExhaustive();
+
+            assertEquals(fresh.getXList(), reusedExhaustive.getXList());
+            assertEquals(fresh.getYList(), reusedExhaustive.getYList());
+        }
     }
 
     @Test
-    public void TestGetMaxOfCoordinatesBigTest() {
-        Set<Coordinate> toCheck = setFromElements( Coordinate.of(9, 8), Coordinate.of(8, 7), Coordinate.of(10, 9),
-                Coordinate.of(7, 6), Coordinate.of(6, 5), Coordinate.of(5, 4), Coordinate.of(3, 3), Coordinate.of(2, 2),
-                Coordinate.of(1, 1));
-        Coordinate expected = Coordinate.of(10, 9);
+    public void TestArenaTablesUsedWhenTheyFit() {
+        ScoreTableArena arena = new ScoreTableArena(36);
 
-        bigTest.computeArraySubset(bigTest.getWholeArray());
-        Coordinate result = bigTest.getMaxOfCoordinates(toCheck);
+        SmithWatermanAlgorithm reused = new SmithWatermanAlgorithm(hello, hello, arena);
+        assertSame(arena.getS(), reused.getS());
+        assertSame(arena.getM(), reused.getM());
 
-        assertEquals(expected, result);
+        SmithWatermanAlgorithm tooLarge = new SmithWatermanAlgorithm(bigTest1, bigTest2, arena);
+        assertNotSame(arena.getS(), tooLarge.getS());
+        assertEquals(bigTest1.size() + 1, tooLarge.getS().length);
+    }
+
+    /**
+     * Generate a random character token list over a small alphabet, optionally with part of another list copied in.
+     */
+    private static TokenList randomTokenList(Random random, int length, TokenList toCopy) {
+        List<Character> content = new ArrayList<>();
+
+        for(int i = 0; i < length; i++) {
+            content.add((char)('a' + random.nextInt(4)));
+        }
+
+        if(toCopy != null) {
+            int start = random.nextInt(toCopy.size());
+            int end = start + random.nextInt(toCopy.size() - start);
+            for(int i = start; i < end; i++) {
+                content.add(random.nextInt(content.size()), (Character)toCopy.get(i).getToken());
+            }
+        }
+
+        return makeTokenListCharacter(content.toArray(new Character[content.size()]));
     }
 }
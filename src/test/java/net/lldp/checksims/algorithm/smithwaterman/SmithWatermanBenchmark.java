@@ -0,0 +1,191 @@
+/*
+ * CDDL HEADER START
+ *
+ * The contents of this file are subject to the terms of the
+ * Common Development and Distribution License (the "License").
+ * You may not use this file except in compliance with the License.
+ *
+ * See LICENSE.txt included in this distribution for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing Covered Code, include this CDDL HEADER in each
+ * file and include the License file at LICENSE.txt.
+ * If applicable, add the following below this CDDL HEADER, with the
+ * fields enclosed by brackets "[]" replaced with your own identifying
+ * information: Portions Copyright [yyyy] [name of copyright owner]
+ *
+ * CDDL HEADER END
+ *
+ * Copyright (c) 2014-2015 Nicholas DeMarinis, Matthew Heon, and Dolan Murvihill
+ */
+
+package net.lldp.checksims.algorithm.smithwaterman;
+
+import net.lldp.checksims.testutil.TokenUtils;
+import net.lldp.checksims.token.Token;
+import net.lldp.checksims.token.TokenList;
+import net.lldp.checksims.token.ValidityEnsuringToken;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+/**
+ * Before/after benchmark of the Smith-Waterman scoring loop, on the SmithWatermanAlgorithmTest fixtures and one large
+ * pair.
+ *
+ * Not run as a test. Run with "mvn test-compile" and then, from the project root:
+ *
+ * mvn dependency:build-classpath -Dmdep.outputFile=cp.txt
+ * java -cp target/classes:target/test-classes:$(cat cp.txt) \
+ *     net.lldp.checksims.algorithm.smithwaterman.SmithWatermanBenchmark
+ *
+ * "Before" is the scoring loop as it was before lexemes were flattened into arrays - a token object per row, and
+ * TokenList.get() and Token.equals() per cell, over int[][] tables - kept here so the two can be timed side by side.
+ * "After" is the current SmithWatermanAlgorithm.
+ */
+public final class SmithWatermanBenchmark {
+    private SmithWatermanBenchmark() {}
+
+    public static void main(String[] args) {
+        TokenList hello = TokenUtils.makeTokenListCharacter('h', 'e', 'l', 'l', 'o');
+        TokenList bigTest1 = TokenUtils.makeTokenListCharacter('a', 'b', 'c', 'x', 'd', 'e', 'f', 'g', 'h', 'i', 'y',
+                'm', 'z', 'j', 'l', 'u', 'k', 'p', 'q', 's', 'j', 't', 'u', 'v');
+        TokenList bigTest2 = TokenUtils.makeTokenListCharacter('a', 'b', 'c', 'd', 'e', 'f', 'g', 'h', 'i', 'j', 'k',
+                'l', 'm', 'n', 'o', 'p', 'q', 'r', 's', 'j', 't', 'u', 'v');
+
+        Random random = new Random(1);
+        String[] words = randomWords(random, 5000);
+        TokenList large1 = TokenUtils.makeTokenListWhitespace(words);
+        TokenList large2 = TokenUtils.makeTokenListWhitespace(mutate(random, words, 0.1));
+
+        System.out.println("Fixture                          before (ms/op)   after (ms/op)");
+        compare("hello, whole array", hello, hello, 200000);
+        compare("bigTest, whole array", bigTest1, bigTest2, 100000);
+        compare("5000x5000 words, 10% changed", large1, large2, 5);
+    }
+
+    /**
+     * Check both scoring loops find the same candidates for a pair, then time each, after a warmup of the same number
+     * of runs.
+     */
+    private static void compare(String name, TokenList a, TokenList b, int runs) {
+        if(!before(a, b).equals(after(a, b))) {
+            throw new IllegalStateException("Scoring loops disagree on " + name);
+        }
+
+        long checksum = 0;
+        for(int i = 0; i < runs; i++) {
+            checksum += before(a, b).size();
+            checksum += after(a, b).size();
+        }
+
+        long start = System.nanoTime();
+        for(int i = 0; i < runs; i++) {
+            checksum += before(a, b).size();
+        }
+        double beforeMs = (System.nanoTime() - start) / 1e6 / runs;
+
+        start = System.nanoTime();
+        for(int i = 0; i < runs; i++) {
+            checksum += after(a, b).size();
+        }
+        double afterMs = (System.nanoTime() - start) / 1e6 / runs;
+
+        System.out.println(String.format("%-32s %14.4f %15.4f   (checksum %d)", name, beforeMs, afterMs, checksum));
+    }
+
+    /**
+     * @return Candidates of the whole array, from the current algorithm
+     */
+    private static Map<Integer, Set<Coordinate>> after(TokenList a, TokenList b) {
+        SmithWatermanAlgorithm algorithm = new SmithWatermanAlgorithm(a, b);
+
+        return algorithm.computeArraySubset(algorithm.getWholeArray());
+    }
+
+    /**
+     * @return Candidates of the whole array, from the scoring loop as it was before lexemes were flattened
+     */
+    private static Map<Integer, Set<Coordinate>> before(TokenList xList, TokenList yList) {
+        int threshold = SmithWatermanAlgorithm.threshold;
+        int swConstant = SmithWatermanAlgorithm.swConstant;
+        int[][] s = new int[xList.size() + 1][yList.size() + 1];
+        int[][] m = new int[xList.size() + 1][yList.size() + 1];
+
+        Map<Integer, Set<Coordinate>> newCandidates = new HashMap<>();
+
+        for(int x = 1; x <= xList.size(); x++) {
+            Token xToken = new ValidityEnsuringToken(xList.get(x - 1));
+
+            for(int y = 1; y <= yList.size(); y++) {
+                int prevX = x - 1;
+                int prevY = y - 1;
+
+                int newS;
+                int newM;
+
+                if(xToken.isValid() && xToken.equals(yList.get(y - 1))) {
+                    int sPred = s[prevX][prevY];
+                    int mPred = m[prevX][prevY];
+
+                    newS = sPred + swConstant;
+                    newM = Math.max(sPred, mPred);
+                } else {
+                    int max = SmithWatermanAlgorithm.getMaxOfInts(s[prevX][prevY], s[prevX][y], s[x][prevY]);
+
+                    newS = Math.max(max - swConstant, 0);
+
+                    if(newS == 0) {
+                        newM = 0;
+                    } else {
+                        int maxM = SmithWatermanAlgorithm.getMaxOfInts(m[prevX][prevY], m[prevX][y], m[x][prevY]);
+                        newM = Math.max(max, maxM);
+                    }
+                }
+
+                if(newM - newS >= threshold) {
+                    newM = 0;
+                    newS = 0;
+                }
+
+                s[x][y] = newS;
+                m[x][y] = newM;
+
+                if(newS >= threshold && newS > newM) {
+                    newCandidates.computeIfAbsent(newS, (score) -> new HashSet<>()).add(Coordinate.of(x, y));
+                }
+            }
+        }
+
+        return newCandidates;
+    }
+
+    /**
+     * @return Words drawn from a small vocabulary, so that matches are common
+     */
+    private static String[] randomWords(Random random, int length) {
+        String[] words = new String[length];
+        for(int i = 0; i < length; i++) {
+            words[i] = "w" + random.nextInt(50);
+        }
+
+        return words;
+    }
+
+    /**
+     * @return Copy of the given words, with the given fraction replaced by random words
+     */
+    private static String[] mutate(Random random, String[] words, double fraction) {
+        String[] mutated = words.clone();
+        for(int i = 0; i < mutated.length; i++) {
+            if(random.nextDouble() < fraction) {
+                mutated[i] = "w" + random.nextInt(50);
+            }
+        }
+
+        return mutated;
+    }
+}
@@ -25,13 +25,23 @@ import net.lldp.checksims.algorithm.AlgorithmResults;
 import net.lldp.checksims.submission.Submission;
 import net.lldp.checksims.token.TokenList;
 import net.lldp.checksims.token.TokenTypeMismatchException;
+import net.lldp.checksims.util.threading.ParallelAlgorithm;
+import org.junit.After;
 import org.junit.Before;
 import org.junit.Rule;
 import org.junit.Test;
 import org.junit.rules.ExpectedException;
+import org.apache.commons.lang3.tuple.Pair;
+
+import java.util.HashSet;
+import java.util.Set;
 
 import static net.lldp.checksims.testutil.AlgorithmUtils.*;
 import static net.lldp.checksims.testutil.SubmissionUtils.*;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
 
 /**
  * Tests for the Smith-Waterman Algorithm plagiarism detector
@@ -49,6 +59,7 @@ public class SmithWatermanTest {
     private Submission wrappedHelloPauseWorldIsWrapped;
 
     private SmithWaterman instance;
+    private int oldThreadCount;
 
     @Rule
     public ExpectedException expectedEx = ExpectedException.none();
@@ -56,6 +67,7 @@ public class SmithWatermanTest {
     @Before
     public void setUp() {
         instance = SmithWaterman.getInstance();
+        oldThreadCount = ParallelAlgorithm.getThreadCount();
 
         empty = whitespaceSubmissionFromString("Empty", "");
         typeMismatch = lineSubmissionFromString("Type Mismatch", "hello");
@@ -69,6 +81,18 @@ public class SmithWatermanTest {
         wrappedHelloPauseWorldIsWrapped = charSubmissionFromString("Wrapped Hello World with Pause", "wrapped hello random world is wrapped");
     }
 
+    @After
+    public void tearDown() {
+        instance.setAlignmentMode(AlignmentMode.AUTOMATIC);
+        instance.setMaxTableCells(SmithWaterman.DEFAULT_MAX_TABLE_CELLS);
+        instance.setWavefrontMinCells(SmithWaterman.DEFAULT_WAVEFRONT_MIN_CELLS);
+        instance.setMaxArenaCells(SmithWaterman.DEFAULT_MAX_ARENA_CELLS);
+
+        if(ParallelAlgorithm.getThreadCount() != oldThreadCount) {
+            ParallelAlgorithm.setThreadCount(oldThreadCount);
+        }
+    }
+
     // Tests for Smith-Waterman algorithm
 
     @Test
@@ -195,4 +219,160 @@ public class SmithWatermanTest {
 
         checkResults(results, helloLongPauseWorld, wrappedHelloPauseWorldIsWrapped, expectedHelloLongPauseWorld, expectedWrappedHelloPauseWorldIsWrapped);
     }
+
+    @Test
+    public void TestLinearSpaceModeTwoOverlaysWrappedSameAsExhaustive() throws Exception {
+        instance.setAlignmentMode(AlignmentMode.EXHAUSTIVE);
+        AlgorithmResults expected = instance.detectSimilarity(helloLongPauseWorld, wrappedHelloPauseWorldIsWrapped);
+
+        instance.setAlignmentMode(AlignmentMode.LINEAR_SPACE);
+        AlgorithmResults results = instance.detectSimilarity(helloLongPauseWorld, wrappedHelloPauseWorldIsWrapped);
+
+        checkResults(results, helloLongPauseWorld, wrappedHelloPauseWorldIsWrapped, expected.finalListA,
+                expected.finalListB);
+    }
+
+    @Test
+    public void TestIncrementalModeTwoOverlaysWrappedSameAsExhaustive() throws Exception {
+        instance.setAlignmentMode(AlignmentMode.EXHAUSTIVE);
+        AlgorithmResults expected = instance.detectSimilarity(helloLongPauseWorld, wrappedHelloPauseWorldIsWrapped);
+
+        instance.setAlignmentMode(AlignmentMode.INCREMENTAL);
+        AlgorithmResults results = instance.detectSimilarity(helloLongPauseWorld, wrappedHelloPauseWorldIsWrapped);
+
+        checkResults(results, helloLongPauseWorld, wrappedHelloPauseWorldIsWrapped, expected.finalListA,
+                expected.finalListB);
+    }
+
+    @Test
+    public void TestAutomaticModeUsesLinearSpaceAboveTableLimit() {
+        instance.setMaxTableCells(100);
+
+        assertEquals(AlignmentMode.AUTOMATIC, instance.getAlignmentMode());
+        assertFalse(instance.useLinearSpace(9, 9));
+        assertTrue(instance.useLinearSpace(10, 9));
+    }
+
+    @Test
+    public void TestForcedModesIgnoreTableLimit() {
+        instance.setMaxTableCells(1);
+        instance.setAlignmentMode(AlignmentMode.EXHAUSTIVE);
+        assertFalse(instance.useLinearSpace(1000, 1000));
+        instance.setAlignmentMode(AlignmentMode.INCREMENTAL);
+        assertFalse(instance.useLinearSpace(1000, 1000));
+
+        instance.setMaxTableCells(Long.MAX_VALUE);
+        instance.setAlignmentMode(AlignmentMode.LINEAR_SPACE);
+        assertTrue(instance.useLinearSpace(1, 1));
+    }
+
+    @Test
+    public void TestPairsTooLargeForTablesUseLinearSpaceInAnyMode() {
+        int limit = SmithWatermanAlgorithm.MAX_SHORTER_LIST_SIZE;
+        instance.setMaxTableCells(Long.MAX_VALUE);
+
+        for(AlignmentMode mode : AlignmentMode.values()) {
+            instance.setAlignmentMode(mode);
+            assertTrue(instance.useLinearSpace(limit + 1, limit + 1));
+        }
+
+        instance.setAlignmentMode(AlignmentMode.INCREMENTAL);
+        assertFalse(instance.useLinearSpace(limit, limit + 1));
+        assertFalse(instance.useLinearSpace(Integer.MAX_VALUE - 1, limit));
+    }
+
+    @Test
+    public void TestSetMaxTableCellsZeroThrowsException() {
+        expectedEx.expect(IllegalArgumentException.class);
+
+        instance.setMaxTableCells(0);
+    }
+
+    @Test
+    public void TestSetNullAlignmentModeThrowsException() {
+        expectedEx.expect(NullPointerException.class);
+
+        instance.setAlignmentMode(null);
+    }
+
+    @Test
+    public void TestWavefrontUsedAboveMinimumCells() {
+        ParallelAlgorithm.setThreadCount(2);
+        instance.setWavefrontMinCells(100);
+
+        assertEquals(100, instance.getWavefrontMinCells());
+        assertTrue(instance.useWavefront(9, 9));
+        assertTrue(instance.useWavefront(100, 100));
+    }
+
+    @Test
+    public void TestWavefrontNotUsedBelowMinimumCells() {
+        ParallelAlgorithm.setThreadCount(2);
+        instance.setWavefrontMinCells(100);
+
+        // Decision depends only on table size and thread count, not on what the executor is doing
+        assertFalse(instance.useWavefront(8, 9));
+        assertFalse(instance.useWavefront(1, 1));
+    }
+
+    @Test
+    public void TestWavefrontNotUsedWithOneThread() {
+        ParallelAlgorithm.setThreadCount(1);
+        instance.setWavefrontMinCells(1);
+
+        assertFalse(instance.useWavefront(1000, 1000));
+    }
+
+    @Test
+    public void TestWavefrontTwoOverlaysWrappedSameAsSequential() throws Exception {
+        ParallelAlgorithm.setThreadCount(1);
+        AlgorithmResults expected = instance.detectSimilarity(helloLongPauseWorld, wrappedHelloPauseWorldIsWrapped);
+
+        ParallelAlgorithm.setThreadCount(4);
+        instance.setWavefrontMinCells(1);
+        AlgorithmResults results = instance.detectSimilarity(helloLongPauseWorld, wrappedHelloPauseWorldIsWrapped);
+
+        checkResults(results, helloLongPauseWorld, wrappedHelloPauseWorldIsWrapped, expected.finalListA,
+                expected.finalListB);
+    }
+
+    @Test
+    public void TestSetWavefrontMinCellsZeroThrowsException() {
+        expectedEx.expect(IllegalArgumentException.class);
+
+        instance.setWavefrontMinCells(0);
+    }
+
+    @Test
+    public void TestNoArenaOutsideWorkerThreads() {
+        assertNull(instance.getArena());
+    }
+
+    @Test
+    public void TestWorkersReusingTablesSameAsDirect() throws Exception {
+        // One worker, so every pair goes through the same arena - small enough that not every pair fits
+        ParallelAlgorithm.setThreadCount(1);
+        instance.setMaxArenaCells(200);
+
+        Submission[] submissions = new Submission[] {hello, world, helloWorld, helloWerld, helloLongPauseWorld,
+                wrappedHelloPauseWorldIsWrapped};
+        Set<Pair<Submission, Submission>> pairs = new HashSet<>();
+        Set<AlgorithmResults> expected = new HashSet<>();
+
+        for(int i = 0; i < submissions.length; i++) {
+            for(int j = i + 1; j < submissions.length; j++) {
+                pairs.add(Pair.of(submissions[i], submissions[j]));
+                expected.add(instance.detectSimilarity(submissions[i], submissions[j]));
+            }
+        }
+
+        assertEquals(expected, ParallelAlgorithm.parallelSimilarityDetection(instance, pairs));
+    }
+
+    @Test
+    public void TestSetMaxArenaCellsNegativeThrowsException() {
+        expectedEx.expect(IllegalArgumentException.class);
+
+        instance.setMaxArenaCells(-1);
+    }
 }
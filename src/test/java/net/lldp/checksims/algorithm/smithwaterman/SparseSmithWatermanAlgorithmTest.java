@@ -0,0 +1,216 @@
+/*
+ * CDDL HEADER START
+ *
+ * The contents of this file are subject to the terms of the
+ * Common Development and Distribution License (the "License").
+ * You may not use this file except in compliance with the License.
+ *
+ * See LICENSE.txt included in this distribution for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing Covered Code, include this CDDL HEADER in each
+ * file and include the License file at LICENSE.txt.
+ * If applicable, add the following below this CDDL HEADER, with the
+ * fields enclosed by brackets "[]" replaced with your own identifying
+ * information: Portions Copyright [yyyy] [name of copyright owner]
+ *
+ * CDDL HEADER END
+ *
+ * Copyright (c) 2014-2015 Nicholas DeMarinis, Matthew Heon, and Dolan Murvihill
+ */
+
+package net.lldp.checksims.algorithm.smithwaterman;
+
+import net.lldp.checksims.testutil.TokenUtils;
+import net.lldp.checksims.token.TokenList;
+import net.lldp.checksims.token.TokenType;
+import org.apache.commons.lang3.tuple.Pair;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests for the sparse Smith-Waterman implementation
+ */
+public class SparseSmithWatermanAlgorithmTest {
+    @Rule
+    public ExpectedException expectedEx = ExpectedException.none();
+
+    /**
+     * Build a character token list from a string.
+     */
+    private static TokenList fromString(String content) {
+        return TokenUtils.makeTokenListCharacter(content.chars().mapToObj((c) -> (char)c).toArray(Character[]::new));
+    }
+
+    /**
+     * Generate a random string over the first alphabetSize lowercase letters.
+     */
+    private static String randomString(Random random, int length, int alphabetSize) {
+        StringBuilder builder = new StringBuilder();
+
+        for(int i = 0; i < length; i++) {
+            builder.append((char)('a' + random.nextInt(alphabetSize)));
+        }
+
+        return builder.toString();
+    }
+
+    /**
+     * Copy a string, changing, inserting and deleting characters at random - as near-duplicate submissions would.
+     */
+    private static String mutate(Random random, String original, int alphabetSize) {
+        StringBuilder builder = new StringBuilder();
+
+        for(char c : original.toCharArray()) {
+            int roll = random.nextInt(10);
+
+            if(roll == 0) {
+                builder.append((char)('a' + random.nextInt(alphabetSize)));
+            } else if(roll == 1) {
+                builder.append(c).append((char)('a' + random.nextInt(alphabetSize)));
+            } else if(roll != 2) {
+                builder.append(c);
+            }
+        }
+
+        return builder.toString();
+    }
+
+    private static void checkValidity(TokenList expected, TokenList actual) {
+        assertEquals(expected.size(), actual.size());
+
+        for(int i = 0; i < expected.size(); i++) {
+            assertEquals("Validity differs at token " + i, expected.get(i).isValid(), actual.get(i).isValid());
+        }
+    }
+
+    @Test
+    public void TestConstructorNullListAThrowsException() {
+        expectedEx.expect(NullPointerException.class);
+
+        new SparseSmithWatermanAlgorithm(null, fromString("hello"));
+    }
+
+    @Test
+    public void TestConstructorEmptyListThrowsException() {
+        expectedEx.expect(IllegalArgumentException.class);
+
+        new SparseSmithWatermanAlgorithm(fromString("hello"), new TokenList(TokenType.CHARACTER));
+    }
+
+    @Test
+    public void TestConstructorTypeMismatchThrowsException() {
+        expectedEx.expect(IllegalArgumentException.class);
+
+        new SparseSmithWatermanAlgorithm(fromString("hello"), TokenUtils.makeTokenListWhitespace("hello"));
+    }
+
+    @Test
+    public void TestCountsMatchingPairs() {
+        SparseSmithWatermanAlgorithm algorithm = new SparseSmithWatermanAlgorithm(fromString("abca"),
+                fromString("aab"));
+
+        assertEquals(5, algorithm.getNumMatches());
+        assertEquals(5.0 / 12.0, algorithm.getMatchDensity(), 0.0);
+    }
+
+    @Test
+    public void TestInvalidTokensNeverMatch() {
+        TokenList a = fromString("abca");
+        a.get(0).setValid(false);
+        TokenList b = fromString("aab");
+        b.get(2).setValid(false);
+
+        SparseSmithWatermanAlgorithm algorithm = new SparseSmithWatermanAlgorithm(a, b);
+
+        assertEquals(2, algorithm.getNumMatches());
+    }
+
+    @Test
+    public void TestNoMatchingTokensStoresNothing() throws Exception {
+        SparseSmithWatermanAlgorithm algorithm = new SparseSmithWatermanAlgorithm(fromString("abcd"),
+                fromString("efgh"));
+
+        Pair<TokenList, TokenList> results = algorithm.computeSmithWatermanAlignment();
+
+        assertEquals(0, algorithm.getNumCells());
+        results.getLeft().stream().forEach((token) -> assertTrue(token.isValid()));
+        results.getRight().stream().forEach((token) -> assertTrue(token.isValid()));
+    }
+
+    @Test
+    public void TestStoredCellsSameAsFullTables() throws Exception {
+        Random random = new Random(0x5ba5);
+
+        for(int i = 0; i < 20; i++) {
+            String first = randomString(random, 20 + random.nextInt(100), 6);
+            TokenList a = fromString(first);
+            TokenList b = fromString(mutate(random, first, 6));
+
+            SmithWatermanAlgorithm full = new SmithWatermanAlgorithm(a, b);
+            full.computeSmithWatermanAlignment();
+            SparseSmithWatermanAlgorithm sparse = new SparseSmithWatermanAlgorithm(a, b);
+            sparse.computeSmithWatermanAlignment();
+
+            // Every cell the sparse tables do not store must be 0 in the full tables
+            for(int x = 0; x <= a.size(); x++) {
+                for(int y = 0; y <= b.size(); y++) {
+                    assertEquals("S differs at (" + x + ", " + y + ")", full.getS()[x][y], sparse.getS(x, y));
+                    assertEquals("M differs at (" + x + ", " + y + ")", full.getM()[x][y], sparse.getM(x, y));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void TestMatchesExhaustive() throws Exception {
+        Random random = new Random(0x59a7);
+
+        for(int i = 0; i < 100; i++) {
+            String first = randomString(random, 20 + random.nextInt(150), 4);
+            String second = mutate(random, mutate(random, first, 4), 4);
+
+            TokenList a = fromString(first);
+            TokenList b = fromString(second);
+
+            // Start with some tokens already invalid, as when other algorithms have run first
+            if(i % 4 == 0) {
+                a.stream().filter((token) -> random.nextInt(6) == 0).forEach((token) -> token.setValid(false));
+            }
+
+            Pair<TokenList, TokenList> expected = new SmithWatermanAlgorithm(a, b)
+                    .computeSmithWatermanAlignmentExhaustive();
+            Pair<TokenList, TokenList> actual = new SparseSmithWatermanAlgorithm(a, b).computeSmithWatermanAlignment();
+
+            checkValidity(expected.getLeft(), actual.getLeft());
+            checkValidity(expected.getRight(), actual.getRight());
+        }
+    }
+
+    @Test
+    public void TestLargeAlphabetStoresFewCells() throws Exception {
+        Random random = new Random(0xa1fa);
+        String first = randomString(random, 400, 26);
+        TokenList a = fromString(first + randomString(random, 400, 26));
+        TokenList b = fromString(randomString(random, 400, 26) + mutate(random, first, 26));
+
+        SparseSmithWatermanAlgorithm sparse = new SparseSmithWatermanAlgorithm(a, b);
+        Pair<TokenList, TokenList> actual = sparse.computeSmithWatermanAlignment();
+        Pair<TokenList, TokenList> expected = new SmithWatermanAlgorithm(a, b).computeSmithWatermanAlignmentExhaustive();
+
+        checkValidity(expected.getLeft(), actual.getLeft());
+        checkValidity(expected.getRight(), actual.getRight());
+
+        // One pair in 26 matches, and each match stores at most (REACH + 1) squared cells
+        long bound = sparse.getNumMatches() * (SparseSmithWatermanAlgorithm.REACH + 1)
+                * (SparseSmithWatermanAlgorithm.REACH + 1);
+        assertTrue(sparse.getNumCells() <= bound);
+        assertTrue(sparse.getNumCells() < (long)a.size() * b.size());
+    }
+}
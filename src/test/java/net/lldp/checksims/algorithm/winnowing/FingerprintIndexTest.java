@@ -0,0 +1,130 @@
+/*
+ * CDDL HEADER START
+ *
+ * The contents of this file are subject to the terms of the
+ * Common Development and Distribution License (the "License").
+ * You may not use this file except in compliance with the License.
+ *
+ * See LICENSE.txt included in this distribution for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing Covered Code, include this CDDL HEADER in each
+ * file and include the License file at LICENSE.txt.
+ * If applicable, add the following below this CDDL HEADER, with the
+ * fields enclosed by brackets "[]" replaced with your own identifying
+ * information: Portions Copyright [yyyy] [name of copyright owner]
+ *
+ * CDDL HEADER END
+ *
+ * Copyright (c) 2014-2015 Nicholas DeMarinis, Matthew Heon, and Dolan Murvihill
+ */
+
+package net.lldp.checksims.algorithm.winnowing;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static net.lldp.checksims.algorithm.winnowing.WinnowedFingerprintsTest.fromString;
+import static net.lldp.checksims.algorithm.winnowing.WinnowedFingerprintsTest.randomString;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests for the corpus-wide fingerprint index
+ */
+public class FingerprintIndexTest {
+    private static WinnowedFingerprints fingerprint(String content) {
+        return WinnowedFingerprints.of(fromString(content), 3, 2);
+    }
+
+    @Test
+    public void TestEmptyCorpusNoSharedHashes() {
+        FingerprintIndex index = new FingerprintIndex(new ArrayList<>());
+
+        assertEquals(0, index.getNumSharedHashes());
+        index.forEachSharedPair((first, second, numShared) -> {
+            throw new AssertionError("No pairs should be visited");
+        });
+    }
+
+    @Test
+    public void TestHashHeldByOneSubmissionNotKept() {
+        WinnowedFingerprints a = fingerprint("abcdefgh");
+        FingerprintIndex index = new FingerprintIndex(Arrays.asList(a, fingerprint("stuvwxyz")));
+
+        assertEquals(0, index.getNumSharedHashes());
+        assertEquals(0, index.getPostings(a.getDistinctHashes()[0]).length);
+    }
+
+    @Test
+    public void TestPostingsListEverySubmissionHoldingHash() {
+        // A window of one keeps every k-gram, so which are kept does not depend on how they hash
+        WinnowedFingerprints a = WinnowedFingerprints.of(fromString("abc"), 3, 1);
+        FingerprintIndex index = new FingerprintIndex(Arrays.asList(WinnowedFingerprints.of(fromString("xyzabc"), 3, 1),
+                WinnowedFingerprints.of(fromString("stuv"), 3, 1), a,
+                WinnowedFingerprints.of(fromString("abcabc"), 3, 1)));
+
+        assertEquals(1, index.getNumSharedHashes());
+        assertArrayEquals(new int[] {0, 2, 3}, index.getPostings(a.getDistinctHashes()[0]));
+    }
+
+    @Test
+    public void TestSharedPairCountsMatchDirectComparison() {
+        Random random = new Random(31);
+        List<WinnowedFingerprints> corpus = new ArrayList<>();
+        for(int i = 0; i < 20; i++) {
+            corpus.add(fingerprint(randomString(random, random.nextInt(60), 4)));
+        }
+
+        int[][] counted = new int[corpus.size()][corpus.size()];
+        new FingerprintIndex(corpus).forEachSharedPair((first, second, numShared) -> {
+            assertTrue(first < second);
+            assertEquals(0, counted[first][second]);
+            counted[first][second] = numShared;
+        });
+
+        for(int i = 0; i < corpus.size(); i++) {
+            for(int j = i + 1; j < corpus.size(); j++) {
+                assertEquals("Pair " + i + ", " + j, corpus.get(i).sharedHashes(corpus.get(j)).length, counted[i][j]);
+            }
+        }
+    }
+
+    @Test
+    public void TestHashSharedByManySubmissionsCountedOncePerPair() {
+        List<WinnowedFingerprints> corpus = new ArrayList<>();
+        for(int i = 0; i < 300; i++) {
+            corpus.add(WinnowedFingerprints.of(fromString("abc"), 3, 1));
+        }
+
+        int[] visited = new int[1];
+        new FingerprintIndex(corpus).forEachSharedPair((first, second, numShared) -> {
+            assertTrue(first < second);
+            assertEquals(1, numShared);
+            visited[0]++;
+        });
+
+        assertEquals(300 * 299 / 2, visited[0]);
+    }
+
+    @Test
+    public void TestHashAboveCapSetAside() {
+        List<WinnowedFingerprints> corpus = new ArrayList<>();
+        for(int i = 0; i < 300; i++) {
+            corpus.add(WinnowedFingerprints.of(fromString("abc"), 3, 1));
+        }
+
+        FingerprintIndex index = new FingerprintIndex(corpus, 10);
+
+        assertEquals(0, index.getNumSharedHashes());
+        assertTrue(index.isCommon(corpus.get(0).getDistinctHashes()[0]));
+        index.forEachSharedPair((first, second, numShared) -> {
+            throw new AssertionError("No pairs should be visited");
+        });
+    }
+}
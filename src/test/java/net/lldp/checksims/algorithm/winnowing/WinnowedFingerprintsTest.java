@@ -0,0 +1,216 @@
+/*
+ * CDDL HEADER START
+ *
+ * The contents of this file are subject to the terms of the
+ * Common Development and Distribution License (the "License").
+ * You may not use this file except in compliance with the License.
+ *
+ * See LICENSE.txt included in this distribution for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing Covered Code, include this CDDL HEADER in each
+ * file and include the License file at LICENSE.txt.
+ * If applicable, add the following below this CDDL HEADER, with the
+ * fields enclosed by brackets "[]" replaced with your own identifying
+ * information: Portions Copyright [yyyy] [name of copyright owner]
+ *
+ * CDDL HEADER END
+ *
+ * Copyright (c) 2014-2015 Nicholas DeMarinis, Matthew Heon, and Dolan Murvihill
+ */
+
+package net.lldp.checksims.algorithm.winnowing;
+
+import net.lldp.checksims.testutil.TokenUtils;
+import net.lldp.checksims.token.TokenList;
+import net.lldp.checksims.util.primitive.KGramIndex;
+import net.lldp.checksims.util.primitive.LongList;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+
+import java.util.Random;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests for winnowed fingerprinting
+ */
+public class WinnowedFingerprintsTest {
+    @Rule
+    public ExpectedException expectedEx = ExpectedException.none();
+
+    /**
+     * Build a character token list from a string.
+     */
+    static TokenList fromString(String content) {
+        return TokenUtils.makeTokenListCharacter(content.chars().mapToObj((c) -> (char)c).toArray(Character[]::new));
+    }
+
+    /**
+     * Generate a random string from the first few lowercase letters.
+     */
+    static String randomString(Random random, int length, int alphabet) {
+        StringBuilder builder = new StringBuilder();
+
+        for(int i = 0; i < length; i++) {
+            builder.append((char)('a' + random.nextInt(alphabet)));
+        }
+
+        return builder.toString();
+    }
+
+    /**
+     * Positions winnowing should select, found by checking every window in full.
+     */
+    private static int[] expectedPositions(TokenList tokens, int k, int w) {
+        int[] lexemes = tokens.stream().mapToInt((token) -> token.getLexeme()).toArray();
+        boolean[] valid = new boolean[lexemes.length];
+        for(int i = 0; i < valid.length; i++) {
+            valid[i] = true;
+        }
+
+        LongList hashes = new LongList();
+        LongList positions = new LongList();
+        KGramIndex.forEachKGram(lexemes, valid, k, (position, hash) -> {
+            hashes.add(hash);
+            positions.add(position);
+        });
+
+        int window = Math.min(w, hashes.size());
+        LongList selected = new LongList();
+        for(int start = 0; start + window <= hashes.size() && window > 0; start++) {
+            int min = start;
+            for(int i = start; i < start + window; i++) {
+                if(hashes.get(i) <= hashes.get(min)) {
+                    min = i;
+                }
+            }
+
+            if(selected.isEmpty() || selected.get(selected.size() - 1) != positions.get(min)) {
+                selected.add(positions.get(min));
+            }
+        }
+
+        int[] expected = new int[selected.size()];
+        for(int i = 0; i < expected.length; i++) {
+            expected[i] = (int)selected.get(i);
+        }
+
+        return expected;
+    }
+
+    private static int[] positionsOf(WinnowedFingerprints fingerprints) {
+        int[] positions = new int[fingerprints.getNumFingerprints()];
+        for(int i = 0; i < positions.length; i++) {
+            positions[i] = fingerprints.getPosition(i);
+        }
+
+        return positions;
+    }
+
+    @Test
+    public void TestZeroKGramLengthThrowsException() {
+        expectedEx.expect(IllegalArgumentException.class);
+
+        WinnowedFingerprints.of(fromString("hello"), 0, 2);
+    }
+
+    @Test
+    public void TestZeroWindowSizeThrowsException() {
+        expectedEx.expect(IllegalArgumentException.class);
+
+        WinnowedFingerprints.of(fromString("hello"), 2, 0);
+    }
+
+    @Test
+    public void TestShorterThanKGramNoFingerprints() {
+        WinnowedFingerprints fingerprints = WinnowedFingerprints.of(fromString("abc"), 4, 2);
+
+        assertEquals(0, fingerprints.getNumFingerprints());
+        assertEquals(0, fingerprints.getDistinctHashes().length);
+    }
+
+    @Test
+    public void TestShorterThanWindowOneFingerprint() {
+        WinnowedFingerprints fingerprints = WinnowedFingerprints.of(fromString("abcdef"), 4, 8);
+
+        assertEquals(1, fingerprints.getNumFingerprints());
+    }
+
+    @Test
+    public void TestSelectsRightmostMinimumOfEachWindow() {
+        Random random = new Random(17);
+
+        for(int trial = 0; trial < 30; trial++) {
+            int k = 1 + random.nextInt(5);
+            int w = 1 + random.nextInt(6);
+            // Small alphabets give repeated k-grams, so ties between equal hashes are exercised
+            TokenList tokens = fromString(randomString(random, 1 + random.nextInt(80), 2 + random.nextInt(3)));
+
+            assertArrayEquals("Trial " + trial, expectedPositions(tokens, k, w),
+                    positionsOf(WinnowedFingerprints.of(tokens, k, w)));
+        }
+    }
+
+    @Test
+    public void TestDistinctHashesSortedAndUnique() {
+        WinnowedFingerprints fingerprints = WinnowedFingerprints.of(fromString(randomString(new Random(2), 300, 2)),
+                3, 4);
+
+        long[] distinct = fingerprints.getDistinctHashes();
+        for(int i = 1; i < distinct.length; i++) {
+            assertTrue(distinct[i - 1] < distinct[i]);
+        }
+    }
+
+    @Test
+    public void TestSharedRunOfGuaranteeLengthSharesFingerprint() {
+        Random random = new Random(23);
+        int k = 5;
+        int w = 4;
+
+        for(int trial = 0; trial < 30; trial++) {
+            String block = randomString(random, k + w - 1, 26);
+            WinnowedFingerprints a = WinnowedFingerprints.of(fromString(randomString(random, 50, 26) + block
+                    + randomString(random, 50, 26)), k, w);
+            WinnowedFingerprints b = WinnowedFingerprints.of(fromString(block + randomString(random, 80, 26)), k, w);
+
+            assertTrue("Trial " + trial, a.sharedHashes(b).length > 0);
+        }
+    }
+
+    @Test
+    public void TestNothingInCommonSharesNothing() {
+        WinnowedFingerprints a = WinnowedFingerprints.of(fromString("abcdefghijklm"), 3, 2);
+        WinnowedFingerprints b = WinnowedFingerprints.of(fromString("nopqrstuvwxyz"), 3, 2);
+
+        assertEquals(0, a.sharedHashes(b).length);
+    }
+
+    @Test
+    public void TestMarkTokensMarksWholeKGram() {
+        TokenList tokens = fromString("abcdef");
+        WinnowedFingerprints fingerprints = WinnowedFingerprints.of(tokens, 3, 10);
+
+        fingerprints.markTokens(fingerprints.getDistinctHashes(), 3, tokens);
+
+        int start = fingerprints.getPosition(0);
+        for(int i = 0; i < tokens.size(); i++) {
+            assertEquals(i >= start && i < start + 3, !tokens.get(i).isValid());
+        }
+    }
+
+    @Test
+    public void TestMarkTokensSkipsUnlistedHashes() {
+        TokenList tokens = fromString("abcdef");
+        WinnowedFingerprints fingerprints = WinnowedFingerprints.of(tokens, 3, 1);
+
+        fingerprints.markTokens(new long[0], 3, tokens);
+
+        assertFalse(tokens.stream().anyMatch((token) -> !token.isValid()));
+    }
+}
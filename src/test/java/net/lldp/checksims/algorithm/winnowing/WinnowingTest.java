@@ -0,0 +1,213 @@
+/*
+ * CDDL HEADER START
+ *
+ * The contents of this file are subject to the terms of the
+ * Common Development and Distribution License (the "License").
+ * You may not use this file except in compliance with the License.
+ *
+ * See LICENSE.txt included in this distribution for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing Covered Code, include this CDDL HEADER in each
+ * file and include the License file at LICENSE.txt.
+ * If applicable, add the following below this CDDL HEADER, with the
+ * fields enclosed by brackets "[]" replaced with your own identifying
+ * information: Portions Copyright [yyyy] [name of copyright owner]
+ *
+ * CDDL HEADER END
+ *
+ * Copyright (c) 2014-2015 Nicholas DeMarinis, Matthew Heon, and Dolan Murvihill
+ */
+
+package net.lldp.checksims.algorithm.winnowing;
+
+import net.lldp.checksims.algorithm.AlgorithmResults;
+import net.lldp.checksims.submission.Submission;
+import net.lldp.checksims.token.TokenTypeMismatchException;
+import org.apache.commons.lang3.tuple.Pair;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import static net.lldp.checksims.testutil.AlgorithmUtils.*;
+import static net.lldp.checksims.testutil.SubmissionUtils.*;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests for the winnowing plagiarism detector
+ */
+public class WinnowingTest {
+    private Submission empty;
+    private Submission typeMismatch;
+    private Submission oneToken;
+    private Submission hello;
+    private Submission world;
+    private Submission quickFox;
+    private Submission lazyFox;
+
+    private Winnowing instance;
+
+    @Rule
+    public ExpectedException expectedEx = ExpectedException.none();
+
+    @Before
+    public void setUp() {
+        instance = Winnowing.getInstance();
+
+        empty = whitespaceSubmissionFromString("Empty", "");
+        typeMismatch = lineSubmissionFromString("Type Mismatch", "hello");
+        oneToken = whitespaceSubmissionFromString("One Token", "hello");
+        hello = charSubmissionFromString("Hello", "hello");
+        world = charSubmissionFromString("World", "world");
+        quickFox = charSubmissionFromString("Quick Fox", "qqqqqqqq the quick brown fox zzzzzzzz");
+        lazyFox = charSubmissionFromString("Lazy Fox", "jumps over the quick brown fox lazy dog");
+    }
+
+    @After
+    public void tearDown() {
+        instance.setKgramLength(Winnowing.DEFAULT_KGRAM_LENGTH);
+        instance.setWindowSize(Winnowing.DEFAULT_WINDOW_SIZE);
+        instance.setMaxFingerprintFrequency(Winnowing.DEFAULT_MAX_FINGERPRINT_FREQUENCY);
+        instance.setMinSharedFingerprints(Winnowing.DEFAULT_MIN_SHARED_FINGERPRINTS);
+    }
+
+    @Test(expected = TokenTypeMismatchException.class)
+    public void TestTokenTypeMismatchThrowsException() throws Exception {
+        instance.detectSimilarity(empty, typeMismatch);
+    }
+
+    @Test
+    public void TestOneEmptyOneNonEmptySubmissionsAreNotSimilar() throws Exception {
+        AlgorithmResults results = instance.detectSimilarity(empty, oneToken);
+
+        checkResultsNoMatch(results, empty, oneToken);
+    }
+
+    @Test
+    public void TestIdenticalNonEmptySubmissionsAreIdentical() throws Exception {
+        AlgorithmResults results = instance.detectSimilarity(oneToken, oneToken);
+
+        checkResultsIdenticalSubmissions(results, oneToken);
+    }
+
+    @Test
+    public void TestDifferentSubmissionsNoMatches() throws Exception {
+        AlgorithmResults results = instance.detectSimilarity(hello, world);
+
+        checkResultsNoMatch(results, hello, world);
+    }
+
+    @Test
+    public void TestCopiedBlockMatchedOnlyWithinBlock() throws Exception {
+        AlgorithmResults results = instance.detectSimilarity(quickFox, lazyFox);
+
+        assertTrue(results.identicalTokensA > 0);
+        assertTrue(results.identicalTokensB > 0);
+
+        // " the quick brown fox " is at 8 in A and 10 in B
+        for(int i = 0; i < quickFox.getNumTokens(); i++) {
+            assertTrue(results.finalListA.get(i).isValid() || (i >= 8 && i < 29));
+        }
+        for(int i = 0; i < lazyFox.getNumTokens(); i++) {
+            assertTrue(results.finalListB.get(i).isValid() || (i >= 10 && i < 31));
+        }
+    }
+
+    @Test
+    public void TestKgramLongerThanCopyNoMatches() throws Exception {
+        instance.setKgramLength(40);
+
+        AlgorithmResults results = instance.detectSimilarity(quickFox, lazyFox);
+
+        checkResultsNoMatch(results, quickFox, lazyFox);
+    }
+
+    @Test
+    public void TestAllPairsAtOnceSameAsEachPair() throws Exception {
+        Set<Pair<Submission, Submission>> pairs = setFromElements(Pair.of(quickFox, lazyFox), Pair.of(hello, world),
+                Pair.of(lazyFox, hello), Pair.of(oneToken, oneToken));
+
+        Set<AlgorithmResults> expected = new HashSet<>();
+        for(Pair<Submission, Submission> pair : pairs) {
+            expected.add(instance.detectSimilarity(pair.getLeft(), pair.getRight()));
+        }
+
+        assertEquals(expected, instance.detectSimilarityAll(pairs));
+    }
+
+    @Test
+    public void TestCorpusSameAsEachPair() throws Exception {
+        Set<AlgorithmResults> results = instance.detectSimilarity(setFromElements(quickFox, lazyFox, hello),
+                setFromElements(world), 0.0);
+
+        assertEquals(6, results.size());
+        for(AlgorithmResults result : results) {
+            assertEquals(instance.detectSimilarity(result.a, result.b), result);
+        }
+    }
+
+    @Test
+    public void TestAllPairsTokenTypeMismatchThrowsException() throws Exception {
+        expectedEx.expect(TokenTypeMismatchException.class);
+
+        instance.detectSimilarityAll(setFromElements(Pair.of(hello, world), Pair.of(empty, typeMismatch)));
+    }
+
+    @Test
+    public void TestSetKgramLengthZeroThrowsException() {
+        expectedEx.expect(IllegalArgumentException.class);
+
+        instance.setKgramLength(0);
+    }
+
+    @Test
+    public void TestSetWindowSizeZeroThrowsException() {
+        expectedEx.expect(IllegalArgumentException.class);
+
+        instance.setWindowSize(0);
+    }
+
+    @Test
+    public void TestFingerprintsHeldByWholeCorpusIgnored() throws Exception {
+        Submission third = charSubmissionFromString("Third Fox", "11111111 the quick brown fox 22222222");
+        Submission fourth = charSubmissionFromString("Fourth Fox", "33333333 the quick brown fox 44444444");
+        instance.setMaxFingerprintFrequency(0.5);
+
+        Set<AlgorithmResults> results = instance.detectSimilarity(setFromElements(quickFox, lazyFox, third, fourth),
+                new HashSet<>(), 0.0);
+
+        assertEquals(6, results.size());
+        for(AlgorithmResults result : results) {
+            checkResultsNoMatch(result, result.a, result.b);
+        }
+    }
+
+    @Test
+    public void TestPairSharingTooFewFingerprintsNotMatched() throws Exception {
+        instance.setMinSharedFingerprints(1000);
+
+        AlgorithmResults results = instance.detectSimilarity(quickFox, lazyFox);
+
+        checkResultsNoMatch(results, quickFox, lazyFox);
+    }
+
+    @Test
+    public void TestSetMaxFingerprintFrequencyZeroThrowsException() {
+        expectedEx.expect(IllegalArgumentException.class);
+
+        instance.setMaxFingerprintFrequency(0.0);
+    }
+
+    @Test
+    public void TestSetMinSharedFingerprintsZeroThrowsException() {
+        expectedEx.expect(IllegalArgumentException.class);
+
+        instance.setMinSharedFingerprints(0);
+    }
+}
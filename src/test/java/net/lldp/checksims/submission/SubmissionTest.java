@@ -23,6 +23,7 @@ package net.lldp.checksims.submission;
 
 import net.lldp.checksims.token.Token;
 import net.lldp.checksims.token.TokenList;
+import net.lldp.checksims.token.TokenType;
 import org.junit.Assert;
 import org.junit.Before;
 import org.junit.Test;
@@ -90,6 +91,117 @@ public class SubmissionTest {
         assertNotEquals(aInvalEnforcing, a);
         assertNotEquals(aInvalEnforcing, aInval);
     }
+
+    @Test
+    public void TestDecoratorsShareFingerprintOfWrappedSubmission() {
+        assertEquals(a.getFingerprint(), new ValidityIgnoringSubmission(a).getFingerprint());
+        assertEquals(a.getFingerprint(), new ValidityEnsuringSubmission(a).getFingerprint());
+    }
+
+    @Test
+    public void TestDefaultFingerprintMatchesConcreteSubmission() {
+        Submission outside = new Submission() {
+            @Override
+            public TokenList getContentAsTokens() {
+                return abc.getContentAsTokens();
+            }
+
+            @Override
+            public String getContentAsString() {
+                return abc.getContentAsString();
+            }
+
+            @Override
+            public String getName() {
+                return abc.getName();
+            }
+
+            @Override
+            public int getNumTokens() {
+                return abc.getNumTokens();
+            }
+
+            @Override
+            public TokenType getTokenType() {
+                return abc.getTokenType();
+            }
+
+            @Override
+            public int compareTo(Submission other) {
+                return abc.compareTo(other);
+            }
+        };
+
+        assertEquals(abc.getFingerprint(), outside.getFingerprint());
+    }
+
+    @Test
+    public void TestDecoratorFingerprintTakenOnceFromWrappedSubmission() {
+        int[] calls = new int[1];
+        Submission counting = new Submission() {
+            @Override
+            public TokenList getContentAsTokens() {
+                return abc.getContentAsTokens();
+            }
+
+            @Override
+            public String getContentAsString() {
+                return abc.getContentAsString();
+            }
+
+            @Override
+            public String getName() {
+                return abc.getName();
+            }
+
+            @Override
+            public int getNumTokens() {
+                return abc.getNumTokens();
+            }
+
+            @Override
+            public TokenType getTokenType() {
+                return abc.getTokenType();
+            }
+
+            @Override
+            public long getFingerprint() {
+                calls[0]++;
+                return abc.getFingerprint();
+            }
+
+            @Override
+            public int compareTo(Submission other) {
+                return abc.compareTo(other);
+            }
+        };
+
+        Submission decorated = new ValidityEnsuringSubmission(counting);
+        decorated.getFingerprint();
+        decorated.getFingerprint();
+
+        assertEquals(abc.getFingerprint(), decorated.getFingerprint());
+        assertEquals(1, calls[0]);
+    }
+
+    @Test
+    public void TestEqualSubmissionsHaveSameFingerprint() {
+        assertEquals(a.getFingerprint(), aTwo.getFingerprint());
+        assertEquals(a.getFingerprint(), aInval.getFingerprint());
+    }
+
+    @Test
+    public void TestFingerprintDependsOnNameAndContent() {
+        Submission renamed = charSubmissionFromString("b", "a");
+        Submission changed = charSubmissionFromString("a", "b");
+        Submission moved = charSubmissionFromString("ab", "c");
+        Submission movedBack = charSubmissionFromString("a", "bc");
+
+        assertNotEquals(a.getFingerprint(), renamed.getFingerprint());
+        assertNotEquals(a.getFingerprint(), changed.getFingerprint());
+        assertNotEquals(moved.getFingerprint(), movedBack.getFingerprint());
+        assertNotEquals(a, changed);
+    }
     @Test(expected=UnsupportedOperationException.class)
     public void testTokenListIsImmutable() {
         Submission s1 = charSubmissionFromString("s1", "testtest");
@@ -204,6 +204,13 @@ public class TokenListTest {
         immutableClone.add(new ConcreteToken('E', TokenType.CHARACTER));
     }
 
+    @Test
+    public void TestImmutableCopyOfImmutableListIsSameList() {
+        TokenList immutableClone = TokenList.immutableCopy(threeElementsCharacter);
+
+        assertSame(immutableClone, TokenList.immutableCopy(immutableClone));
+    }
+
     @Test
     public void TestJoinEmptyList() {
         String joined = emptyCharacter.join(false);
@@ -0,0 +1,170 @@
+/*
+ * CDDL HEADER START
+ *
+ * The contents of this file are subject to the terms of the
+ * Common Development and Distribution License (the "License").
+ * You may not use this file except in compliance with the License.
+ *
+ * See LICENSE.txt included in this distribution for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing Covered Code, include this CDDL HEADER in each
+ * file and include the License file at LICENSE.txt.
+ * If applicable, add the following below this CDDL HEADER, with the
+ * fields enclosed by brackets "[]" replaced with your own identifying
+ * information: Portions Copyright [yyyy] [name of copyright owner]
+ *
+ * CDDL HEADER END
+ *
+ * Copyright (c) 2014-2015 Nicholas DeMarinis, Matthew Heon, and Dolan Murvihill
+ */
+
+package net.lldp.checksims.util.primitive;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests for the k-gram index used to find seeds
+ */
+public class KGramIndexTest {
+    @Rule
+    public ExpectedException expectedEx = ExpectedException.none();
+
+    private static boolean[] allValid(int length) {
+        boolean[] valid = new boolean[length];
+        Arrays.fill(valid, true);
+        return valid;
+    }
+
+    /**
+     * @return Every position with the given hash, in the order the index gives them
+     */
+    private static List<Integer> positionsOf(KGramIndex index, long hash) {
+        List<Integer> positions = new ArrayList<>();
+
+        for(int position = index.getFirst(hash); position != -1; position = index.getNext(position)) {
+            positions.add(position);
+        }
+
+        return positions;
+    }
+
+    /**
+     * @return Hash of every k-gram, indexed by position - 0 where there is no k-gram
+     */
+    private static long[] hashesOf(int[] lexemes, boolean[] valid, int k) {
+        long[] hashes = new long[lexemes.length];
+
+        KGramIndex.forEachKGram(lexemes, valid, k, (position, hash) -> hashes[position] = hash);
+
+        return hashes;
+    }
+
+    @Test
+    public void TestConstructorNullLexemesThrowsException() {
+        expectedEx.expect(NullPointerException.class);
+
+        new KGramIndex(null, new boolean[0], 1);
+    }
+
+    @Test
+    public void TestConstructorMismatchedValidityThrowsException() {
+        expectedEx.expect(IllegalArgumentException.class);
+
+        new KGramIndex(new int[3], new boolean[2], 1);
+    }
+
+    @Test
+    public void TestConstructorZeroKThrowsException() {
+        expectedEx.expect(IllegalArgumentException.class);
+
+        new KGramIndex(new int[3], new boolean[3], 0);
+    }
+
+    @Test
+    public void TestEqualKGramsHashEqual() {
+        int[] lexemes = {1, 2, 3, 9, 1, 2, 3};
+        long[] hashes = hashesOf(lexemes, allValid(lexemes.length), 3);
+
+        assertEquals(hashes[0], hashes[4]);
+        assertFalse(hashes[0] == hashes[1]);
+    }
+
+    @Test
+    public void TestKGramsOverInvalidTokensSkipped() {
+        int[] lexemes = {1, 2, 3, 4, 5, 6};
+        boolean[] valid = allValid(lexemes.length);
+        valid[2] = false;
+
+        List<Integer> positions = new ArrayList<>();
+        KGramIndex.forEachKGram(lexemes, valid, 2, (position, hash) -> positions.add(position));
+
+        assertEquals(Arrays.asList(0, 3, 4), positions);
+    }
+
+    @Test
+    public void TestListShorterThanKHasNoKGrams() {
+        int[] lexemes = {1, 2};
+
+        KGramIndex.forEachKGram(lexemes, allValid(2), 3, (position, hash) -> {
+            throw new AssertionError("Found k-gram at " + position);
+        });
+    }
+
+    @Test
+    public void TestPositionsListedInAscendingOrder() {
+        int[] lexemes = {7, 7, 1, 7, 7, 2, 7, 7};
+        long[] hashes = hashesOf(lexemes, allValid(lexemes.length), 2);
+        KGramIndex index = new KGramIndex(lexemes, allValid(lexemes.length), 2);
+
+        assertEquals(Arrays.asList(0, 3, 6), positionsOf(index, hashes[0]));
+        assertEquals(3, index.getCount(hashes[0]));
+    }
+
+    @Test
+    public void TestMissingHashHasNoPositions() {
+        int[] lexemes = {1, 2, 3, 4};
+        KGramIndex index = new KGramIndex(lexemes, allValid(lexemes.length), 2);
+
+        long missing = hashesOf(new int[] {4, 3}, allValid(2), 2)[0];
+
+        assertEquals(-1, index.getFirst(missing));
+        assertEquals(0, index.getCount(missing));
+    }
+
+    @Test
+    public void TestMatchesComparesLexemes() {
+        int[] lexemes = {1, 2, 3, 4};
+        int[] other = {9, 2, 3, 5};
+        KGramIndex index = new KGramIndex(lexemes, allValid(lexemes.length), 2);
+
+        assertTrue(index.matches(1, other, 1));
+        assertFalse(index.matches(2, other, 2));
+    }
+
+    @Test
+    public void TestEveryKGramOfLargeListFound() {
+        int[] lexemes = new int[5000];
+        for(int i = 0; i < lexemes.length; i++) {
+            lexemes[i] = i * 31 % 997;
+        }
+
+        boolean[] valid = allValid(lexemes.length);
+        long[] hashes = hashesOf(lexemes, valid, 4);
+        KGramIndex index = new KGramIndex(lexemes, valid, 4);
+
+        for(int i = 0; i + 4 <= lexemes.length; i++) {
+            assertTrue("K-gram at " + i + " not found", positionsOf(index, hashes[i]).contains(i));
+        }
+    }
+}
@@ -0,0 +1,107 @@
+/*
+ * CDDL HEADER START
+ *
+ * The contents of this file are subject to the terms of the
+ * Common Development and Distribution License (the "License").
+ * You may not use this file except in compliance with the License.
+ *
+ * See LICENSE.txt included in this distribution for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing Covered Code, include this CDDL HEADER in each
+ * file and include the License file at LICENSE.txt.
+ * If applicable, add the following below this CDDL HEADER, with the
+ * fields enclosed by brackets "[]" replaced with your own identifying
+ * information: Portions Copyright [yyyy] [name of copyright owner]
+ *
+ * CDDL HEADER END
+ *
+ * Copyright (c) 2014-2015 Nicholas DeMarinis, Matthew Heon, and Dolan Murvihill
+ */
+
+package net.lldp.checksims.util.primitive;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests for the primitive long list
+ */
+public class LongListTest {
+    private LongList list;
+
+    @Rule
+    public ExpectedException expectedEx = ExpectedException.none();
+
+    @Before
+    public void setUp() {
+        list = new LongList(2);
+    }
+
+    @Test
+    public void TestNegativeCapacityThrowsException() {
+        expectedEx.expect(IllegalArgumentException.class);
+
+        new LongList(-1);
+    }
+
+    @Test
+    public void TestNewListIsEmpty() {
+        assertTrue(list.isEmpty());
+        assertEquals(0, list.size());
+        assertEquals(0, new LongList(0).size());
+    }
+
+    @Test
+    public void TestAddGrowsPastCapacity() {
+        for(long i = 0; i < 100; i++) {
+            list.add(i * 3);
+        }
+
+        assertFalse(list.isEmpty());
+        assertEquals(100, list.size());
+        assertEquals(297L, list.get(99));
+    }
+
+    @Test
+    public void TestGetOutOfBoundsThrowsException() {
+        list.add(1L);
+
+        expectedEx.expect(IndexOutOfBoundsException.class);
+
+        list.get(1);
+    }
+
+    @Test
+    public void TestClearEmptiesList() {
+        list.add(1L);
+        list.add(2L);
+
+        list.clear();
+
+        assertTrue(list.isEmpty());
+
+        list.add(5L);
+
+        assertEquals(5L, list.get(0));
+    }
+
+    @Test
+    public void TestSortAndToArray() {
+        list.add(5L);
+        list.add(-2L);
+        list.add(Long.MAX_VALUE);
+        list.add(0L);
+
+        list.sort();
+
+        assertArrayEquals(new long[] {-2L, 0L, 5L, Long.MAX_VALUE}, list.toArray());
+    }
+}